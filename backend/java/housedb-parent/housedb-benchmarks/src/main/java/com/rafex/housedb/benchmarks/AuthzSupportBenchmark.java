@@ -0,0 +1,84 @@
+package com.rafex.housedb.benchmarks;
+
+import com.rafex.housedb.handlers.AuthzSupport;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.rafex.ether.http.jetty12.JettyAuthHandler;
+import dev.rafex.ether.jwt.TokenClaims;
+
+/**
+ * Per-request authorization checks against the claims the auth handler leaves on the request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthzSupportBenchmark {
+
+    private Request userRequest;
+    private Request adminRequest;
+    private Request appRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var jwt = BenchmarkFixtures.jwtService();
+        final long now = Instant.now().getEpochSecond();
+        final var subject = BenchmarkFixtures.USER_ID.toString();
+
+        userRequest = requestWith(jwt.verify(jwt.mintAccess(subject, List.of("USER"), 3600).token(), now)
+                .claims().orElseThrow());
+        adminRequest = requestWith(jwt.verify(jwt.mintAccess(subject, List.of("USER", "ADMIN"), 3600).token(), now)
+                .claims().orElseThrow());
+        appRequest = requestWith(jwt.verify(jwt.mintAppAccess("app:bench", "bench", List.of("APP"), 3600).token(),
+                now).claims().orElseThrow());
+    }
+
+    @Benchmark
+    public UUID requireTokenUser() {
+        return AuthzSupport.requireTokenUser(userRequest);
+    }
+
+    @Benchmark
+    public UUID requireAuthorizedUserSelf() {
+        return AuthzSupport.requireAuthorizedUser(userRequest, BenchmarkFixtures.USER_ID);
+    }
+
+    @Benchmark
+    public UUID requireAuthorizedUserApp() {
+        return AuthzSupport.requireAuthorizedUser(appRequest, BenchmarkFixtures.USER_ID);
+    }
+
+    @Benchmark
+    public void requireAppOrAdmin() {
+        AuthzSupport.requireAppOrAdmin(adminRequest);
+    }
+
+    private static Request requestWith(final TokenClaims claims) {
+        // Only the auth attribute is read by AuthzSupport; everything else would fail on the null delegate.
+        return new Request.Wrapper(null) {
+            @Override
+            public Object getAttribute(final String name) {
+                return JettyAuthHandler.REQ_ATTR_AUTH.equals(name) ? claims : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.rafex.housedb.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import dev.rafex.ether.json.JsonCodec;
+import dev.rafex.ether.json.JsonCodecBuilder;
+
+/**
+ * Compares two JMH JSON result files ({@code -rf json}) benchmark by benchmark and exits with status 1 when any
+ * score is worse than the baseline by more than the tolerance and the difference is outside the measurement noise,
+ * i.e. the two 99.9% confidence intervals JMH reports as {@code scoreError} do not overlap. Changes above the
+ * tolerance whose intervals overlap are reported as {@code NOISY} and do not fail the comparison.
+ *
+ * <pre>
+ * java -cp housedb-benchmarks-*-jar-with-dependencies.jar com.rafex.housedb.benchmarks.BaselineCompare \
+ *     baseline/jmh-baseline.json target/jmh-result.json [tolerancePercent]
+ * </pre>
+ *
+ * Benchmarks present in only one file are listed but never fail the comparison, so suites can be added before
+ * the baseline is refreshed.
+ */
+public final class BaselineCompare {
+
+    private static final double DEFAULT_TOLERANCE_PERCENT = 10.0;
+
+    private BaselineCompare() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineCompare <baseline.json> <current.json> [tolerancePercent]");
+            System.exit(2);
+        }
+        final double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE_PERCENT;
+        if (!Files.isRegularFile(Path.of(args[0]))) {
+            System.err.println("no baseline at " + args[0] + "; record one with 'make bench-baseline'");
+            System.exit(2);
+        }
+
+        final var jsonCodec = JsonCodecBuilder.create().build();
+        final var baseline = load(jsonCodec, Path.of(args[0]));
+        final var current = load(jsonCodec, Path.of(args[1]));
+
+        int regressions = 0;
+        for (final var entry : current.entrySet()) {
+            final var now = entry.getValue();
+            final var before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "NEW         %-90s %12.3f %s%n", entry.getKey(), now.score(),
+                        now.unit());
+                continue;
+            }
+            final double change = (now.score() - before.score()) / before.score() * 100.0;
+            // Lower is better for time modes, higher is better for throughput.
+            final double worse = now.higherIsBetter() ? -change : change;
+            final boolean separated = now.higherIsBetter() ? now.high() < before.low() : now.low() > before.high();
+            final String status;
+            if (worse <= tolerance) {
+                status = "ok";
+            } else if (separated) {
+                status = "REGRESSION";
+                regressions++;
+            } else {
+                status = "NOISY";
+            }
+            System.out.printf(Locale.ROOT, "%-11s %-90s %12.3f +- %-10.3f -> %12.3f +- %-10.3f %s (%+.1f%%)%n", status,
+                    entry.getKey(), before.score(), before.error(), now.score(), now.error(), now.unit(), change);
+        }
+        for (final var key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf(Locale.ROOT, "MISSING     %s%n", key);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf(Locale.ROOT, "%d benchmark(s) regressed by more than %.1f%% beyond their error%n",
+                    regressions, tolerance);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> load(final JsonCodec jsonCodec, final Path file) throws IOException {
+        final JsonNode root = jsonCodec.readTree(Files.readString(file));
+        final Map<String, Score> scores = new TreeMap<>();
+        for (final JsonNode run : root) {
+            final var metric = run.path("primaryMetric");
+            final var mode = run.path("mode").asText();
+            // scoreError is NaN (or absent) with a single measurement iteration; treat it as exact.
+            final double error = metric.path("scoreError").asDouble(0.0);
+            scores.put(key(run), new Score(metric.path("score").asDouble(), Double.isFinite(error) ? error : 0.0,
+                    metric.path("scoreUnit").asText(), "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    private static String key(final JsonNode run) {
+        final var params = new LinkedHashMap<String, String>();
+        for (final var field : run.path("params").properties()) {
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        final var name = run.path("benchmark").asText() + " [" + run.path("mode").asText() + "]";
+        return params.isEmpty() ? name : name + " " + params;
+    }
+
+    private record Score(double score, double error, String unit, boolean higherIsBetter) {
+
+        double low() {
+            return score - error;
+        }
+
+        double high() {
+            return score + error;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.rafex.housedb.benchmarks;
+
+import com.rafex.housedb.repository.models.HouseItemEntity;
+import com.rafex.housedb.repository.models.InventoryExportRowEntity;
+import com.rafex.housedb.security.JwtService;
+import com.rafex.housedb.service.models.HouseItem;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic test data shared by the suites. Sizes and string lengths follow what the inventory endpoints
+ * return in practice (page sizes 10/50/200, short names, three-level location paths).
+ */
+public final class BenchmarkFixtures {
+
+    public static final UUID USER_ID = UUID.fromString("7f3c2a9e-5b1d-4c8e-9a6f-0d2e4b7c1a35");
+    public static final UUID HOUSE_ID = UUID.fromString("1b4e6d8a-2c3f-4a5b-8d7e-9f0a1b2c3d4e");
+
+    private static final String JWT_SECRET = "benchmark-secret-benchmark-secret-0123456789";
+    private static final Instant UPDATED_AT = Instant.parse("2026-01-15T10:15:30Z");
+
+    private BenchmarkFixtures() {
+    }
+
+    public static JwtService jwtService() {
+        return new JwtService("com.rafex.housedb", "housedb-backend", JWT_SECRET);
+    }
+
+    public static List<HouseItemEntity> houseItemEntities(final int count) {
+        final var random = new Random(count);
+        final var items = new ArrayList<HouseItemEntity>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new HouseItemEntity(uuid(random), uuid(random), uuid(random), "Object " + i,
+                    "Description of object " + i, category(i), i % 3 == 0 ? null : "nick-" + i, HOUSE_ID,
+                    "Casa principal", uuid(random), "Casa principal/Cocina/Alacena " + (i % 7), random.nextFloat(),
+                    UPDATED_AT));
+        }
+        return items;
+    }
+
+    public static List<HouseItem> houseItems(final int count) {
+        return houseItemEntities(count).stream()
+                .map(source -> new HouseItem(source.inventoryItemId(), source.objectId(), source.objectKiwiId(),
+                        source.objectName(), source.objectDescription(), source.objectCategory(), source.nickname(),
+                        source.houseId(), source.houseName(), source.houseLocationLeafId(),
+                        source.houseLocationPath(), source.rank()))
+                .toList();
+    }
+
+    public static List<InventoryExportRowEntity> exportRowEntities(final int count) {
+        final var random = new Random(count);
+        final var rows = new ArrayList<InventoryExportRowEntity>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new InventoryExportRowEntity(uuid(random), uuid(random), uuid(random), "Object " + i,
+                    category(i), "nick-" + i, "SN-" + (100000 + i), "good", "{\"color\":\"blue\",\"size\":" + i + "}",
+                    HOUSE_ID, "Casa principal", uuid(random), "Casa principal/Cocina/Alacena " + (i % 7),
+                    UPDATED_AT));
+        }
+        return rows;
+    }
+
+    private static String category(final int i) {
+        return switch (i % 4) {
+        case 0 -> "tools";
+        case 1 -> "kitchen";
+        case 2 -> "electronics";
+        default -> "books";
+        };
+    }
+
+    private static UUID uuid(final Random random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+}
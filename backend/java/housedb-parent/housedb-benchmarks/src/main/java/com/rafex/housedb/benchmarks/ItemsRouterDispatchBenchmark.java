@@ -0,0 +1,127 @@
+package com.rafex.housedb.benchmarks;
+
+import com.rafex.housedb.handlers.items.ItemsRouterHandler;
+import com.rafex.housedb.kiwi.KiwiApiClient;
+import com.rafex.housedb.kiwi.KiwiObjectCache;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.rafex.ether.http.jetty12.JettyAuthHandler;
+import dev.rafex.ether.json.JsonCodecBuilder;
+
+/**
+ * Full in-process request through {@link ItemsRouterHandler}: HTTP parsing on a Jetty {@link LocalConnector}, route
+ * matching, query parsing, authorization, pagination and JSON writing, with a canned service behind it. No socket
+ * and no database are involved, so regressions here are transport regressions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemsRouterDispatchBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final String LIST_REQUEST = request("/items?limit=50");
+    private static final String SEARCH_REQUEST = request("/items/search?q=object&limit=50");
+    private static final String TIMELINE_REQUEST = request(
+            "/items/3f2a9c1e-7b4d-4e8a-9c6f-1d2e3f4a5b6c/timeline?limit=20");
+    private static final String UNMATCHED_REQUEST = request("/items/3f2a9c1e-7b4d-4e8a-9c6f-1d2e3f4a5b6c/unknown");
+
+    private Server server;
+    private LocalConnector connector;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        final var jsonCodec = JsonCodecBuilder.create().build();
+        final var jwt = BenchmarkFixtures.jwtService();
+        final var claims = jwt.verify(jwt.mintAccess(BenchmarkFixtures.USER_ID.toString(), List.of("USER"), 3600)
+                .token(), Instant.now().getEpochSecond()).claims().orElseThrow();
+
+        final var kiwiApiClient = new KiwiApiClient(jsonCodec);
+        // Item creation and detail are not benchmarked here, so no outbox dispatcher is needed.
+        final var router = new ItemsRouterHandler(jsonCodec, new StubItemFinderService(PAGE_SIZE), kiwiApiClient,
+                KiwiObjectCache.fromEnv(kiwiApiClient), null);
+
+        // Stands in for JettyAuthHandler so token verification (measured separately) stays out of the numbers.
+        final Handler authenticated = new Handler.Wrapper(router) {
+            @Override
+            public boolean handle(final Request request, final Response response, final Callback callback)
+                    throws Exception {
+                request.setAttribute(JettyAuthHandler.REQ_ATTR_AUTH, claims);
+                return super.handle(request, response, callback);
+            }
+        };
+
+        server = new Server();
+        connector = new LocalConnector(server);
+        server.addConnector(connector);
+        server.setHandler(authenticated);
+        server.start();
+
+        expectStatus(LIST_REQUEST, "200");
+        expectStatus(SEARCH_REQUEST, "200");
+        expectStatus(TIMELINE_REQUEST, "200");
+        expectStatus(UNMATCHED_REQUEST, "4");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        server.stop();
+    }
+
+    @Benchmark
+    public String listItems() throws Exception {
+        return connector.getResponse(LIST_REQUEST);
+    }
+
+    @Benchmark
+    public String searchItems() throws Exception {
+        return connector.getResponse(SEARCH_REQUEST);
+    }
+
+    @Benchmark
+    public String itemTimeline() throws Exception {
+        return connector.getResponse(TIMELINE_REQUEST);
+    }
+
+    @Benchmark
+    public String unmatchedRoute() throws Exception {
+        return connector.getResponse(UNMATCHED_REQUEST);
+    }
+
+    private void expectStatus(final String rawRequest, final String statusPrefix) throws Exception {
+        final var response = connector.getResponse(rawRequest);
+        if (response == null || !response.startsWith("HTTP/1.1 " + statusPrefix)) {
+            throw new IllegalStateException("unexpected response for " + rawRequest.lines().findFirst().orElse("")
+                    + ": " + response);
+        }
+    }
+
+    private static String request(final String pathAndQuery) {
+        return "GET " + pathAndQuery + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+    }
+}
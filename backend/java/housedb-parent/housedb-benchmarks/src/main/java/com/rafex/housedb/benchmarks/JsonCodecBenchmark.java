@@ -0,0 +1,60 @@
+package com.rafex.housedb.benchmarks;
+
+import com.rafex.housedb.handlers.support.PaginationSupport;
+import com.rafex.housedb.service.models.HouseItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.rafex.ether.json.JsonCodec;
+import dev.rafex.ether.json.JsonCodecBuilder;
+
+/**
+ * Serialization of {@code HouseItem} pages, both the bare list and the paginated envelope the item endpoints
+ * actually write.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonCodecBenchmark {
+
+    @Param({ "10", "50", "200" })
+    public int size;
+
+    private final JsonCodec jsonCodec = JsonCodecBuilder.create().build();
+    private List<HouseItem> items;
+    private Map<String, Object> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = BenchmarkFixtures.houseItems(size);
+        page = PaginationSupport.response("items", items, PaginationSupport.request(size, 0, null, 50, 200));
+    }
+
+    @Benchmark
+    public String houseItemList() {
+        return jsonCodec.toJson(items);
+    }
+
+    @Benchmark
+    public String paginatedResponse() {
+        return jsonCodec.toJson(page);
+    }
+}
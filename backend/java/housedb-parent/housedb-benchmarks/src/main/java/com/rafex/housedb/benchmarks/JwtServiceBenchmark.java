@@ -0,0 +1,66 @@
+package com.rafex.housedb.benchmarks;
+
+import com.rafex.housedb.security.JwtService;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.rafex.ether.jwt.VerificationResult;
+
+/**
+ * Verify runs on every authenticated request; mint on login, refresh and app token exchange.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final List<String> ROLES = List.of("USER", "ADMIN");
+
+    private JwtService jwt;
+    private String subject;
+    private String accessToken;
+    private String tamperedToken;
+    private long nowEpochSeconds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwt = BenchmarkFixtures.jwtService();
+        subject = BenchmarkFixtures.USER_ID.toString();
+        accessToken = jwt.mintAccess(subject, ROLES, 3600).token();
+        final var lastChar = accessToken.charAt(accessToken.length() - 1);
+        tamperedToken = accessToken.substring(0, accessToken.length() - 1) + (lastChar == 'A' ? 'B' : 'A');
+        nowEpochSeconds = Instant.now().getEpochSecond();
+    }
+
+    @Benchmark
+    public String mintAccess() {
+        return jwt.mintAccess(subject, ROLES, 3600).token();
+    }
+
+    @Benchmark
+    public VerificationResult verifyValid() {
+        return jwt.verify(accessToken, nowEpochSeconds);
+    }
+
+    @Benchmark
+    public VerificationResult verifyBadSignature() {
+        return jwt.verify(tamperedToken, nowEpochSeconds);
+    }
+}
@@ -0,0 +1,186 @@
+package com.rafex.housedb.benchmarks;
+
+import com.rafex.housedb.service.models.CursorPage;
+import com.rafex.housedb.service.models.FavoriteState;
+import com.rafex.housedb.service.models.HouseItem;
+import com.rafex.housedb.service.models.InventoryCreateResult;
+import com.rafex.housedb.service.models.InventoryExportRow;
+import com.rafex.housedb.service.models.InventoryImportResult;
+import com.rafex.housedb.service.models.InventoryItemDetail;
+import com.rafex.housedb.service.models.InventoryMap;
+import com.rafex.housedb.service.models.InventoryTimelineEvent;
+import com.rafex.housedb.service.models.ItemMove;
+import com.rafex.housedb.service.models.ItemMovement;
+import com.rafex.housedb.service.models.LocationInventoryItem;
+import com.rafex.housedb.service.models.NearbyInventoryItem;
+import com.rafex.housedb.services.ItemFinderService;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Returns canned item pages so router benchmarks measure transport work only. Routes that are not benchmarked
+ * fail loudly instead of returning something misleading.
+ */
+final class StubItemFinderService implements ItemFinderService {
+
+    private final List<HouseItem> items;
+    private final CursorPage<HouseItem> page;
+
+    StubItemFinderService(final int pageSize) {
+        this.items = BenchmarkFixtures.houseItems(pageSize);
+        this.page = new CursorPage<>(items, true, "bmV4dA");
+    }
+
+    @Override
+    public List<HouseItem> listOwnedInventoryItems(final UUID userId, final Integer limit, final Integer offset) {
+        return items;
+    }
+
+    @Override
+    public List<HouseItem> searchInventoryItems(final UUID userId, final String text, final UUID houseId,
+            final UUID houseLocationLeafId, final Integer limit, final Integer offset) {
+        return items;
+    }
+
+    @Override
+    public CursorPage<HouseItem> listOwnedInventoryItemsPage(final UUID userId, final Integer limit,
+            final String cursor) {
+        return page;
+    }
+
+    @Override
+    public CursorPage<HouseItem> searchInventoryItemsPage(final UUID userId, final String text, final UUID houseId,
+            final UUID houseLocationLeafId, final Integer limit, final String cursor) {
+        return page;
+    }
+
+    @Override
+    public List<InventoryTimelineEvent> inventoryItemTimeline(final UUID inventoryItemId, final Integer limit,
+            final Integer offset) {
+        return List.of();
+    }
+
+    @Override
+    public CursorPage<InventoryTimelineEvent> inventoryItemTimelinePage(final UUID inventoryItemId,
+            final Integer limit, final String cursor) {
+        return new CursorPage<>(List.of(), false, null);
+    }
+
+    @Override
+    public ItemMovement moveInventoryItem(final UUID inventoryItemId, final UUID toHouseLocationLeafId,
+            final String movedBy, final String movementReason, final String notes) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<ItemMovement> moveInventoryItems(final List<ItemMove> moves) {
+        throw unsupported();
+    }
+
+    @Override
+    public InventoryCreateResult createInventoryItem(final UUID userId, final UUID objectId, final String nickname,
+            final String serialNumber, final String conditionStatus, final String metadataJson,
+            final UUID houseLocationLeafId, final String movedBy, final String notes) {
+        throw unsupported();
+    }
+
+    @Override
+    public InventoryCreateResult createInventoryItemPendingKiwi(final UUID userId, final UUID objectId,
+            final String objectName, final String objectDescription, final String objectCategory,
+            final String nickname, final String serialNumber, final String conditionStatus, final String metadataJson,
+            final UUID houseLocationLeafId, final String movedBy, final String notes, final String kiwiPayloadJson) {
+        throw unsupported();
+    }
+
+    @Override
+    public InventoryImportResult importInventoryItems(final UUID userId, final String format,
+            final InputStream input, final String movedBy, final Boolean skipInvalid) {
+        throw unsupported();
+    }
+
+    @Override
+    public long exportInventoryItems(final UUID userId, final UUID houseId,
+            final Consumer<InventoryExportRow> consumer) {
+        throw unsupported();
+    }
+
+    @Override
+    public UUID upsertHouseLocationFromKiwi(final UUID houseId, final UUID kiwiLocationId,
+            final UUID kiwiParentLocationId, final UUID parentHouseLocationId, final String locationKind,
+            final String name, final Boolean isLeaf, final String path, final String referenceCode,
+            final String notes, final Double latitude, final Double longitude, final Boolean enabled) {
+        throw unsupported();
+    }
+
+    @Override
+    public UUID createHouseLocationPendingKiwi(final UUID houseId, final UUID parentHouseLocationId,
+            final String locationKind, final String name, final Boolean isLeaf, final String path,
+            final String referenceCode, final String notes, final Double latitude, final Double longitude,
+            final Boolean enabled) {
+        throw unsupported();
+    }
+
+    @Override
+    public UUID findKiwiLocationIdByHouseLocationId(final UUID houseLocationId) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isKiwiLocationLinkedOrPending(final UUID houseLocationId) {
+        throw unsupported();
+    }
+
+    @Override
+    public UUID findRootKiwiLocationIdByHouseId(final UUID houseId) {
+        throw unsupported();
+    }
+
+    @Override
+    public UUID upsertObjectFromKiwi(final UUID kiwiObjectId, final String name, final String description,
+            final String category, final String bucketImage, final Boolean enabled) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<LocationInventoryItem> listInventoryByLocation(final UUID userId, final UUID houseId,
+            final UUID houseLocationId, final Boolean includeDescendants, final Integer limit, final Integer offset) {
+        throw unsupported();
+    }
+
+    @Override
+    public CursorPage<LocationInventoryItem> listInventoryByLocationPage(final UUID userId, final UUID houseId,
+            final UUID houseLocationId, final Boolean includeDescendants, final Integer limit, final String cursor) {
+        throw unsupported();
+    }
+
+    @Override
+    public FavoriteState setFavoriteItem(final UUID userId, final UUID inventoryItemId, final Boolean isFavorite,
+            final String note) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<NearbyInventoryItem> searchInventoryItemsNearPoint(final UUID userId, final double latitude,
+            final double longitude, final Double radiusMeters, final Boolean nearest, final Integer limit,
+            final Integer offset) {
+        throw unsupported();
+    }
+
+    @Override
+    public InventoryMap inventoryMap(final UUID userId, final double minLongitude, final double minLatitude,
+            final double maxLongitude, final double maxLatitude, final int zoom, final Integer limit) {
+        throw unsupported();
+    }
+
+    @Override
+    public InventoryItemDetail getInventoryItemDetail(final UUID inventoryItemId) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("not used by the benchmarks");
+    }
+}
@@ -0,0 +1,39 @@
+package com.rafex.housedb.handlers.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link GlowrootMiddleware#normalizePath} runs twice per request (Glowroot and the metrics middleware). Paths
+ * without ids come back unchanged; the others build the route template.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NormalizePathBenchmark {
+
+    @Param({
+            "/items",
+            "/items/3f2a9c1e-7b4d-4e8a-9c6f-1d2e3f4a5b6c/timeline",
+            "/houses/3f2a9c1e-7b4d-4e8a-9c6f-1d2e3f4a5b6c/locations/7b4d4e8a9c6f1d2e3f4a5b6c/parent",
+            "//items//search" })
+    public String path;
+
+    @Benchmark
+    public String normalizePath() {
+        return GlowrootMiddleware.normalizePath(path);
+    }
+}
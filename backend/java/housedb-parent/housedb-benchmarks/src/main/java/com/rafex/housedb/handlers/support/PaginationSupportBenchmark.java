@@ -0,0 +1,58 @@
+package com.rafex.housedb.handlers.support;
+
+import com.rafex.housedb.benchmarks.BenchmarkFixtures;
+import com.rafex.housedb.service.models.CursorPage;
+import com.rafex.housedb.service.models.HouseItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginationSupportBenchmark {
+
+    @Param({ "10", "50", "200" })
+    public int limit;
+
+    private List<HouseItem> offsetSource;
+    private CursorPage<HouseItem> cursorSource;
+    private PaginationSupport.PaginationRequest offsetPage;
+    private PaginationSupport.PaginationRequest cursorPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The offset path fetches limit + 1 rows to detect hasMore, then copies the visible sublist.
+        offsetSource = BenchmarkFixtures.houseItems(limit + 1);
+        cursorSource = new CursorPage<>(BenchmarkFixtures.houseItems(limit), true, "c3VyZmFjZQ");
+        offsetPage = PaginationSupport.request(limit, limit, null, 50, 200);
+        cursorPage = PaginationSupport.request(limit, null, "c3VyZmFjZQ", 50, 200);
+    }
+
+    @Benchmark
+    public Map<String, Object> offsetResponse() {
+        return PaginationSupport.response("items", offsetSource, offsetPage);
+    }
+
+    @Benchmark
+    public Map<String, Object> cursorResponse() {
+        return PaginationSupport.response("items", cursorSource, cursorPage);
+    }
+}
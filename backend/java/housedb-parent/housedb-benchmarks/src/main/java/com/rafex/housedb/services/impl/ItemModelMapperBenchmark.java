@@ -0,0 +1,62 @@
+package com.rafex.housedb.services.impl;
+
+import com.rafex.housedb.benchmarks.BenchmarkFixtures;
+import com.rafex.housedb.repository.models.HouseItemEntity;
+import com.rafex.housedb.repository.models.InventoryExportRowEntity;
+import com.rafex.housedb.service.models.HouseItem;
+import com.rafex.housedb.service.models.InventoryExportRow;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemModelMapperBenchmark {
+
+    @Param({ "10", "50", "200" })
+    public int size;
+
+    private final ItemModelMapper mapper = new ItemModelMapper();
+    private List<HouseItemEntity> houseItems;
+    private List<InventoryExportRowEntity> exportRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        houseItems = BenchmarkFixtures.houseItemEntities(size);
+        exportRows = BenchmarkFixtures.exportRowEntities(size);
+    }
+
+    @Benchmark
+    public List<HouseItem> toHouseItems() {
+        return mapper.toHouseItems(houseItems);
+    }
+
+    /**
+     * Export maps row by row inside the cursor callback rather than as a list.
+     */
+    @Benchmark
+    public void toInventoryExportRows(final Blackhole blackhole) {
+        for (final var row : exportRows) {
+            final InventoryExportRow mapped = mapper.toInventoryExportRow(row);
+            blackhole.consume(mapped);
+        }
+    }
+}
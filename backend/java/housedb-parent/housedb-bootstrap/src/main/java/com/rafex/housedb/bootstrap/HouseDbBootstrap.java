@@ -44,10 +44,25 @@ public final class HouseDbBootstrap {
             container.warmup();
         }
 
+        container.nearbyItemIndex().ifPresent(index -> {
+            index.start(container.config().nearbyIndexReloadInterval());
+            closer.register(index);
+        });
+
         final var ds = container.dataSource();
         if (ds instanceof final AutoCloseable ac) {
             closer.register(ac);
         }
+        container.readDataSource().ifPresent(readDs -> {
+            if (readDs instanceof final AutoCloseable ac) {
+                closer.register(ac);
+            }
+        });
+
+        // Registered after the data sources so its final flush runs before they close.
+        final var lastUsedWriter = container.appClientLastUsedWriter();
+        lastUsedWriter.start(container.config().appClientLastUsedFlushInterval());
+        closer.register(lastUsedWriter);
 
         final var runtime = new HouseDbRuntime(container, closer);
         Runtime.getRuntime().addShutdownHook(new Thread(runtime::close, "housedb-shutdown"));
@@ -1,11 +1,13 @@
 package com.rafex.housedb.bootstrap;
 
 import com.rafex.housedb.db.Db;
+import com.rafex.housedb.db.ReplicaRouting;
 import com.rafex.housedb.repository.AppClientRepository;
 import com.rafex.housedb.repository.HouseLocationSyncRepository;
 import com.rafex.housedb.repository.HouseManagementRepository;
 import com.rafex.housedb.repository.InventoryMutationRepository;
 import com.rafex.housedb.repository.InventorySearchRepository;
+import com.rafex.housedb.repository.KiwiOutboxRepository;
 import com.rafex.housedb.repository.MetadataCatalogRepository;
 import com.rafex.housedb.repository.MetadataTemplateRepository;
 import com.rafex.housedb.repository.RefreshTokenRepository;
@@ -13,11 +15,15 @@ import com.rafex.housedb.repository.UserRepository;
 import com.rafex.housedb.repository.impl.AppClientRepositoryImpl;
 import com.rafex.housedb.repository.impl.HouseRepositoryImpl;
 import com.rafex.housedb.repository.impl.ItemRepositoryImpl;
+import com.rafex.housedb.repository.impl.KiwiOutboxRepositoryImpl;
 import com.rafex.housedb.repository.impl.MetadataCatalogRepositoryImpl;
 import com.rafex.housedb.repository.impl.MetadataTemplateRepositoryImpl;
 import com.rafex.housedb.repository.impl.RefreshTokenRepositoryImpl;
 import com.rafex.housedb.repository.impl.UserRepositoryImpl;
 import com.rafex.housedb.security.PasswordHasherPBKDF2;
+import com.rafex.housedb.security.PasswordHashingExecutor;
+import com.rafex.housedb.security.UserRolesCache;
+import com.rafex.housedb.security.VerifiedClientSecretCache;
 import com.rafex.housedb.services.AppClientAuthService;
 import com.rafex.housedb.services.AuthService;
 import com.rafex.housedb.services.HouseService;
@@ -26,13 +32,16 @@ import com.rafex.housedb.services.MetadataCatalogService;
 import com.rafex.housedb.services.MetadataTemplateService;
 import com.rafex.housedb.services.RefreshTokenService;
 import com.rafex.housedb.services.impl.AppClientAuthServiceImpl;
+import com.rafex.housedb.services.impl.AppClientLastUsedWriter;
 import com.rafex.housedb.services.impl.AuthServiceImpl;
 import com.rafex.housedb.services.impl.HouseServiceImpl;
 import com.rafex.housedb.services.impl.ItemFinderServiceImpl;
 import com.rafex.housedb.services.impl.MetadataCatalogServiceImpl;
 import com.rafex.housedb.services.impl.MetadataTemplateServiceImpl;
+import com.rafex.housedb.services.impl.NearbyItemIndex;
 import com.rafex.housedb.services.impl.RefreshTokenServiceImpl;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -42,6 +51,7 @@ import javax.sql.DataSource;
 public final class HouseDbContainer {
 
     public record Overrides(Optional<Supplier<HouseDbConfig>> config, Optional<Supplier<DataSource>> dataSource,
+            Optional<Supplier<DataSource>> readDataSource,
             Optional<Supplier<InventorySearchRepository>> inventorySearchRepository,
             Optional<Supplier<InventoryMutationRepository>> inventoryMutationRepository,
             Optional<Supplier<HouseLocationSyncRepository>> houseLocationSyncRepository,
@@ -62,6 +72,7 @@ public final class HouseDbContainer {
         public Overrides {
             config = config != null ? config : Optional.empty();
             dataSource = dataSource != null ? dataSource : Optional.empty();
+            readDataSource = readDataSource != null ? readDataSource : Optional.empty();
             inventorySearchRepository = inventorySearchRepository != null ? inventorySearchRepository : Optional.empty();
             inventoryMutationRepository = inventoryMutationRepository != null
                     ? inventoryMutationRepository
@@ -95,6 +106,7 @@ public final class HouseDbContainer {
 
             private Supplier<HouseDbConfig> config;
             private Supplier<DataSource> dataSource;
+            private Supplier<DataSource> readDataSource;
             private Supplier<InventorySearchRepository> inventorySearchRepository;
             private Supplier<InventoryMutationRepository> inventoryMutationRepository;
             private Supplier<HouseLocationSyncRepository> houseLocationSyncRepository;
@@ -123,6 +135,11 @@ public final class HouseDbContainer {
                 return this;
             }
 
+            public Builder readDataSource(final Supplier<DataSource> value) {
+                readDataSource = value;
+                return this;
+            }
+
             public Builder inventorySearchRepository(final Supplier<InventorySearchRepository> value) {
                 inventorySearchRepository = value;
                 return this;
@@ -210,6 +227,7 @@ public final class HouseDbContainer {
 
             public Overrides build() {
                 return new Overrides(Optional.ofNullable(config), Optional.ofNullable(dataSource),
+                        Optional.ofNullable(readDataSource),
                         Optional.ofNullable(inventorySearchRepository), Optional.ofNullable(inventoryMutationRepository),
                         Optional.ofNullable(houseLocationSyncRepository), Optional.ofNullable(itemFinderService),
                         Optional.ofNullable(houseManagementRepository), Optional.ofNullable(houseService),
@@ -225,11 +243,15 @@ public final class HouseDbContainer {
 
     private final Lazy<HouseDbConfig> config;
     private final Lazy<DataSource> dataSource;
+    private final Lazy<Optional<DataSource>> readDataSource;
+    private final Lazy<ReplicaRouting> replicaRouting;
     private final Lazy<ItemRepositoryImpl> itemRepository;
     private final Lazy<InventorySearchRepository> inventorySearchRepository;
     private final Lazy<InventoryMutationRepository> inventoryMutationRepository;
     private final Lazy<HouseLocationSyncRepository> houseLocationSyncRepository;
+    private final Lazy<Optional<NearbyItemIndex>> nearbyItemIndex;
     private final Lazy<ItemFinderService> itemFinderService;
+    private final Lazy<KiwiOutboxRepository> kiwiOutboxRepository;
     private final Lazy<HouseManagementRepository> houseManagementRepository;
     private final Lazy<HouseService> houseService;
     private final Lazy<MetadataCatalogRepository> metadataCatalogRepository;
@@ -242,6 +264,10 @@ public final class HouseDbContainer {
     private final Lazy<RefreshTokenService> refreshTokenService;
     private final Lazy<AppClientRepository> appClientRepository;
     private final Lazy<PasswordHasherPBKDF2> passwordHasherPBKDF2;
+    private final Lazy<PasswordHashingExecutor> passwordHashingExecutor;
+    private final Lazy<VerifiedClientSecretCache> verifiedClientSecretCache;
+    private final Lazy<UserRolesCache> userRolesCache;
+    private final Lazy<AppClientLastUsedWriter> appClientLastUsedWriter;
     private final Lazy<AuthService> authService;
     private final Lazy<AppClientAuthService> appClientAuthService;
 
@@ -254,22 +280,35 @@ public final class HouseDbContainer {
 
         config = new Lazy<>(select(overrides.config(), HouseDbConfig::fromEnv));
         dataSource = new Lazy<>(select(overrides.dataSource(), DataSourceFactory::create));
-        itemRepository = new Lazy<>(() -> new ItemRepositoryImpl(dataSource()));
-        houseRepository = new Lazy<>(() -> new HouseRepositoryImpl(dataSource()));
+        // An overridden primary never picks up DB_READ_URL on its own; pass readDataSource explicitly.
+        final Supplier<DataSource> readDefault = overrides.dataSource().isPresent()
+                ? () -> null
+                : DataSourceFactory::createRead;
+        readDataSource = new Lazy<>(() -> Optional.ofNullable(select(overrides.readDataSource(), readDefault).get()));
+        replicaRouting = new Lazy<>(() -> readDataSource()
+                .map(replica -> new ReplicaRouting(dataSource(), replica, config().readStickyWindow()))
+                .orElseGet(() -> ReplicaRouting.primaryOnly(dataSource())));
+        itemRepository = new Lazy<>(() -> new ItemRepositoryImpl(replicaRouting()));
+        houseRepository = new Lazy<>(() -> new HouseRepositoryImpl(replicaRouting()));
         metadataCatalogRepository = new Lazy<>(
-                select(overrides.metadataCatalogRepository(), () -> new MetadataCatalogRepositoryImpl(dataSource())));
+                select(overrides.metadataCatalogRepository(), () -> new MetadataCatalogRepositoryImpl(replicaRouting())));
         metadataTemplateRepository = new Lazy<>(
-                select(overrides.metadataTemplateRepository(), () -> new MetadataTemplateRepositoryImpl(dataSource())));
+                select(overrides.metadataTemplateRepository(), () -> new MetadataTemplateRepositoryImpl(replicaRouting())));
 
         inventorySearchRepository = new Lazy<>(select(overrides.inventorySearchRepository(), this::itemRepository));
         inventoryMutationRepository = new Lazy<>(select(overrides.inventoryMutationRepository(), this::itemRepository));
         houseLocationSyncRepository = new Lazy<>(select(overrides.houseLocationSyncRepository(), this::itemRepository));
 
+        nearbyItemIndex = new Lazy<>(() -> config().nearbyIndexEnabled()
+                ? Optional.of(new NearbyItemIndex(inventorySearchRepository()))
+                : Optional.empty());
         itemFinderService = new Lazy<>(select(overrides.itemFinderService(),
                 () -> new ItemFinderServiceImpl(inventorySearchRepository(), inventoryMutationRepository(),
-                        houseLocationSyncRepository())));
+                        houseLocationSyncRepository(), nearbyItemIndex().orElse(null))));
+        kiwiOutboxRepository = new Lazy<>(() -> new KiwiOutboxRepositoryImpl(dataSource()));
         houseManagementRepository = new Lazy<>(select(overrides.houseManagementRepository(), this::houseRepository));
-        houseService = new Lazy<>(select(overrides.houseService(), () -> new HouseServiceImpl(houseManagementRepository())));
+        houseService = new Lazy<>(select(overrides.houseService(),
+                () -> new HouseServiceImpl(houseManagementRepository(), nearbyItemIndex().orElse(null))));
         metadataCatalogService = new Lazy<>(select(overrides.metadataCatalogService(),
                 () -> new MetadataCatalogServiceImpl(metadataCatalogRepository())));
         metadataTemplateService = new Lazy<>(select(overrides.metadataTemplateService(),
@@ -284,9 +323,14 @@ public final class HouseDbContainer {
                 select(overrides.appClientRepository(), () -> new AppClientRepositoryImpl(dataSource())));
         passwordHasherPBKDF2 = new Lazy<>(select(overrides.passwordHasherPBKDF2(),
                 () -> new PasswordHasherPBKDF2(Integer.parseInt(System.getenv().getOrDefault("AUTH_HASH_BYTES", "32")))));
-        authService = new Lazy<>(select(overrides.authService(), () -> new AuthServiceImpl(userRepository(), passwordHasherPBKDF2())));
-        appClientAuthService = new Lazy<>(
-                select(overrides.appClientAuthService(), () -> new AppClientAuthServiceImpl(appClientRepository(), passwordHasherPBKDF2())));
+        passwordHashingExecutor = new Lazy<>(() -> PasswordHashingExecutor.fromEnv(passwordHasherPBKDF2()));
+        verifiedClientSecretCache = new Lazy<>(VerifiedClientSecretCache::fromEnv);
+        userRolesCache = new Lazy<>(UserRolesCache::fromEnv);
+        appClientLastUsedWriter = new Lazy<>(() -> new AppClientLastUsedWriter(appClientRepository()));
+        authService = new Lazy<>(select(overrides.authService(), () -> new AuthServiceImpl(userRepository(), passwordHashingExecutor(), userRolesCache())));
+        appClientAuthService = new Lazy<>(select(overrides.appClientAuthService(),
+                () -> new AppClientAuthServiceImpl(appClientRepository(), passwordHashingExecutor(),
+                        verifiedClientSecretCache(), appClientLastUsedWriter())));
     }
 
     public HouseDbConfig config() {
@@ -297,6 +341,14 @@ public final class HouseDbContainer {
         return dataSource.get();
     }
 
+    public Optional<DataSource> readDataSource() {
+        return readDataSource.get();
+    }
+
+    public ReplicaRouting replicaRouting() {
+        return replicaRouting.get();
+    }
+
     public InventorySearchRepository inventorySearchRepository() {
         return inventorySearchRepository.get();
     }
@@ -313,10 +365,18 @@ public final class HouseDbContainer {
         return houseLocationSyncRepository.get();
     }
 
+    public Optional<NearbyItemIndex> nearbyItemIndex() {
+        return nearbyItemIndex.get();
+    }
+
     public ItemFinderService itemFinderService() {
         return itemFinderService.get();
     }
 
+    public KiwiOutboxRepository kiwiOutboxRepository() {
+        return kiwiOutboxRepository.get();
+    }
+
     private HouseRepositoryImpl houseRepository() {
         return houseRepository.get();
     }
@@ -365,6 +425,22 @@ public final class HouseDbContainer {
         return passwordHasherPBKDF2.get();
     }
 
+    public PasswordHashingExecutor passwordHashingExecutor() {
+        return passwordHashingExecutor.get();
+    }
+
+    public VerifiedClientSecretCache verifiedClientSecretCache() {
+        return verifiedClientSecretCache.get();
+    }
+
+    public UserRolesCache userRolesCache() {
+        return userRolesCache.get();
+    }
+
+    public AppClientLastUsedWriter appClientLastUsedWriter() {
+        return appClientLastUsedWriter.get();
+    }
+
     public AuthService authService() {
         return authService.get();
     }
@@ -376,10 +452,13 @@ public final class HouseDbContainer {
     public void warmup() {
         config();
         dataSource();
+        readDataSource();
         inventorySearchRepository();
         inventoryMutationRepository();
         houseLocationSyncRepository();
+        nearbyItemIndex();
         itemFinderService();
+        kiwiOutboxRepository();
         houseManagementRepository();
         houseService();
         metadataCatalogRepository();
@@ -401,28 +480,68 @@ public final class HouseDbContainer {
     public static final class HouseDbConfig {
 
         private final int defaultSearchLimit;
-
-        private HouseDbConfig(final int defaultSearchLimit) {
+        private final boolean nearbyIndexEnabled;
+        private final Duration nearbyIndexReloadInterval;
+        private final Duration readStickyWindow;
+        private final Duration appClientLastUsedFlushInterval;
+
+        private HouseDbConfig(final int defaultSearchLimit, final boolean nearbyIndexEnabled,
+                final Duration nearbyIndexReloadInterval, final Duration readStickyWindow,
+                final Duration appClientLastUsedFlushInterval) {
             this.defaultSearchLimit = defaultSearchLimit;
+            this.nearbyIndexEnabled = nearbyIndexEnabled;
+            this.nearbyIndexReloadInterval = nearbyIndexReloadInterval;
+            this.readStickyWindow = readStickyWindow;
+            this.appClientLastUsedFlushInterval = appClientLastUsedFlushInterval;
         }
 
         public static HouseDbConfig fromEnv() {
-            final var raw = System.getenv("HOUSEDB_DEFAULT_SEARCH_LIMIT");
+            return new HouseDbConfig(
+                    Math.max(1, Math.min(intEnv("HOUSEDB_DEFAULT_SEARCH_LIMIT", 50), 200)),
+                    Boolean.parseBoolean(System.getenv().getOrDefault("HOUSEDB_NEARBY_INDEX_ENABLED", "false")),
+                    Duration.ofSeconds(Math.max(10, intEnv("HOUSEDB_NEARBY_INDEX_RELOAD_SECONDS", 300))),
+                    Duration.ofMillis(Math.max(0, intEnv("HOUSEDB_READ_STICKY_MS", 2000))),
+                    Duration.ofSeconds(Math.max(1, intEnv("HOUSEDB_APP_CLIENT_LAST_USED_FLUSH_SECONDS", 5))));
+        }
+
+        private static int intEnv(final String name, final int def) {
+            final var raw = System.getenv(name);
             if (raw == null || raw.isBlank()) {
-                return new HouseDbConfig(50);
+                return def;
             }
 
             try {
-                final int parsed = Integer.parseInt(raw.trim());
-                return new HouseDbConfig(Math.max(1, Math.min(parsed, 200)));
+                return Integer.parseInt(raw.trim());
             } catch (final NumberFormatException ignored) {
-                return new HouseDbConfig(50);
+                return def;
             }
         }
 
         public int defaultSearchLimit() {
             return defaultSearchLimit;
         }
+
+        public boolean nearbyIndexEnabled() {
+            return nearbyIndexEnabled;
+        }
+
+        public Duration nearbyIndexReloadInterval() {
+            return nearbyIndexReloadInterval;
+        }
+
+        /**
+         * How long reads touching a just-written user, house or item stay on the primary when a replica is set.
+         */
+        public Duration readStickyWindow() {
+            return readStickyWindow;
+        }
+
+        /**
+         * How often buffered {@code app_clients.last_used_at} updates are written.
+         */
+        public Duration appClientLastUsedFlushInterval() {
+            return appClientLastUsedFlushInterval;
+        }
     }
 
     public static final class DataSourceFactory {
@@ -433,5 +552,9 @@ public final class HouseDbContainer {
         public static DataSource create() {
             return Db.dataSource();
         }
+
+        public static DataSource createRead() {
+            return Db.readDataSource().orElse(null);
+        }
     }
 }
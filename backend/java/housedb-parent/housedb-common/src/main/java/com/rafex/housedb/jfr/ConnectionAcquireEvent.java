@@ -0,0 +1,37 @@
+package com.rafex.housedb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted by the pool after a connection was handed out, on the acquiring thread, so it lines up with the
+ * enclosing {@link RepositoryEvent}.
+ */
+@Name("com.rafex.housedb.ConnectionAcquire")
+@Label("Pool Connection Acquire")
+@Category({ "HouseDB", "Database" })
+@Description("Time a thread waited for a pooled connection")
+@StackTrace(false)
+public final class ConnectionAcquireEvent extends Event {
+
+    @Label("Pool")
+    String pool;
+
+    @Label("Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitNanos;
+
+    public static void emit(final String pool, final long waitNanos) {
+        final var event = new ConnectionAcquireEvent();
+        if (event.shouldCommit()) {
+            event.pool = pool;
+            event.waitNanos = waitNanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.rafex.housedb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.rafex.housedb.JwtVerify")
+@Label("JWT Verify")
+@Category({ "HouseDB", "Auth" })
+@StackTrace(false)
+public final class JwtVerifyEvent extends Event {
+
+    @Label("Valid")
+    boolean valid;
+
+    @Label("Code")
+    String code;
+
+    public void finish(final boolean valid, final String code) {
+        end();
+        if (shouldCommit()) {
+            this.valid = valid;
+            this.code = code;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rafex.housedb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.rafex.housedb.KiwiCall")
+@Label("Kiwi API Call")
+@Category({ "HouseDB", "Kiwi" })
+@Description("HTTP call to the Kiwi API")
+@StackTrace(false)
+public final class KiwiCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Status Code")
+    @Description("HTTP status, or -1 when the call failed before a response")
+    int statusCode;
+
+    public void finish(final String operation, final int statusCode) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.statusCode = statusCode;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.rafex.housedb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.rafex.housedb.PasswordVerify")
+@Label("PBKDF2 Verify")
+@Category({ "HouseDB", "Auth" })
+@StackTrace(false)
+public final class PasswordVerifyEvent extends Event {
+
+    @Label("Iterations")
+    int iterations;
+
+    @Label("Matched")
+    boolean matched;
+
+    public void finish(final int iterations, final boolean matched) {
+        end();
+        if (shouldCommit()) {
+            this.iterations = iterations;
+            this.matched = matched;
+            commit();
+        }
+    }
+}
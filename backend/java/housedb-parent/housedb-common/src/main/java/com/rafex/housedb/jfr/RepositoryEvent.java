@@ -0,0 +1,74 @@
+package com.rafex.housedb.jfr;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One repository method call: pool wait, SQL execution and row mapping. Usage:
+ *
+ * <pre>{@code
+ * final var event = new RepositoryEvent();
+ * event.begin();
+ * try {
+ *     ...
+ *     return event.rows(result);
+ * } finally {
+ *     event.finish("ItemRepositoryImpl", "searchInventoryItems", "api_search_inventory_items");
+ * }
+ * }</pre>
+ *
+ * When the event is disabled the JIT removes the allocation and {@link #finish} reduces to a flag check.
+ */
+@Name("com.rafex.housedb.Repository")
+@Label("Repository Call")
+@Category({ "HouseDB", "Database" })
+@Description("Repository method call including connection acquire, SQL and mapping")
+@StackTrace(false)
+public final class RepositoryEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("SQL Function")
+    String sqlFunction;
+
+    @Label("Rows")
+    @Description("Rows returned or mapped; 0 for writes without a result")
+    long rows;
+
+    public <T> T rows(final T result) {
+        if (result instanceof final Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof final Optional<?> optional) {
+            rows = optional.isPresent() ? 1 : 0;
+        } else {
+            rows = result == null ? 0 : 1;
+        }
+        return result;
+    }
+
+    public long rows(final long count) {
+        rows = count;
+        return count;
+    }
+
+    public void finish(final String repository, final String method, final String sqlFunction) {
+        end();
+        if (shouldCommit()) {
+            this.repository = repository;
+            this.method = method;
+            this.sqlFunction = sqlFunction;
+            commit();
+        }
+    }
+}
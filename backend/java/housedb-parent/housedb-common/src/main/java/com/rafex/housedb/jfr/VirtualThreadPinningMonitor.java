@@ -0,0 +1,128 @@
+package com.rafex.housedb.jfr;
+
+import com.rafex.housedb.metrics.LatencyHistogram;
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Counts {@code jdk.VirtualThreadPinned} events (a virtual thread blocked while holding its carrier, e.g. inside a
+ * {@code synchronized} block) from an in-process JFR stream. Each distinct top application frame is logged once so
+ * the offending lock can be found without a recording.
+ */
+public final class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadPinningMonitor.class.getName());
+
+    private static final int MAX_LOGGED_SITES = 64;
+    private static final long DEFAULT_THRESHOLD_MS = 20;
+
+    private final Duration threshold;
+    private final LongAdder pinned = new LongAdder();
+    private final LongAdder submitFailed = new LongAdder();
+    private final LatencyHistogram pinnedTime = new LatencyHistogram();
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(final Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Threshold from {@code HOUSEDB_VTHREAD_PINNED_THRESHOLD_MS} (20 ms when unset or invalid).
+     */
+    public static VirtualThreadPinningMonitor fromEnv() {
+        return new VirtualThreadPinningMonitor(
+                Duration.ofMillis(Math.max(0L, longEnv("HOUSEDB_VTHREAD_PINNED_THRESHOLD_MS", DEFAULT_THRESHOLD_MS))));
+    }
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        try {
+            final var rs = new RecordingStream();
+            rs.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+            rs.enable("jdk.VirtualThreadSubmitFailed");
+            rs.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+            rs.onEvent("jdk.VirtualThreadSubmitFailed", e -> submitFailed.increment());
+            rs.setMaxAge(Duration.ofSeconds(10));
+            rs.startAsync();
+            stream = rs;
+        } catch (final RuntimeException e) {
+            LOG.log(Level.WARNING, "Virtual thread pinning monitor unavailable", e);
+        }
+    }
+
+    private void onPinned(final RecordedEvent event) {
+        pinned.increment();
+        pinnedTime.record(event.getDuration().toNanos());
+
+        final var site = site(event);
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            LOG.warning("Virtual thread pinned its carrier for " + event.getDuration().toMillis() + " ms at " + site);
+        }
+    }
+
+    private static String site(final RecordedEvent event) {
+        final var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (final var frame : stackTrace.getFrames()) {
+            final var type = frame.getMethod().getType().getName();
+            if (type.startsWith("com.rafex.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        final var frames = stackTrace.getFrames();
+        if (frames.isEmpty()) {
+            return "unknown";
+        }
+        final var top = frames.get(0).getMethod();
+        return top.getType().getName() + "." + top.getName();
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_vthread_pinned_total", "counter",
+                "Virtual threads that blocked while pinned to their carrier longer than the threshold.");
+        PrometheusText.sample(out, "housedb_vthread_pinned_total", "", pinned.sum());
+
+        PrometheusText.header(out, "housedb_vthread_pinned_seconds", "histogram",
+                "Time virtual threads spent pinned to their carrier.");
+        pinnedTime.appendTo(out, "housedb_vthread_pinned_seconds", "");
+
+        PrometheusText.header(out, "housedb_vthread_submit_failed_total", "counter",
+                "Virtual thread continuations the scheduler failed to submit.");
+        PrometheusText.sample(out, "housedb_vthread_submit_failed_total", "", submitFailed.sum());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private static long longEnv(final String key, final long def) {
+        final var raw = System.getenv(key);
+        if (raw == null || raw.isBlank()) {
+            return def;
+        }
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (final NumberFormatException e) {
+            return def;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.rafex.housedb.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram. {@link #record(long)} only bumps {@link LongAdder}s, so it never allocates and
+ * stays cheap under contention; buckets are made cumulative when written out.
+ */
+public final class LatencyHistogram {
+
+    private static final long[] BOUNDS_NANOS = {
+            500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L, 100_000_000L,
+            250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L };
+
+    private static final String[] BOUND_LABELS = {
+            "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1",
+            "0.25", "0.5", "1", "2.5", "5", "10" };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && value > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(value);
+    }
+
+    public long count() {
+        long count = 0;
+        for (final var bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Appends the {@code _bucket}, {@code _sum} and {@code _count} series. {@code labels} is a rendered label list
+     * without braces (see {@link PrometheusText#label}), or empty.
+     */
+    public void appendTo(final StringBuilder out, final String name, final String labels) {
+        final var prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(prefix).append("le=\"")
+                    .append(i < BOUND_LABELS.length ? BOUND_LABELS[i] : "+Inf").append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        final var braced = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(braced).append(' ')
+                .append(sumNanos.sum() / 1_000_000_000.0).append('\n');
+        out.append(name).append("_count").append(braced).append(' ').append(cumulative).append('\n');
+    }
+}
@@ -1,5 +1,7 @@
 package com.rafex.housedb.security;
 
+import com.rafex.housedb.jfr.JwtVerifyEvent;
+
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
@@ -109,7 +111,15 @@ public final class JwtService {
     }
 
     public VerificationResult verify(final String token, final long nowEpochSeconds) {
-        return tokenVerifier.verify(token, Instant.ofEpochSecond(nowEpochSeconds));
+        final var event = new JwtVerifyEvent();
+        event.begin();
+        VerificationResult result = null;
+        try {
+            result = tokenVerifier.verify(token, Instant.ofEpochSecond(nowEpochSeconds));
+            return result;
+        } finally {
+            event.finish(result != null && result.ok(), result == null ? null : result.code());
+        }
     }
 
     public record IssuedToken(String token, String jwtId, Instant expiresAt) {
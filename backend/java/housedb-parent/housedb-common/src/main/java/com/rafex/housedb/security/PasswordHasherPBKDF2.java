@@ -1,5 +1,7 @@
 package com.rafex.housedb.security;
 
+import com.rafex.housedb.jfr.PasswordVerifyEvent;
+
 import java.security.MessageDigest;
 import java.util.Arrays;
 
@@ -22,11 +24,16 @@ public final class PasswordHasherPBKDF2 {
             return false;
         }
 
+        final var event = new PasswordVerifyEvent();
+        event.begin();
         final var dk = derive(password, salt, iterations, expectedHash.length);
+        boolean matched = false;
         try {
-            return MessageDigest.isEqual(dk, expectedHash);
+            matched = MessageDigest.isEqual(dk, expectedHash);
+            return matched;
         } finally {
             Arrays.fill(dk, (byte) 0);
+            event.finish(iterations, matched);
         }
     }
 
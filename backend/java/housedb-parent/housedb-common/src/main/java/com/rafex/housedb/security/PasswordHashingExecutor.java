@@ -0,0 +1,167 @@
+package com.rafex.housedb.security;
+
+import com.rafex.housedb.metrics.LatencyHistogram;
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs PBKDF2 verification on a fixed pool sized to the CPU count with a bounded queue, so a burst of logins can
+ * only occupy {@code threads + queueCapacity} request threads. Anything beyond that is rejected immediately with
+ * {@link PasswordHashingRejectedException}, as is a verification that waits longer than {@code maxWaitMillis}; the
+ * HTTP layer turns both into {@code 429} with {@code Retry-After}.
+ */
+public final class PasswordHashingExecutor {
+
+    private final PasswordHasherPBKDF2 hasher;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram hashTime = new LatencyHistogram();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    public PasswordHashingExecutor(final PasswordHasherPBKDF2 hasher, final int threads, final int queueCapacity,
+            final long maxWaitMillis, final long retryAfterSeconds) {
+        this.hasher = Objects.requireNonNull(hasher, "hasher");
+        if (threads < 1) {
+            throw new IllegalArgumentException("HOUSEDB_AUTH_HASH_THREADS debe ser >= 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("HOUSEDB_AUTH_HASH_QUEUE debe ser >= 1");
+        }
+        this.queueCapacity = queueCapacity;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, maxWaitMillis));
+        this.retryAfterSeconds = Math.max(1L, retryAfterSeconds);
+
+        final var counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    final var t = new Thread(r, "housedb-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    public static PasswordHashingExecutor fromEnv(final PasswordHasherPBKDF2 hasher) {
+        final int threads = intEnv("HOUSEDB_AUTH_HASH_THREADS", Runtime.getRuntime().availableProcessors());
+        return new PasswordHashingExecutor(hasher, threads, intEnv("HOUSEDB_AUTH_HASH_QUEUE", threads * 4),
+                intEnv("HOUSEDB_AUTH_HASH_MAX_WAIT_MS", 2000), intEnv("HOUSEDB_AUTH_HASH_RETRY_AFTER_SECONDS", 1));
+    }
+
+    public PasswordHasherPBKDF2 hasher() {
+        return hasher;
+    }
+
+    /**
+     * Same contract as {@link PasswordHasherPBKDF2#verify}, executed on the hashing pool. The caller keeps ownership
+     * of {@code password}: the task works on a copy that is wiped once the hash is computed, or here when the task is
+     * cancelled before it gets to run.
+     *
+     * @throws PasswordHashingRejectedException when the queue is full or the verification did not finish in time
+     */
+    public boolean verify(final char[] password, final byte[] salt, final int iterations, final byte[] expectedHash) {
+        if (password == null) {
+            return false;
+        }
+        final var copy = password.clone();
+        final long submittedAt = System.nanoTime();
+        final Future<Boolean> future;
+        try {
+            future = executor.submit(() -> {
+                final long startedAt = System.nanoTime();
+                waitTime.record(startedAt - submittedAt);
+                try {
+                    return hasher.verify(copy, salt, iterations, expectedHash);
+                } finally {
+                    Arrays.fill(copy, '\0');
+                    hashTime.record(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            Arrays.fill(copy, '\0');
+            rejectedQueueFull.increment();
+            throw new PasswordHashingRejectedException("password hashing queue is full", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (final TimeoutException e) {
+            // Drop it from the queue if it has not started; a running hash finishes and its result is discarded.
+            // A cancelled task never runs its finally, so the copy is wiped here. If it was already running, the
+            // wipe can only spoil a result nobody reads.
+            if (future.cancel(false)) {
+                Arrays.fill(copy, '\0');
+            }
+            executor.remove((Runnable) future);
+            rejectedTimeout.increment();
+            throw new PasswordHashingRejectedException("password hashing wait exceeded", retryAfterSeconds);
+        } catch (final InterruptedException e) {
+            if (future.cancel(true)) {
+                Arrays.fill(copy, '\0');
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while verifying password", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof final RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("password verification failed", e.getCause());
+        }
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_auth_hash_queue_depth", "gauge",
+                "Password verifications waiting for a hashing thread.");
+        PrometheusText.sample(out, "housedb_auth_hash_queue_depth", "", executor.getQueue().size());
+
+        PrometheusText.header(out, "housedb_auth_hash_queue_capacity", "gauge",
+                "Maximum password verifications that may wait for a hashing thread.");
+        PrometheusText.sample(out, "housedb_auth_hash_queue_capacity", "", queueCapacity);
+
+        PrometheusText.header(out, "housedb_auth_hash_active_threads", "gauge",
+                "Hashing threads currently computing PBKDF2.");
+        PrometheusText.sample(out, "housedb_auth_hash_active_threads", "", executor.getActiveCount());
+
+        PrometheusText.header(out, "housedb_auth_hash_wait_seconds", "histogram",
+                "Time a password verification spent queued before a hashing thread picked it up.");
+        waitTime.appendTo(out, "housedb_auth_hash_wait_seconds", "");
+
+        PrometheusText.header(out, "housedb_auth_hash_duration_seconds", "histogram",
+                "PBKDF2 verification time on the hashing pool.");
+        hashTime.appendTo(out, "housedb_auth_hash_duration_seconds", "");
+
+        PrometheusText.header(out, "housedb_auth_hash_rejected_total", "counter",
+                "Password verifications rejected with 429.");
+        PrometheusText.sample(out, "housedb_auth_hash_rejected_total", PrometheusText.label("reason", "queue_full"),
+                rejectedQueueFull.sum());
+        PrometheusText.sample(out, "housedb_auth_hash_rejected_total", PrometheusText.label("reason", "wait_timeout"),
+                rejectedTimeout.sum());
+    }
+
+    private static int intEnv(final String key, final int def) {
+        final var raw = System.getenv(key);
+        if (raw == null || raw.isBlank()) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(raw.trim());
+        } catch (final NumberFormatException e) {
+            return def;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.rafex.housedb.security;
+
+/**
+ * Thrown by {@link PasswordHashingExecutor} when a password verification is not admitted. Callers should answer
+ * {@code 429 Too Many Requests} with {@link #retryAfterSeconds()} as {@code Retry-After}.
+ */
+public final class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(final String message, final long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,103 @@
+package com.rafex.housedb.security;
+
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Role names per user, tagged with the {@code users.roles_version} they were read at. Callers already hold the user
+ * row, so a lookup with its current version either returns the cached set or misses because the roles changed;
+ * there is no TTL to tune and no cross-instance invalidation to send.
+ *
+ * <p>
+ * The cache is bounded: when it is full, new users are not cached until an entry is replaced or invalidated.
+ */
+public final class UserRolesCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final int maxEntries;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    public UserRolesCache(final int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+    }
+
+    public static UserRolesCache fromEnv() {
+        final var raw = System.getenv("HOUSEDB_USER_ROLES_CACHE_MAX_ENTRIES");
+        if (raw == null || raw.isBlank()) {
+            return new UserRolesCache(DEFAULT_MAX_ENTRIES);
+        }
+        try {
+            return new UserRolesCache(Integer.parseInt(raw.trim()));
+        } catch (final NumberFormatException e) {
+            return new UserRolesCache(DEFAULT_MAX_ENTRIES);
+        }
+    }
+
+    /**
+     * Returns the cached roles of {@code userId} if they were read at {@code rolesVersion}, otherwise {@code null}.
+     */
+    public List<String> get(final UUID userId, final long rolesVersion) {
+        if (maxEntries == 0 || userId == null) {
+            return null;
+        }
+        final var entry = entries.get(userId);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.rolesVersion() != rolesVersion) {
+            stale.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.roles();
+    }
+
+    public void put(final UUID userId, final long rolesVersion, final List<String> roles) {
+        if (maxEntries == 0 || userId == null || roles == null) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(userId)) {
+            return;
+        }
+        // Never let a slow reader put an older role set over a newer one.
+        entries.merge(userId, new Entry(rolesVersion, List.copyOf(roles)),
+                (current, next) -> next.rolesVersion() >= current.rolesVersion() ? next : current);
+    }
+
+    public void invalidate(final UUID userId) {
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_user_roles_cache_requests_total", "counter",
+                "Role lookups in the per-user roles cache.");
+        PrometheusText.sample(out, "housedb_user_roles_cache_requests_total", PrometheusText.label("result", "hit"),
+                hits.sum());
+        PrometheusText.sample(out, "housedb_user_roles_cache_requests_total", PrometheusText.label("result", "miss"),
+                misses.sum());
+
+        PrometheusText.header(out, "housedb_user_roles_cache_stale_total", "counter",
+                "Role lookups that missed because the user's roles_version changed.");
+        PrometheusText.sample(out, "housedb_user_roles_cache_stale_total", "", stale.sum());
+
+        PrometheusText.header(out, "housedb_user_roles_cache_entries", "gauge", "Entries in the per-user roles cache.");
+        PrometheusText.sample(out, "housedb_user_roles_cache_entries", "", entries.size());
+    }
+
+    private record Entry(long rolesVersion, List<String> roles) {
+    }
+}
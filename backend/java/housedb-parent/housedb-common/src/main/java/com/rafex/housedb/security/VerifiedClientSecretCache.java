@@ -0,0 +1,195 @@
+package com.rafex.housedb.security;
+
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Short-lived record of client secrets that already passed PBKDF2, so a machine client calling {@code /auth/token}
+ * repeatedly skips the hash. Only an HMAC of the secret under a per-process random key is kept, never the secret
+ * itself.
+ *
+ * <p>
+ * Each entry is bound to the stored secret hash it was verified against: callers pass the hash they just read, and
+ * an entry whose hash differs (the secret was rotated) is dropped. Status is checked by the caller before the
+ * cache is consulted, so disabling a client takes effect on its next request; {@link #invalidate} drops an entry
+ * explicitly.
+ */
+public final class VerifiedClientSecretCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final int DEFAULT_TTL_SECONDS = 60;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ThreadLocal<Mac> mac;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public VerifiedClientSecretCache(final int maxEntries, final long ttlSeconds) {
+        this.maxEntries = ttlSeconds > 0 ? Math.max(0, maxEntries) : 0;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0L, ttlSeconds));
+
+        final var key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        final var keySpec = new SecretKeySpec(key, "HmacSHA256");
+        Arrays.fill(key, (byte) 0);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                final var m = Mac.getInstance("HmacSHA256");
+                m.init(keySpec);
+                return m;
+            } catch (final GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    public static VerifiedClientSecretCache fromEnv() {
+        return new VerifiedClientSecretCache(intEnv("HOUSEDB_APP_CLIENT_CACHE_MAX_ENTRIES", DEFAULT_MAX_ENTRIES),
+                intEnv("HOUSEDB_APP_CLIENT_CACHE_TTL_SECONDS", DEFAULT_TTL_SECONDS));
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Whether {@code secret} was verified for {@code clientId} against {@code storedHash} within the TTL. A wrong
+     * secret is a plain miss and leaves the entry alone, so it still has to go through PBKDF2.
+     */
+    public boolean matches(final String clientId, final char[] secret, final byte[] storedHash) {
+        if (!enabled() || clientId == null || secret == null || storedHash == null) {
+            return false;
+        }
+        final var entry = entries.get(clientId);
+        if (entry == null) {
+            misses.increment();
+            return false;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            if (entries.remove(clientId, entry)) {
+                expired.increment();
+            }
+            misses.increment();
+            return false;
+        }
+        if (!MessageDigest.isEqual(entry.storedHash(), storedHash)) {
+            if (entries.remove(clientId, entry)) {
+                invalidations.increment();
+            }
+            misses.increment();
+            return false;
+        }
+        if (!MessageDigest.isEqual(entry.secretMac(), mac(secret))) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Records a secret that just passed PBKDF2 against {@code storedHash}.
+     */
+    public void put(final String clientId, final char[] secret, final byte[] storedHash) {
+        if (!enabled() || clientId == null || secret == null || storedHash == null) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(clientId)) {
+            sweep();
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(clientId, new Entry(mac(secret), storedHash.clone(), System.nanoTime() + ttlNanos));
+    }
+
+    public void invalidate(final String clientId) {
+        if (clientId != null && entries.remove(clientId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_app_client_secret_cache_requests_total", "counter",
+                "Client secret lookups in the verified-secret cache.");
+        PrometheusText.sample(out, "housedb_app_client_secret_cache_requests_total",
+                PrometheusText.label("result", "hit"), hits.sum());
+        PrometheusText.sample(out, "housedb_app_client_secret_cache_requests_total",
+                PrometheusText.label("result", "miss"), misses.sum());
+
+        PrometheusText.header(out, "housedb_app_client_secret_cache_evictions_total", "counter",
+                "Verified-secret cache entries dropped by TTL or because the client's secret changed.");
+        PrometheusText.sample(out, "housedb_app_client_secret_cache_evictions_total",
+                PrometheusText.label("reason", "expired"), expired.sum());
+        PrometheusText.sample(out, "housedb_app_client_secret_cache_evictions_total",
+                PrometheusText.label("reason", "invalidated"), invalidations.sum());
+
+        PrometheusText.header(out, "housedb_app_client_secret_cache_entries", "gauge",
+                "Entries in the verified-secret cache.");
+        PrometheusText.sample(out, "housedb_app_client_secret_cache_entries", "", entries.size());
+    }
+
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long now = System.nanoTime();
+            entries.values().removeIf(e -> {
+                if (now - e.expiresAtNanos() >= 0) {
+                    expired.increment();
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private byte[] mac(final char[] secret) {
+        final var encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(secret));
+        try {
+            final var m = mac.get();
+            m.update(encoded);
+            return m.doFinal();
+        } finally {
+            Arrays.fill(encoded.array(), (byte) 0);
+        }
+    }
+
+    private static int intEnv(final String key, final int def) {
+        final var raw = System.getenv(key);
+        if (raw == null || raw.isBlank()) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(raw.trim());
+        } catch (final NumberFormatException e) {
+            return def;
+        }
+    }
+
+    private record Entry(byte[] secretMac, byte[] storedHash, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.rafex.housedb.security;
+
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.rafex.ether.jwt.TokenClaims;
+
+/**
+ * Claims of bearer tokens that already passed {@link JwtService#verify}, so a token that arrives again skips
+ * base64 decoding, the HMAC and claims parsing. Entries are keyed by the SHA-256 of the token (raw tokens are
+ * never retained) and are only served strictly before the token's {@code exp}; tokens without an expiry are not
+ * cached. Reads are a lock-free {@link ConcurrentHashMap} lookup.
+ *
+ * <p>
+ * The cache is bounded: when it is full, expired entries are swept and, if it is still full, new tokens are
+ * verified but not cached until space frees up.
+ */
+public final class VerifiedTokenCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final int maxEntries;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public VerifiedTokenCache(final int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+    }
+
+    public static VerifiedTokenCache fromEnv() {
+        final var raw = System.getenv("HOUSEDB_JWT_CACHE_MAX_ENTRIES");
+        if (raw == null || raw.isBlank()) {
+            return new VerifiedTokenCache(DEFAULT_MAX_ENTRIES);
+        }
+        try {
+            return new VerifiedTokenCache(Integer.parseInt(raw.trim()));
+        } catch (final NumberFormatException e) {
+            return new VerifiedTokenCache(DEFAULT_MAX_ENTRIES);
+        }
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Returns the cached claims for {@code token}, or {@code null} when the token was not verified before or its
+     * {@code exp} is not after {@code nowEpochSeconds}.
+     */
+    public TokenClaims get(final String token, final long nowEpochSeconds) {
+        if (!enabled() || token == null) {
+            return null;
+        }
+        final var key = key(token);
+        final var entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (nowEpochSeconds >= entry.expiresAtEpochSeconds()) {
+            if (entries.remove(key, entry)) {
+                expired.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.claims();
+    }
+
+    /**
+     * Caches claims of a token that was just verified successfully.
+     */
+    public void put(final String token, final TokenClaims claims, final long nowEpochSeconds) {
+        if (!enabled() || token == null || claims == null) {
+            return;
+        }
+        final Instant expiresAt = claims.expiresAt();
+        if (expiresAt == null || expiresAt.getEpochSecond() <= nowEpochSeconds) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            sweep(nowEpochSeconds);
+            if (entries.size() >= maxEntries) {
+                rejected.increment();
+                return;
+            }
+        }
+        entries.put(key(token), new Entry(claims, expiresAt.getEpochSecond()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_jwt_cache_requests_total", "counter",
+                "Bearer token lookups in the verified-token cache.");
+        PrometheusText.sample(out, "housedb_jwt_cache_requests_total", PrometheusText.label("result", "hit"),
+                hits.sum());
+        PrometheusText.sample(out, "housedb_jwt_cache_requests_total", PrometheusText.label("result", "miss"),
+                misses.sum());
+
+        PrometheusText.header(out, "housedb_jwt_cache_evictions_total", "counter",
+                "Verified-token cache entries dropped at token expiry.");
+        PrometheusText.sample(out, "housedb_jwt_cache_evictions_total", "", expired.sum());
+
+        PrometheusText.header(out, "housedb_jwt_cache_rejected_total", "counter",
+                "Verified tokens not cached because the cache was full.");
+        PrometheusText.sample(out, "housedb_jwt_cache_rejected_total", "", rejected.sum());
+
+        PrometheusText.header(out, "housedb_jwt_cache_entries", "gauge", "Entries in the verified-token cache.");
+        PrometheusText.sample(out, "housedb_jwt_cache_entries", "", entries.size());
+    }
+
+    private void sweep(final long nowEpochSeconds) {
+        // One thread sweeps; concurrent writers just see the cache as full for that moment.
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.entrySet().removeIf(e -> {
+                if (nowEpochSeconds >= e.getValue().expiresAtEpochSeconds()) {
+                    expired.increment();
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static Key key(final String token) {
+        final var digest = SHA256.get();
+        final var hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new Key(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    private record Key(long h0, long h1, long h2, long h3) {
+    }
+
+    private record Entry(TokenClaims claims, long expiresAtEpochSeconds) {
+    }
+}
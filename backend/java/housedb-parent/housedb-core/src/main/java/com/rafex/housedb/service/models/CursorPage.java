@@ -0,0 +1,10 @@
+package com.rafex.housedb.service.models;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> items,
+        boolean hasMore,
+        String nextCursor
+) {
+}
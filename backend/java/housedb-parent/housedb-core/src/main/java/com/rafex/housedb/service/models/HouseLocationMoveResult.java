@@ -0,0 +1,12 @@
+package com.rafex.housedb.service.models;
+
+import java.util.UUID;
+
+public record HouseLocationMoveResult(
+        UUID houseLocationId,
+        UUID parentHouseLocationId,
+        String path,
+        int levelDepth,
+        int subtreeSize
+) {
+}
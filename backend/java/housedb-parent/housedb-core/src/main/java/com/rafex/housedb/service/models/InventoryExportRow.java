@@ -0,0 +1,22 @@
+package com.rafex.housedb.service.models;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record InventoryExportRow(
+        UUID inventoryItemId,
+        UUID objectId,
+        UUID objectKiwiId,
+        String objectName,
+        String objectCategory,
+        String nickname,
+        String serialNumber,
+        String conditionStatus,
+        String metadataJson,
+        UUID houseId,
+        String houseName,
+        UUID houseLocationLeafId,
+        String houseLocationPath,
+        Instant updatedAt
+) {
+}
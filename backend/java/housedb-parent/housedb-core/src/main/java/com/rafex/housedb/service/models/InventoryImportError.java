@@ -0,0 +1,7 @@
+package com.rafex.housedb.service.models;
+
+public record InventoryImportError(
+        long rowNumber,
+        String message
+) {
+}
@@ -0,0 +1,10 @@
+package com.rafex.housedb.service.models;
+
+import java.util.List;
+
+public record InventoryImportResult(
+        int importedCount,
+        int rejectedCount,
+        List<InventoryImportError> errors
+) {
+}
@@ -0,0 +1,13 @@
+package com.rafex.housedb.service.models;
+
+import java.util.List;
+
+public record InventoryMap(
+        int zoom,
+        boolean clustered,
+        boolean truncated,
+        List<MapHouse> houses,
+        List<MapCluster> clusters,
+        List<MapItem> items
+) {
+}
@@ -0,0 +1,12 @@
+package com.rafex.housedb.service.models;
+
+import java.util.UUID;
+
+public record ItemMove(
+        UUID inventoryItemId,
+        UUID toHouseLocationLeafId,
+        String movedBy,
+        String movementReason,
+        String notes
+) {
+}
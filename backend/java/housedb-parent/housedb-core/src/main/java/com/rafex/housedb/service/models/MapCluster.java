@@ -0,0 +1,12 @@
+package com.rafex.housedb.service.models;
+
+import java.util.UUID;
+
+public record MapCluster(
+        int count,
+        double latitude,
+        double longitude,
+        UUID inventoryItemId,
+        String objectName
+) {
+}
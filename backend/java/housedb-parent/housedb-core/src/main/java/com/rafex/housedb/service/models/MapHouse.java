@@ -0,0 +1,11 @@
+package com.rafex.housedb.service.models;
+
+import java.util.UUID;
+
+public record MapHouse(
+        UUID houseId,
+        String name,
+        double latitude,
+        double longitude
+) {
+}
@@ -0,0 +1,15 @@
+package com.rafex.housedb.service.models;
+
+import java.util.UUID;
+
+public record MapItem(
+        UUID inventoryItemId,
+        String objectName,
+        UUID houseId,
+        String houseName,
+        UUID houseLocationLeafId,
+        String houseLocationPath,
+        double latitude,
+        double longitude
+) {
+}
@@ -2,6 +2,7 @@ package com.rafex.housedb.services;
 
 import com.rafex.housedb.service.models.HouseCreateResult;
 import com.rafex.housedb.service.models.HouseLocation;
+import com.rafex.housedb.service.models.HouseLocationMoveResult;
 import com.rafex.housedb.service.models.HouseMember;
 import com.rafex.housedb.service.models.HouseSummary;
 
@@ -25,4 +26,7 @@ public interface HouseService {
 
     List<HouseLocation> listHouseLocations(UUID houseId, Boolean includeDisabled, Integer limit, Integer offset)
             throws SQLException;
+
+    HouseLocationMoveResult moveHouseLocation(UUID houseId, UUID houseLocationId, UUID newParentHouseLocationId)
+            throws SQLException;
 }
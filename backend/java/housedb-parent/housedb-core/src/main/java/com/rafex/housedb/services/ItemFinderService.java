@@ -1,14 +1,22 @@
 package com.rafex.housedb.services;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import com.rafex.housedb.service.models.CursorPage;
 import com.rafex.housedb.service.models.FavoriteState;
 import com.rafex.housedb.service.models.HouseItem;
 import com.rafex.housedb.service.models.InventoryCreateResult;
+import com.rafex.housedb.service.models.InventoryExportRow;
+import com.rafex.housedb.service.models.InventoryImportResult;
 import com.rafex.housedb.service.models.InventoryItemDetail;
+import com.rafex.housedb.service.models.InventoryMap;
 import com.rafex.housedb.service.models.InventoryTimelineEvent;
+import com.rafex.housedb.service.models.ItemMove;
 import com.rafex.housedb.service.models.ItemMovement;
 import com.rafex.housedb.service.models.LocationInventoryItem;
 import com.rafex.housedb.service.models.NearbyInventoryItem;
@@ -20,19 +28,63 @@ public interface ItemFinderService {
     List<HouseItem> searchInventoryItems(UUID userId, String text, UUID houseId, UUID houseLocationLeafId,
             Integer limit, Integer offset) throws SQLException;
 
+    CursorPage<HouseItem> listOwnedInventoryItemsPage(UUID userId, Integer limit, String cursor) throws SQLException;
+
+    CursorPage<HouseItem> searchInventoryItemsPage(UUID userId, String text, UUID houseId, UUID houseLocationLeafId,
+            Integer limit, String cursor) throws SQLException;
+
     ItemMovement moveInventoryItem(UUID inventoryItemId, UUID toHouseLocationLeafId, String movedBy,
             String movementReason, String notes) throws SQLException;
 
+    List<ItemMovement> moveInventoryItems(List<ItemMove> moves) throws SQLException;
+
     InventoryCreateResult createInventoryItem(UUID userId, UUID objectId, String nickname, String serialNumber,
             String conditionStatus, String metadataJson, UUID houseLocationLeafId, String movedBy, String notes)
             throws SQLException;
 
+    /**
+     * Creates the object and the inventory item locally with no Kiwi id and queues the Kiwi object creation in the
+     * same transaction. {@code kiwiPayloadJson} is what the outbox dispatcher sends to Kiwi once the leaf has a Kiwi
+     * location.
+     */
+    InventoryCreateResult createInventoryItemPendingKiwi(UUID userId, UUID objectId, String objectName,
+            String objectDescription, String objectCategory, String nickname, String serialNumber,
+            String conditionStatus, String metadataJson, UUID houseLocationLeafId, String movedBy, String notes,
+            String kiwiPayloadJson) throws SQLException;
+
+    /**
+     * Imports inventory items from a {@code csv} (with header) or {@code ndjson} stream without buffering it.
+     * Unless {@code skipInvalid} is true, a single rejected row leaves the inventory untouched.
+     */
+    InventoryImportResult importInventoryItems(UUID userId, String format, InputStream input, String movedBy,
+            Boolean skipInvalid) throws SQLException, IOException;
+
+    /**
+     * Streams every visible item of the user, optionally limited to one house, without paging limits. Rows reach
+     * {@code consumer} while the database cursor is still open.
+     */
+    long exportInventoryItems(UUID userId, UUID houseId, Consumer<InventoryExportRow> consumer) throws SQLException;
+
     UUID upsertHouseLocationFromKiwi(UUID houseId, UUID kiwiLocationId, UUID kiwiParentLocationId,
             UUID parentHouseLocationId, String locationKind, String name, Boolean isLeaf, String path,
             String referenceCode, String notes, Double latitude, Double longitude, Boolean enabled) throws SQLException;
 
+    /**
+     * Creates the house location locally with no Kiwi id and queues the Kiwi location creation in the same
+     * transaction.
+     */
+    UUID createHouseLocationPendingKiwi(UUID houseId, UUID parentHouseLocationId, String locationKind, String name,
+            Boolean isLeaf, String path, String referenceCode, String notes, Double latitude, Double longitude,
+            Boolean enabled) throws SQLException;
+
     UUID findKiwiLocationIdByHouseLocationId(UUID houseLocationId) throws SQLException;
 
+    /**
+     * Whether the house location has a Kiwi location or one is queued for it, i.e. whether Kiwi writes that depend
+     * on it can eventually be sent.
+     */
+    boolean isKiwiLocationLinkedOrPending(UUID houseLocationId) throws SQLException;
+
     UUID findRootKiwiLocationIdByHouseId(UUID houseId) throws SQLException;
 
     UUID upsertObjectFromKiwi(UUID kiwiObjectId, String name, String description, String category, String bucketImage,
@@ -41,14 +93,23 @@ public interface ItemFinderService {
     List<LocationInventoryItem> listInventoryByLocation(UUID userId, UUID houseId, UUID houseLocationId,
             Boolean includeDescendants, Integer limit, Integer offset) throws SQLException;
 
+    CursorPage<LocationInventoryItem> listInventoryByLocationPage(UUID userId, UUID houseId, UUID houseLocationId,
+            Boolean includeDescendants, Integer limit, String cursor) throws SQLException;
+
     List<InventoryTimelineEvent> inventoryItemTimeline(UUID inventoryItemId, Integer limit, Integer offset)
             throws SQLException;
 
+    CursorPage<InventoryTimelineEvent> inventoryItemTimelinePage(UUID inventoryItemId, Integer limit, String cursor)
+            throws SQLException;
+
     FavoriteState setFavoriteItem(UUID userId, UUID inventoryItemId, Boolean isFavorite, String note)
             throws SQLException;
 
     List<NearbyInventoryItem> searchInventoryItemsNearPoint(UUID userId, double latitude, double longitude,
-            Double radiusMeters, Integer limit, Integer offset) throws SQLException;
+            Double radiusMeters, Boolean nearest, Integer limit, Integer offset) throws SQLException;
+
+    InventoryMap inventoryMap(UUID userId, double minLongitude, double minLatitude, double maxLongitude,
+            double maxLatitude, int zoom, Integer limit) throws SQLException;
 
     InventoryItemDetail getInventoryItemDetail(UUID inventoryItemId) throws SQLException;
 }
@@ -2,10 +2,13 @@ package com.rafex.housedb.services.impl;
 
 import com.rafex.housedb.repository.AppClientRepository;
 import com.rafex.housedb.security.PasswordHasherPBKDF2;
+import com.rafex.housedb.security.PasswordHashingExecutor;
+import com.rafex.housedb.security.VerifiedClientSecretCache;
 import com.rafex.housedb.services.AppClientAuthService;
 
 import java.security.SecureRandom;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -19,20 +22,28 @@ public final class AppClientAuthServiceImpl implements AppClientAuthService {
 
     private final AppClientRepository repository;
     private final PasswordHasherPBKDF2 hasher;
+    private final PasswordHashingExecutor verifier;
+    private final VerifiedClientSecretCache secretCache;
+    private final AppClientLastUsedWriter lastUsedWriter;
     private final SecureRandom random;
     private final int saltBytes;
     private final int iterations;
 
-    public AppClientAuthServiceImpl(final AppClientRepository repository, final PasswordHasherPBKDF2 hasher) {
-        this(repository, hasher, new SecureRandom(),
+    public AppClientAuthServiceImpl(final AppClientRepository repository, final PasswordHashingExecutor verifier,
+            final VerifiedClientSecretCache secretCache, final AppClientLastUsedWriter lastUsedWriter) {
+        this(repository, verifier, secretCache, lastUsedWriter, new SecureRandom(),
                 Integer.parseInt(System.getenv().getOrDefault("AUTH_SALT_BYTES", "16")),
                 Integer.parseInt(System.getenv().getOrDefault("AUTH_PBKDF2_ITERATIONS", "120000")));
     }
 
-    public AppClientAuthServiceImpl(final AppClientRepository repository, final PasswordHasherPBKDF2 hasher,
+    public AppClientAuthServiceImpl(final AppClientRepository repository, final PasswordHashingExecutor verifier,
+            final VerifiedClientSecretCache secretCache, final AppClientLastUsedWriter lastUsedWriter,
             final SecureRandom random, final int saltBytes, final int iterations) {
         this.repository = Objects.requireNonNull(repository);
-        this.hasher = Objects.requireNonNull(hasher);
+        this.verifier = Objects.requireNonNull(verifier);
+        this.hasher = verifier.hasher();
+        this.secretCache = Objects.requireNonNull(secretCache);
+        this.lastUsedWriter = Objects.requireNonNull(lastUsedWriter);
         this.random = Objects.requireNonNull(random);
         if (saltBytes < 16) {
             throw new IllegalArgumentException("AUTH_SALT_BYTES debe ser >= 16");
@@ -58,15 +69,20 @@ public final class AppClientAuthServiceImpl implements AppClientAuthService {
 
             final var app = appOpt.get();
             if (app.status() == null || !"active".equalsIgnoreCase(app.status())) {
+                secretCache.invalidate(app.clientId());
                 return AuthResult.bad("client_disabled");
             }
 
-            final var ok = hasher.verify(clientSecret, app.salt(), app.iterations(), app.secretHash());
-            if (!ok) {
-                return AuthResult.bad("invalid_client");
+            // A cached verification is bound to the stored hash, so a rotated secret falls through to PBKDF2.
+            if (!secretCache.matches(app.clientId(), clientSecret, app.secretHash())) {
+                final var ok = verifier.verify(clientSecret, app.salt(), app.iterations(), app.secretHash());
+                if (!ok) {
+                    return AuthResult.bad("invalid_client");
+                }
+                secretCache.put(app.clientId(), clientSecret, app.secretHash());
             }
 
-            repository.touchLastUsed(app.appClientId());
+            lastUsedWriter.record(app.appClientId(), Instant.now());
             return AuthResult.ok(app.appClientId(), app.clientId(), app.roles());
         } catch (final SQLException e) {
             LOG.log(Level.SEVERE, "Error authenticating client " + clientId, e);
@@ -0,0 +1,107 @@
+package com.rafex.housedb.services.impl;
+
+import com.rafex.housedb.repository.AppClientRepository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind buffer for {@code app_clients.last_used_at}. Token requests only record the time in memory; a
+ * daemon thread applies everything buffered in one UPDATE per flush interval, so a client calling
+ * {@code /auth/token} many times per second costs one row update per interval. The column is informational, so
+ * at most one interval of updates is lost on a crash; a failed flush is retried on the next tick.
+ */
+public final class AppClientLastUsedWriter implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(AppClientLastUsedWriter.class.getName());
+
+    private final AppClientRepository repository;
+    private final Map<UUID, Instant> pending = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+
+    private ScheduledExecutorService scheduler;
+
+    public AppClientLastUsedWriter(final AppClientRepository repository) {
+        this.repository = Objects.requireNonNull(repository, "repository");
+    }
+
+    public void record(final UUID appClientId, final Instant usedAt) {
+        pending.merge(appClientId, usedAt, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /**
+     * Flushes every {@code interval} on a daemon thread until {@link #close()}.
+     */
+    public void start(final Duration interval) {
+        Objects.requireNonNull(interval, "interval");
+        synchronized (lock) {
+            if (scheduler != null) {
+                return;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final var thread = new Thread(r, "housedb-app-client-last-used");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long millis = Math.max(100L, interval.toMillis());
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void flush() throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        final var batch = new HashMap<UUID, Instant>();
+        for (final var appClientId : pending.keySet()) {
+            final var usedAt = pending.remove(appClientId);
+            if (usedAt != null) {
+                batch.put(appClientId, usedAt);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            repository.touchLastUsed(batch);
+        } catch (final SQLException | RuntimeException e) {
+            batch.forEach(this::record);
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (final Exception e) {
+            LOG.log(Level.WARNING, "Could not flush app client last-used times; retrying on next tick", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                try {
+                    scheduler.awaitTermination(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                scheduler = null;
+            }
+        }
+        flushQuietly();
+    }
+}
@@ -1,7 +1,8 @@
 package com.rafex.housedb.services.impl;
 
 import com.rafex.housedb.repository.UserRepository;
-import com.rafex.housedb.security.PasswordHasherPBKDF2;
+import com.rafex.housedb.security.PasswordHashingExecutor;
+import com.rafex.housedb.security.UserRolesCache;
 import com.rafex.housedb.services.AuthService;
 
 import java.sql.SQLException;
@@ -15,11 +16,14 @@ public final class AuthServiceImpl implements AuthService {
     private static final Logger LOG = Logger.getLogger(AuthServiceImpl.class.getName());
 
     private final UserRepository repository;
-    private final PasswordHasherPBKDF2 hasher;
+    private final PasswordHashingExecutor hasher;
+    private final UserRolesCache rolesCache;
 
-    public AuthServiceImpl(final UserRepository userRepo, final PasswordHasherPBKDF2 hasher) {
+    public AuthServiceImpl(final UserRepository userRepo, final PasswordHashingExecutor hasher,
+            final UserRolesCache rolesCache) {
         repository = Objects.requireNonNull(userRepo);
         this.hasher = Objects.requireNonNull(hasher);
+        this.rolesCache = Objects.requireNonNull(rolesCache);
     }
 
     @Override
@@ -29,12 +33,12 @@ public final class AuthServiceImpl implements AuthService {
         }
 
         try {
-            final var userOpt = repository.findByUsername(username);
-            if (userOpt.isEmpty()) {
+            final var found = repository.findByUsernameWithRoles(username);
+            if (found.isEmpty()) {
                 return AuthResult.bad("bad_credentials");
             }
 
-            final var user = userOpt.get();
+            final var user = found.get().user();
             if (user.status() == null || !"active".equalsIgnoreCase(user.status())) {
                 return AuthResult.bad("user_disabled");
             }
@@ -44,7 +48,8 @@ public final class AuthServiceImpl implements AuthService {
                 return AuthResult.bad("bad_credentials");
             }
 
-            final var roles = repository.findRoleNamesByUserId(user.userId());
+            final var roles = found.get().roles();
+            rolesCache.put(user.userId(), user.rolesVersion(), roles);
             return AuthResult.ok(user.userId(), user.username(), roles);
 
         } catch (final SQLException e) {
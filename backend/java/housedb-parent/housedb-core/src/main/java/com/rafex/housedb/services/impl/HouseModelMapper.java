@@ -2,10 +2,12 @@ package com.rafex.housedb.services.impl;
 
 import com.rafex.housedb.repository.models.HouseCreateResultEntity;
 import com.rafex.housedb.repository.models.HouseLocationEntity;
+import com.rafex.housedb.repository.models.HouseLocationMoveResultEntity;
 import com.rafex.housedb.repository.models.HouseMemberEntity;
 import com.rafex.housedb.repository.models.HouseSummaryEntity;
 import com.rafex.housedb.service.models.HouseCreateResult;
 import com.rafex.housedb.service.models.HouseLocation;
+import com.rafex.housedb.service.models.HouseLocationMoveResult;
 import com.rafex.housedb.service.models.HouseMember;
 import com.rafex.housedb.service.models.HouseSummary;
 
@@ -45,4 +47,9 @@ final class HouseModelMapper {
                 source.path(), source.levelDepth(), source.latitude(), source.longitude(), source.referenceCode(),
                 source.isLeaf(), source.notes(), source.enabled());
     }
+
+    HouseLocationMoveResult toHouseLocationMoveResult(final HouseLocationMoveResultEntity source) {
+        return new HouseLocationMoveResult(source.houseLocationId(), source.parentHouseLocationId(), source.path(),
+                source.levelDepth(), source.subtreeSize());
+    }
 }
@@ -3,6 +3,7 @@ package com.rafex.housedb.services.impl;
 import com.rafex.housedb.repository.HouseManagementRepository;
 import com.rafex.housedb.service.models.HouseCreateResult;
 import com.rafex.housedb.service.models.HouseLocation;
+import com.rafex.housedb.service.models.HouseLocationMoveResult;
 import com.rafex.housedb.service.models.HouseMember;
 import com.rafex.housedb.service.models.HouseSummary;
 import com.rafex.housedb.services.HouseService;
@@ -20,14 +21,21 @@ public final class HouseServiceImpl implements HouseService {
 
     private final HouseManagementRepository repository;
     private final HouseModelMapper mapper;
+    private final NearbyItemIndex nearbyIndex;
 
     public HouseServiceImpl(final HouseManagementRepository repository) {
-        this(repository, new HouseModelMapper());
+        this(repository, null);
     }
 
-    HouseServiceImpl(final HouseManagementRepository repository, final HouseModelMapper mapper) {
+    public HouseServiceImpl(final HouseManagementRepository repository, final NearbyItemIndex nearbyIndex) {
+        this(repository, new HouseModelMapper(), nearbyIndex);
+    }
+
+    HouseServiceImpl(final HouseManagementRepository repository, final HouseModelMapper mapper,
+            final NearbyItemIndex nearbyIndex) {
         this.repository = Objects.requireNonNull(repository, "repository");
         this.mapper = Objects.requireNonNull(mapper, "mapper");
+        this.nearbyIndex = nearbyIndex;
     }
 
     @Override
@@ -102,6 +110,23 @@ public final class HouseServiceImpl implements HouseService {
                 normalizeOffset(offset)));
     }
 
+    @Override
+    public HouseLocationMoveResult moveHouseLocation(final UUID houseId, final UUID houseLocationId,
+            final UUID newParentHouseLocationId) throws SQLException {
+        if (houseId == null || houseLocationId == null) {
+            throw new IllegalArgumentException("houseId and houseLocationId are required");
+        }
+        if (houseLocationId.equals(newParentHouseLocationId)) {
+            throw new IllegalArgumentException("a house location cannot be its own parent");
+        }
+        final var result = mapper.toHouseLocationMoveResult(
+                repository.moveHouseLocation(houseId, houseLocationId, newParentHouseLocationId));
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshHouse(houseId);
+        }
+        return result;
+    }
+
     private static int normalizeLimit(final Integer value, final int max) {
         if (value == null || value < 1) {
             return DEFAULT_LIMIT;
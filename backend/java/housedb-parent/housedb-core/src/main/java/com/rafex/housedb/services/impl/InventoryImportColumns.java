@@ -0,0 +1,88 @@
+package com.rafex.housedb.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps a CSV import header to staging column names. Header names are matched ignoring case and underscores, so
+ * both the REST field names ({@code objectKiwiId}) and column names ({@code object_kiwi_id}) are accepted. The
+ * read-only columns written by {@code /items/export} are accepted too and ignored by the import, so an exported CSV
+ * can be imported back unchanged.
+ */
+final class InventoryImportColumns {
+
+    private static final int MAX_HEADER_BYTES = 4096;
+
+    private static final Map<String, String> COLUMNS = Map.ofEntries(
+            Map.entry("objectid", "object_id"),
+            Map.entry("objectkiwiid", "object_kiwi_id"),
+            Map.entry("objectname", "object_name"),
+            Map.entry("objectcategory", "object_category"),
+            Map.entry("category", "object_category"),
+            Map.entry("nickname", "nickname"),
+            Map.entry("serialnumber", "serial_number"),
+            Map.entry("conditionstatus", "condition_status"),
+            Map.entry("metadata", "metadata"),
+            Map.entry("houselocationleafid", "house_location_leaf_id"),
+            Map.entry("notes", "notes"),
+            Map.entry("inventoryitemid", "inventory_item_id"),
+            Map.entry("houseid", "house_id"),
+            Map.entry("housename", "house_name"),
+            Map.entry("houselocationpath", "house_location_path"),
+            Map.entry("updatedat", "updated_at"));
+
+    private InventoryImportColumns() {
+    }
+
+    /**
+     * Consumes the header line, leaving {@code input} positioned at the first record.
+     */
+    static List<String> readCsvHeader(final InputStream input) throws IOException {
+        final var line = new ByteArrayOutputStream();
+        int b;
+        while ((b = input.read()) != -1 && b != '\n') {
+            if (line.size() >= MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("CSV header is longer than " + MAX_HEADER_BYTES + " bytes");
+            }
+            line.write(b);
+        }
+
+        var header = line.toString(StandardCharsets.UTF_8);
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        if (header.endsWith("\r")) {
+            header = header.substring(0, header.length() - 1);
+        }
+        if (header.isBlank()) {
+            throw new IllegalArgumentException("CSV header is required");
+        }
+
+        final var columns = new ArrayList<String>();
+        for (final var raw : header.split(",", -1)) {
+            var name = raw.trim();
+            if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+                name = name.substring(1, name.length() - 1).trim();
+            }
+            final var column = COLUMNS.get(name.replace("_", "").toLowerCase(Locale.ROOT));
+            if (column == null) {
+                throw new IllegalArgumentException("unknown CSV column: " + name);
+            }
+            if (columns.contains(column)) {
+                throw new IllegalArgumentException("CSV column is repeated: " + name);
+            }
+            columns.add(column);
+        }
+
+        if (!columns.contains("object_id") && !columns.contains("object_kiwi_id")) {
+            throw new IllegalArgumentException("CSV header must contain objectId or objectKiwiId");
+        }
+        return columns;
+    }
+}
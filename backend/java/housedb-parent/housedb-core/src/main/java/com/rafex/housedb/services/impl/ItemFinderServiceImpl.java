@@ -3,44 +3,73 @@ package com.rafex.housedb.services.impl;
 import com.rafex.housedb.repository.HouseLocationSyncRepository;
 import com.rafex.housedb.repository.InventoryMutationRepository;
 import com.rafex.housedb.repository.InventorySearchRepository;
+import com.rafex.housedb.service.models.CursorPage;
 import com.rafex.housedb.service.models.FavoriteState;
 import com.rafex.housedb.service.models.HouseItem;
 import com.rafex.housedb.service.models.InventoryCreateResult;
+import com.rafex.housedb.service.models.InventoryExportRow;
+import com.rafex.housedb.service.models.InventoryImportResult;
 import com.rafex.housedb.service.models.InventoryItemDetail;
+import com.rafex.housedb.service.models.InventoryMap;
 import com.rafex.housedb.service.models.InventoryTimelineEvent;
+import com.rafex.housedb.service.models.ItemMove;
 import com.rafex.housedb.service.models.ItemMovement;
 import com.rafex.housedb.service.models.LocationInventoryItem;
 import com.rafex.housedb.service.models.NearbyInventoryItem;
 import com.rafex.housedb.services.ItemFinderService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public final class ItemFinderServiceImpl implements ItemFinderService {
 
     private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_MOVE_BATCH = 500;
+    private static final int MAX_IMPORT_ERRORS = 100;
+    private static final int DEFAULT_MAP_LIMIT = 500;
+    private static final int MAX_MAP_LIMIT = 2000;
+    private static final int MAX_MAP_ZOOM = 22;
+    // Up to this zoom level the map returns grid clusters instead of individual items.
+    private static final int MAP_CLUSTER_MAX_ZOOM = 14;
+    // Cells per 256px tile side, i.e. roughly one cluster per 64px.
+    private static final int MAP_CELLS_PER_TILE = 4;
 
     private final InventorySearchRepository searchRepository;
     private final InventoryMutationRepository mutationRepository;
     private final HouseLocationSyncRepository locationSyncRepository;
     private final ItemModelMapper mapper;
+    private final NearbyItemIndex nearbyIndex;
 
     public ItemFinderServiceImpl(final InventorySearchRepository searchRepository,
             final InventoryMutationRepository mutationRepository,
             final HouseLocationSyncRepository locationSyncRepository) {
-        this(searchRepository, mutationRepository, locationSyncRepository, new ItemModelMapper());
+        this(searchRepository, mutationRepository, locationSyncRepository, null);
+    }
+
+    public ItemFinderServiceImpl(final InventorySearchRepository searchRepository,
+            final InventoryMutationRepository mutationRepository,
+            final HouseLocationSyncRepository locationSyncRepository, final NearbyItemIndex nearbyIndex) {
+        this(searchRepository, mutationRepository, locationSyncRepository, new ItemModelMapper(), nearbyIndex);
     }
 
     ItemFinderServiceImpl(final InventorySearchRepository searchRepository,
             final InventoryMutationRepository mutationRepository,
             final HouseLocationSyncRepository locationSyncRepository,
-            final ItemModelMapper mapper) {
+            final ItemModelMapper mapper, final NearbyItemIndex nearbyIndex) {
         this.searchRepository = Objects.requireNonNull(searchRepository, "searchRepository");
         this.mutationRepository = Objects.requireNonNull(mutationRepository, "mutationRepository");
         this.locationSyncRepository = Objects.requireNonNull(locationSyncRepository, "locationSyncRepository");
         this.mapper = Objects.requireNonNull(mapper, "mapper");
+        this.nearbyIndex = nearbyIndex;
     }
 
     @Override
@@ -60,14 +89,63 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
                         normalizeOffset(offset)));
     }
 
+    @Override
+    public CursorPage<HouseItem> listOwnedInventoryItemsPage(final UUID userId, final Integer limit,
+            final String cursor) throws SQLException {
+        return searchInventoryItemsPage(userId, null, null, null, limit, cursor);
+    }
+
+    @Override
+    public CursorPage<HouseItem> searchInventoryItemsPage(final UUID userId, final String text, final UUID houseId,
+            final UUID houseLocationLeafId, final Integer limit, final String cursor) throws SQLException {
+        requireUser(userId);
+        final var safeLimit = normalizeLimit(limit);
+        final var after = cursor == null ? null : KeysetCursor.decodeSearch(cursor);
+        final var rows = searchRepository.searchInventoryItemsAfter(userId, text, houseId, houseLocationLeafId,
+                after == null ? null : after.rank(), after == null ? null : after.updatedAt(),
+                after == null ? null : after.inventoryItemId(), safeLimit + 1);
+        return toPage(rows, safeLimit, mapper::toHouseItem, last -> KeysetCursor.encodeSearch(
+                new KeysetCursor.SearchKey(last.rank(), last.updatedAt(), last.inventoryItemId())));
+    }
+
     @Override
     public ItemMovement moveInventoryItem(final UUID inventoryItemId, final UUID toHouseLocationLeafId,
             final String movedBy, final String movementReason, final String notes) throws SQLException {
         if (inventoryItemId == null || toHouseLocationLeafId == null) {
             throw new IllegalArgumentException("inventoryItemId and toHouseLocationLeafId are required");
         }
-        return mapper.toItemMovement(mutationRepository.moveInventoryItem(inventoryItemId, toHouseLocationLeafId,
-                movedBy, movementReason, notes));
+        final var movement = mapper.toItemMovement(mutationRepository.moveInventoryItem(inventoryItemId,
+                toHouseLocationLeafId, movedBy, movementReason, notes));
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshItems(List.of(inventoryItemId));
+        }
+        return movement;
+    }
+
+    @Override
+    public List<ItemMovement> moveInventoryItems(final List<ItemMove> moves) throws SQLException {
+        if (moves == null || moves.isEmpty()) {
+            throw new IllegalArgumentException("moves are required");
+        }
+        if (moves.size() > MAX_MOVE_BATCH) {
+            throw new IllegalArgumentException("moves must contain at most " + MAX_MOVE_BATCH + " entries");
+        }
+        final var seen = new HashSet<UUID>();
+        for (final var move : moves) {
+            if (move == null || move.inventoryItemId() == null || move.toHouseLocationLeafId() == null) {
+                throw new IllegalArgumentException("inventoryItemId and toHouseLocationLeafId are required");
+            }
+            if (!seen.add(move.inventoryItemId())) {
+                throw new IllegalArgumentException("inventoryItemId " + move.inventoryItemId() + " is repeated");
+            }
+        }
+
+        final var movements = mapper.toItemMovements(
+                mutationRepository.moveInventoryItems(moves.stream().map(mapper::toItemMoveEntity).toList()));
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshItems(seen);
+        }
+        return movements;
     }
 
     @Override
@@ -80,8 +158,71 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
             throw new IllegalArgumentException("objectId is required");
         }
         final var safeStatus = conditionStatus == null || conditionStatus.isBlank() ? "active" : conditionStatus;
-        return mapper.toInventoryCreateResult(mutationRepository.createInventoryItem(userId, objectId, nickname,
-                serialNumber, safeStatus, metadataJson, houseLocationLeafId, movedBy, notes));
+        final var created = mapper.toInventoryCreateResult(mutationRepository.createInventoryItem(userId, objectId,
+                nickname, serialNumber, safeStatus, metadataJson, houseLocationLeafId, movedBy, notes));
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshItems(List.of(created.inventoryItemId()));
+        }
+        return created;
+    }
+
+    @Override
+    public InventoryCreateResult createInventoryItemPendingKiwi(final UUID userId, final UUID objectId,
+            final String objectName, final String objectDescription, final String objectCategory,
+            final String nickname, final String serialNumber, final String conditionStatus, final String metadataJson,
+            final UUID houseLocationLeafId, final String movedBy, final String notes, final String kiwiPayloadJson)
+            throws SQLException {
+        requireUser(userId);
+        if (objectId == null) {
+            throw new IllegalArgumentException("objectId is required");
+        }
+        if (objectName == null || objectName.isBlank()) {
+            throw new IllegalArgumentException("objectName is required");
+        }
+        if (houseLocationLeafId == null) {
+            throw new IllegalArgumentException("houseLocationLeafId is required");
+        }
+        final var safeStatus = conditionStatus == null || conditionStatus.isBlank() ? "active" : conditionStatus;
+        final var created = mapper.toInventoryCreateResult(mutationRepository.createInventoryItemPendingKiwi(userId,
+                objectId, objectName, objectDescription, objectCategory, nickname, serialNumber, safeStatus,
+                metadataJson, houseLocationLeafId, movedBy, notes, kiwiPayloadJson));
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshItems(List.of(created.inventoryItemId()));
+        }
+        return created;
+    }
+
+    @Override
+    public InventoryImportResult importInventoryItems(final UUID userId, final String format, final InputStream input,
+            final String movedBy, final Boolean skipInvalid) throws SQLException, IOException {
+        requireUser(userId);
+        if (input == null) {
+            throw new IllegalArgumentException("input is required");
+        }
+        final boolean skip = Boolean.TRUE.equals(skipInvalid);
+        final var safeFormat = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        final var imported = switch (safeFormat) {
+        case "csv" -> mutationRepository.importInventoryItemsCsv(userId, InventoryImportColumns.readCsvHeader(input),
+                input, movedBy, skip, MAX_IMPORT_ERRORS);
+        case "ndjson", "jsonl" -> mutationRepository.importInventoryItemsNdjson(userId, input, movedBy, skip,
+                MAX_IMPORT_ERRORS);
+        default -> throw new IllegalArgumentException("format must be csv or ndjson");
+        };
+        if (nearbyIndex != null) {
+            for (final var houseId : imported.houseIds()) {
+                nearbyIndex.refreshHouse(houseId);
+            }
+        }
+        return mapper.toInventoryImportResult(imported);
+    }
+
+    @Override
+    public long exportInventoryItems(final UUID userId, final UUID houseId, final Consumer<InventoryExportRow> consumer)
+            throws SQLException {
+        requireUser(userId);
+        Objects.requireNonNull(consumer, "consumer");
+        return searchRepository.exportInventoryItems(userId, houseId,
+                row -> consumer.accept(mapper.toInventoryExportRow(row)));
     }
 
     @Override
@@ -93,9 +234,34 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
             throw new IllegalArgumentException("houseId and kiwiLocationId are required");
         }
         final var safeKind = locationKind == null || locationKind.isBlank() ? "slot" : locationKind;
-        return locationSyncRepository.upsertHouseLocationFromKiwi(houseId, kiwiLocationId, kiwiParentLocationId,
+        final var houseLocationId = locationSyncRepository.upsertHouseLocationFromKiwi(houseId, kiwiLocationId,
+                kiwiParentLocationId, parentHouseLocationId, safeKind, name, isLeaf, path, referenceCode, notes,
+                latitude, longitude, enabled);
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshHouse(houseId);
+        }
+        return houseLocationId;
+    }
+
+    @Override
+    public UUID createHouseLocationPendingKiwi(final UUID houseId, final UUID parentHouseLocationId,
+            final String locationKind, final String name, final Boolean isLeaf, final String path,
+            final String referenceCode, final String notes, final Double latitude, final Double longitude,
+            final Boolean enabled) throws SQLException {
+        if (houseId == null) {
+            throw new IllegalArgumentException("houseId is required");
+        }
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        final var safeKind = locationKind == null || locationKind.isBlank() ? "slot" : locationKind;
+        final var houseLocationId = locationSyncRepository.createHouseLocationPendingKiwi(houseId,
                 parentHouseLocationId, safeKind, name, isLeaf, path, referenceCode, notes, latitude, longitude,
                 enabled);
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshHouse(houseId);
+        }
+        return houseLocationId;
     }
 
     @Override
@@ -106,6 +272,14 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
         return locationSyncRepository.findKiwiLocationIdByHouseLocationId(houseLocationId);
     }
 
+    @Override
+    public boolean isKiwiLocationLinkedOrPending(final UUID houseLocationId) throws SQLException {
+        if (houseLocationId == null) {
+            throw new IllegalArgumentException("houseLocationId is required");
+        }
+        return locationSyncRepository.isKiwiLocationLinkedOrPending(houseLocationId);
+    }
+
     @Override
     public UUID findRootKiwiLocationIdByHouseId(final UUID houseId) throws SQLException {
         if (houseId == null) {
@@ -123,8 +297,12 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("name is required");
         }
-        return locationSyncRepository.upsertObjectFromKiwi(kiwiObjectId, name, description, category, bucketImage,
-                enabled == null ? Boolean.TRUE : enabled);
+        final var objectId = locationSyncRepository.upsertObjectFromKiwi(kiwiObjectId, name, description, category,
+                bucketImage, enabled == null ? Boolean.TRUE : enabled);
+        if (nearbyIndex != null) {
+            nearbyIndex.refreshObject(objectId);
+        }
+        return objectId;
     }
 
     @Override
@@ -137,6 +315,21 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
                 normalizeOffset(offset)));
     }
 
+    @Override
+    public CursorPage<LocationInventoryItem> listInventoryByLocationPage(final UUID userId, final UUID houseId,
+            final UUID houseLocationId, final Boolean includeDescendants, final Integer limit, final String cursor)
+            throws SQLException {
+        requireUser(userId);
+        final var safeLimit = normalizeLimit(limit, 200);
+        final var after = cursor == null ? null : KeysetCursor.decodeLocation(cursor);
+        final var rows = searchRepository.listInventoryByLocationAfter(userId, houseId, houseLocationId,
+                includeDescendants == null ? Boolean.TRUE : includeDescendants,
+                after == null ? null : after.path(), after == null ? null : after.objectName(),
+                after == null ? null : after.inventoryItemId(), safeLimit + 1);
+        return toPage(rows, safeLimit, mapper::toLocationInventoryItem, last -> KeysetCursor.encodeLocation(
+                new KeysetCursor.LocationKey(last.houseLocationPath(), last.objectName(), last.inventoryItemId())));
+    }
+
     @Override
     public List<InventoryTimelineEvent> inventoryItemTimeline(final UUID inventoryItemId, final Integer limit,
             final Integer offset)
@@ -149,6 +342,21 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
                         normalizeOffset(offset)));
     }
 
+    @Override
+    public CursorPage<InventoryTimelineEvent> inventoryItemTimelinePage(final UUID inventoryItemId,
+            final Integer limit, final String cursor) throws SQLException {
+        if (inventoryItemId == null) {
+            throw new IllegalArgumentException("inventoryItemId is required");
+        }
+        final var safeLimit = normalizeLimit(limit, 100);
+        final var after = cursor == null ? null : KeysetCursor.decodeTimeline(cursor);
+        final var rows = searchRepository.inventoryItemTimelineAfter(inventoryItemId,
+                after == null ? null : after.movedAt(), after == null ? null : after.itemMovementId(),
+                safeLimit + 1);
+        return toPage(rows, safeLimit, mapper::toInventoryTimelineEvent, last -> KeysetCursor.encodeTimeline(
+                new KeysetCursor.TimelineKey(last.movedAt(), last.itemMovementId())));
+    }
+
     @Override
     public FavoriteState setFavoriteItem(final UUID userId, final UUID inventoryItemId, final Boolean isFavorite,
             final String note) throws SQLException {
@@ -162,13 +370,48 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
 
     @Override
     public List<NearbyInventoryItem> searchInventoryItemsNearPoint(final UUID userId, final double latitude,
-            final double longitude, final Double radiusMeters, final Integer limit, final Integer offset)
-            throws SQLException {
+            final double longitude, final Double radiusMeters, final Boolean nearest, final Integer limit,
+            final Integer offset) throws SQLException {
         requireUser(userId);
-        final var safeRadius = radiusMeters == null || radiusMeters <= 0 ? 1000D : radiusMeters;
+        // nearest mode ranks by distance without a cap unless a radius is given explicitly.
+        final Double safeRadius;
+        if (radiusMeters != null && radiusMeters > 0) {
+            safeRadius = radiusMeters;
+        } else {
+            safeRadius = Boolean.TRUE.equals(nearest) ? null : 1000D;
+        }
+        final var safeLimit = normalizeLimit(limit);
+        final var safeOffset = normalizeOffset(offset);
+        if (nearbyIndex != null) {
+            final var cached = nearbyIndex.search(userId, latitude, longitude, safeRadius, safeLimit, safeOffset);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
         return mapper.toNearbyInventoryItems(
-                searchRepository.searchInventoryItemsNearPoint(userId, latitude, longitude, safeRadius,
-                        normalizeLimit(limit), normalizeOffset(offset)));
+                searchRepository.searchInventoryItemsNearPoint(userId, latitude, longitude, safeRadius, safeLimit,
+                        safeOffset));
+    }
+
+    @Override
+    public InventoryMap inventoryMap(final UUID userId, final double minLongitude, final double minLatitude,
+            final double maxLongitude, final double maxLatitude, final int zoom, final Integer limit)
+            throws SQLException {
+        requireUser(userId);
+        if (zoom < 0 || zoom > MAX_MAP_ZOOM) {
+            throw new IllegalArgumentException("zoom must be between 0 and " + MAX_MAP_ZOOM);
+        }
+        if (minLongitude < -180D || maxLongitude > 180D || minLatitude < -90D || maxLatitude > 90D) {
+            throw new IllegalArgumentException("bbox is out of range");
+        }
+        if (minLongitude >= maxLongitude || minLatitude >= maxLatitude) {
+            throw new IllegalArgumentException("bbox must be minLongitude,minLatitude,maxLongitude,maxLatitude");
+        }
+        final var safeLimit = limit == null || limit < 1 ? DEFAULT_MAP_LIMIT : Math.min(limit, MAX_MAP_LIMIT);
+        final boolean clustered = zoom <= MAP_CLUSTER_MAX_ZOOM;
+        final Double cellDegrees = clustered ? 360D / (1L << zoom) / MAP_CELLS_PER_TILE : null;
+        return mapper.toInventoryMap(zoom, clustered, searchRepository.listInventoryMapFeatures(userId, minLongitude,
+                minLatitude, maxLongitude, maxLatitude, cellDegrees, safeLimit + 1), safeLimit);
     }
 
     @Override
@@ -179,6 +422,18 @@ public final class ItemFinderServiceImpl implements ItemFinderService {
         return mapper.toInventoryItemDetail(searchRepository.getInventoryItemDetail(inventoryItemId));
     }
 
+    private static <E, M> CursorPage<M> toPage(final List<E> rows, final int limit, final Function<E, M> mapper,
+            final Function<E, String> cursorOf) {
+        final boolean hasMore = rows.size() > limit;
+        final var visible = hasMore ? rows.subList(0, limit) : rows;
+        final var items = new ArrayList<M>(visible.size());
+        for (final var row : visible) {
+            items.add(mapper.apply(row));
+        }
+        final String nextCursor = hasMore ? cursorOf.apply(visible.get(visible.size() - 1)) : null;
+        return new CursorPage<>(items, hasMore, nextCursor);
+    }
+
     private static void requireUser(final UUID userId) {
         if (userId == null) {
             throw new IllegalArgumentException("userId is required");
@@ -3,20 +3,33 @@ package com.rafex.housedb.services.impl;
 import com.rafex.housedb.repository.models.FavoriteStateEntity;
 import com.rafex.housedb.repository.models.HouseItemEntity;
 import com.rafex.housedb.repository.models.InventoryCreateResultEntity;
+import com.rafex.housedb.repository.models.InventoryExportRowEntity;
+import com.rafex.housedb.repository.models.InventoryImportResultEntity;
 import com.rafex.housedb.repository.models.InventoryItemDetailEntity;
 import com.rafex.housedb.repository.models.InventoryTimelineEventEntity;
+import com.rafex.housedb.repository.models.ItemMoveEntity;
 import com.rafex.housedb.repository.models.ItemMovementEntity;
 import com.rafex.housedb.repository.models.LocationInventoryItemEntity;
+import com.rafex.housedb.repository.models.MapFeatureEntity;
 import com.rafex.housedb.repository.models.NearbyInventoryItemEntity;
 import com.rafex.housedb.service.models.FavoriteState;
 import com.rafex.housedb.service.models.HouseItem;
 import com.rafex.housedb.service.models.InventoryCreateResult;
+import com.rafex.housedb.service.models.InventoryExportRow;
+import com.rafex.housedb.service.models.InventoryImportError;
+import com.rafex.housedb.service.models.InventoryImportResult;
 import com.rafex.housedb.service.models.InventoryItemDetail;
+import com.rafex.housedb.service.models.InventoryMap;
 import com.rafex.housedb.service.models.InventoryTimelineEvent;
+import com.rafex.housedb.service.models.ItemMove;
 import com.rafex.housedb.service.models.ItemMovement;
 import com.rafex.housedb.service.models.LocationInventoryItem;
+import com.rafex.housedb.service.models.MapCluster;
+import com.rafex.housedb.service.models.MapHouse;
+import com.rafex.housedb.service.models.MapItem;
 import com.rafex.housedb.service.models.NearbyInventoryItem;
 
+import java.util.ArrayList;
 import java.util.List;
 
 final class ItemModelMapper {
@@ -36,10 +49,31 @@ final class ItemModelMapper {
                 source.toHouseLocationLeafId(), source.movedAt());
     }
 
+    List<ItemMovement> toItemMovements(final List<ItemMovementEntity> source) {
+        return source.stream().map(this::toItemMovement).toList();
+    }
+
+    ItemMoveEntity toItemMoveEntity(final ItemMove source) {
+        return new ItemMoveEntity(source.inventoryItemId(), source.toHouseLocationLeafId(), source.movedBy(),
+                source.movementReason(), source.notes());
+    }
+
     InventoryCreateResult toInventoryCreateResult(final InventoryCreateResultEntity source) {
         return new InventoryCreateResult(source.inventoryItemId(), source.itemMovementId());
     }
 
+    InventoryImportResult toInventoryImportResult(final InventoryImportResultEntity source) {
+        return new InventoryImportResult(source.importedCount(), source.rejectedCount(), source.errors().stream()
+                .map(error -> new InventoryImportError(error.rowNumber(), error.message())).toList());
+    }
+
+    InventoryExportRow toInventoryExportRow(final InventoryExportRowEntity source) {
+        return new InventoryExportRow(source.inventoryItemId(), source.objectId(), source.objectKiwiId(),
+                source.objectName(), source.objectCategory(), source.nickname(), source.serialNumber(),
+                source.conditionStatus(), source.metadataJson(), source.houseId(), source.houseName(),
+                source.houseLocationLeafId(), source.houseLocationPath(), source.updatedAt());
+    }
+
     List<LocationInventoryItem> toLocationInventoryItems(final List<LocationInventoryItemEntity> source) {
         return source.stream().map(this::toLocationInventoryItem).toList();
     }
@@ -74,6 +108,40 @@ final class ItemModelMapper {
                 source.distanceMeters());
     }
 
+    InventoryMap toInventoryMap(final int zoom, final boolean clustered, final List<MapFeatureEntity> source,
+            final int limit) {
+        final var houses = new ArrayList<MapHouse>();
+        final var clusters = new ArrayList<MapCluster>();
+        final var items = new ArrayList<MapItem>();
+        boolean truncated = false;
+        for (final var feature : source) {
+            switch (feature.featureKind()) {
+            case "house" -> houses.add(new MapHouse(feature.houseId(), feature.houseName(), feature.latitude(),
+                    feature.longitude()));
+            case "cluster" -> {
+                if (clusters.size() < limit) {
+                    clusters.add(new MapCluster(feature.itemCount() == null ? 0 : feature.itemCount(),
+                            feature.latitude(), feature.longitude(), feature.inventoryItemId(), feature.objectName()));
+                } else {
+                    truncated = true;
+                }
+            }
+            case "item" -> {
+                if (items.size() < limit) {
+                    items.add(new MapItem(feature.inventoryItemId(), feature.objectName(), feature.houseId(),
+                            feature.houseName(), feature.houseLocationLeafId(), feature.houseLocationPath(),
+                            feature.latitude(), feature.longitude()));
+                } else {
+                    truncated = true;
+                }
+            }
+            default -> {
+            }
+            }
+        }
+        return new InventoryMap(zoom, clustered, truncated, houses, clusters, items);
+    }
+
     InventoryItemDetail toInventoryItemDetail(final InventoryItemDetailEntity source) {
         if (source == null) {
             return null;
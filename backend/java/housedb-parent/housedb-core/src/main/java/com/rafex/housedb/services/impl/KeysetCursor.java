@@ -0,0 +1,145 @@
+package com.rafex.housedb.services.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque pagination cursor carrying the sort key of the last row of a page.
+ * The payload is versioned and tagged with the listing it belongs to, so a
+ * cursor issued by one endpoint is rejected by the others.
+ */
+final class KeysetCursor {
+
+    private static final int VERSION = 1;
+    private static final byte KIND_SEARCH = 'S';
+    private static final byte KIND_LOCATION = 'L';
+    private static final byte KIND_TIMELINE = 'T';
+
+    private KeysetCursor() {
+    }
+
+    static String encodeSearch(final SearchKey key) {
+        return encode(KIND_SEARCH, out -> {
+            out.writeFloat(key.rank());
+            writeInstant(out, key.updatedAt());
+            writeUuid(out, key.inventoryItemId());
+        });
+    }
+
+    static SearchKey decodeSearch(final String cursor) {
+        return decode(cursor, KIND_SEARCH,
+                in -> new SearchKey(in.readFloat(), readInstant(in), readUuid(in)));
+    }
+
+    static String encodeLocation(final LocationKey key) {
+        return encode(KIND_LOCATION, out -> {
+            writeString(out, key.path());
+            writeString(out, key.objectName());
+            writeUuid(out, key.inventoryItemId());
+        });
+    }
+
+    static LocationKey decodeLocation(final String cursor) {
+        return decode(cursor, KIND_LOCATION,
+                in -> new LocationKey(readString(in), readString(in), readUuid(in)));
+    }
+
+    static String encodeTimeline(final TimelineKey key) {
+        return encode(KIND_TIMELINE, out -> {
+            writeInstant(out, key.movedAt());
+            writeUuid(out, key.itemMovementId());
+        });
+    }
+
+    static TimelineKey decodeTimeline(final String cursor) {
+        return decode(cursor, KIND_TIMELINE, in -> new TimelineKey(readInstant(in), readUuid(in)));
+    }
+
+    private static String encode(final byte kind, final Writer writer) {
+        final var bytes = new ByteArrayOutputStream(64);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(kind);
+            writer.write(out);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static <T> T decode(final String cursor, final byte kind, final Reader<T> reader) {
+        final byte[] raw;
+        try {
+            raw = Base64.getUrlDecoder().decode(cursor);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("cursor is invalid");
+        }
+        try (var in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            if (in.readUnsignedByte() != VERSION || in.readByte() != kind) {
+                throw new IllegalArgumentException("cursor is invalid");
+            }
+            final var value = reader.read(in);
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("cursor is invalid");
+            }
+            return value;
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("cursor is invalid");
+        }
+    }
+
+    private static void writeInstant(final DataOutputStream out, final Instant value) throws IOException {
+        out.writeLong(value.getEpochSecond());
+        out.writeInt(value.getNano());
+    }
+
+    private static Instant readInstant(final DataInputStream in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+
+    private static void writeUuid(final DataOutputStream out, final UUID value) throws IOException {
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(final DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    record SearchKey(float rank, Instant updatedAt, UUID inventoryItemId) {
+    }
+
+    record LocationKey(String path, String objectName, UUID inventoryItemId) {
+    }
+
+    record TimelineKey(Instant movedAt, UUID itemMovementId) {
+    }
+}
@@ -0,0 +1,414 @@
+package com.rafex.housedb.services.impl;
+
+import com.rafex.housedb.repository.InventorySearchRepository;
+import com.rafex.housedb.repository.models.NearbyIndexEntryEntity;
+import com.rafex.housedb.service.models.NearbyInventoryItem;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory grid of visible inventory items keyed per user, used to answer nearby searches without a
+ * PostGIS round trip. Postgres stays the source of truth: the grid is loaded from
+ * {@code inventory_search_view}, refreshed incrementally after local mutations and reloaded periodically
+ * to pick up writes from other instances. While cold (not loaded yet, or after a failed refresh) callers
+ * fall back to SQL.
+ *
+ * <p>Refreshes read Postgres outside the lock, so two of them for the same item can finish in either order.
+ * Every read takes a sequence number before it starts and an item only accepts results from a read newer than
+ * the last one applied to it, so a slow refresh never overwrites what a later one already stored.
+ */
+public final class NearbyItemIndex implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(NearbyItemIndex.class.getName());
+
+    private static final double CELL_DEGREES = 0.05;
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180D;
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private static final Comparator<Candidate> BY_DISTANCE = Comparator.comparingDouble(Candidate::distanceMeters)
+            .thenComparing(c -> c.entry().itemUpdatedAt(), Comparator.nullsLast(Comparator.<Instant>reverseOrder()))
+            .thenComparing(c -> c.entry().inventoryItemId(), Comparator.reverseOrder());
+
+    private final InventorySearchRepository repository;
+    private final Object lock = new Object();
+
+    private volatile Map<UUID, UserCells> byUser = new ConcurrentHashMap<>();
+    private volatile Map<UUID, NearbyIndexEntryEntity> byItem = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    private boolean loading;
+    private Set<UUID> dirtyDuringLoad;
+    private long readSequence;
+    private long sequenceFloor;
+    private final Map<UUID, Long> appliedSequence = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public NearbyItemIndex(final InventorySearchRepository repository) {
+        this.repository = Objects.requireNonNull(repository, "repository");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Loads the index now and then reloads it every {@code reloadInterval} on a daemon thread.
+     */
+    public void start(final Duration reloadInterval) {
+        Objects.requireNonNull(reloadInterval, "reloadInterval");
+        synchronized (lock) {
+            if (scheduler != null) {
+                return;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final var thread = new Thread(r, "housedb-nearby-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::reloadQuietly, 0, Math.max(1, reloadInterval.toSeconds()),
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    public void load() throws SQLException {
+        final long loadSequence;
+        synchronized (lock) {
+            if (loading) {
+                return;
+            }
+            loading = true;
+            dirtyDuringLoad = new HashSet<>();
+            loadSequence = ++readSequence;
+        }
+
+        try {
+            final var items = new HashMap<UUID, NearbyIndexEntryEntity>();
+            UUID after = null;
+            while (true) {
+                final var page = repository.listNearbyIndexEntries(after, LOAD_PAGE_SIZE);
+                for (final var entry : page) {
+                    items.put(entry.inventoryItemId(), entry);
+                }
+                if (page.size() < LOAD_PAGE_SIZE) {
+                    break;
+                }
+                after = page.get(page.size() - 1).inventoryItemId();
+            }
+
+            final var grouped = new HashMap<UUID, List<NearbyIndexEntryEntity>>();
+            for (final var entry : items.values()) {
+                grouped.computeIfAbsent(entry.userId(), k -> new ArrayList<>()).add(entry);
+            }
+            final var users = new ConcurrentHashMap<UUID, UserCells>();
+            grouped.forEach((userId, entries) -> users.put(userId, UserCells.of(entries)));
+
+            final Set<UUID> dirty;
+            synchronized (lock) {
+                byItem = new ConcurrentHashMap<>(items);
+                byUser = users;
+                // Reads that started before the snapshot are older than it; newer ones still apply.
+                sequenceFloor = loadSequence;
+                appliedSequence.values().removeIf(sequence -> sequence <= loadSequence);
+                ready = true;
+                dirty = dirtyDuringLoad;
+                dirtyDuringLoad = null;
+                loading = false;
+            }
+            LOG.fine(() -> "nearby index loaded " + items.size() + " items for " + users.size() + " users");
+
+            // Mutations that landed while the snapshot was being read may be missing from it.
+            if (!dirty.isEmpty()) {
+                refreshItems(dirty);
+            }
+        } finally {
+            synchronized (lock) {
+                loading = false;
+                dirtyDuringLoad = null;
+            }
+        }
+    }
+
+    /**
+     * Re-reads the given items from Postgres. Items that are no longer visible or lost their point are
+     * dropped.
+     */
+    public void refreshItems(final Collection<UUID> inventoryItemIds) {
+        if (inventoryItemIds == null || inventoryItemIds.isEmpty() || !trackChanges(inventoryItemIds)) {
+            return;
+        }
+        final long sequence = nextReadSequence();
+        try {
+            final var ids = List.copyOf(inventoryItemIds);
+            apply(sequence, ids, repository.findNearbyIndexEntries(ids, null));
+        } catch (final SQLException | RuntimeException e) {
+            markCold(e);
+        }
+    }
+
+    /**
+     * Re-reads every item of a house, e.g. after a location changed coordinates or moved in the tree.
+     */
+    public void refreshHouse(final UUID houseId) {
+        if (houseId == null || (!ready && !isLoading())) {
+            return;
+        }
+        final long sequence = nextReadSequence();
+        try {
+            final var entries = repository.findNearbyIndexEntries(null, houseId);
+            final var ids = new HashSet<UUID>();
+            for (final var entry : byItem.values()) {
+                if (houseId.equals(entry.houseId())) {
+                    ids.add(entry.inventoryItemId());
+                }
+            }
+            for (final var entry : entries) {
+                ids.add(entry.inventoryItemId());
+            }
+            if (trackChanges(ids)) {
+                apply(sequence, ids, entries);
+            }
+        } catch (final SQLException | RuntimeException e) {
+            markCold(e);
+        }
+    }
+
+    /**
+     * Re-reads the items of an object, e.g. after a Kiwi sync renamed or disabled it. Only items already in the
+     * index are refreshed; items an object change makes visible again are picked up by the next reload.
+     */
+    public void refreshObject(final UUID objectId) {
+        if (objectId == null || (!ready && !isLoading())) {
+            return;
+        }
+        final var ids = new HashSet<UUID>();
+        for (final var entry : byItem.values()) {
+            if (objectId.equals(entry.objectId())) {
+                ids.add(entry.inventoryItemId());
+            }
+        }
+        refreshItems(ids);
+    }
+
+    /**
+     * Returns nearby items ordered like {@code api_search_inventory_items_near_point}, or empty when the
+     * index is cold. Distances are great-circle (spherical) rather than PostGIS spheroid distances.
+     */
+    public Optional<List<NearbyInventoryItem>> search(final UUID userId, final double latitude,
+            final double longitude, final Double radiusMeters, final int limit, final int offset) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        final var cells = byUser.get(userId);
+        if (cells == null) {
+            return Optional.of(List.of());
+        }
+
+        final var candidates = new ArrayList<Candidate>();
+        for (final var entry : cells.candidates(latitude, longitude, radiusMeters)) {
+            final double distance = distanceMeters(latitude, longitude, entry.latitude(), entry.longitude());
+            if (radiusMeters == null || distance <= radiusMeters) {
+                candidates.add(new Candidate(entry, distance));
+            }
+        }
+        candidates.sort(BY_DISTANCE);
+
+        final var result = new ArrayList<NearbyInventoryItem>(Math.min(limit, candidates.size()));
+        for (int i = offset; i < candidates.size() && result.size() < limit; i++) {
+            final var c = candidates.get(i);
+            final var e = c.entry();
+            result.add(new NearbyInventoryItem(e.inventoryItemId(), e.objectId(), e.objectName(), e.houseId(),
+                    e.houseName(), e.houseLocationLeafId(), e.houseLocationPath(), c.distanceMeters()));
+        }
+        return Optional.of(result);
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            load();
+        } catch (final SQLException | RuntimeException e) {
+            markCold(e);
+        }
+    }
+
+    private boolean isLoading() {
+        synchronized (lock) {
+            return loading;
+        }
+    }
+
+    private long nextReadSequence() {
+        synchronized (lock) {
+            return ++readSequence;
+        }
+    }
+
+    private boolean trackChanges(final Collection<UUID> inventoryItemIds) {
+        synchronized (lock) {
+            if (dirtyDuringLoad != null) {
+                dirtyDuringLoad.addAll(inventoryItemIds);
+            }
+            return ready || loading;
+        }
+    }
+
+    private void markCold(final Exception e) {
+        ready = false;
+        LOG.log(Level.WARNING, "nearby index is cold until the next reload", e);
+    }
+
+    private void apply(final long sequence, final Collection<UUID> ids, final List<NearbyIndexEntryEntity> entries) {
+        synchronized (lock) {
+            final var items = byItem;
+            final var users = byUser;
+            final var touched = new HashMap<UUID, Map<UUID, NearbyIndexEntryEntity>>();
+            final var accepted = new HashSet<UUID>();
+
+            for (final var id : ids) {
+                if (appliedSequence.getOrDefault(id, sequenceFloor) > sequence) {
+                    continue;
+                }
+                appliedSequence.put(id, sequence);
+                accepted.add(id);
+                final var previous = items.remove(id);
+                if (previous != null) {
+                    pointsOf(touched, users, previous.userId()).remove(id);
+                }
+            }
+            for (final var entry : entries) {
+                if (!accepted.contains(entry.inventoryItemId())) {
+                    continue;
+                }
+                items.put(entry.inventoryItemId(), entry);
+                pointsOf(touched, users, entry.userId()).put(entry.inventoryItemId(), entry);
+            }
+
+            touched.forEach((userId, points) -> {
+                if (points.isEmpty()) {
+                    users.remove(userId);
+                } else {
+                    users.put(userId, UserCells.of(points.values()));
+                }
+            });
+        }
+    }
+
+    private static Map<UUID, NearbyIndexEntryEntity> pointsOf(
+            final Map<UUID, Map<UUID, NearbyIndexEntryEntity>> touched, final Map<UUID, UserCells> users,
+            final UUID userId) {
+        return touched.computeIfAbsent(userId, k -> {
+            final var copy = new LinkedHashMap<UUID, NearbyIndexEntryEntity>();
+            final var current = users.get(k);
+            if (current != null) {
+                for (final var entry : current.points()) {
+                    copy.put(entry.inventoryItemId(), entry);
+                }
+            }
+            return copy;
+        });
+    }
+
+    private static double distanceMeters(final double lat1, final double lon1, final double lat2,
+            final double lon2) {
+        final double dLat = Math.toRadians(lat2 - lat1);
+        final double dLon = Math.toRadians(lon2 - lon1);
+        final double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2)
+                        * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1D, Math.sqrt(a)));
+    }
+
+    private static long cellKey(final long row, final long col) {
+        return (row << 32) ^ (col & 0xffffffffL);
+    }
+
+    private static long cellOf(final double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private record Candidate(NearbyIndexEntryEntity entry, double distanceMeters) {
+    }
+
+    /**
+     * Immutable per-user snapshot; replaced as a whole on every change so readers never need a lock.
+     */
+    private record UserCells(List<NearbyIndexEntryEntity> points, Map<Long, List<NearbyIndexEntryEntity>> cells) {
+
+        static UserCells of(final Collection<NearbyIndexEntryEntity> entries) {
+            final var cells = new HashMap<Long, List<NearbyIndexEntryEntity>>();
+            for (final var entry : entries) {
+                cells.computeIfAbsent(cellKey(cellOf(entry.latitude()), cellOf(entry.longitude())),
+                        k -> new ArrayList<>()).add(entry);
+            }
+            final var frozen = new HashMap<Long, List<NearbyIndexEntryEntity>>(cells.size());
+            cells.forEach((key, value) -> frozen.put(key, List.copyOf(value)));
+            return new UserCells(List.copyOf(entries), Map.copyOf(frozen));
+        }
+
+        Collection<NearbyIndexEntryEntity> candidates(final double latitude, final double longitude,
+                final Double radiusMeters) {
+            if (radiusMeters == null) {
+                return points;
+            }
+            final double latDelta = radiusMeters / METERS_PER_DEGREE;
+            final double cosLat = Math.cos(Math.toRadians(latitude));
+            if (latitude + latDelta >= 90D || latitude - latDelta <= -90D || cosLat <= 0D) {
+                return points;
+            }
+            final double lonDelta = latDelta / cosLat;
+            if (longitude - lonDelta < -180D || longitude + lonDelta > 180D) {
+                return points;
+            }
+
+            final long minRow = cellOf(latitude - latDelta);
+            final long maxRow = cellOf(latitude + latDelta);
+            final long minCol = cellOf(longitude - lonDelta);
+            final long maxCol = cellOf(longitude + lonDelta);
+            // Scanning the user's points is cheaper than probing more cells than they own.
+            if ((maxRow - minRow + 1) * (maxCol - minCol + 1) > cells.size()) {
+                return points;
+            }
+
+            final var result = new ArrayList<NearbyIndexEntryEntity>();
+            for (long row = minRow; row <= maxRow; row++) {
+                for (long col = minCol; col <= maxCol; col++) {
+                    final var cell = cells.get(cellKey(row, col));
+                    if (cell != null) {
+                        result.addAll(cell);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.rafex.housedb.db;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import java.util.Optional;
+
 import javax.sql.DataSource;
 
 public final class Db {
@@ -39,6 +41,7 @@ public final class Db {
         cfg.setMaxLifetime(parseLongEnv("DB_MAX_LIFETIME_MS", 1800000L));
         cfg.setValidationTimeout(parseLongEnv("DB_VALIDATION_TIMEOUT_MS", 5000L));
         cfg.setPoolName("housedb-pool");
+        cfg.setMetricsTrackerFactory(PoolMetrics.trackerFactory());
 
         return new HikariDataSource(cfg);
     }
@@ -47,6 +50,52 @@ public final class Db {
         return DS;
     }
 
+    /**
+     * Optional read-replica pool built from {@code DB_READ_URL}; empty when the variable is not set. Credentials
+     * and pool size fall back to the primary's settings.
+     */
+    public static Optional<DataSource> readDataSource() {
+        return Optional.ofNullable(ReadHolder.DS);
+    }
+
+    private static HikariDataSource createRead() {
+        final var dbUrl = System.getenv("DB_READ_URL");
+        if (dbUrl == null || dbUrl.isBlank()) {
+            return null;
+        }
+
+        final var cfg = new HikariConfig();
+        cfg.setJdbcUrl(dbUrl);
+
+        final var dbUser = firstNonBlank(System.getenv("DB_READ_USER"), System.getenv("DB_USER"));
+        final var dbPassword = firstNonBlank(System.getenv("DB_READ_PASSWORD"), System.getenv("DB_PASSWORD"));
+        if (dbUser != null) {
+            cfg.setUsername(dbUser);
+        }
+        if (dbPassword != null) {
+            cfg.setPassword(dbPassword);
+        }
+
+        cfg.setMaximumPoolSize(parseIntEnv("DB_READ_MAX_POOL_SIZE", parseIntEnv("DB_MAX_POOL_SIZE", 6)));
+        cfg.setMinimumIdle(parseIntEnv("DB_MIN_IDLE", 2));
+        cfg.setConnectionTimeout(parseLongEnv("DB_CONNECTION_TIMEOUT_MS", 30000L));
+        cfg.setIdleTimeout(parseLongEnv("DB_IDLE_TIMEOUT_MS", 600000L));
+        cfg.setMaxLifetime(parseLongEnv("DB_MAX_LIFETIME_MS", 1800000L));
+        cfg.setValidationTimeout(parseLongEnv("DB_VALIDATION_TIMEOUT_MS", 5000L));
+        cfg.setReadOnly(true);
+        cfg.setPoolName("housedb-read-pool");
+        cfg.setMetricsTrackerFactory(PoolMetrics.trackerFactory());
+
+        return new HikariDataSource(cfg);
+    }
+
+    private static String firstNonBlank(final String value, final String fallback) {
+        if (value != null && !value.isBlank()) {
+            return value;
+        }
+        return fallback != null && !fallback.isBlank() ? fallback : null;
+    }
+
     private static int parseIntEnv(final String name, final int def) {
         final var v = System.getenv(name);
         if (v == null || v.isBlank()) {
@@ -70,4 +119,8 @@ public final class Db {
             return def;
         }
     }
+
+    private static final class ReadHolder {
+        private static final HikariDataSource DS = createRead();
+    }
 }
@@ -0,0 +1,94 @@
+package com.rafex.housedb.db;
+
+import com.rafex.housedb.jfr.ConnectionAcquireEvent;
+import com.rafex.housedb.metrics.LatencyHistogram;
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Hikari metrics tracker shared by every pool {@link Db} builds: connection acquire latency and timeouts are
+ * recorded as they happen (acquire also as a JFR event), pool gauges are read from Hikari's {@link PoolStats} at
+ * scrape time.
+ */
+public final class PoolMetrics {
+
+    private static final Map<String, Pool> POOLS = new ConcurrentHashMap<>();
+
+    private static final MetricsTrackerFactory FACTORY = (poolName, poolStats) -> {
+        final var pool = new Pool(poolName, poolStats);
+        POOLS.put(poolName, pool);
+        return pool;
+    };
+
+    private PoolMetrics() {
+    }
+
+    static MetricsTrackerFactory trackerFactory() {
+        return FACTORY;
+    }
+
+    public static void appendTo(final StringBuilder out) {
+        if (POOLS.isEmpty()) {
+            return;
+        }
+
+        PrometheusText.header(out, "housedb_db_pool_connections", "gauge", "Pool connections by state.");
+        POOLS.forEach((name, pool) -> {
+            final var stats = pool.stats;
+            PrometheusText.sample(out, "housedb_db_pool_connections",
+                    PrometheusText.labels("pool", name, "state", "active"), stats.getActiveConnections());
+            PrometheusText.sample(out, "housedb_db_pool_connections",
+                    PrometheusText.labels("pool", name, "state", "idle"), stats.getIdleConnections());
+            PrometheusText.sample(out, "housedb_db_pool_connections",
+                    PrometheusText.labels("pool", name, "state", "total"), stats.getTotalConnections());
+            PrometheusText.sample(out, "housedb_db_pool_connections",
+                    PrometheusText.labels("pool", name, "state", "max"), stats.getMaxConnections());
+        });
+
+        PrometheusText.header(out, "housedb_db_pool_pending_threads", "gauge",
+                "Threads waiting for a pool connection.");
+        POOLS.forEach((name, pool) -> PrometheusText.sample(out, "housedb_db_pool_pending_threads",
+                PrometheusText.label("pool", name), pool.stats.getPendingThreads()));
+
+        PrometheusText.header(out, "housedb_db_pool_acquire_seconds", "histogram",
+                "Time spent waiting for a pool connection.");
+        POOLS.forEach((name, pool) -> pool.acquire.appendTo(out, "housedb_db_pool_acquire_seconds",
+                PrometheusText.label("pool", name)));
+
+        PrometheusText.header(out, "housedb_db_pool_timeouts_total", "counter",
+                "Connection requests that timed out.");
+        POOLS.forEach((name, pool) -> PrometheusText.sample(out, "housedb_db_pool_timeouts_total",
+                PrometheusText.label("pool", name), pool.timeouts.sum()));
+    }
+
+    private static final class Pool implements IMetricsTracker {
+
+        private final String name;
+        private final PoolStats stats;
+        private final LatencyHistogram acquire = new LatencyHistogram();
+        private final LongAdder timeouts = new LongAdder();
+
+        private Pool(final String name, final PoolStats stats) {
+            this.name = name;
+            this.stats = stats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos) {
+            acquire.record(elapsedAcquiredNanos);
+            ConnectionAcquireEvent.emit(name, elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
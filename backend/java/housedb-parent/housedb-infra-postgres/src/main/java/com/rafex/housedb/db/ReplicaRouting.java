@@ -0,0 +1,99 @@
+package com.rafex.housedb.db;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+/**
+ * Chooses between the primary and an optional read replica for read-only repository calls.
+ *
+ * <p>Read-your-writes: a write records the ids it touched (user, house, item) and reads carrying any of those ids
+ * go to the primary for {@code stickyWindow}. Writes that span users (item and location moves) look up the ids
+ * they affect in the same statement, so they pin those reads only. A write with no key at all pins every read to
+ * the primary for the same window instead.
+ */
+public final class ReplicaRouting {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long stickyNanos;
+    private final Map<UUID, Long> stickyUntil = new ConcurrentHashMap<>();
+    private volatile long globalStickyUntil;
+
+    public ReplicaRouting(final DataSource primary, final DataSource replica, final Duration stickyWindow) {
+        this.primary = Objects.requireNonNull(primary, "primary");
+        this.replica = replica;
+        this.stickyNanos = Objects.requireNonNull(stickyWindow, "stickyWindow").toNanos();
+        this.globalStickyUntil = System.nanoTime();
+    }
+
+    public static ReplicaRouting primaryOnly(final DataSource primary) {
+        return new ReplicaRouting(primary, null, Duration.ZERO);
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public boolean hasReplica() {
+        return replica != null;
+    }
+
+    /**
+     * Data source for a read scoped by {@code keys}; null keys are ignored.
+     */
+    public DataSource read(final UUID... keys) {
+        if (replica == null) {
+            return primary;
+        }
+
+        final long now = System.nanoTime();
+        if (now - globalStickyUntil < 0) {
+            return primary;
+        }
+        for (final var key : keys) {
+            if (key == null) {
+                continue;
+            }
+            final var until = stickyUntil.get(key);
+            if (until != null) {
+                if (now - until < 0) {
+                    return primary;
+                }
+                stickyUntil.remove(key, until);
+            }
+        }
+        return replica;
+    }
+
+    /**
+     * Records a committed write touching {@code keys}. With no non-null key every read is pinned to the primary.
+     */
+    public void wrote(final UUID... keys) {
+        if (replica == null || stickyNanos <= 0) {
+            return;
+        }
+
+        final long until = System.nanoTime() + stickyNanos;
+        boolean keyed = false;
+        for (final var key : keys) {
+            if (key != null) {
+                stickyUntil.merge(key, until, (a, b) -> b - a > 0 ? b : a);
+                keyed = true;
+            }
+        }
+        if (!keyed) {
+            globalStickyUntil = until;
+        }
+        if (stickyUntil.size() > PRUNE_THRESHOLD) {
+            final long now = System.nanoTime();
+            stickyUntil.values().removeIf(value -> now - value >= 0);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.rafex.housedb.repository.impl;
 
+import com.rafex.housedb.jfr.RepositoryEvent;
 import com.rafex.housedb.repository.AppClientRepository;
 
 import java.sql.ResultSet;
@@ -7,6 +8,7 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,60 +25,115 @@ public final class AppClientRepositoryImpl implements AppClientRepository {
     @Override
     public void createClient(final UUID appClientId, final String clientId, final String name, final byte[] secretHash,
             final byte[] salt, final int iterations, final List<String> roles) throws SQLException {
-        final var sql = """
-                INSERT INTO app_clients (
-                    app_client_id, client_id, name, secret_hash, salt, iterations, roles, status, created_at, updated_at
-                )
-                VALUES (?, ?, ?, ?, ?, ?, ?, 'active', NOW(), NOW())
-                """;
-
-        try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
-            ps.setObject(1, appClientId);
-            ps.setString(2, clientId);
-            ps.setString(3, name);
-            ps.setBytes(4, secretHash);
-            ps.setBytes(5, salt);
-            ps.setInt(6, iterations);
-            ps.setArray(7, c.createArrayOf("text", normalizeRoles(roles).toArray(new String[0])));
-            ps.executeUpdate();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    INSERT INTO app_clients (
+                        app_client_id, client_id, name, secret_hash, salt, iterations, roles, status, created_at, updated_at
+                    )
+                    VALUES (?, ?, ?, ?, ?, ?, ?, 'active', NOW(), NOW())
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setObject(1, appClientId);
+                ps.setString(2, clientId);
+                ps.setString(3, name);
+                ps.setBytes(4, secretHash);
+                ps.setBytes(5, salt);
+                ps.setInt(6, iterations);
+                ps.setArray(7, c.createArrayOf("text", normalizeRoles(roles).toArray(new String[0])));
+                ps.executeUpdate();
+            }
+        } finally {
+            event.finish("AppClientRepositoryImpl", "createClient", "insert app_clients");
         }
     }
 
     @Override
     public Optional<AppClientRow> findByClientId(final String clientId) throws SQLException {
-        final var sql = """
-                SELECT app_client_id, client_id, name, secret_hash, salt, iterations,
-                       roles, status, last_used_at, created_at, updated_at
-                FROM app_clients
-                WHERE client_id = ?
-                """;
-
-        try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
-            ps.setString(1, clientId);
-            try (var rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    return Optional.empty();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    SELECT app_client_id, client_id, name, secret_hash, salt, iterations,
+                           roles, status, last_used_at, created_at, updated_at
+                    FROM app_clients
+                    WHERE client_id = ?
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setString(1, clientId);
+                try (var rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return event.rows(Optional.empty());
+                    }
+                    return event.rows(Optional.of(new AppClientRow(rs.getObject("app_client_id", UUID.class),
+                            rs.getString("client_id"), rs.getString("name"), rs.getBytes("secret_hash"),
+                            rs.getBytes("salt"), rs.getInt("iterations"),
+                            toStringList(rs.getArray("roles")), rs.getString("status"), asInstant(rs, "last_used_at"),
+                            asInstant(rs, "created_at"), asInstant(rs, "updated_at"))));
                 }
-                return Optional.of(new AppClientRow(rs.getObject("app_client_id", UUID.class), rs.getString("client_id"),
-                        rs.getString("name"), rs.getBytes("secret_hash"), rs.getBytes("salt"), rs.getInt("iterations"),
-                        toStringList(rs.getArray("roles")), rs.getString("status"), asInstant(rs, "last_used_at"),
-                        asInstant(rs, "created_at"), asInstant(rs, "updated_at")));
             }
+        } finally {
+            event.finish("AppClientRepositoryImpl", "findByClientId", "select app_clients");
         }
     }
 
     @Override
     public void touchLastUsed(final UUID appClientId) throws SQLException {
-        final var sql = """
-                UPDATE app_clients
-                SET last_used_at = NOW(),
-                    updated_at = NOW()
-                WHERE app_client_id = ?
-                """;
-
-        try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
-            ps.setObject(1, appClientId);
-            ps.executeUpdate();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    UPDATE app_clients
+                    SET last_used_at = NOW(),
+                        updated_at = NOW()
+                    WHERE app_client_id = ?
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setObject(1, appClientId);
+                ps.executeUpdate();
+            }
+        } finally {
+            event.finish("AppClientRepositoryImpl", "touchLastUsed", "update app_clients");
+        }
+    }
+
+    @Override
+    public void touchLastUsed(final Map<UUID, Instant> lastUsedByClient) throws SQLException {
+        if (lastUsedByClient == null || lastUsedByClient.isEmpty()) {
+            return;
+        }
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    UPDATE app_clients c
+                    SET last_used_at = GREATEST(c.last_used_at, v.used_at),
+                        updated_at = NOW()
+                    FROM unnest(?::uuid[], ?::timestamptz[]) AS v(app_client_id, used_at)
+                    WHERE c.app_client_id = v.app_client_id
+                    """;
+
+            final var size = lastUsedByClient.size();
+            final var ids = new UUID[size];
+            final var usedAt = new Timestamp[size];
+            int i = 0;
+            for (final var entry : lastUsedByClient.entrySet()) {
+                ids[i] = entry.getKey();
+                usedAt[i] = Timestamp.from(entry.getValue());
+                i++;
+            }
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setArray(1, c.createArrayOf("uuid", ids));
+                ps.setArray(2, c.createArrayOf("timestamptz", usedAt));
+                event.rows(ps.executeUpdate());
+            }
+        } finally {
+            event.finish("AppClientRepositoryImpl", "touchLastUsedBatch", "update app_clients");
         }
     }
 
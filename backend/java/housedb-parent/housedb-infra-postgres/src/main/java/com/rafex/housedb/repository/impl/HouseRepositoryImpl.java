@@ -1,13 +1,18 @@
 package com.rafex.housedb.repository.impl;
 
+import com.rafex.housedb.db.ReplicaRouting;
+import com.rafex.housedb.jfr.RepositoryEvent;
 import com.rafex.housedb.repository.HouseManagementRepository;
 import com.rafex.housedb.repository.models.HouseCreateResultEntity;
 import com.rafex.housedb.repository.models.HouseLocationEntity;
+import com.rafex.housedb.repository.models.HouseLocationMoveResultEntity;
 import com.rafex.housedb.repository.models.HouseMemberEntity;
 import com.rafex.housedb.repository.models.HouseSummaryEntity;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -87,11 +92,42 @@ public final class HouseRepositoryImpl implements HouseManagementRepository {
                    enabled
               FROM api_list_house_locations(?, ?, ?, ?)
             """;
+    // routing_keys: the house members and every item placed in the moved subtree, whose paths the move rewrites.
+    private static final String SQL_MOVE_HOUSE_LOCATION = """
+            SELECT m.house_location_id,
+                   m.parent_house_location_id,
+                   m.path,
+                   m.level_depth,
+                   m.subtree_size,
+                   ARRAY(
+                     SELECT hm.user_id
+                       FROM house_members hm
+                       JOIN house_locations hl ON hl.house_id = hm.house_id
+                      WHERE hl.house_location_id = m.house_location_id
+                     UNION
+                     SELECT icl.inventory_item_id
+                       FROM house_location_closure c
+                       JOIN item_current_location icl
+                         ON icl.house_location_leaf_id = c.descendant_id
+                        AND icl.is_current = TRUE
+                      WHERE c.ancestor_id = m.house_location_id
+                   ) AS routing_keys
+              FROM api_move_house_location(?, ?, ?) m
+            """;
 
     private final DataSource dataSource;
+    private final ReplicaRouting routing;
 
     public HouseRepositoryImpl(final DataSource dataSource) {
-        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this(ReplicaRouting.primaryOnly(Objects.requireNonNull(dataSource, "dataSource")));
+    }
+
+    /**
+     * List methods read through {@code routing}; writes always use the primary.
+     */
+    public HouseRepositoryImpl(final ReplicaRouting routing) {
+        this.routing = Objects.requireNonNull(routing, "routing");
+        this.dataSource = routing.primary();
     }
 
     @Override
@@ -99,6 +135,8 @@ public final class HouseRepositoryImpl implements HouseManagementRepository {
             final String street, final String numberExt, final String numberInt, final String neighborhood,
             final String city, final String state, final String zipCode, final String country, final Double latitude,
             final Double longitude, final String urlMap) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_CREATE_HOUSE)) {
             ps.setObject(1, ownerUserId);
@@ -121,15 +159,21 @@ public final class HouseRepositoryImpl implements HouseManagementRepository {
                     throw new SQLException("api_create_house returned no rows");
                 }
 
-                return new HouseCreateResultEntity(rs.getObject("house_id", UUID.class),
+                final var created = new HouseCreateResultEntity(rs.getObject("house_id", UUID.class),
                         rs.getObject("house_member_id", UUID.class));
+                routing.wrote(ownerUserId, created.houseId());
+                return event.rows(created);
             }
+        } finally {
+            event.finish("HouseRepositoryImpl", "createHouse", "api_create_house");
         }
     }
 
     @Override
     public HouseMemberEntity upsertHouseMember(final UUID houseId, final UUID userId, final String role,
             final Boolean enabled) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_UPSERT_HOUSE_MEMBER)) {
             ps.setObject(1, houseId);
@@ -142,13 +186,16 @@ public final class HouseRepositoryImpl implements HouseManagementRepository {
                     throw new SQLException("api_upsert_house_member returned no rows");
                 }
 
-                return new HouseMemberEntity(
+                routing.wrote(houseId, userId);
+                return event.rows(new HouseMemberEntity(
                         rs.getObject("house_member_id", UUID.class),
                         rs.getObject("house_id", UUID.class),
                         rs.getObject("user_id", UUID.class),
                         rs.getString("role"),
-                        rs.getBoolean("enabled"));
+                        rs.getBoolean("enabled")));
             }
+        } finally {
+            event.finish("HouseRepositoryImpl", "upsertHouseMember", "api_upsert_house_member");
         }
     }
 
@@ -156,92 +203,149 @@ public final class HouseRepositoryImpl implements HouseManagementRepository {
     public List<HouseSummaryEntity> listUserHouses(final UUID userId, final Boolean includeDisabled, final int limit,
             final int offset)
             throws SQLException {
-        final var result = new ArrayList<HouseSummaryEntity>();
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_LIST_USER_HOUSES)) {
-            ps.setObject(1, userId);
-            ps.setObject(2, includeDisabled);
-            ps.setInt(3, limit);
-            ps.setInt(4, offset);
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<HouseSummaryEntity>();
+            try (Connection connection = routing.read(userId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_LIST_USER_HOUSES)) {
+                ps.setObject(1, userId);
+                ps.setObject(2, includeDisabled);
+                ps.setInt(3, limit);
+                ps.setInt(4, offset);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new HouseSummaryEntity(
-                            rs.getObject("house_id", UUID.class),
-                            rs.getString("name"),
-                            rs.getString("description"),
-                            rs.getString("city"),
-                            rs.getString("state"),
-                            rs.getString("country"),
-                            rs.getString("role"),
-                            rs.getBoolean("member_enabled"),
-                            rs.getBoolean("house_enabled")));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new HouseSummaryEntity(
+                                rs.getObject("house_id", UUID.class),
+                                rs.getString("name"),
+                                rs.getString("description"),
+                                rs.getString("city"),
+                                rs.getString("state"),
+                                rs.getString("country"),
+                                rs.getString("role"),
+                                rs.getBoolean("member_enabled"),
+                                rs.getBoolean("house_enabled")));
+                    }
                 }
             }
+            return event.rows(result);
+        } finally {
+            event.finish("HouseRepositoryImpl", "listUserHouses", "api_list_user_houses");
         }
-        return result;
     }
 
     @Override
     public List<HouseMemberEntity> listHouseMembers(final UUID houseId, final Boolean includeDisabled, final int limit,
             final int offset)
             throws SQLException {
-        final var result = new ArrayList<HouseMemberEntity>();
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_LIST_HOUSE_MEMBERS)) {
-            ps.setObject(1, houseId);
-            ps.setObject(2, includeDisabled);
-            ps.setInt(3, limit);
-            ps.setInt(4, offset);
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<HouseMemberEntity>();
+            try (Connection connection = routing.read(houseId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_LIST_HOUSE_MEMBERS)) {
+                ps.setObject(1, houseId);
+                ps.setObject(2, includeDisabled);
+                ps.setInt(3, limit);
+                ps.setInt(4, offset);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new HouseMemberEntity(
-                            rs.getObject("house_member_id", UUID.class),
-                            rs.getObject("house_id", UUID.class),
-                            rs.getObject("user_id", UUID.class),
-                            rs.getString("role"),
-                            rs.getBoolean("enabled")));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new HouseMemberEntity(
+                                rs.getObject("house_member_id", UUID.class),
+                                rs.getObject("house_id", UUID.class),
+                                rs.getObject("user_id", UUID.class),
+                                rs.getString("role"),
+                                rs.getBoolean("enabled")));
+                    }
                 }
             }
+            return event.rows(result);
+        } finally {
+            event.finish("HouseRepositoryImpl", "listHouseMembers", "api_list_house_members");
         }
-        return result;
     }
 
     @Override
     public List<HouseLocationEntity> listHouseLocations(final UUID houseId, final Boolean includeDisabled,
             final int limit, final int offset)
             throws SQLException {
-        final var result = new ArrayList<HouseLocationEntity>();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<HouseLocationEntity>();
+            try (Connection connection = routing.read(houseId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_LIST_HOUSE_LOCATIONS)) {
+                ps.setObject(1, houseId);
+                ps.setBoolean(2, includeDisabled);
+                ps.setInt(3, limit);
+                ps.setInt(4, offset);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new HouseLocationEntity(
+                                rs.getObject("house_location_id", UUID.class),
+                                rs.getObject("house_id", UUID.class),
+                                rs.getObject("kiwi_location_id", UUID.class),
+                                rs.getObject("kiwi_parent_location_id", UUID.class),
+                                rs.getObject("parent_house_location_id", UUID.class),
+                                rs.getString("location_kind"),
+                                rs.getString("name"),
+                                rs.getString("path"),
+                                rs.getInt("level_depth"),
+                                toDouble(rs.getBigDecimal("latitude")),
+                                toDouble(rs.getBigDecimal("longitude")),
+                                rs.getString("reference_code"),
+                                rs.getBoolean("is_leaf"),
+                                rs.getString("notes"),
+                                rs.getBoolean("enabled")));
+                    }
+                }
+            }
+            return event.rows(result);
+        } finally {
+            event.finish("HouseRepositoryImpl", "listHouseLocations", "api_list_house_locations");
+        }
+    }
+
+    @Override
+    public HouseLocationMoveResultEntity moveHouseLocation(final UUID houseId, final UUID houseLocationId,
+            final UUID newParentHouseLocationId) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_LIST_HOUSE_LOCATIONS)) {
+                PreparedStatement ps = connection.prepareStatement(SQL_MOVE_HOUSE_LOCATION)) {
             ps.setObject(1, houseId);
-            ps.setBoolean(2, includeDisabled);
-            ps.setInt(3, limit);
-            ps.setInt(4, offset);
+            ps.setObject(2, houseLocationId);
+            ps.setObject(3, newParentHouseLocationId);
 
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new HouseLocationEntity(
-                            rs.getObject("house_location_id", UUID.class),
-                            rs.getObject("house_id", UUID.class),
-                            rs.getObject("kiwi_location_id", UUID.class),
-                            rs.getObject("kiwi_parent_location_id", UUID.class),
-                            rs.getObject("parent_house_location_id", UUID.class),
-                            rs.getString("location_kind"),
-                            rs.getString("name"),
-                            rs.getString("path"),
-                            rs.getInt("level_depth"),
-                            toDouble(rs.getBigDecimal("latitude")),
-                            toDouble(rs.getBigDecimal("longitude")),
-                            rs.getString("reference_code"),
-                            rs.getBoolean("is_leaf"),
-                            rs.getString("notes"),
-                            rs.getBoolean("enabled")));
+                if (!rs.next()) {
+                    throw new SQLException("api_move_house_location returned no rows");
+                }
+
+                // Location paths are denormalized into the search view and item detail, so beyond the house this
+                // pins its members' searches and the moved items.
+                final var keys = new HashSet<UUID>();
+                keys.add(houseId);
+                final Array array = rs.getArray("routing_keys");
+                if (array != null) {
+                    for (final Object key : (Object[]) array.getArray()) {
+                        keys.add((UUID) key);
+                    }
                 }
+                routing.wrote(keys.toArray(UUID[]::new));
+                return event.rows(new HouseLocationMoveResultEntity(
+                        rs.getObject("house_location_id", UUID.class),
+                        rs.getObject("parent_house_location_id", UUID.class),
+                        rs.getString("path"),
+                        rs.getInt("level_depth"),
+                        rs.getInt("subtree_size")));
             }
+        } finally {
+            event.finish("HouseRepositoryImpl", "moveHouseLocation", "api_move_house_location");
         }
-        return result;
     }
 
     private static Double toDouble(final BigDecimal value) {
@@ -1,30 +1,52 @@
 package com.rafex.housedb.repository.impl;
 
+import com.rafex.housedb.db.ReplicaRouting;
+import com.rafex.housedb.jfr.RepositoryEvent;
 import com.rafex.housedb.repository.HouseLocationSyncRepository;
 import com.rafex.housedb.repository.InventoryMutationRepository;
 import com.rafex.housedb.repository.InventorySearchRepository;
 import com.rafex.housedb.repository.models.FavoriteStateEntity;
 import com.rafex.housedb.repository.models.HouseItemEntity;
 import com.rafex.housedb.repository.models.InventoryCreateResultEntity;
+import com.rafex.housedb.repository.models.InventoryExportRowEntity;
+import com.rafex.housedb.repository.models.InventoryImportErrorEntity;
+import com.rafex.housedb.repository.models.InventoryImportResultEntity;
 import com.rafex.housedb.repository.models.InventoryItemDetailEntity;
 import com.rafex.housedb.repository.models.InventoryTimelineEventEntity;
+import com.rafex.housedb.repository.models.ItemMoveEntity;
 import com.rafex.housedb.repository.models.ItemMovementEntity;
 import com.rafex.housedb.repository.models.LocationInventoryItemEntity;
+import com.rafex.housedb.repository.models.MapFeatureEntity;
+import com.rafex.housedb.repository.models.NearbyIndexEntryEntity;
 import com.rafex.housedb.repository.models.NearbyInventoryItemEntity;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
 public final class ItemRepositoryImpl
         implements InventorySearchRepository, InventoryMutationRepository, HouseLocationSyncRepository {
 
@@ -40,17 +62,74 @@ public final class ItemRepositoryImpl
                    house_name,
                    house_location_leaf_id,
                    house_location_path,
-                   rank
+                   rank,
+                   updated_at
               FROM api_search_inventory_items(?, ?, ?, ?, ?, ?)
             """;
 
+    private static final String SQL_SEARCH_AFTER = """
+            SELECT inventory_item_id,
+                   object_id,
+                   object_kiwi_id,
+                   object_name,
+                   object_description,
+                   object_category,
+                   nickname,
+                   house_id,
+                   house_name,
+                   house_location_leaf_id,
+                   house_location_path,
+                   rank,
+                   updated_at
+              FROM api_search_inventory_items_after(?, ?, ?, ?, ?::real, ?::timestamptz, ?, ?)
+            """;
+
+    // routing_keys: the owner, both houses and their members, i.e. every key a read showing the item is scoped by.
     private static final String SQL_MOVE = """
-            SELECT item_movement_id,
-                   inventory_item_id,
-                   from_house_location_leaf_id,
-                   to_house_location_leaf_id,
-                   moved_at
-              FROM api_move_inventory_item(?, ?, ?, ?, ?, now())
+            SELECT m.item_movement_id,
+                   m.inventory_item_id,
+                   m.from_house_location_leaf_id,
+                   m.to_house_location_leaf_id,
+                   m.moved_at,
+                   ARRAY(
+                     SELECT ii.user_id
+                       FROM inventory_items ii
+                      WHERE ii.inventory_item_id = m.inventory_item_id
+                     UNION
+                     SELECT hl.house_id
+                       FROM house_locations hl
+                      WHERE hl.house_location_id IN (m.from_house_location_leaf_id, m.to_house_location_leaf_id)
+                     UNION
+                     SELECT hm.user_id
+                       FROM house_members hm
+                       JOIN house_locations hl ON hl.house_id = hm.house_id
+                      WHERE hl.house_location_id IN (m.from_house_location_leaf_id, m.to_house_location_leaf_id)
+                   ) AS routing_keys
+              FROM api_move_inventory_item(?, ?, ?, ?, ?, now()) m
+            """;
+
+    private static final String SQL_MOVE_BATCH = """
+            SELECT m.item_movement_id,
+                   m.inventory_item_id,
+                   m.from_house_location_leaf_id,
+                   m.to_house_location_leaf_id,
+                   m.moved_at,
+                   ARRAY(
+                     SELECT ii.user_id
+                       FROM inventory_items ii
+                      WHERE ii.inventory_item_id = m.inventory_item_id
+                     UNION
+                     SELECT hl.house_id
+                       FROM house_locations hl
+                      WHERE hl.house_location_id IN (m.from_house_location_leaf_id, m.to_house_location_leaf_id)
+                     UNION
+                     SELECT hm.user_id
+                       FROM house_members hm
+                       JOIN house_locations hl ON hl.house_id = hm.house_id
+                      WHERE hl.house_location_id IN (m.from_house_location_leaf_id, m.to_house_location_leaf_id)
+                   ) AS routing_keys
+              FROM api_move_inventory_items(?, ?, ?, ?, ?, now()) m
+             ORDER BY m.batch_index
             """;
 
     private static final String SQL_CREATE = """
@@ -59,6 +138,38 @@ public final class ItemRepositoryImpl
               FROM api_create_inventory_item(?, ?, ?, ?, ?::inventory_item_status, ?::jsonb, ?, ?, ?)
             """;
 
+    private static final String SQL_CREATE_PENDING_KIWI = """
+            SELECT inventory_item_id,
+                   item_movement_id
+              FROM api_create_inventory_item_pending_kiwi(?, ?, ?, ?, ?, ?, ?, ?::inventory_item_status, ?::jsonb,
+                                                          ?, ?, ?, ?::jsonb)
+            """;
+
+    private static final String SQL_BEGIN_IMPORT = """
+            SELECT api_begin_inventory_import()
+            """;
+
+    private static final String SQL_IMPORT = """
+            SELECT imported_count,
+                   rejected_count,
+                   house_ids
+              FROM api_import_inventory_items(?, ?, ?)
+            """;
+
+    private static final String SQL_IMPORT_ERRORS = """
+            SELECT row_no,
+                   error_message
+              FROM api_list_inventory_import_errors(?)
+            """;
+
+    private static final String COPY_IMPORT_LINES = "COPY inventory_import_lines (row_no, doc) FROM STDIN";
+
+    private static final Set<String> IMPORT_CSV_COLUMNS = Set.of("object_id", "object_kiwi_id", "object_name",
+            "object_category", "nickname", "serial_number", "condition_status", "metadata", "house_location_leaf_id",
+            "notes", "inventory_item_id", "house_id", "house_name", "house_location_path", "updated_at");
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private static final String SQL_UPSERT_KIWI_LOCATION = """
             SELECT api_upsert_house_location_from_kiwi(
               ?::uuid,
@@ -76,6 +187,24 @@ public final class ItemRepositoryImpl
               ?::boolean
             ) AS house_location_id
             """;
+    private static final String SQL_CREATE_LOCATION_PENDING_KIWI = """
+            SELECT api_create_house_location_pending_kiwi(
+              ?::uuid,
+              ?::uuid,
+              ?::location_kind,
+              ?::text,
+              ?::boolean,
+              ?::text,
+              ?::text,
+              ?::text,
+              ?::numeric,
+              ?::numeric,
+              ?::boolean
+            ) AS house_location_id
+            """;
+    private static final String SQL_KIWI_LOCATION_LINKED_OR_PENDING = """
+            SELECT fn_kiwi_location_linked_or_pending(?) AS linked_or_pending
+            """;
     private static final String SQL_FIND_KIWI_LOCATION_ID = """
             SELECT kiwi_location_id
             FROM house_locations
@@ -93,6 +222,7 @@ public final class ItemRepositoryImpl
             LIMIT 1
             """;
     private static final String SQL_UPSERT_OBJECT_FROM_KIWI = """
+            WITH upserted AS (
             INSERT INTO objects (
               object_kiwi_id,
               name,
@@ -116,6 +246,18 @@ public final class ItemRepositoryImpl
               bucket_image = EXCLUDED.bucket_image,
               enabled = EXCLUDED.enabled
             RETURNING object_id
+            )
+            SELECT u.object_id,
+                   ARRAY(
+                     SELECT ii.inventory_item_id
+                       FROM inventory_items ii
+                      WHERE ii.object_id = u.object_id
+                     UNION
+                     SELECT ii.user_id
+                       FROM inventory_items ii
+                      WHERE ii.object_id = u.object_id
+                   ) AS routing_keys
+              FROM upserted u
             """;
 
     private static final String SQL_LIST_BY_LOCATION = """
@@ -131,6 +273,19 @@ public final class ItemRepositoryImpl
               FROM api_list_inventory_by_location(?, ?, ?, ?, ?, ?)
             """;
 
+    private static final String SQL_LIST_BY_LOCATION_AFTER = """
+            SELECT inventory_item_id,
+                   object_id,
+                   object_name,
+                   nickname,
+                   house_id,
+                   house_name,
+                   house_location_leaf_id,
+                   house_location_path,
+                   assigned_at
+              FROM api_list_inventory_by_location_after(?, ?, ?, ?, ?::text, ?::text, ?, ?)
+            """;
+
     private static final String SQL_TIMELINE = """
             SELECT item_movement_id,
                    inventory_item_id,
@@ -145,6 +300,20 @@ public final class ItemRepositoryImpl
               FROM api_inventory_item_timeline(?, ?, ?)
             """;
 
+    private static final String SQL_TIMELINE_AFTER = """
+            SELECT item_movement_id,
+                   inventory_item_id,
+                   movement_reason,
+                   moved_by,
+                   moved_at,
+                   from_house_location_leaf_id,
+                   from_house_location_path,
+                   to_house_location_leaf_id,
+                   to_house_location_path,
+                   notes
+              FROM api_inventory_item_timeline_after(?, ?::timestamptz, ?, ?)
+            """;
+
     private static final String SQL_SET_FAVORITE = """
             SELECT user_id,
                    inventory_item_id,
@@ -163,6 +332,47 @@ public final class ItemRepositoryImpl
                    distance_meters
               FROM api_search_inventory_items_near_point(?, ?, ?, ?, ?, ?)
             """;
+    private static final String SQL_MAP_FEATURES = """
+            SELECT feature_kind,
+                   item_count,
+                   latitude,
+                   longitude,
+                   inventory_item_id,
+                   object_name,
+                   house_id,
+                   house_name,
+                   house_location_leaf_id,
+                   house_location_path
+              FROM api_inventory_map(?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String SQL_NEARBY_INDEX_PAGE = """
+            SELECT inventory_item_id,
+                   user_id,
+                   object_id,
+                   object_name,
+                   house_id,
+                   house_name,
+                   house_location_leaf_id,
+                   house_location_path,
+                   latitude,
+                   longitude,
+                   item_updated_at
+              FROM api_list_nearby_index_entries(?, ?)
+            """;
+    private static final String SQL_NEARBY_INDEX_FIND = """
+            SELECT inventory_item_id,
+                   user_id,
+                   object_id,
+                   object_name,
+                   house_id,
+                   house_name,
+                   house_location_leaf_id,
+                   house_location_path,
+                   latitude,
+                   longitude,
+                   item_updated_at
+              FROM api_find_nearby_index_entries(?, ?)
+            """;
     private static final String SQL_ITEM_DETAIL = """
             SELECT inventory_item_id,
                    user_id,
@@ -182,51 +392,110 @@ public final class ItemRepositoryImpl
               FROM api_get_inventory_item_detail(?)
             """;
 
+    private static final String SQL_EXPORT = """
+            SELECT inventory_item_id,
+                   object_id,
+                   object_kiwi_id,
+                   object_name,
+                   object_category,
+                   nickname,
+                   serial_number,
+                   condition_status,
+                   metadata,
+                   house_id,
+                   house_name,
+                   house_location_leaf_id,
+                   house_location_path,
+                   updated_at
+              FROM api_export_inventory_items(?, ?)
+            """;
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     private final DataSource dataSource;
+    private final ReplicaRouting routing;
 
     public ItemRepositoryImpl(final DataSource dataSource) {
-        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this(ReplicaRouting.primaryOnly(Objects.requireNonNull(dataSource, "dataSource")));
+    }
+
+    /**
+     * Writes, Kiwi sync lookups and nearby-index loads use the primary; user-facing reads go through
+     * {@code routing}.
+     */
+    public ItemRepositoryImpl(final ReplicaRouting routing) {
+        this.routing = Objects.requireNonNull(routing, "routing");
+        this.dataSource = routing.primary();
     }
 
     @Override
     public List<HouseItemEntity> searchInventoryItems(final UUID userId, final String text, final UUID houseId,
             final UUID houseLocationLeafId, final int limit, final int offset) throws SQLException {
-        final var result = new ArrayList<HouseItemEntity>();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<HouseItemEntity>();
 
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_SEARCH)) {
-            ps.setObject(1, userId);
-            ps.setString(2, text);
-            ps.setObject(3, houseId);
-            ps.setObject(4, houseLocationLeafId);
-            ps.setInt(5, limit);
-            ps.setInt(6, offset);
+            try (Connection connection = routing.read(userId, houseId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_SEARCH)) {
+                ps.setObject(1, userId);
+                ps.setString(2, text);
+                ps.setObject(3, houseId);
+                ps.setObject(4, houseLocationLeafId);
+                ps.setInt(5, limit);
+                ps.setInt(6, offset);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new HouseItemEntity(
-                            rs.getObject("inventory_item_id", UUID.class),
-                            rs.getObject("object_id", UUID.class),
-                            rs.getObject("object_kiwi_id", UUID.class),
-                            rs.getString("object_name"),
-                            rs.getString("object_description"),
-                            rs.getString("object_category"),
-                            rs.getString("nickname"),
-                            rs.getObject("house_id", UUID.class),
-                            rs.getString("house_name"),
-                            rs.getObject("house_location_leaf_id", UUID.class),
-                            rs.getString("house_location_path"),
-                            rs.getFloat("rank")));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapHouseItem(rs));
+                    }
                 }
             }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "searchInventoryItems", "api_search_inventory_items");
         }
+    }
+
+    @Override
+    public List<HouseItemEntity> searchInventoryItemsAfter(final UUID userId, final String text, final UUID houseId,
+            final UUID houseLocationLeafId, final Float afterRank, final Instant afterUpdatedAt,
+            final UUID afterInventoryItemId, final int limit) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<HouseItemEntity>();
 
-        return result;
+            try (Connection connection = routing.read(userId, houseId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_SEARCH_AFTER)) {
+                ps.setObject(1, userId);
+                ps.setString(2, text);
+                ps.setObject(3, houseId);
+                ps.setObject(4, houseLocationLeafId);
+                ps.setObject(5, afterRank);
+                ps.setTimestamp(6, asTimestamp(afterUpdatedAt));
+                ps.setObject(7, afterInventoryItemId);
+                ps.setInt(8, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapHouseItem(rs));
+                    }
+                }
+            }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "searchInventoryItemsAfter", "api_search_inventory_items_after");
+        }
     }
 
     @Override
     public ItemMovementEntity moveInventoryItem(final UUID inventoryItemId, final UUID toHouseLocationLeafId,
             final String movedBy, final String movementReason, final String notes) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_MOVE)) {
             ps.setObject(1, inventoryItemId);
@@ -240,13 +509,75 @@ public final class ItemRepositoryImpl
                     throw new SQLException("api_move_inventory_item returned no rows");
                 }
 
-                return new ItemMovementEntity(
+                final var movement = new ItemMovementEntity(
                         rs.getObject("item_movement_id", UUID.class),
                         rs.getObject("inventory_item_id", UUID.class),
                         rs.getObject("from_house_location_leaf_id", UUID.class),
                         rs.getObject("to_house_location_leaf_id", UUID.class),
                         asInstant(rs, "moved_at"));
+                final var keys = new HashSet<UUID>();
+                keys.add(inventoryItemId);
+                addRoutingKeys(rs, keys);
+                routing.wrote(keys.toArray(UUID[]::new));
+                return event.rows(movement);
+            }
+        } finally {
+            event.finish("ItemRepositoryImpl", "moveInventoryItem", "api_move_inventory_item");
+        }
+    }
+
+    @Override
+    public List<ItemMovementEntity> moveInventoryItems(final List<ItemMoveEntity> moves) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final int size = moves.size();
+            final var itemIds = new Object[size];
+            final var leafIds = new Object[size];
+            final var movedBy = new Object[size];
+            final var reasons = new Object[size];
+            final var notes = new Object[size];
+            for (int i = 0; i < size; i++) {
+                final var move = moves.get(i);
+                itemIds[i] = move.inventoryItemId();
+                leafIds[i] = move.toHouseLocationLeafId();
+                movedBy[i] = move.movedBy();
+                reasons[i] = move.movementReason();
+                notes[i] = move.notes();
+            }
+
+            final var result = new ArrayList<ItemMovementEntity>(size);
+            final var keys = new HashSet<UUID>();
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_MOVE_BATCH)) {
+                ps.setArray(1, connection.createArrayOf("uuid", itemIds));
+                ps.setArray(2, connection.createArrayOf("uuid", leafIds));
+                ps.setArray(3, connection.createArrayOf("text", movedBy));
+                ps.setArray(4, connection.createArrayOf("text", reasons));
+                ps.setArray(5, connection.createArrayOf("text", notes));
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new ItemMovementEntity(
+                                rs.getObject("item_movement_id", UUID.class),
+                                rs.getObject("inventory_item_id", UUID.class),
+                                rs.getObject("from_house_location_leaf_id", UUID.class),
+                                rs.getObject("to_house_location_leaf_id", UUID.class),
+                                asInstant(rs, "moved_at")));
+                        keys.add(rs.getObject("inventory_item_id", UUID.class));
+                        addRoutingKeys(rs, keys);
+                    }
+                }
+            }
+
+            if (result.size() != size) {
+                throw new SQLException("api_move_inventory_items returned " + result.size() + " rows for " + size
+                        + " moves");
             }
+            routing.wrote(keys.toArray(UUID[]::new));
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "moveInventoryItems", "api_move_inventory_items");
         }
     }
 
@@ -254,6 +585,8 @@ public final class ItemRepositoryImpl
     public InventoryCreateResultEntity createInventoryItem(final UUID userId, final UUID objectId,
             final String nickname, final String serialNumber, final String conditionStatus, final String metadataJson,
             final UUID houseLocationLeafId, final String movedBy, final String notes) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_CREATE)) {
             ps.setObject(1, userId);
@@ -271,18 +604,237 @@ public final class ItemRepositoryImpl
                     throw new SQLException("api_create_inventory_item returned no rows");
                 }
 
-                return new InventoryCreateResultEntity(
+                final var created = new InventoryCreateResultEntity(
+                        rs.getObject("inventory_item_id", UUID.class),
+                        rs.getObject("item_movement_id", UUID.class));
+                routing.wrote(userId, created.inventoryItemId());
+                return event.rows(created);
+            }
+        } finally {
+            event.finish("ItemRepositoryImpl", "createInventoryItem", "api_create_inventory_item");
+        }
+    }
+
+    @Override
+    public InventoryCreateResultEntity createInventoryItemPendingKiwi(final UUID userId, final UUID objectId,
+            final String objectName, final String objectDescription, final String objectCategory,
+            final String nickname, final String serialNumber, final String conditionStatus, final String metadataJson,
+            final UUID houseLocationLeafId, final String movedBy, final String notes, final String kiwiPayloadJson)
+            throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SQL_CREATE_PENDING_KIWI)) {
+            ps.setObject(1, userId);
+            ps.setObject(2, objectId);
+            ps.setString(3, objectName);
+            ps.setString(4, objectDescription);
+            ps.setString(5, objectCategory);
+            ps.setString(6, nickname);
+            ps.setString(7, serialNumber);
+            ps.setString(8, conditionStatus);
+            ps.setString(9, metadataJson);
+            ps.setObject(10, houseLocationLeafId);
+            ps.setString(11, movedBy);
+            ps.setString(12, notes);
+            ps.setString(13, kiwiPayloadJson);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("api_create_inventory_item_pending_kiwi returned no rows");
+                }
+
+                final var created = new InventoryCreateResultEntity(
                         rs.getObject("inventory_item_id", UUID.class),
                         rs.getObject("item_movement_id", UUID.class));
+                routing.wrote(userId, created.inventoryItemId());
+                return event.rows(created);
+            }
+        } finally {
+            event.finish("ItemRepositoryImpl", "createInventoryItemPendingKiwi",
+                    "api_create_inventory_item_pending_kiwi");
+        }
+    }
+
+    @Override
+    public InventoryImportResultEntity importInventoryItemsCsv(final UUID userId, final List<String> columns,
+            final InputStream records, final String movedBy, final boolean skipInvalid, final int maxErrors)
+            throws SQLException, IOException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            for (final var column : columns) {
+                if (!IMPORT_CSV_COLUMNS.contains(column)) {
+                    throw new IllegalArgumentException("unknown import column: " + column);
+                }
+            }
+            final var copySql = "COPY inventory_import_staging (" + String.join(", ", columns)
+                    + ") FROM STDIN (FORMAT csv)";
+            return event.rows(importInventoryItems(userId, movedBy, skipInvalid, maxErrors,
+                    copyApi -> copyApi.copyIn(copySql, records, COPY_BUFFER_SIZE)));
+        } finally {
+            event.finish("ItemRepositoryImpl", "importInventoryItemsCsv", "api_import_inventory_items");
+        }
+    }
+
+    @Override
+    public InventoryImportResultEntity importInventoryItemsNdjson(final UUID userId, final InputStream lines,
+            final String movedBy, final boolean skipInvalid, final int maxErrors) throws SQLException, IOException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            return event.rows(importInventoryItems(userId, movedBy, skipInvalid, maxErrors,
+                    copyApi -> copyLines(copyApi, lines)));
+        } finally {
+            event.finish("ItemRepositoryImpl", "importInventoryItemsNdjson", "api_import_inventory_items");
+        }
+    }
+
+    // Staging tables are ON COMMIT DROP, so begin, COPY and import must share one transaction.
+    private InventoryImportResultEntity importInventoryItems(final UUID userId, final String movedBy,
+            final boolean skipInvalid, final int maxErrors, final CopyStep copyStep) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_BEGIN_IMPORT)) {
+                    ps.execute();
+                }
+                try {
+                    copyStep.copy(connection.unwrap(PGConnection.class).getCopyAPI());
+                } catch (final SQLException e) {
+                    // Class 22 (data exception): malformed CSV, bad encoding. That is the caller's input, not
+                    // a database failure.
+                    if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                        throw new IllegalArgumentException("invalid import input: " + e.getMessage(), e);
+                    }
+                    throw e;
+                }
+                final var result = finishImport(connection, userId, movedBy, skipInvalid, maxErrors);
+                connection.commit();
+                routing.wrote(userId);
+                for (final var houseId : result.houseIds()) {
+                    routing.wrote(houseId);
+                }
+                return result;
+            } catch (final SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static InventoryImportResultEntity finishImport(final Connection connection, final UUID userId,
+            final String movedBy, final boolean skipInvalid, final int maxErrors) throws SQLException {
+        final int imported;
+        final int rejected;
+        final var houseIds = new ArrayList<UUID>();
+        try (PreparedStatement ps = connection.prepareStatement(SQL_IMPORT)) {
+            ps.setObject(1, userId);
+            ps.setString(2, movedBy);
+            ps.setBoolean(3, skipInvalid);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("api_import_inventory_items returned no rows");
+                }
+                imported = rs.getInt("imported_count");
+                rejected = rs.getInt("rejected_count");
+                final Array array = rs.getArray("house_ids");
+                if (array != null) {
+                    for (final Object houseId : (Object[]) array.getArray()) {
+                        houseIds.add((UUID) houseId);
+                    }
+                }
+            }
+        }
+
+        final var errors = new ArrayList<InventoryImportErrorEntity>();
+        if (rejected > 0 && maxErrors > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(SQL_IMPORT_ERRORS)) {
+                ps.setInt(1, maxErrors);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        errors.add(new InventoryImportErrorEntity(rs.getLong("row_no"), rs.getString("error_message")));
+                    }
+                }
+            }
+        }
+        return new InventoryImportResultEntity(imported, rejected, houseIds, errors);
+    }
+
+    /**
+     * Streams NDJSON lines as {@code row_no<TAB>line} in COPY text format. Lines are not parsed here; Postgres
+     * decodes them set-wise in {@code api_import_inventory_items}.
+     */
+    private static void copyLines(final CopyManager copyApi, final InputStream lines)
+            throws SQLException, IOException {
+        final var reader = new BufferedReader(new InputStreamReader(lines, StandardCharsets.UTF_8));
+        final CopyIn copyIn = copyApi.copyIn(COPY_IMPORT_LINES);
+        try {
+            final var buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                buffer.append(lineNo).append('\t');
+                appendCopyText(buffer, line);
+                buffer.append('\n');
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
             }
         }
     }
 
+    private static void appendCopyText(final StringBuilder buffer, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+            case '\\' -> buffer.append("\\\\");
+            case '\t' -> buffer.append("\\t");
+            case '\r' -> buffer.append("\\r");
+            default -> buffer.append(c);
+            }
+        }
+    }
+
+    private static void writeToCopy(final CopyIn copyIn, final StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        final byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    @FunctionalInterface
+    private interface CopyStep {
+        void copy(CopyManager copyApi) throws SQLException, IOException;
+    }
+
     @Override
     public UUID upsertHouseLocationFromKiwi(final UUID houseId, final UUID kiwiLocationId,
             final UUID kiwiParentLocationId, final UUID parentHouseLocationId, final String locationKind,
             final String name, final Boolean isLeaf, final String path, final String referenceCode, final String notes,
             final Double latitude, final Double longitude, final Boolean enabled) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_UPSERT_KIWI_LOCATION)) {
             ps.setObject(1, houseId);
@@ -303,42 +855,105 @@ public final class ItemRepositoryImpl
                 if (!rs.next()) {
                     throw new SQLException("api_upsert_house_location_from_kiwi returned no rows");
                 }
-                return rs.getObject("house_location_id", UUID.class);
+                routing.wrote(houseId);
+                return event.rows(rs.getObject("house_location_id", UUID.class));
+            }
+        } finally {
+            event.finish("ItemRepositoryImpl", "upsertHouseLocationFromKiwi", "api_upsert_house_location_from_kiwi");
+        }
+    }
+
+    @Override
+    public UUID createHouseLocationPendingKiwi(final UUID houseId, final UUID parentHouseLocationId,
+            final String locationKind, final String name, final Boolean isLeaf, final String path,
+            final String referenceCode, final String notes, final Double latitude, final Double longitude,
+            final Boolean enabled) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SQL_CREATE_LOCATION_PENDING_KIWI)) {
+            ps.setObject(1, houseId);
+            ps.setObject(2, parentHouseLocationId);
+            ps.setString(3, locationKind);
+            ps.setString(4, name);
+            ps.setObject(5, isLeaf);
+            ps.setString(6, path);
+            ps.setString(7, referenceCode);
+            ps.setString(8, notes);
+            ps.setObject(9, latitude);
+            ps.setObject(10, longitude);
+            ps.setObject(11, enabled);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("api_create_house_location_pending_kiwi returned no rows");
+                }
+                routing.wrote(houseId);
+                return event.rows(rs.getObject("house_location_id", UUID.class));
             }
+        } finally {
+            event.finish("ItemRepositoryImpl", "createHouseLocationPendingKiwi",
+                    "api_create_house_location_pending_kiwi");
         }
     }
 
     @Override
     public UUID findKiwiLocationIdByHouseLocationId(final UUID houseLocationId) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_FIND_KIWI_LOCATION_ID)) {
             ps.setObject(1, houseLocationId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) {
-                    return null;
+                    return event.rows(null);
                 }
-                return rs.getObject("kiwi_location_id", UUID.class);
+                return event.rows(rs.getObject("kiwi_location_id", UUID.class));
             }
+        } finally {
+            event.finish("ItemRepositoryImpl", "findKiwiLocationIdByHouseLocationId", "select house_locations");
+        }
+    }
+
+    @Override
+    public boolean isKiwiLocationLinkedOrPending(final UUID houseLocationId) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SQL_KIWI_LOCATION_LINKED_OR_PENDING)) {
+            ps.setObject(1, houseLocationId);
+            try (ResultSet rs = ps.executeQuery()) {
+                event.rows(1L);
+                return rs.next() && rs.getBoolean("linked_or_pending");
+            }
+        } finally {
+            event.finish("ItemRepositoryImpl", "isKiwiLocationLinkedOrPending", "fn_kiwi_location_linked_or_pending");
         }
     }
 
     @Override
     public UUID findRootKiwiLocationIdByHouseId(final UUID houseId) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_FIND_ROOT_KIWI_LOCATION_ID_BY_HOUSE)) {
             ps.setObject(1, houseId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getObject("kiwi_location_id", UUID.class);
+                    return event.rows(rs.getObject("kiwi_location_id", UUID.class));
                 }
-                return null;
+                return event.rows(null);
             }
+        } finally {
+            event.finish("ItemRepositoryImpl", "findRootKiwiLocationIdByHouseId", "select house_locations");
         }
     }
 
     @Override
     public UUID upsertObjectFromKiwi(final UUID kiwiObjectId, final String name, final String description,
             final String category, final String bucketImage, final Boolean enabled) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_UPSERT_OBJECT_FROM_KIWI)) {
             ps.setObject(1, kiwiObjectId);
@@ -352,8 +967,16 @@ public final class ItemRepositoryImpl
                 if (!rs.next()) {
                     throw new SQLException("upsert object from kiwi returned no rows");
                 }
-                return rs.getObject("object_id", UUID.class);
+                // Keyed by the items showing the object and their owners; an object no item uses pins nothing.
+                final var keys = new HashSet<UUID>();
+                addRoutingKeys(rs, keys);
+                if (!keys.isEmpty()) {
+                    routing.wrote(keys.toArray(UUID[]::new));
+                }
+                return event.rows(rs.getObject("object_id", UUID.class));
             }
+        } finally {
+            event.finish("ItemRepositoryImpl", "upsertObjectFromKiwi", "insert objects");
         }
     }
 
@@ -361,71 +984,127 @@ public final class ItemRepositoryImpl
     public List<LocationInventoryItemEntity> listInventoryByLocation(final UUID userId, final UUID houseId,
             final UUID houseLocationId, final Boolean includeDescendants, final int limit, final int offset)
             throws SQLException {
-        final var result = new ArrayList<LocationInventoryItemEntity>();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<LocationInventoryItemEntity>();
 
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_LIST_BY_LOCATION)) {
-            ps.setObject(1, userId);
-            ps.setObject(2, houseId);
-            ps.setObject(3, houseLocationId);
-            ps.setObject(4, includeDescendants);
-            ps.setInt(5, limit);
-            ps.setInt(6, offset);
+            try (Connection connection = routing.read(userId, houseId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_LIST_BY_LOCATION)) {
+                ps.setObject(1, userId);
+                ps.setObject(2, houseId);
+                ps.setObject(3, houseLocationId);
+                ps.setObject(4, includeDescendants);
+                ps.setInt(5, limit);
+                ps.setInt(6, offset);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new LocationInventoryItemEntity(
-                            rs.getObject("inventory_item_id", UUID.class),
-                            rs.getObject("object_id", UUID.class),
-                            rs.getString("object_name"),
-                            rs.getString("nickname"),
-                            rs.getObject("house_id", UUID.class),
-                            rs.getString("house_name"),
-                            rs.getObject("house_location_leaf_id", UUID.class),
-                            rs.getString("house_location_path"),
-                            asInstant(rs, "assigned_at")));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapLocationInventoryItem(rs));
+                    }
                 }
             }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "listInventoryByLocation", "api_list_inventory_by_location");
         }
+    }
+
+    @Override
+    public List<LocationInventoryItemEntity> listInventoryByLocationAfter(final UUID userId, final UUID houseId,
+            final UUID houseLocationId, final Boolean includeDescendants, final String afterPath,
+            final String afterObjectName, final UUID afterInventoryItemId, final int limit) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<LocationInventoryItemEntity>();
+
+            try (Connection connection = routing.read(userId, houseId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_LIST_BY_LOCATION_AFTER)) {
+                ps.setObject(1, userId);
+                ps.setObject(2, houseId);
+                ps.setObject(3, houseLocationId);
+                ps.setObject(4, includeDescendants);
+                ps.setString(5, afterPath);
+                ps.setString(6, afterObjectName);
+                ps.setObject(7, afterInventoryItemId);
+                ps.setInt(8, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapLocationInventoryItem(rs));
+                    }
+                }
+            }
 
-        return result;
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "listInventoryByLocationAfter", "api_list_inventory_by_location_after");
+        }
     }
 
     @Override
     public List<InventoryTimelineEventEntity> inventoryItemTimeline(final UUID inventoryItemId, final int limit,
             final int offset)
             throws SQLException {
-        final var result = new ArrayList<InventoryTimelineEventEntity>();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<InventoryTimelineEventEntity>();
 
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_TIMELINE)) {
-            ps.setObject(1, inventoryItemId);
-            ps.setInt(2, limit);
-            ps.setInt(3, offset);
+            try (Connection connection = routing.read(inventoryItemId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_TIMELINE)) {
+                ps.setObject(1, inventoryItemId);
+                ps.setInt(2, limit);
+                ps.setInt(3, offset);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new InventoryTimelineEventEntity(
-                            rs.getObject("item_movement_id", UUID.class),
-                            rs.getObject("inventory_item_id", UUID.class),
-                            rs.getString("movement_reason"),
-                            rs.getString("moved_by"),
-                            asInstant(rs, "moved_at"),
-                            rs.getObject("from_house_location_leaf_id", UUID.class),
-                            rs.getString("from_house_location_path"),
-                            rs.getObject("to_house_location_leaf_id", UUID.class),
-                            rs.getString("to_house_location_path"),
-                            rs.getString("notes")));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapTimelineEvent(rs));
+                    }
                 }
             }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "inventoryItemTimeline", "api_inventory_item_timeline");
         }
+    }
+
+    @Override
+    public List<InventoryTimelineEventEntity> inventoryItemTimelineAfter(final UUID inventoryItemId,
+            final Instant afterMovedAt, final UUID afterItemMovementId, final int limit) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<InventoryTimelineEventEntity>();
+
+            try (Connection connection = routing.read(inventoryItemId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_TIMELINE_AFTER)) {
+                ps.setObject(1, inventoryItemId);
+                ps.setTimestamp(2, asTimestamp(afterMovedAt));
+                ps.setObject(3, afterItemMovementId);
+                ps.setInt(4, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapTimelineEvent(rs));
+                    }
+                }
+            }
 
-        return result;
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "inventoryItemTimelineAfter", "api_inventory_item_timeline_after");
+        }
     }
 
     @Override
     public FavoriteStateEntity setFavoriteItem(final UUID userId, final UUID inventoryItemId,
             final Boolean isFavorite, final String note) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_SET_FAVORITE)) {
             ps.setObject(1, userId);
@@ -438,56 +1117,166 @@ public final class ItemRepositoryImpl
                     throw new SQLException("api_set_favorite_item returned no rows");
                 }
 
-                return new FavoriteStateEntity(
+                routing.wrote(userId, inventoryItemId);
+                return event.rows(new FavoriteStateEntity(
                         rs.getObject("user_id", UUID.class),
                         rs.getObject("inventory_item_id", UUID.class),
-                        rs.getBoolean("is_favorite"));
+                        rs.getBoolean("is_favorite")));
             }
+        } finally {
+            event.finish("ItemRepositoryImpl", "setFavoriteItem", "api_set_favorite_item");
         }
     }
 
     @Override
     public List<NearbyInventoryItemEntity> searchInventoryItemsNearPoint(final UUID userId, final double latitude,
-            final double longitude, final double radiusMeters, final int limit, final int offset) throws SQLException {
-        final var result = new ArrayList<NearbyInventoryItemEntity>();
+            final double longitude, final Double radiusMeters, final int limit, final int offset) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<NearbyInventoryItemEntity>();
 
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_NEARBY)) {
-            ps.setObject(1, userId);
-            ps.setDouble(2, latitude);
-            ps.setDouble(3, longitude);
-            ps.setDouble(4, radiusMeters);
-            ps.setInt(5, limit);
-            ps.setInt(6, offset);
+            try (Connection connection = routing.read(userId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_NEARBY)) {
+                ps.setObject(1, userId);
+                ps.setDouble(2, latitude);
+                ps.setDouble(3, longitude);
+                ps.setObject(4, radiusMeters, Types.DOUBLE);
+                ps.setInt(5, limit);
+                ps.setInt(6, offset);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new NearbyInventoryItemEntity(
-                            rs.getObject("inventory_item_id", UUID.class),
-                            rs.getObject("object_id", UUID.class),
-                            rs.getString("object_name"),
-                            rs.getObject("house_id", UUID.class),
-                            rs.getString("house_name"),
-                            rs.getObject("house_location_leaf_id", UUID.class),
-                            rs.getString("house_location_path"),
-                            rs.getDouble("distance_meters")));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new NearbyInventoryItemEntity(
+                                rs.getObject("inventory_item_id", UUID.class),
+                                rs.getObject("object_id", UUID.class),
+                                rs.getString("object_name"),
+                                rs.getObject("house_id", UUID.class),
+                                rs.getString("house_name"),
+                                rs.getObject("house_location_leaf_id", UUID.class),
+                                rs.getString("house_location_path"),
+                                rs.getDouble("distance_meters")));
+                    }
+                }
+            }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "searchInventoryItemsNearPoint",
+                    "api_search_inventory_items_near_point");
+        }
+    }
+
+    @Override
+    public List<MapFeatureEntity> listInventoryMapFeatures(final UUID userId, final double minLongitude,
+            final double minLatitude, final double maxLongitude, final double maxLatitude, final Double cellDegrees,
+            final int limit) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<MapFeatureEntity>();
+
+            try (Connection connection = routing.read(userId).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_MAP_FEATURES)) {
+                ps.setObject(1, userId);
+                ps.setDouble(2, minLongitude);
+                ps.setDouble(3, minLatitude);
+                ps.setDouble(4, maxLongitude);
+                ps.setDouble(5, maxLatitude);
+                ps.setObject(6, cellDegrees, Types.DOUBLE);
+                ps.setInt(7, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new MapFeatureEntity(
+                                rs.getString("feature_kind"),
+                                rs.getObject("item_count", Integer.class),
+                                rs.getDouble("latitude"),
+                                rs.getDouble("longitude"),
+                                rs.getObject("inventory_item_id", UUID.class),
+                                rs.getString("object_name"),
+                                rs.getObject("house_id", UUID.class),
+                                rs.getString("house_name"),
+                                rs.getObject("house_location_leaf_id", UUID.class),
+                                rs.getString("house_location_path")));
+                    }
+                }
+            }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "listInventoryMapFeatures", "api_inventory_map");
+        }
+    }
+
+    @Override
+    public List<NearbyIndexEntryEntity> listNearbyIndexEntries(final UUID afterInventoryItemId, final int limit)
+            throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<NearbyIndexEntryEntity>();
+
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_NEARBY_INDEX_PAGE)) {
+                ps.setObject(1, afterInventoryItemId);
+                ps.setInt(2, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapNearbyIndexEntry(rs));
+                    }
                 }
             }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "listNearbyIndexEntries", "api_list_nearby_index_entries");
         }
+    }
 
-        return result;
+    @Override
+    public List<NearbyIndexEntryEntity> findNearbyIndexEntries(final List<UUID> inventoryItemIds, final UUID houseId)
+            throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<NearbyIndexEntryEntity>();
+
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_NEARBY_INDEX_FIND)) {
+                if (inventoryItemIds == null) {
+                    ps.setNull(1, Types.ARRAY);
+                } else {
+                    ps.setArray(1, connection.createArrayOf("uuid", inventoryItemIds.toArray()));
+                }
+                ps.setObject(2, houseId);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapNearbyIndexEntry(rs));
+                    }
+                }
+            }
+
+            return event.rows(result);
+        } finally {
+            event.finish("ItemRepositoryImpl", "findNearbyIndexEntries", "api_find_nearby_index_entries");
+        }
     }
 
     @Override
     public InventoryItemDetailEntity getInventoryItemDetail(final UUID inventoryItemId) throws SQLException {
-        try (Connection connection = dataSource.getConnection();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (Connection connection = routing.read(inventoryItemId).getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_ITEM_DETAIL)) {
             ps.setObject(1, inventoryItemId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) {
-                    return null;
+                    return event.rows(null);
                 }
-                return new InventoryItemDetailEntity(
+                return event.rows(new InventoryItemDetailEntity(
                         rs.getObject("inventory_item_id", UUID.class),
                         rs.getObject("user_id", UUID.class),
                         rs.getObject("object_id", UUID.class),
@@ -502,7 +1291,130 @@ public final class ItemRepositoryImpl
                         rs.getString("house_location_path"),
                         asInstant(rs, "assigned_at"),
                         asInstant(rs, "created_at"),
-                        asInstant(rs, "updated_at"));
+                        asInstant(rs, "updated_at")));
+            }
+        } finally {
+            event.finish("ItemRepositoryImpl", "getInventoryItemDetail", "api_get_inventory_item_detail");
+        }
+    }
+
+    @Override
+    public long exportInventoryItems(final UUID userId, final UUID houseId,
+            final Consumer<InventoryExportRowEntity> consumer) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (Connection connection = routing.read(userId, houseId).getConnection()) {
+            // pgjdbc only honours the fetch size (a portal fetched in batches) outside autocommit; otherwise it
+            // reads the whole result into memory before returning the first row.
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(SQL_EXPORT, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(EXPORT_FETCH_SIZE);
+                ps.setObject(1, userId);
+                ps.setObject(2, houseId);
+
+                long count = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(new InventoryExportRowEntity(
+                                rs.getObject("inventory_item_id", UUID.class),
+                                rs.getObject("object_id", UUID.class),
+                                rs.getObject("object_kiwi_id", UUID.class),
+                                rs.getString("object_name"),
+                                rs.getString("object_category"),
+                                rs.getString("nickname"),
+                                rs.getString("serial_number"),
+                                rs.getString("condition_status"),
+                                rs.getString("metadata"),
+                                rs.getObject("house_id", UUID.class),
+                                rs.getString("house_name"),
+                                rs.getObject("house_location_leaf_id", UUID.class),
+                                rs.getString("house_location_path"),
+                                asInstant(rs, "updated_at")));
+                        count++;
+                    }
+                }
+                connection.commit();
+                return event.rows(count);
+            } catch (final SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            event.finish("ItemRepositoryImpl", "exportInventoryItems", "api_export_inventory_items");
+        }
+    }
+
+    private static HouseItemEntity mapHouseItem(final ResultSet rs) throws SQLException {
+        return new HouseItemEntity(
+                rs.getObject("inventory_item_id", UUID.class),
+                rs.getObject("object_id", UUID.class),
+                rs.getObject("object_kiwi_id", UUID.class),
+                rs.getString("object_name"),
+                rs.getString("object_description"),
+                rs.getString("object_category"),
+                rs.getString("nickname"),
+                rs.getObject("house_id", UUID.class),
+                rs.getString("house_name"),
+                rs.getObject("house_location_leaf_id", UUID.class),
+                rs.getString("house_location_path"),
+                rs.getFloat("rank"),
+                asInstant(rs, "updated_at"));
+    }
+
+    private static LocationInventoryItemEntity mapLocationInventoryItem(final ResultSet rs) throws SQLException {
+        return new LocationInventoryItemEntity(
+                rs.getObject("inventory_item_id", UUID.class),
+                rs.getObject("object_id", UUID.class),
+                rs.getString("object_name"),
+                rs.getString("nickname"),
+                rs.getObject("house_id", UUID.class),
+                rs.getString("house_name"),
+                rs.getObject("house_location_leaf_id", UUID.class),
+                rs.getString("house_location_path"),
+                asInstant(rs, "assigned_at"));
+    }
+
+    private static InventoryTimelineEventEntity mapTimelineEvent(final ResultSet rs) throws SQLException {
+        return new InventoryTimelineEventEntity(
+                rs.getObject("item_movement_id", UUID.class),
+                rs.getObject("inventory_item_id", UUID.class),
+                rs.getString("movement_reason"),
+                rs.getString("moved_by"),
+                asInstant(rs, "moved_at"),
+                rs.getObject("from_house_location_leaf_id", UUID.class),
+                rs.getString("from_house_location_path"),
+                rs.getObject("to_house_location_leaf_id", UUID.class),
+                rs.getString("to_house_location_path"),
+                rs.getString("notes"));
+    }
+
+    private static NearbyIndexEntryEntity mapNearbyIndexEntry(final ResultSet rs) throws SQLException {
+        return new NearbyIndexEntryEntity(
+                rs.getObject("inventory_item_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getObject("object_id", UUID.class),
+                rs.getString("object_name"),
+                rs.getObject("house_id", UUID.class),
+                rs.getString("house_name"),
+                rs.getObject("house_location_leaf_id", UUID.class),
+                rs.getString("house_location_path"),
+                rs.getDouble("latitude"),
+                rs.getDouble("longitude"),
+                asInstant(rs, "item_updated_at"));
+    }
+
+    private static void addRoutingKeys(final ResultSet rs, final Set<UUID> keys) throws SQLException {
+        final Array array = rs.getArray("routing_keys");
+        if (array == null) {
+            return;
+        }
+        for (final var key : (Object[]) array.getArray()) {
+            if (key != null) {
+                keys.add((UUID) key);
             }
         }
     }
@@ -511,4 +1423,8 @@ public final class ItemRepositoryImpl
         final Timestamp ts = rs.getTimestamp(column);
         return ts == null ? null : ts.toInstant();
     }
+
+    private static Timestamp asTimestamp(final Instant value) {
+        return value == null ? null : Timestamp.from(value);
+    }
 }
@@ -0,0 +1,258 @@
+package com.rafex.housedb.repository.impl;
+
+import com.rafex.housedb.jfr.RepositoryEvent;
+import com.rafex.housedb.repository.KiwiOutboxRepository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+/**
+ * Outbox access always goes to the primary: claims and completions are writes, and the backlog gauge must not lag
+ * behind them.
+ */
+public final class KiwiOutboxRepositoryImpl implements KiwiOutboxRepository {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private static final String SQL_CLAIM = """
+            SELECT outbox_id,
+                   operation,
+                   aggregate_id,
+                   payload::text AS payload,
+                   attempts,
+                   depends_on_kiwi_location_id
+              FROM api_claim_kiwi_outbox(?, ?)
+            """;
+
+    private static final String SQL_COMPLETE = """
+            SELECT api_complete_kiwi_outbox(?, ?, ?)
+            """;
+
+    private static final String SQL_RETRY = """
+            UPDATE kiwi_outbox
+            SET next_attempt_at = now() + make_interval(secs => ?),
+                locked_until = NULL,
+                last_error = ?
+            WHERE id = ?
+              AND status = 'pending'
+            """;
+
+    private static final String SQL_RELEASE = """
+            UPDATE kiwi_outbox
+            SET next_attempt_at = now() + make_interval(secs => ?),
+                locked_until = NULL,
+                attempts = GREATEST(attempts - 1, 0)
+            WHERE id = ?
+              AND status = 'pending'
+            """;
+
+    private static final String SQL_FAIL = """
+            SELECT api_fail_kiwi_outbox(?, ?)
+            """;
+
+    private static final String SQL_REQUEUE = """
+            SELECT api_requeue_kiwi_outbox(?)
+            """;
+
+    private static final String SQL_PENDING = """
+            SELECT EXISTS (
+              SELECT 1
+                FROM kiwi_outbox
+               WHERE operation = ?
+                 AND aggregate_id = ?
+                 AND status = 'pending'
+            )
+            """;
+
+    private static final String SQL_FAILED = """
+            SELECT id,
+                   operation,
+                   aggregate_id,
+                   attempts,
+                   last_error,
+                   blocked_by_outbox_id,
+                   updated_at
+              FROM kiwi_outbox
+             WHERE status = 'failed'
+             ORDER BY updated_at DESC, id DESC
+             LIMIT ?
+            """;
+
+    private static final String SQL_BACKLOG = """
+            SELECT count(*) FILTER (WHERE status = 'pending') AS pending,
+                   count(*) FILTER (WHERE status = 'failed' AND blocked_by_outbox_id IS NULL) AS failed,
+                   count(*) FILTER (WHERE status = 'failed' AND blocked_by_outbox_id IS NOT NULL) AS blocked,
+                   COALESCE(EXTRACT(EPOCH FROM now() - min(created_at) FILTER (WHERE status = 'pending')), 0)
+                     AS oldest_pending_age_seconds
+              FROM kiwi_outbox
+             WHERE status <> 'done'
+            """;
+
+    private final DataSource dataSource;
+
+    public KiwiOutboxRepositoryImpl(final DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    @Override
+    public List<OutboxEntry> claim(final int limit, final Duration lease) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_CLAIM)) {
+            ps.setInt(1, limit);
+            ps.setInt(2, (int) Math.max(1L, lease.toSeconds()));
+            try (var rs = ps.executeQuery()) {
+                final var entries = new ArrayList<OutboxEntry>();
+                while (rs.next()) {
+                    entries.add(new OutboxEntry(rs.getLong("outbox_id"), rs.getString("operation"),
+                            rs.getObject("aggregate_id", UUID.class), rs.getString("payload"), rs.getInt("attempts"),
+                            rs.getObject("depends_on_kiwi_location_id", UUID.class)));
+                }
+                return event.rows(entries);
+            }
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "claim", "api_claim_kiwi_outbox");
+        }
+    }
+
+    @Override
+    public void complete(final long outboxId, final UUID kiwiId, final UUID kiwiParentLocationId)
+            throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_COMPLETE)) {
+            ps.setLong(1, outboxId);
+            ps.setObject(2, kiwiId);
+            ps.setObject(3, kiwiParentLocationId);
+            ps.execute();
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "complete", "api_complete_kiwi_outbox");
+        }
+    }
+
+    @Override
+    public void retry(final long outboxId, final Duration delay, final String error) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_RETRY)) {
+            ps.setDouble(1, Math.max(0L, delay.toMillis()) / 1000.0);
+            ps.setString(2, truncate(error));
+            ps.setLong(3, outboxId);
+            event.rows(ps.executeUpdate());
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "retry", "update kiwi_outbox");
+        }
+    }
+
+    @Override
+    public void release(final long outboxId, final Duration delay) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_RELEASE)) {
+            ps.setDouble(1, Math.max(0L, delay.toMillis()) / 1000.0);
+            ps.setLong(2, outboxId);
+            event.rows(ps.executeUpdate());
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "release", "update kiwi_outbox");
+        }
+    }
+
+    @Override
+    public int fail(final long outboxId, final String error) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_FAIL)) {
+            ps.setLong(1, outboxId);
+            ps.setString(2, truncate(error));
+            try (var rs = ps.executeQuery()) {
+                final int count = rs.next() ? rs.getInt(1) : 0;
+                event.rows(count);
+                return count;
+            }
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "fail", "api_fail_kiwi_outbox");
+        }
+    }
+
+    @Override
+    public int requeue(final long outboxId) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_REQUEUE)) {
+            ps.setLong(1, outboxId);
+            try (var rs = ps.executeQuery()) {
+                final int count = rs.next() ? rs.getInt(1) : 0;
+                event.rows(count);
+                return count;
+            }
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "requeue", "api_requeue_kiwi_outbox");
+        }
+    }
+
+    @Override
+    public boolean pending(final String operation, final UUID aggregateId) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_PENDING)) {
+            ps.setString(1, operation);
+            ps.setObject(2, aggregateId);
+            try (var rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "pending", "select kiwi_outbox");
+        }
+    }
+
+    @Override
+    public List<FailedEntry> failed(final int limit) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_FAILED)) {
+            ps.setInt(1, Math.max(1, limit));
+            try (var rs = ps.executeQuery()) {
+                final var entries = new ArrayList<FailedEntry>();
+                while (rs.next()) {
+                    final long blockedBy = rs.getLong("blocked_by_outbox_id");
+                    entries.add(new FailedEntry(rs.getLong("id"), rs.getString("operation"),
+                            rs.getObject("aggregate_id", UUID.class), rs.getInt("attempts"),
+                            rs.getString("last_error"), rs.wasNull() ? null : blockedBy,
+                            rs.getTimestamp("updated_at").toInstant()));
+                }
+                return event.rows(entries);
+            }
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "failed", "select kiwi_outbox");
+        }
+    }
+
+    @Override
+    public OutboxBacklog backlog() throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
+        try (var c = dataSource.getConnection(); var ps = c.prepareStatement(SQL_BACKLOG);
+                var rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                return event.rows(new OutboxBacklog(0, 0, 0, 0));
+            }
+            return event.rows(new OutboxBacklog(rs.getLong("pending"), rs.getLong("failed"), rs.getLong("blocked"),
+                    rs.getDouble("oldest_pending_age_seconds")));
+        } finally {
+            event.finish("KiwiOutboxRepositoryImpl", "backlog", "select kiwi_outbox");
+        }
+    }
+
+    private static String truncate(final String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
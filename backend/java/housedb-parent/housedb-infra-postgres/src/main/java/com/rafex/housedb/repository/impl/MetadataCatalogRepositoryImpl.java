@@ -1,8 +1,11 @@
 package com.rafex.housedb.repository.impl;
 
+import com.rafex.housedb.db.ReplicaRouting;
+import com.rafex.housedb.jfr.RepositoryEvent;
 import com.rafex.housedb.repository.MetadataCatalogRepository;
 import com.rafex.housedb.repository.models.MetadataCatalogEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -38,42 +41,59 @@ public final class MetadataCatalogRepositoryImpl implements MetadataCatalogRepos
               FROM api_create_metadata_catalog(?, ?, ?, ?, ?::jsonb, ?)
             """;
 
+    // Catalogs are not scoped by user or house; a fixed key keeps their writes from pinning unrelated reads.
+    private static final UUID ROUTING_KEY = UUID.nameUUIDFromBytes("metadata_catalogs".getBytes(StandardCharsets.UTF_8));
+
     private final DataSource dataSource;
+    private final ReplicaRouting routing;
 
     public MetadataCatalogRepositoryImpl(final DataSource dataSource) {
-        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this(ReplicaRouting.primaryOnly(Objects.requireNonNull(dataSource, "dataSource")));
+    }
+
+    public MetadataCatalogRepositoryImpl(final ReplicaRouting routing) {
+        this.routing = Objects.requireNonNull(routing, "routing");
+        this.dataSource = routing.primary();
     }
 
     @Override
     public List<MetadataCatalogEntity> listMetadataCatalogs(final String metadataTarget, final Boolean includeDisabled,
             final int limit, final int offset) throws SQLException {
-        final var result = new ArrayList<MetadataCatalogEntity>();
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement ps = connection.prepareStatement(SQL_LIST_METADATA_CATALOGS)) {
-            ps.setString(1, metadataTarget);
-            ps.setBoolean(2, includeDisabled);
-            ps.setInt(3, limit);
-            ps.setInt(4, offset);
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var result = new ArrayList<MetadataCatalogEntity>();
+            try (Connection connection = routing.read(ROUTING_KEY).getConnection();
+                    PreparedStatement ps = connection.prepareStatement(SQL_LIST_METADATA_CATALOGS)) {
+                ps.setString(1, metadataTarget);
+                ps.setBoolean(2, includeDisabled);
+                ps.setInt(3, limit);
+                ps.setInt(4, offset);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    result.add(new MetadataCatalogEntity(
-                            rs.getObject("metadata_catalog_id", UUID.class),
-                            rs.getString("metadata_target"),
-                            rs.getString("code"),
-                            rs.getString("name"),
-                            rs.getString("description"),
-                            rs.getString("payload_json"),
-                            rs.getBoolean("enabled")));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new MetadataCatalogEntity(
+                                rs.getObject("metadata_catalog_id", UUID.class),
+                                rs.getString("metadata_target"),
+                                rs.getString("code"),
+                                rs.getString("name"),
+                                rs.getString("description"),
+                                rs.getString("payload_json"),
+                                rs.getBoolean("enabled")));
+                    }
                 }
             }
+            return event.rows(result);
+        } finally {
+            event.finish("MetadataCatalogRepositoryImpl", "listMetadataCatalogs", "api_list_metadata_catalogs");
         }
-        return result;
     }
 
     @Override
     public MetadataCatalogEntity createMetadataCatalog(final String metadataTarget, final String code, final String name,
             final String description, final String payloadJson, final boolean enabled) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_CREATE_METADATA_CATALOG)) {
             ps.setString(1, metadataTarget);
@@ -88,15 +108,18 @@ public final class MetadataCatalogRepositoryImpl implements MetadataCatalogRepos
                     throw new SQLException("api_create_metadata_catalog returned no rows");
                 }
 
-                return new MetadataCatalogEntity(
+                routing.wrote(ROUTING_KEY);
+                return event.rows(new MetadataCatalogEntity(
                         rs.getObject("metadata_catalog_id", UUID.class),
                         rs.getString("metadata_target"),
                         rs.getString("code"),
                         rs.getString("name"),
                         rs.getString("description"),
                         rs.getString("payload_json"),
-                        rs.getBoolean("enabled"));
+                        rs.getBoolean("enabled")));
             }
+        } finally {
+            event.finish("MetadataCatalogRepositoryImpl", "createMetadataCatalog", "api_create_metadata_catalog");
         }
     }
 }
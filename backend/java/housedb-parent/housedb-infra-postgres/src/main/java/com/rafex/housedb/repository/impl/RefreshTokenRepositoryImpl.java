@@ -1,5 +1,6 @@
 package com.rafex.housedb.repository.impl;
 
+import com.rafex.housedb.jfr.RepositoryEvent;
 import com.rafex.housedb.repository.RefreshTokenRepository;
 
 import java.sql.Connection;
@@ -40,6 +41,8 @@ public final class RefreshTokenRepositoryImpl implements RefreshTokenRepository
     public void createRefreshToken(final UUID userId, final UUID tokenFamilyId, final String jwtId,
             final Instant expiresAt, final String parentJwtId)
             throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_INSERT_REFRESH_TOKEN)) {
             ps.setObject(1, userId);
@@ -48,6 +51,8 @@ public final class RefreshTokenRepositoryImpl implements RefreshTokenRepository
             ps.setTimestamp(4, Timestamp.from(expiresAt));
             ps.setString(5, parentJwtId);
             ps.executeQuery();
+        } finally {
+            event.finish("RefreshTokenRepositoryImpl", "createRefreshToken", "api_create_refresh_token");
         }
     }
 
@@ -55,6 +60,8 @@ public final class RefreshTokenRepositoryImpl implements RefreshTokenRepository
     public RotateResult rotateRefreshToken(final String currentJwtId, final String newJwtId, final Instant newExpiresAt,
             final Instant now)
             throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_SELECT_FOR_UPDATE)) {
             ps.setString(1, currentJwtId);
@@ -63,23 +70,29 @@ public final class RefreshTokenRepositoryImpl implements RefreshTokenRepository
             ps.setTimestamp(4, Timestamp.from(now));
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) {
-                    return new RotateResult(RotateStatus.NOT_FOUND, null, null);
+                    return event.rows(new RotateResult(RotateStatus.NOT_FOUND, null, null));
                 }
-                return new RotateResult(
+                return event.rows(new RotateResult(
                         RotateStatus.valueOf(rs.getString("status")),
                         rs.getObject("user_id", UUID.class),
-                        rs.getObject("token_family_id", UUID.class));
+                        rs.getObject("token_family_id", UUID.class)));
             }
+        } finally {
+            event.finish("RefreshTokenRepositoryImpl", "rotateRefreshToken", "api_rotate_refresh_token");
         }
     }
 
     @Override
     public void revokeFamily(final UUID tokenFamilyId, final Instant now) throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (Connection connection = dataSource.getConnection();
                 PreparedStatement ps = connection.prepareStatement(SQL_REVOKE_FAMILY)) {
             ps.setObject(1, tokenFamilyId);
             ps.setTimestamp(2, Timestamp.from(now));
             ps.executeQuery();
+        } finally {
+            event.finish("RefreshTokenRepositoryImpl", "revokeFamily", "api_revoke_refresh_token_family");
         }
     }
 }
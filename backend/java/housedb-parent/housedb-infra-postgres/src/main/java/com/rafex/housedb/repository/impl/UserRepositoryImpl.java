@@ -1,7 +1,9 @@
 package com.rafex.housedb.repository.impl;
 
+import com.rafex.housedb.jfr.RepositoryEvent;
 import com.rafex.housedb.repository.UserRepository;
 
+import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -24,111 +26,180 @@ public final class UserRepositoryImpl implements UserRepository {
     @Override
     public void createUser(final UUID userId, final String username, final byte[] passwordHash, final byte[] salt,
             final int iterations) throws SQLException {
-        final var sql = """
-                INSERT INTO users (user_id, username, password_hash, salt, iterations, status, created_at, updated_at)
-                VALUES (?, ?, ?, ?, ?, 'active', NOW(), NOW())
-                """;
-
-        try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
-            ps.setObject(1, userId);
-            ps.setString(2, username);
-            ps.setBytes(3, passwordHash);
-            ps.setBytes(4, salt);
-            ps.setInt(5, iterations);
-            ps.executeUpdate();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    INSERT INTO users (user_id, username, password_hash, salt, iterations, status, created_at, updated_at)
+                    VALUES (?, ?, ?, ?, ?, 'active', NOW(), NOW())
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setObject(1, userId);
+                ps.setString(2, username);
+                ps.setBytes(3, passwordHash);
+                ps.setBytes(4, salt);
+                ps.setInt(5, iterations);
+                ps.executeUpdate();
+            }
+        } finally {
+            event.finish("UserRepositoryImpl", "createUser", "insert users");
         }
     }
 
     @Override
     public Optional<UserRow> findByUsername(final String username) throws SQLException {
-        final var sql = """
-                SELECT user_id, username, password_hash, salt, iterations, status, created_at, updated_at
-                FROM users
-                WHERE username = ?
-                """;
-
-        try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
-            ps.setString(1, username);
-
-            try (var rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    return Optional.empty();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    SELECT user_id, username, password_hash, salt, iterations, status, created_at, updated_at,
+                           roles_version
+                    FROM users
+                    WHERE username = ?
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setString(1, username);
+
+                try (var rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return event.rows(Optional.empty());
+                    }
+
+                    return event.rows(Optional.of(toUserRow(rs)));
                 }
-
-                return Optional.of(new UserRow(rs.getObject("user_id", UUID.class), rs.getString("username"),
-                        rs.getBytes("password_hash"), rs.getBytes("salt"), rs.getInt("iterations"),
-                        rs.getString("status"), asInstant(rs, "created_at"), asInstant(rs, "updated_at")));
             }
+        } finally {
+            event.finish("UserRepositoryImpl", "findByUsername", "select users");
         }
     }
 
     @Override
     public Optional<UserRow> findByUserId(final UUID userId) throws SQLException {
-        final var sql = """
-                SELECT user_id, username, password_hash, salt, iterations, status, created_at, updated_at
-                FROM users
-                WHERE user_id = ?
-                """;
-
-        try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
-            ps.setObject(1, userId);
-
-            try (var rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    return Optional.empty();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    SELECT user_id, username, password_hash, salt, iterations, status, created_at, updated_at,
+                           roles_version
+                    FROM users
+                    WHERE user_id = ?
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setObject(1, userId);
+
+                try (var rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return event.rows(Optional.empty());
+                    }
+
+                    return event.rows(Optional.of(toUserRow(rs)));
                 }
-
-                return Optional.of(new UserRow(rs.getObject("user_id", UUID.class), rs.getString("username"),
-                        rs.getBytes("password_hash"), rs.getBytes("salt"), rs.getInt("iterations"),
-                        rs.getString("status"), asInstant(rs, "created_at"), asInstant(rs, "updated_at")));
             }
+        } finally {
+            event.finish("UserRepositoryImpl", "findByUserId", "select users");
         }
     }
 
     @Override
     public List<String> findRoleNamesByUserId(final UUID userId) throws SQLException {
-        final var sql = """
-                SELECT r.name
-                FROM user_roles ur
-                JOIN users u ON u.id = ur.user_fk
-                JOIN roles r ON r.id = ur.role_fk
-                WHERE u.user_id = ?
-                  AND r.status = 'active'
-                ORDER BY r.name
-                """;
-
-        try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
-            ps.setObject(1, userId);
-
-            try (var rs = ps.executeQuery()) {
-                final var out = new ArrayList<String>();
-                while (rs.next()) {
-                    out.add(rs.getString(1));
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    SELECT r.name
+                    FROM user_roles ur
+                    JOIN users u ON u.id = ur.user_fk
+                    JOIN roles r ON r.id = ur.role_fk
+                    WHERE u.user_id = ?
+                      AND r.status = 'active'
+                    ORDER BY r.name
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setObject(1, userId);
+
+                try (var rs = ps.executeQuery()) {
+                    final var out = new ArrayList<String>();
+                    while (rs.next()) {
+                        out.add(rs.getString(1));
+                    }
+                    return event.rows(out);
                 }
-                return out;
             }
+        } finally {
+            event.finish("UserRepositoryImpl", "findRoleNamesByUserId", "select user_roles");
         }
     }
 
     @Override
     public Optional<UserWithRoles> findByUsernameWithRoles(final String username) throws SQLException {
-        final var userOpt = findByUsername(username);
-        if (userOpt.isEmpty()) {
-            return Optional.empty();
+        final var event = new RepositoryEvent();
+        event.begin();
+        try {
+            final var sql = """
+                    SELECT u.user_id, u.username, u.password_hash, u.salt, u.iterations, u.status, u.created_at,
+                           u.updated_at, u.roles_version,
+                           COALESCE(array_agg(r.name ORDER BY r.name) FILTER (WHERE r.name IS NOT NULL),
+                                    ARRAY[]::TEXT[]) AS role_names
+                    FROM users u
+                    LEFT JOIN user_roles ur ON ur.user_fk = u.id
+                    LEFT JOIN roles r ON r.id = ur.role_fk AND r.status = 'active'
+                    WHERE u.username = ?
+                    GROUP BY u.id
+                    """;
+
+            try (var c = ds.getConnection(); var ps = c.prepareStatement(sql)) {
+                ps.setString(1, username);
+
+                try (var rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return event.rows(Optional.empty());
+                    }
+
+                    return event.rows(Optional.of(new UserWithRoles(toUserRow(rs),
+                            toStringList(rs.getArray("role_names")))));
+                }
+            }
+        } finally {
+            event.finish("UserRepositoryImpl", "findByUsernameWithRoles", "select users/user_roles");
         }
-
-        final var user = userOpt.get();
-        final var roles = findRoleNamesByUserId(user.userId());
-        return Optional.of(new UserWithRoles(user, roles));
     }
 
     @Override
     public int countUsers() throws SQLException {
+        final var event = new RepositoryEvent();
+        event.begin();
         try (var c = ds.getConnection();
                 var ps = c.prepareStatement("SELECT count(*) FROM users");
                 var rs = ps.executeQuery()) {
             rs.next();
+            event.rows(1);
             return rs.getInt(1);
+        } finally {
+            event.finish("UserRepositoryImpl", "countUsers", "select users");
+        }
+    }
+
+    private static UserRow toUserRow(final ResultSet rs) throws SQLException {
+        return new UserRow(rs.getObject("user_id", UUID.class), rs.getString("username"),
+                rs.getBytes("password_hash"), rs.getBytes("salt"), rs.getInt("iterations"), rs.getString("status"),
+                asInstant(rs, "created_at"), asInstant(rs, "updated_at"), rs.getLong("roles_version"));
+    }
+
+    private static List<String> toStringList(final Array arr) throws SQLException {
+        if (arr == null) {
+            return List.of();
+        }
+        try {
+            if (arr.getArray() instanceof final String[] values) {
+                return List.of(values);
+            }
+            return List.of();
+        } finally {
+            arr.free();
         }
     }
 
@@ -3,6 +3,7 @@ package com.rafex.housedb.repository;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,6 +16,11 @@ public interface AppClientRepository {
 
     void touchLastUsed(UUID appClientId) throws SQLException;
 
+    /**
+     * Applies buffered last-used times in one statement; an older time never overwrites a newer one.
+     */
+    void touchLastUsed(Map<UUID, Instant> lastUsedByClient) throws SQLException;
+
     record AppClientRow(UUID appClientId, String clientId, String name, byte[] secretHash, byte[] salt,
             int iterations, List<String> roles, String status, Instant lastUsedAt, Instant createdAt,
             Instant updatedAt) {
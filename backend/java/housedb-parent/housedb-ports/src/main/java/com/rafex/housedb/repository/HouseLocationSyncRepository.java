@@ -9,8 +9,17 @@ public interface HouseLocationSyncRepository {
             UUID parentHouseLocationId, String locationKind, String name, Boolean isLeaf, String path,
             String referenceCode, String notes, Double latitude, Double longitude, Boolean enabled) throws SQLException;
 
+    /**
+     * Inserts the house location with no Kiwi id and a {@code create_location} outbox entry in one transaction.
+     */
+    UUID createHouseLocationPendingKiwi(UUID houseId, UUID parentHouseLocationId, String locationKind, String name,
+            Boolean isLeaf, String path, String referenceCode, String notes, Double latitude, Double longitude,
+            Boolean enabled) throws SQLException;
+
     UUID findKiwiLocationIdByHouseLocationId(UUID houseLocationId) throws SQLException;
 
+    boolean isKiwiLocationLinkedOrPending(UUID houseLocationId) throws SQLException;
+
     UUID findRootKiwiLocationIdByHouseId(UUID houseId) throws SQLException;
 
     UUID upsertObjectFromKiwi(UUID kiwiObjectId, String name, String description, String category, String bucketImage,
@@ -2,6 +2,7 @@ package com.rafex.housedb.repository;
 
 import com.rafex.housedb.repository.models.HouseCreateResultEntity;
 import com.rafex.housedb.repository.models.HouseLocationEntity;
+import com.rafex.housedb.repository.models.HouseLocationMoveResultEntity;
 import com.rafex.housedb.repository.models.HouseMemberEntity;
 import com.rafex.housedb.repository.models.HouseSummaryEntity;
 
@@ -25,4 +26,7 @@ public interface HouseManagementRepository {
 
     List<HouseLocationEntity> listHouseLocations(UUID houseId, Boolean includeDisabled, int limit, int offset)
             throws SQLException;
+
+    HouseLocationMoveResultEntity moveHouseLocation(UUID houseId, UUID houseLocationId,
+            UUID newParentHouseLocationId) throws SQLException;
 }
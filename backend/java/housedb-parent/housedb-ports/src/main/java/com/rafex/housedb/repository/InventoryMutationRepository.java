@@ -2,9 +2,14 @@ package com.rafex.housedb.repository;
 
 import com.rafex.housedb.repository.models.FavoriteStateEntity;
 import com.rafex.housedb.repository.models.InventoryCreateResultEntity;
+import com.rafex.housedb.repository.models.InventoryImportResultEntity;
+import com.rafex.housedb.repository.models.ItemMoveEntity;
 import com.rafex.housedb.repository.models.ItemMovementEntity;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
 
 public interface InventoryMutationRepository {
@@ -12,10 +17,33 @@ public interface InventoryMutationRepository {
     ItemMovementEntity moveInventoryItem(UUID inventoryItemId, UUID toHouseLocationLeafId, String movedBy,
             String movementReason, String notes) throws SQLException;
 
+    List<ItemMovementEntity> moveInventoryItems(List<ItemMoveEntity> moves) throws SQLException;
+
     InventoryCreateResultEntity createInventoryItem(UUID userId, UUID objectId, String nickname, String serialNumber,
             String conditionStatus, String metadataJson, UUID houseLocationLeafId, String movedBy, String notes)
             throws SQLException;
 
+    /**
+     * Inserts the object with no Kiwi id, the item, and a {@code create_object} outbox entry in one transaction.
+     */
+    InventoryCreateResultEntity createInventoryItemPendingKiwi(UUID userId, UUID objectId, String objectName,
+            String objectDescription, String objectCategory, String nickname, String serialNumber,
+            String conditionStatus, String metadataJson, UUID houseLocationLeafId, String movedBy, String notes,
+            String kiwiPayloadJson) throws SQLException;
+
+    /**
+     * Streams CSV records (header already consumed) into the import staging table with COPY and imports them
+     * in the same transaction. {@code columns} are staging column names in record order.
+     */
+    InventoryImportResultEntity importInventoryItemsCsv(UUID userId, List<String> columns, InputStream records,
+            String movedBy, boolean skipInvalid, int maxErrors) throws SQLException, IOException;
+
+    /**
+     * Streams NDJSON lines into the import staging table with COPY and imports them in the same transaction.
+     */
+    InventoryImportResultEntity importInventoryItemsNdjson(UUID userId, InputStream lines, String movedBy,
+            boolean skipInvalid, int maxErrors) throws SQLException, IOException;
+
     FavoriteStateEntity setFavoriteItem(UUID userId, UUID inventoryItemId, Boolean isFavorite, String note)
             throws SQLException;
 }
@@ -1,13 +1,18 @@
 package com.rafex.housedb.repository;
 
 import java.sql.SQLException;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import com.rafex.housedb.repository.models.HouseItemEntity;
+import com.rafex.housedb.repository.models.InventoryExportRowEntity;
 import com.rafex.housedb.repository.models.InventoryItemDetailEntity;
 import com.rafex.housedb.repository.models.InventoryTimelineEventEntity;
 import com.rafex.housedb.repository.models.LocationInventoryItemEntity;
+import com.rafex.housedb.repository.models.MapFeatureEntity;
+import com.rafex.housedb.repository.models.NearbyIndexEntryEntity;
 import com.rafex.housedb.repository.models.NearbyInventoryItemEntity;
 
 public interface InventorySearchRepository {
@@ -15,14 +20,39 @@ public interface InventorySearchRepository {
     List<HouseItemEntity> searchInventoryItems(UUID userId, String text, UUID houseId, UUID houseLocationLeafId,
             int limit, int offset) throws SQLException;
 
+    List<HouseItemEntity> searchInventoryItemsAfter(UUID userId, String text, UUID houseId, UUID houseLocationLeafId,
+            Float afterRank, Instant afterUpdatedAt, UUID afterInventoryItemId, int limit) throws SQLException;
+
     List<LocationInventoryItemEntity> listInventoryByLocation(UUID userId, UUID houseId, UUID houseLocationId,
             Boolean includeDescendants, int limit, int offset) throws SQLException;
 
+    List<LocationInventoryItemEntity> listInventoryByLocationAfter(UUID userId, UUID houseId, UUID houseLocationId,
+            Boolean includeDescendants, String afterPath, String afterObjectName, UUID afterInventoryItemId, int limit)
+            throws SQLException;
+
     List<InventoryTimelineEventEntity> inventoryItemTimeline(UUID inventoryItemId, int limit, int offset)
             throws SQLException;
 
+    List<InventoryTimelineEventEntity> inventoryItemTimelineAfter(UUID inventoryItemId, Instant afterMovedAt,
+            UUID afterItemMovementId, int limit) throws SQLException;
+
     List<NearbyInventoryItemEntity> searchInventoryItemsNearPoint(UUID userId, double latitude, double longitude,
-            double radiusMeters, int limit, int offset) throws SQLException;
+            Double radiusMeters, int limit, int offset) throws SQLException;
+
+    List<MapFeatureEntity> listInventoryMapFeatures(UUID userId, double minLongitude, double minLatitude,
+            double maxLongitude, double maxLatitude, Double cellDegrees, int limit) throws SQLException;
+
+    List<NearbyIndexEntryEntity> listNearbyIndexEntries(UUID afterInventoryItemId, int limit) throws SQLException;
+
+    List<NearbyIndexEntryEntity> findNearbyIndexEntries(List<UUID> inventoryItemIds, UUID houseId)
+            throws SQLException;
 
     InventoryItemDetailEntity getInventoryItemDetail(UUID inventoryItemId) throws SQLException;
+
+    /**
+     * Streams the user's visible items (optionally one house) through a server-side cursor, handing each row to
+     * {@code consumer} as it is fetched instead of collecting them. Returns the number of rows.
+     */
+    long exportInventoryItems(UUID userId, UUID houseId, Consumer<InventoryExportRowEntity> consumer)
+            throws SQLException;
 }
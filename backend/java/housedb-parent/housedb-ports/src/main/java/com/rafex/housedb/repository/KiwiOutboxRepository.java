@@ -0,0 +1,80 @@
+package com.rafex.housedb.repository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Pending Kiwi writes recorded in the same transaction as the local rows they belong to.
+ */
+public interface KiwiOutboxRepository {
+
+    /**
+     * Leases up to {@code limit} due entries whose dependency already has a Kiwi location. A claimed entry is not
+     * returned again until its lease expires or it is retried.
+     */
+    List<OutboxEntry> claim(int limit, Duration lease) throws SQLException;
+
+    /**
+     * Attaches {@code kiwiId} to the local object or house location and marks the entry done.
+     */
+    void complete(long outboxId, UUID kiwiId, UUID kiwiParentLocationId) throws SQLException;
+
+    /**
+     * Releases the lease and schedules the entry again after {@code delay}.
+     */
+    void retry(long outboxId, Duration delay, String error) throws SQLException;
+
+    /**
+     * Like {@link #retry} for an entry whose Kiwi call was never made (Kiwi shed it), so the claim does not count
+     * as an attempt.
+     */
+    void release(long outboxId, Duration delay) throws SQLException;
+
+    /**
+     * Gives up on the entry; it stays in the table as {@code failed} with {@code error}. For a location, the pending
+     * entries that wait on it (directly or through child locations) are failed as blocked by it.
+     *
+     * @return how many dependents were blocked
+     */
+    int fail(long outboxId, String error) throws SQLException;
+
+    /**
+     * Puts a failed entry and every entry blocked by it back to pending with fresh attempts. {@code outboxId} may be
+     * the failed entry or any entry it blocks.
+     *
+     * @return how many entries were requeued, 0 if {@code outboxId} is not failed
+     */
+    int requeue(long outboxId) throws SQLException;
+
+    /**
+     * Whether {@code operation} for {@code aggregateId} is still waiting to be sent.
+     */
+    boolean pending(String operation, UUID aggregateId) throws SQLException;
+
+    /**
+     * The most recently failed entries, newest first.
+     */
+    List<FailedEntry> failed(int limit) throws SQLException;
+
+    OutboxBacklog backlog() throws SQLException;
+
+    record OutboxEntry(long outboxId, String operation, UUID aggregateId, String payloadJson, int attempts,
+            UUID dependsOnKiwiLocationId) {
+    }
+
+    /**
+     * {@code blockedByOutboxId} is set when the entry did not fail itself but waits on a location whose entry did.
+     */
+    record FailedEntry(long outboxId, String operation, UUID aggregateId, int attempts, String lastError,
+            Long blockedByOutboxId, Instant updatedAt) {
+    }
+
+    /**
+     * {@code failed} counts entries that failed themselves, {@code blocked} the ones failed with a dependency.
+     */
+    record OutboxBacklog(long pending, long failed, long blocked, double oldestPendingAgeSeconds) {
+    }
+}
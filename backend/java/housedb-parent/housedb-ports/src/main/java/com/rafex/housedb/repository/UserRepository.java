@@ -17,12 +17,18 @@ public interface UserRepository {
 
     List<String> findRoleNamesByUserId(UUID userId) throws SQLException;
 
+    /**
+     * User row and active role names in one query.
+     */
     Optional<UserWithRoles> findByUsernameWithRoles(String username) throws SQLException;
 
     int countUsers() throws SQLException;
 
+    /**
+     * {@code rolesVersion} changes whenever the user's effective role set changes, so it can key cached roles.
+     */
     record UserRow(UUID userId, String username, byte[] passwordHash, byte[] salt, int iterations, String status,
-            Instant createdAt, Instant updatedAt) {
+            Instant createdAt, Instant updatedAt, long rolesVersion) {
     }
 
     record UserWithRoles(UserRow user, List<String> roles) {
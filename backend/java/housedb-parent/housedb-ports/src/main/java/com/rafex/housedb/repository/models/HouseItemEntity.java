@@ -1,5 +1,6 @@
 package com.rafex.housedb.repository.models;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public record HouseItemEntity(
@@ -14,6 +15,7 @@ public record HouseItemEntity(
         String houseName,
         UUID houseLocationLeafId,
         String houseLocationPath,
-        float rank
+        float rank,
+        Instant updatedAt
 ) {
 }
@@ -0,0 +1,12 @@
+package com.rafex.housedb.repository.models;
+
+import java.util.UUID;
+
+public record HouseLocationMoveResultEntity(
+        UUID houseLocationId,
+        UUID parentHouseLocationId,
+        String path,
+        int levelDepth,
+        int subtreeSize
+) {
+}
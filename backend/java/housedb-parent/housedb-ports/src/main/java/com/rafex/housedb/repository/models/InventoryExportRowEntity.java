@@ -0,0 +1,22 @@
+package com.rafex.housedb.repository.models;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record InventoryExportRowEntity(
+        UUID inventoryItemId,
+        UUID objectId,
+        UUID objectKiwiId,
+        String objectName,
+        String objectCategory,
+        String nickname,
+        String serialNumber,
+        String conditionStatus,
+        String metadataJson,
+        UUID houseId,
+        String houseName,
+        UUID houseLocationLeafId,
+        String houseLocationPath,
+        Instant updatedAt
+) {
+}
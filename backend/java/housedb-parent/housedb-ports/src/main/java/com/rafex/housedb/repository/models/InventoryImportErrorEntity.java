@@ -0,0 +1,7 @@
+package com.rafex.housedb.repository.models;
+
+public record InventoryImportErrorEntity(
+        long rowNumber,
+        String message
+) {
+}
@@ -0,0 +1,12 @@
+package com.rafex.housedb.repository.models;
+
+import java.util.List;
+import java.util.UUID;
+
+public record InventoryImportResultEntity(
+        int importedCount,
+        int rejectedCount,
+        List<UUID> houseIds,
+        List<InventoryImportErrorEntity> errors
+) {
+}
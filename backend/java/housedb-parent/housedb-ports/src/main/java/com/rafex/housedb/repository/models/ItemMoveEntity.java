@@ -0,0 +1,12 @@
+package com.rafex.housedb.repository.models;
+
+import java.util.UUID;
+
+public record ItemMoveEntity(
+        UUID inventoryItemId,
+        UUID toHouseLocationLeafId,
+        String movedBy,
+        String movementReason,
+        String notes
+) {
+}
@@ -0,0 +1,17 @@
+package com.rafex.housedb.repository.models;
+
+import java.util.UUID;
+
+public record MapFeatureEntity(
+        String featureKind,
+        Integer itemCount,
+        double latitude,
+        double longitude,
+        UUID inventoryItemId,
+        String objectName,
+        UUID houseId,
+        String houseName,
+        UUID houseLocationLeafId,
+        String houseLocationPath
+) {
+}
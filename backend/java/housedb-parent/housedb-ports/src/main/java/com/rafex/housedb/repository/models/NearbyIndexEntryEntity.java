@@ -0,0 +1,19 @@
+package com.rafex.housedb.repository.models;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record NearbyIndexEntryEntity(
+        UUID inventoryItemId,
+        UUID userId,
+        UUID objectId,
+        String objectName,
+        UUID houseId,
+        String houseName,
+        UUID houseLocationLeafId,
+        String houseLocationPath,
+        double latitude,
+        double longitude,
+        Instant itemUpdatedAt
+) {
+}
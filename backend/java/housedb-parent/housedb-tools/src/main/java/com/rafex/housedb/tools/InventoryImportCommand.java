@@ -0,0 +1,156 @@
+package com.rafex.housedb.tools;
+
+import com.rafex.housedb.db.Db;
+import com.rafex.housedb.repository.impl.ItemRepositoryImpl;
+import com.rafex.housedb.services.impl.ItemFinderServiceImpl;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+/**
+ * {@code import-inventory}: streams a CSV or NDJSON file into {@code api_import_inventory_items} through COPY,
+ * the same path as {@code POST /items/import}.
+ */
+final class InventoryImportCommand {
+
+    private static final int INPUT_BUFFER_SIZE = 256 * 1024;
+
+    private InventoryImportCommand() {
+    }
+
+    static int run(final String[] args) throws Exception {
+        final var a = Args.parse(args);
+        if (a.help) {
+            printHelp();
+            return 0;
+        }
+
+        final var userId = UUID.fromString(required("user-id", a.userId));
+        final var file = required("file", a.file);
+        final var format = a.format != null && !a.format.isBlank() ? a.format : formatFromFileName(file);
+
+        final DataSource ds = Db.dataSource();
+        try (InputStream input = openInput(file)) {
+            final var repository = new ItemRepositoryImpl(ds);
+            final var service = new ItemFinderServiceImpl(repository, repository, repository);
+
+            final long started = System.nanoTime();
+            final var result = service.importInventoryItems(userId, format, input, a.movedBy, a.skipInvalid);
+            final long elapsedMillis = Math.max(1L, (System.nanoTime() - started) / 1_000_000L);
+
+            System.out.println("imported=" + result.importedCount());
+            System.out.println("rejected=" + result.rejectedCount());
+            System.out.println("elapsed_ms=" + elapsedMillis);
+            System.out.println("rows_per_second=" + result.importedCount() * 1000L / elapsedMillis);
+            for (final var error : result.errors()) {
+                System.out.println("row " + error.rowNumber() + ": " + error.message());
+            }
+            if (result.rejectedCount() > result.errors().size()) {
+                System.out.println("... " + (result.rejectedCount() - result.errors().size()) + " more rejected rows");
+            }
+            if (result.rejectedCount() > 0 && !a.skipInvalid) {
+                System.out.println("FAILED: nothing imported (use --skip-invalid to import the valid rows)");
+                return 2;
+            }
+            System.out.println("OK: inventory imported");
+            return 0;
+        } finally {
+            Main.closeDataSource(ds);
+        }
+    }
+
+    private static InputStream openInput(final String file) throws IOException {
+        if ("-".equals(file)) {
+            return new BufferedInputStream(System.in, INPUT_BUFFER_SIZE);
+        }
+        return new BufferedInputStream(Files.newInputStream(Path.of(file)), INPUT_BUFFER_SIZE);
+    }
+
+    private static String formatFromFileName(final String file) {
+        final var name = file.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return "csv";
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return "ndjson";
+        }
+        throw new IllegalArgumentException("missing --format (csv or ndjson)");
+    }
+
+    private static String required(final String name, final String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("missing --" + name);
+        }
+        return value;
+    }
+
+    private static void printHelp() {
+        System.out.println("""
+                Usage:
+                  ./mvnw -q -pl housedb-tools -am exec:java -Dexec.args="import-inventory --user-id <uuid> --file <path|-> [--format csv|ndjson] [--moved-by <name>] [--skip-invalid]"
+
+                Input fields (CSV header or NDJSON keys):
+                  objectId | objectKiwiId (one required), objectName, objectCategory, nickname, serialNumber,
+                  conditionStatus, metadata (JSON object), houseLocationLeafId, notes
+                  An unknown objectKiwiId is registered locally when objectName is present.
+
+                Required env vars:
+                  DB_URL        e.g. jdbc:postgresql://localhost:5432/housedb
+                Optional env vars:
+                  DB_USER
+                  DB_PASSWORD
+
+                Example:
+                  ./mvnw -q -pl housedb-tools -am exec:java -Dexec.args="import-inventory --user-id 8d0c... --file items.csv"
+                """);
+    }
+
+    private static final class Args {
+        boolean help;
+        String userId;
+        String file;
+        String format;
+        String movedBy;
+        boolean skipInvalid;
+
+        static Args parse(final String[] args) {
+            final var a = new Args();
+            final List<String> list = Arrays.asList(args);
+
+            for (int i = 0; i < list.size(); i++) {
+                final var key = list.get(i);
+                if ("-h".equals(key) || "--help".equals(key)) {
+                    a.help = true;
+                    return a;
+                }
+                if (key.startsWith("--")) {
+                    final var opt = key.substring(2).toLowerCase(Locale.ROOT);
+                    if ("skip-invalid".equals(opt)) {
+                        a.skipInvalid = true;
+                        continue;
+                    }
+                    final var val = i + 1 < list.size() && !list.get(i + 1).startsWith("--") ? list.get(++i) : null;
+                    switch (opt) {
+                        case "user-id" -> a.userId = val;
+                        case "file" -> a.file = val;
+                        case "format" -> a.format = val;
+                        case "moved-by" -> a.movedBy = val;
+                        default -> throw new IllegalArgumentException("unknown option: " + key);
+                    }
+                    continue;
+                }
+                throw new IllegalArgumentException("unexpected arg: " + key);
+            }
+            return a;
+        }
+    }
+}
@@ -38,6 +38,14 @@ public final class Main {
     }
 
     public static void main(final String[] args) throws Exception {
+        if (args.length > 0 && "import-inventory".equals(args[0])) {
+            final int status = InventoryImportCommand.run(Arrays.copyOfRange(args, 1, args.length));
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+
         final var a = Args.parse(args);
         if (a.help) {
             printHelp();
@@ -169,7 +177,7 @@ public final class Main {
         return value;
     }
 
-    private static void closeDataSource(final DataSource ds) {
+    static void closeDataSource(final DataSource ds) {
         if (ds instanceof AutoCloseable c) {
             try {
                 c.close();
@@ -183,6 +191,7 @@ public final class Main {
         System.out.println("""
                 Usage:
                   ./mvnw -q -pl housedb-tools -am exec:java -Dexec.args="--username <name> [--user-id <uuid>] [--password <pass> | --password-env <ENV_VAR>] [--roles USER,ADMIN]"
+                  ./mvnw -q -pl housedb-tools -am exec:java -Dexec.args="import-inventory --help"
 
                 Required env vars:
                   DB_URL        e.g. jdbc:postgresql://localhost:5432/housedb
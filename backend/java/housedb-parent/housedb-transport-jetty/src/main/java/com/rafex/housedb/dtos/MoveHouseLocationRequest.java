@@ -0,0 +1,8 @@
+package com.rafex.housedb.dtos;
+
+import java.util.UUID;
+
+public record MoveHouseLocationRequest(
+        UUID parentHouseLocationId
+) {
+}
@@ -0,0 +1,12 @@
+package com.rafex.housedb.dtos;
+
+import java.util.UUID;
+
+public record MoveInventoryItemsBatchEntry(
+        UUID inventoryItemId,
+        UUID toHouseLocationLeafId,
+        String movedBy,
+        String movementReason,
+        String notes
+) {
+}
@@ -0,0 +1,11 @@
+package com.rafex.housedb.dtos;
+
+import java.util.List;
+
+public record MoveInventoryItemsBatchRequest(
+        List<MoveInventoryItemsBatchEntry> moves,
+        String movedBy,
+        String movementReason,
+        String notes
+) {
+}
@@ -2,6 +2,7 @@ package com.rafex.housedb.handlers;
 
 import com.rafex.housedb.handlers.support.HouseDbErrorMapper;
 import com.rafex.housedb.security.JwtService;
+import com.rafex.housedb.security.UserRolesCache;
 import com.rafex.housedb.services.RefreshTokenService;
 import com.rafex.housedb.services.AppClientAuthService;
 import com.rafex.housedb.services.AuthService;
@@ -23,11 +24,12 @@ public final class AuthRouterHandler extends NonBlockingResourceHandler {
 
     public AuthRouterHandler(final JsonCodec jsonCodec, final JwtService jwt, final AuthService authService,
             final AppClientAuthService appClientAuthService, final RefreshTokenService refreshTokenService,
-            final UserRepository userRepository) {
+            final UserRepository userRepository, final UserRolesCache rolesCache) {
         super(jsonCodec, new HouseDbErrorMapper());
         this.loginHandler = new LoginHandler(jsonCodec, jwt, authService, refreshTokenService);
         this.tokenHandler = new TokenHandler(jsonCodec, jwt, appClientAuthService);
-        this.refreshTokenHandler = new RefreshTokenHandler(jsonCodec, jwt, refreshTokenService, userRepository);
+        this.refreshTokenHandler = new RefreshTokenHandler(jsonCodec, jwt, refreshTokenService, userRepository,
+                rolesCache);
     }
 
     @Override
@@ -97,6 +97,19 @@ public final class AuthzSupport {
         requireAppOrAdmin(ExchangeAdapters.request(exchange));
     }
 
+    public static void requireAdmin(final Request request) {
+        Objects.requireNonNull(request, "request");
+        final var auth = requireAuthContext(request);
+        if (!isAppToken(auth) && isAdmin(auth)) {
+            return;
+        }
+        throw new SecurityException("forbidden: admin role required");
+    }
+
+    public static void requireAdmin(final HttpExchange exchange) {
+        requireAdmin(ExchangeAdapters.request(exchange));
+    }
+
     private static TokenClaims requireAuthContext(final Request request) {
         final var auth = request.getAttribute(JettyAuthHandler.REQ_ATTR_AUTH);
         if (auth instanceof TokenClaims ctx) {
@@ -2,7 +2,9 @@ package com.rafex.housedb.handlers;
 
 import com.rafex.housedb.handlers.support.EtherJettyErrors;
 import com.rafex.housedb.security.JwtService;
+import com.rafex.housedb.security.PasswordHashingRejectedException;
 import com.rafex.housedb.services.AuthService;
+import com.rafex.housedb.services.AuthService.AuthResult;
 import com.rafex.housedb.services.RefreshTokenService;
 
 import java.nio.charset.StandardCharsets;
@@ -99,7 +101,13 @@ public final class LoginHandler {
     private boolean authenticateAndMint(final HttpExchange x, final String username,
             final String password) throws Exception {
 
-        final var result = authService.authenticate(username, password.toCharArray());
+        final AuthResult result;
+        try {
+            result = authService.authenticate(username, password.toCharArray());
+        } catch (final PasswordHashingRejectedException e) {
+            EtherJettyErrors.tooManyRequests(x, "auth_busy", e.retryAfterSeconds());
+            return true;
+        }
 
         if (!result.ok()) {
             final var code = result.code() != null ? result.code() : "bad_credentials";
@@ -0,0 +1,70 @@
+package com.rafex.housedb.handlers;
+
+import com.rafex.housedb.handlers.support.EtherJettyErrors;
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.io.Content;
+
+import dev.rafex.ether.http.core.HttpError;
+import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.http.core.Route;
+import dev.rafex.ether.http.jetty12.NonBlockingResourceHandler;
+import dev.rafex.ether.json.JsonCodec;
+
+/**
+ * Prometheus scrape endpoint. Each source appends its own series in Prometheus text format (HTTP routes, Hikari
+ * pools, Kiwi client, auth caches, password hashing, virtual threads); they are written in the order given.
+ * Route names, pool sizes and error rates describe the deployment, so unless {@code publicAccess} is set the
+ * scrape needs an app or ADMIN token, like the other internal endpoints.
+ */
+public final class MetricsHandler extends NonBlockingResourceHandler {
+
+    private final boolean publicAccess;
+    private final List<Consumer<StringBuilder>> sources;
+
+    public MetricsHandler(final JsonCodec jsonCodec, final boolean publicAccess,
+            final List<Consumer<StringBuilder>> sources) {
+        super(jsonCodec);
+        this.publicAccess = publicAccess;
+        this.sources = List.copyOf(sources);
+    }
+
+    @Override
+    protected String basePath() {
+        return "/metrics";
+    }
+
+    @Override
+    protected List<Route> routes() {
+        return List.of(Route.of("/", Set.of("GET")));
+    }
+
+    @Override
+    public boolean get(final HttpExchange x) {
+        if (!publicAccess) {
+            try {
+                AuthzSupport.requireAppOrAdmin(x);
+            } catch (final SecurityException e) {
+                EtherJettyErrors.error(x, new HttpError(403, "forbidden", e.getMessage()));
+                return true;
+            }
+        }
+
+        final var out = new StringBuilder(16 * 1024);
+        for (final var source : sources) {
+            source.accept(out);
+        }
+
+        final var jetty = ExchangeAdapters.jetty(x);
+        final var response = jetty.response();
+        response.setStatus(200);
+        response.getHeaders().put(HttpHeader.CONTENT_TYPE, PrometheusText.CONTENT_TYPE);
+        Content.Sink.write(response, true, out.toString(), jetty.callback());
+        return true;
+    }
+}
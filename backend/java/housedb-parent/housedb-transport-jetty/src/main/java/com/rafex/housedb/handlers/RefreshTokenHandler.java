@@ -3,6 +3,7 @@ package com.rafex.housedb.handlers;
 import com.rafex.housedb.dtos.RefreshTokenRequest;
 import com.rafex.housedb.handlers.support.EtherJettyErrors;
 import com.rafex.housedb.security.JwtService;
+import com.rafex.housedb.security.UserRolesCache;
 import com.rafex.housedb.services.RefreshTokenService;
 import com.rafex.housedb.repository.UserRepository;
 
@@ -24,12 +25,14 @@ public final class RefreshTokenHandler {
     private final JwtService jwt;
     private final RefreshTokenService refreshTokenService;
     private final UserRepository userRepository;
+    private final UserRolesCache rolesCache;
     private final long accessTtlSeconds;
     private final long refreshTtlSeconds;
 
     public RefreshTokenHandler(final JsonCodec jsonCodec, final JwtService jwt,
-            final RefreshTokenService refreshTokenService, final UserRepository userRepository) {
-        this(jsonCodec, jwt, refreshTokenService, userRepository,
+            final RefreshTokenService refreshTokenService, final UserRepository userRepository,
+            final UserRolesCache rolesCache) {
+        this(jsonCodec, jwt, refreshTokenService, userRepository, rolesCache,
                 Long.parseLong(System.getenv().getOrDefault("JWT_ACCESS_TTL_SECONDS",
                         System.getenv().getOrDefault("JWT_TTL_SECONDS", "900"))),
                 Long.parseLong(System.getenv().getOrDefault("JWT_REFRESH_TTL_SECONDS", "604800")));
@@ -37,11 +40,12 @@ public final class RefreshTokenHandler {
 
     public RefreshTokenHandler(final JsonCodec jsonCodec, final JwtService jwt,
             final RefreshTokenService refreshTokenService, final UserRepository userRepository,
-            final long accessTtlSeconds, final long refreshTtlSeconds) {
+            final UserRolesCache rolesCache, final long accessTtlSeconds, final long refreshTtlSeconds) {
         this.jsonCodec = Objects.requireNonNull(jsonCodec);
         this.jwt = Objects.requireNonNull(jwt);
         this.refreshTokenService = Objects.requireNonNull(refreshTokenService);
         this.userRepository = Objects.requireNonNull(userRepository);
+        this.rolesCache = Objects.requireNonNull(rolesCache);
         this.accessTtlSeconds = accessTtlSeconds;
         this.refreshTtlSeconds = refreshTtlSeconds;
     }
@@ -85,6 +89,7 @@ public final class RefreshTokenHandler {
 
         final var userOpt = userRepository.findByUserId(userId);
         if (userOpt.isEmpty() || userOpt.get().status() == null || !"active".equalsIgnoreCase(userOpt.get().status())) {
+            rolesCache.invalidate(userId);
             EtherJettyErrors.forbidden(x, "user_disabled");
             return true;
         }
@@ -112,7 +117,12 @@ public final class RefreshTokenHandler {
             return true;
         }
 
-        final var roles = userRepository.findRoleNamesByUserId(userId);
+        final var rolesVersion = userOpt.get().rolesVersion();
+        var roles = rolesCache.get(userId, rolesVersion);
+        if (roles == null) {
+            roles = userRepository.findRoleNamesByUserId(userId);
+            rolesCache.put(userId, rolesVersion, roles);
+        }
         final var accessToken = jwt.mintAccess(userId.toString(), roles, accessTtlSeconds);
         x.json(200, Map.of(
                 "token_type", "Bearer",
@@ -2,7 +2,9 @@ package com.rafex.housedb.handlers;
 
 import com.rafex.housedb.handlers.support.EtherJettyErrors;
 import com.rafex.housedb.security.JwtService;
+import com.rafex.housedb.security.PasswordHashingRejectedException;
 import com.rafex.housedb.services.AppClientAuthService;
+import com.rafex.housedb.services.AppClientAuthService.AuthResult;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
@@ -100,7 +102,13 @@ public final class TokenHandler {
             return true;
         }
 
-        final var result = authService.authenticate(clientId, clientSecret.toCharArray());
+        final AuthResult result;
+        try {
+            result = authService.authenticate(clientId, clientSecret.toCharArray());
+        } catch (final PasswordHashingRejectedException e) {
+            EtherJettyErrors.tooManyRequests(x, "auth_busy", e.retryAfterSeconds());
+            return true;
+        }
         if (!result.ok()) {
             final var code = result.code() != null ? result.code() : "invalid_client";
             if ("client_disabled".equals(code)) {
@@ -0,0 +1,36 @@
+package com.rafex.housedb.handlers.admin;
+
+import com.rafex.housedb.handlers.support.EtherJettyErrors;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.http.core.HttpError;
+
+final class AdminEndpointSupport {
+
+    private AdminEndpointSupport() {
+    }
+
+    static boolean execute(final Logger logger, final HttpExchange exchange,
+            final AutoCloseable action) {
+        try {
+            action.close();
+            return true;
+        } catch (final SecurityException e) {
+            EtherJettyErrors.error(exchange, new HttpError(403, "forbidden", e.getMessage()));
+            return true;
+        } catch (final IllegalArgumentException e) {
+            EtherJettyErrors.error(exchange, new HttpError(400, "bad_request", e.getMessage()));
+            return true;
+        } catch (final IllegalStateException e) {
+            EtherJettyErrors.error(exchange, new HttpError(409, "conflict", e.getMessage()));
+            return true;
+        } catch (final Exception e) {
+            logger.log(Level.SEVERE, "Unhandled error", e);
+            EtherJettyErrors.internalServerError(exchange, "internal error");
+            return true;
+        }
+    }
+}
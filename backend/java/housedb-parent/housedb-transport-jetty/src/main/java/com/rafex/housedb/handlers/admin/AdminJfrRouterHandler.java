@@ -0,0 +1,57 @@
+package com.rafex.housedb.handlers.admin;
+
+import com.rafex.housedb.handlers.support.HouseDbErrorMapper;
+
+import java.util.List;
+import java.util.Set;
+
+import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.http.core.Route;
+import dev.rafex.ether.http.jetty12.NonBlockingResourceHandler;
+import dev.rafex.ether.json.JsonCodec;
+
+/**
+ * Admin-only, on-demand JFR recordings of the HouseDB events (repository calls, Kiwi calls, password and JWT
+ * verification, pool connection waits) on top of the JVM's default or profile settings.
+ */
+public final class AdminJfrRouterHandler extends NonBlockingResourceHandler {
+
+    private final JfrRecordingHandler recordingHandler;
+
+    public AdminJfrRouterHandler(final JsonCodec jsonCodec) {
+        super(jsonCodec, new HouseDbErrorMapper());
+        recordingHandler = new JfrRecordingHandler(new JfrRecordings());
+    }
+
+    @Override
+    protected String basePath() {
+        return "/admin/jfr";
+    }
+
+    @Override
+    protected List<Route> routes() {
+        return List.of(
+                Route.of("/", Set.of("GET")),
+                Route.of("/start", Set.of("POST")),
+                Route.of("/stop", Set.of("POST")));
+    }
+
+    @Override
+    public boolean get(final HttpExchange x) {
+        if ("/admin/jfr".equals(x.path())) {
+            return recordingHandler.status(x);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean post(final HttpExchange x) {
+        if ("/admin/jfr/start".equals(x.path())) {
+            return recordingHandler.start(x);
+        }
+        if ("/admin/jfr/stop".equals(x.path())) {
+            return recordingHandler.stop(x);
+        }
+        return false;
+    }
+}
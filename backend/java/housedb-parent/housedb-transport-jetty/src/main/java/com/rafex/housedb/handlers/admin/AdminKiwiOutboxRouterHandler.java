@@ -0,0 +1,55 @@
+package com.rafex.housedb.handlers.admin;
+
+import com.rafex.housedb.handlers.support.HouseDbErrorMapper;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
+
+import java.util.List;
+import java.util.Set;
+
+import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.http.core.Route;
+import dev.rafex.ether.http.jetty12.NonBlockingResourceHandler;
+import dev.rafex.ether.json.JsonCodec;
+
+/**
+ * Admin-only view of the Kiwi outbox entries that gave up, and the way to send a failed group again once the cause
+ * (a rejected payload, a location Kiwi refused) is fixed.
+ */
+public final class AdminKiwiOutboxRouterHandler extends NonBlockingResourceHandler {
+
+    private final KiwiOutboxHandler outboxHandler;
+
+    public AdminKiwiOutboxRouterHandler(final JsonCodec jsonCodec, final KiwiOutboxDispatcher kiwiOutbox) {
+        super(jsonCodec, new HouseDbErrorMapper());
+        outboxHandler = new KiwiOutboxHandler(kiwiOutbox);
+    }
+
+    @Override
+    protected String basePath() {
+        return "/admin/kiwi-outbox";
+    }
+
+    @Override
+    protected List<Route> routes() {
+        return List.of(
+                Route.of("/", Set.of("GET")),
+                Route.of("/{outboxId}/requeue", Set.of("POST")));
+    }
+
+    @Override
+    public boolean get(final HttpExchange x) {
+        if ("/admin/kiwi-outbox".equals(x.path())) {
+            return outboxHandler.failed(x);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean post(final HttpExchange x) {
+        final var outboxId = x.pathParam("outboxId");
+        if (outboxId != null && x.path().endsWith("/requeue")) {
+            return outboxHandler.requeue(x, outboxId);
+        }
+        return false;
+    }
+}
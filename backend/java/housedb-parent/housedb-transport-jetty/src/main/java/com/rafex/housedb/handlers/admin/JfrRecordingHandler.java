@@ -0,0 +1,140 @@
+package com.rafex.housedb.handlers.admin;
+
+import com.rafex.housedb.handlers.AuthzSupport;
+import com.rafex.housedb.handlers.ExchangeAdapters;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.util.MultiMap;
+import org.eclipse.jetty.util.UrlEncoded;
+
+import dev.rafex.ether.http.core.HttpExchange;
+
+final class JfrRecordingHandler {
+
+    private static final Logger LOG = Logger.getLogger(JfrRecordingHandler.class.getName());
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final JfrRecordings recordings;
+
+    JfrRecordingHandler(final JfrRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    boolean status(final HttpExchange x) {
+        return AdminEndpointSupport.execute(LOG, x, () -> {
+            AuthzSupport.requireAdmin(x);
+            x.json(200, recordings.status());
+        });
+    }
+
+    boolean start(final HttpExchange x) {
+        return AdminEndpointSupport.execute(LOG, x, () -> {
+            AuthzSupport.requireAdmin(x);
+
+            final var query = parseQuery(ExchangeAdapters.rawQuery(x));
+            final var profile = parseProfile(getValue(query, "profile"));
+            final int durationSeconds = parseBoundedInt(query, "durationSeconds",
+                    JfrRecordings.DEFAULT_DURATION_SECONDS, 1, JfrRecordings.MAX_DURATION_SECONDS);
+            final int maxSizeMb = parseBoundedInt(query, "maxSizeMb", JfrRecordings.DEFAULT_MAX_SIZE_MB, 1,
+                    JfrRecordings.MAX_SIZE_MB);
+            final int thresholdMs = parseBoundedInt(query, "thresholdMs", 0, 0, JfrRecordings.MAX_THRESHOLD_MS);
+
+            final var status = recordings.start(profile, durationSeconds, maxSizeMb, thresholdMs);
+            LOG.info("JFR recording started: profile=" + profile + " durationSeconds=" + durationSeconds
+                    + " maxSizeMb=" + maxSizeMb + " thresholdMs=" + thresholdMs);
+            x.json(200, status);
+        });
+    }
+
+    boolean stop(final HttpExchange x) {
+        return AdminEndpointSupport.execute(LOG, x, () -> {
+            AuthzSupport.requireAdmin(x);
+
+            final var file = recordings.stopAndDump();
+            try {
+                final var jetty = ExchangeAdapters.jetty(x);
+                final var response = jetty.response();
+                response.setStatus(200);
+                response.getHeaders().put(HttpHeader.CONTENT_TYPE, "application/octet-stream");
+                response.getHeaders().put(HttpHeader.CONTENT_DISPOSITION,
+                        "attachment; filename=\"housedb-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr\"");
+                response.getHeaders().put(HttpHeader.CONTENT_LENGTH, Files.size(file));
+
+                try (OutputStream out = Content.Sink.asOutputStream(response)) {
+                    Files.copy(file, out);
+                } catch (final Exception e) {
+                    if (!response.isCommitted()) {
+                        response.getHeaders().remove(HttpHeader.CONTENT_DISPOSITION);
+                        response.getHeaders().remove(HttpHeader.CONTENT_LENGTH);
+                        throw e;
+                    }
+                    LOG.log(Level.SEVERE, "JFR download aborted", e);
+                    jetty.callback().failed(e);
+                    return;
+                }
+                jetty.callback().succeeded();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        });
+    }
+
+    private static MultiMap<String> parseQuery(final String rawQuery) {
+        final var params = new MultiMap<String>();
+        if (rawQuery != null && !rawQuery.isBlank()) {
+            UrlEncoded.decodeTo(rawQuery, params, StandardCharsets.UTF_8);
+        }
+        return params;
+    }
+
+    private static String getValue(final MultiMap<String> params, final String key) {
+        final var value = params.getValue(key);
+        if (value == null) {
+            return null;
+        }
+        final var trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static int parseBoundedInt(final MultiMap<String> params, final String key, final int def,
+            final int min, final int max) {
+        final var value = getValue(params, key);
+        if (value == null) {
+            return def;
+        }
+        final int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be an integer");
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException(key + " must be between " + min + " and " + max);
+        }
+        return parsed;
+    }
+
+    private static String parseProfile(final String raw) {
+        if (raw == null) {
+            return "default";
+        }
+        final var profile = raw.toLowerCase(Locale.ROOT);
+        if (!"default".equals(profile) && !"profile".equals(profile)) {
+            throw new IllegalArgumentException("profile must be default or profile");
+        }
+        return profile;
+    }
+}
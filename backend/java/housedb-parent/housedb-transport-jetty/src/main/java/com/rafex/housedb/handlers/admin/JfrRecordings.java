@@ -0,0 +1,116 @@
+package com.rafex.housedb.handlers.admin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Holds at most one on-demand flight recording. A recording always has a duration and a size cap, so one that is
+ * started and never fetched stops by itself and keeps a bounded amount of data on disk until the next start.
+ */
+final class JfrRecordings {
+
+    static final int DEFAULT_DURATION_SECONDS = 60;
+    static final int MAX_DURATION_SECONDS = 900;
+    static final int DEFAULT_MAX_SIZE_MB = 64;
+    static final int MAX_SIZE_MB = 512;
+    static final int MAX_THRESHOLD_MS = 10_000;
+
+    private static final String RECORDING_NAME = "housedb-admin";
+
+    private static final List<String> TIMED_EVENTS = List.of(
+            "com.rafex.housedb.Repository",
+            "com.rafex.housedb.KiwiCall",
+            "com.rafex.housedb.PasswordVerify",
+            "com.rafex.housedb.JwtVerify");
+
+    // Instant events carry the wait as a field, so a duration threshold would drop all of them.
+    private static final String CONNECTION_ACQUIRE_EVENT = "com.rafex.housedb.ConnectionAcquire";
+
+    private Recording recording;
+    private String profile;
+    private long thresholdMs;
+
+    synchronized Map<String, Object> start(final String profile, final int durationSeconds, final int maxSizeMb,
+            final long thresholdMs) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("a recording is already running");
+        }
+        closeCurrent();
+
+        final var next = new Recording(Configuration.getConfiguration(profile));
+        next.setName(RECORDING_NAME);
+        next.setToDisk(true);
+        next.setDuration(Duration.ofSeconds(durationSeconds));
+        next.setMaxSize(maxSizeMb * 1024L * 1024L);
+        for (final var event : TIMED_EVENTS) {
+            next.enable(event).withThreshold(Duration.ofMillis(thresholdMs));
+        }
+        next.enable(CONNECTION_ACQUIRE_EVENT);
+        next.start();
+
+        this.recording = next;
+        this.profile = profile;
+        this.thresholdMs = thresholdMs;
+        return status();
+    }
+
+    /**
+     * Stops the current recording (if it has not already reached its duration) and dumps it to a temp file that
+     * the caller must delete.
+     */
+    synchronized Path stopAndDump() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("no recording to stop");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        final var file = Files.createTempFile("housedb-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            closeCurrent();
+        }
+        return file;
+    }
+
+    synchronized Map<String, Object> status() {
+        final var status = new LinkedHashMap<String, Object>();
+        if (recording == null) {
+            status.put("state", "none");
+            return status;
+        }
+        final Instant startTime = recording.getStartTime();
+        final Duration duration = recording.getDuration();
+        status.put("state", recording.getState().name().toLowerCase(Locale.ROOT));
+        status.put("profile", profile);
+        status.put("startedAt", startTime == null ? null : startTime.toString());
+        status.put("durationSeconds", duration == null ? null : duration.toSeconds());
+        status.put("maxSizeMb", recording.getMaxSize() / (1024L * 1024L));
+        status.put("thresholdMs", thresholdMs);
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    private void closeCurrent() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.rafex.housedb.handlers.admin;
+
+import com.rafex.housedb.handlers.AuthzSupport;
+import com.rafex.housedb.handlers.support.EtherJettyErrors;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+import dev.rafex.ether.http.core.HttpExchange;
+
+final class KiwiOutboxHandler {
+
+    private static final Logger LOG = Logger.getLogger(KiwiOutboxHandler.class.getName());
+
+    private static final int FAILED_LIMIT = 100;
+
+    private final KiwiOutboxDispatcher kiwiOutbox;
+
+    KiwiOutboxHandler(final KiwiOutboxDispatcher kiwiOutbox) {
+        this.kiwiOutbox = kiwiOutbox;
+    }
+
+    boolean failed(final HttpExchange x) {
+        return AdminEndpointSupport.execute(LOG, x, () -> {
+            AuthzSupport.requireAdmin(x);
+            x.json(200, Map.of("entries", kiwiOutbox.failed(FAILED_LIMIT)));
+        });
+    }
+
+    boolean requeue(final HttpExchange x, final String rawOutboxId) {
+        return AdminEndpointSupport.execute(LOG, x, () -> {
+            AuthzSupport.requireAdmin(x);
+
+            final long outboxId;
+            try {
+                outboxId = Long.parseLong(rawOutboxId);
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("outboxId in path must be an integer");
+            }
+            final int requeued = kiwiOutbox.requeue(outboxId);
+            if (requeued == 0) {
+                EtherJettyErrors.notFound(x);
+                return;
+            }
+            LOG.info("Kiwi outbox entry " + outboxId + " requeued with " + (requeued - 1) + " blocked entries");
+            x.json(200, Map.of("requeued", requeued));
+        });
+    }
+}
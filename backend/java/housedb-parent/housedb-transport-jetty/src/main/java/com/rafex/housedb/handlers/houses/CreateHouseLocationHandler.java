@@ -2,10 +2,10 @@ package com.rafex.housedb.handlers.houses;
 
 import com.rafex.housedb.dtos.CreateHouseLocationRequest;
 import com.rafex.housedb.handlers.ExchangeAdapters;
-import com.rafex.housedb.kiwi.KiwiApiClient;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
 import com.rafex.housedb.services.ItemFinderService;
 
-import java.util.Map;
+import java.util.LinkedHashMap;
 import java.util.UUID;
 import java.util.logging.Logger;
 
@@ -19,37 +19,31 @@ final class CreateHouseLocationHandler {
     private static final Logger LOG = Logger.getLogger(CreateHouseLocationHandler.class.getName());
 
     private final JsonCodec jsonCodec;
-    private final KiwiApiClient kiwiApiClient;
+    private final KiwiOutboxDispatcher kiwiOutbox;
     private final ItemFinderService itemService;
 
-    CreateHouseLocationHandler(final JsonCodec jsonCodec, final KiwiApiClient kiwiApiClient,
+    CreateHouseLocationHandler(final JsonCodec jsonCodec, final KiwiOutboxDispatcher kiwiOutbox,
             final ItemFinderService itemService) {
         this.jsonCodec = jsonCodec;
-        this.kiwiApiClient = kiwiApiClient;
+        this.kiwiOutbox = kiwiOutbox;
         this.itemService = itemService;
     }
 
+    /**
+     * Commits the location locally with the Kiwi location creation queued in the same transaction. A location
+     * created under a parent that is itself still pending goes to Kiwi once the parent has its Kiwi id.
+     */
     boolean handle(final HttpExchange x, final UUID houseId) {
         return HouseEndpointSupport.execute(LOG, x, () -> {
             final Request request = ExchangeAdapters.request(x);
             final var body = jsonCodec.readValue(Request.asInputStream(request), CreateHouseLocationRequest.class);
-            final UUID kiwiParentLocationId;
             final UUID parentHouseLocationId = body.parentHouseLocationId();
-            if (parentHouseLocationId != null) {
-                kiwiParentLocationId = itemService.findKiwiLocationIdByHouseLocationId(parentHouseLocationId);
-                if (kiwiParentLocationId == null) {
-                    throw new IllegalArgumentException("parentHouseLocationId is not synchronized with kiwi location");
-                }
-            } else {
-                kiwiParentLocationId = itemService.findRootKiwiLocationIdByHouseId(houseId);
+            if (parentHouseLocationId != null && !itemService.isKiwiLocationLinkedOrPending(parentHouseLocationId)) {
+                throw new IllegalArgumentException("parentHouseLocationId is not synchronized with kiwi location");
             }
 
-            final UUID kiwiLocationId = kiwiApiClient.createLocation(body.name(), kiwiParentLocationId);
-
-            final UUID houseLocationId = itemService.upsertHouseLocationFromKiwi(
+            final UUID houseLocationId = itemService.createHouseLocationPendingKiwi(
                     houseId,
-                    kiwiLocationId,
-                    kiwiParentLocationId,
                     parentHouseLocationId,
                     body.locationKind(),
                     body.name(),
@@ -60,9 +54,12 @@ final class CreateHouseLocationHandler {
                     body.latitude(),
                     body.longitude(),
                     body.enabled());
+            kiwiOutbox.wakeUp();
 
-            x.json(200, Map.of(
-                    "houseLocationId", houseLocationId));
+            final var payload = new LinkedHashMap<String, Object>();
+            payload.put("houseLocationId", houseLocationId);
+            payload.put("kiwiStatus", "pending");
+            x.json(200, payload);
         });
     }
 }
@@ -1,7 +1,7 @@
 package com.rafex.housedb.handlers.houses;
 
 import com.rafex.housedb.handlers.support.HouseDbErrorMapper;
-import com.rafex.housedb.kiwi.KiwiApiClient;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
 import com.rafex.housedb.services.HouseService;
 import com.rafex.housedb.services.ItemFinderService;
 
@@ -23,9 +23,10 @@ public final class HousesRouterHandler extends NonBlockingResourceHandler {
     private final ListHouseMembersHandler listHouseMembersHandler;
     private final ListHouseLocationsHandler listHouseLocationsHandler;
     private final CreateHouseLocationHandler createHouseLocationHandler;
+    private final MoveHouseLocationHandler moveHouseLocationHandler;
 
     public HousesRouterHandler(final JsonCodec jsonCodec, final HouseService houseService, final ItemFinderService itemService,
-            final KiwiApiClient kiwiApiClient) {
+            final KiwiOutboxDispatcher kiwiOutbox) {
         super(jsonCodec, new HouseDbErrorMapper());
         createHouseHandler = new CreateHouseHandler(jsonCodec, houseService);
         upsertHouseMemberHandler = new UpsertHouseMemberHandler(jsonCodec, houseService);
@@ -33,7 +34,8 @@ public final class HousesRouterHandler extends NonBlockingResourceHandler {
         listHouseIdsHandler = new ListHouseIdsHandler(houseService);
         listHouseMembersHandler = new ListHouseMembersHandler(houseService);
         listHouseLocationsHandler = new ListHouseLocationsHandler(houseService);
-        createHouseLocationHandler = new CreateHouseLocationHandler(jsonCodec, kiwiApiClient, itemService);
+        createHouseLocationHandler = new CreateHouseLocationHandler(jsonCodec, kiwiOutbox, itemService);
+        moveHouseLocationHandler = new MoveHouseLocationHandler(jsonCodec, houseService);
     }
 
     @Override
@@ -47,7 +49,8 @@ public final class HousesRouterHandler extends NonBlockingResourceHandler {
                 Route.of("/", Set.of("GET", "POST")),
                 Route.of("/ids", Set.of("GET")),
                 Route.of("/{houseId}/members", Set.of("GET", "POST", "PUT")),
-                Route.of("/{houseId}/locations", Set.of("GET", "POST")));
+                Route.of("/{houseId}/locations", Set.of("GET", "POST")),
+                Route.of("/{houseId}/locations/{houseLocationId}/parent", Set.of("PATCH")));
     }
 
     @Override
@@ -96,4 +99,14 @@ public final class HousesRouterHandler extends NonBlockingResourceHandler {
         }
         return false;
     }
+
+    @Override
+    public boolean patch(final HttpExchange x) {
+        final var houseId = x.pathParam("houseId");
+        final var houseLocationId = x.pathParam("houseLocationId");
+        if (houseId != null && houseLocationId != null && x.path().endsWith("/parent")) {
+            return moveHouseLocationHandler.handle(x, UUID.fromString(houseId), UUID.fromString(houseLocationId));
+        }
+        return false;
+    }
 }
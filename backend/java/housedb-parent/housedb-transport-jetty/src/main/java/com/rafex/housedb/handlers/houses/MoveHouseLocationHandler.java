@@ -0,0 +1,36 @@
+package com.rafex.housedb.handlers.houses;
+
+import com.rafex.housedb.dtos.MoveHouseLocationRequest;
+import com.rafex.housedb.handlers.ExchangeAdapters;
+import com.rafex.housedb.services.HouseService;
+
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.eclipse.jetty.server.Request;
+
+import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.json.JsonCodec;
+
+final class MoveHouseLocationHandler {
+
+    private static final Logger LOG = Logger.getLogger(MoveHouseLocationHandler.class.getName());
+
+    private final JsonCodec jsonCodec;
+    private final HouseService service;
+
+    MoveHouseLocationHandler(final JsonCodec jsonCodec, final HouseService service) {
+        this.jsonCodec = jsonCodec;
+        this.service = service;
+    }
+
+    boolean handle(final HttpExchange x, final UUID houseId, final UUID houseLocationId) {
+        return HouseEndpointSupport.execute(LOG, x, () -> {
+            final Request request = ExchangeAdapters.request(x);
+            final var body = jsonCodec.readValue(Request.asInputStream(request), MoveHouseLocationRequest.class);
+            final var result = service.moveHouseLocation(houseId, houseLocationId,
+                    body == null ? null : body.parentHouseLocationId());
+            x.json(200, result);
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.rafex.housedb.handlers.items;
 
 import com.rafex.housedb.handlers.support.EtherJettyErrors;
+import com.rafex.housedb.kiwi.KiwiApiClient;
 
 import java.sql.SQLException;
 import java.util.logging.Level;
@@ -25,6 +26,9 @@ final class EndpointSupport {
         } catch (final IllegalArgumentException e) {
             EtherJettyErrors.error(exchange, new HttpError(400, "bad_request", e.getMessage()));
             return true;
+        } catch (final KiwiApiClient.KiwiUnavailableException e) {
+            EtherJettyErrors.serviceUnavailable(exchange, "kiwi_unavailable", e.retryAfterSeconds());
+            return true;
         } catch (final SQLException e) {
             logger.log(Level.SEVERE, "SQL error handling request", e);
             EtherJettyErrors.internalServerError(exchange, "database error");
@@ -28,7 +28,15 @@ final class InventoryByLocationHandler {
             final Boolean includeDescendants = ItemRequestParsers.parseOptionalBoolean(query, "includeDescendants");
             final Integer limit = ItemRequestParsers.parseOptionalInt(query, "limit");
             final Integer offset = ItemRequestParsers.parseOptionalInt(query, "offset");
-            final var page = PaginationSupport.request(limit, offset, 200, 200);
+            final String cursor = ItemRequestParsers.getValue(query, "cursor");
+            final var page = PaginationSupport.request(limit, offset, cursor, 200, 200);
+
+            if (page.keyset()) {
+                final var items = service.listInventoryByLocationPage(userId, houseId, houseLocationId,
+                        includeDescendants, page.limit(), page.cursor());
+                x.json(200, PaginationSupport.response("items", items, page));
+                return;
+            }
 
             final var items = service.listInventoryByLocation(userId, houseId, houseLocationId, includeDescendants,
                     page.fetchLimit(), page.offset());
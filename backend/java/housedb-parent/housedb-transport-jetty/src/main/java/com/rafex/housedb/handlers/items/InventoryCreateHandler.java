@@ -3,11 +3,12 @@ package com.rafex.housedb.handlers.items;
 import com.rafex.housedb.dtos.CreateInventoryItemRequest;
 import com.rafex.housedb.handlers.AuthzSupport;
 import com.rafex.housedb.handlers.ExchangeAdapters;
-import com.rafex.housedb.kiwi.KiwiApiClient;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
 import com.rafex.housedb.services.ItemFinderService;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.UUID;
 import java.util.logging.Logger;
 
 import org.eclipse.jetty.server.Request;
@@ -21,21 +22,28 @@ final class InventoryCreateHandler {
 
     private final JsonCodec jsonCodec;
     private final ItemFinderService service;
-    private final KiwiApiClient kiwiApiClient;
+    private final KiwiOutboxDispatcher kiwiOutbox;
 
-    InventoryCreateHandler(final JsonCodec jsonCodec, final ItemFinderService service, final KiwiApiClient kiwiApiClient) {
+    InventoryCreateHandler(final JsonCodec jsonCodec, final ItemFinderService service,
+            final KiwiOutboxDispatcher kiwiOutbox) {
         this.jsonCodec = jsonCodec;
         this.service = service;
-        this.kiwiApiClient = kiwiApiClient;
+        this.kiwiOutbox = kiwiOutbox;
     }
 
+    /**
+     * Commits the object and the item locally with the Kiwi object creation queued in the same transaction, and
+     * answers without waiting for Kiwi; the outbox dispatcher links the Kiwi object afterwards.
+     */
     boolean handle(final HttpExchange x) {
         return EndpointSupport.execute(LOG, x, () -> {
             final Request request = ExchangeAdapters.request(x);
             final var body = jsonCodec.readValue(Request.asInputStream(request), CreateInventoryItemRequest.class);
             final var userId = AuthzSupport.requireTokenUser(x);
-            final var kiwiLocationId = service.findKiwiLocationIdByHouseLocationId(body.houseLocationLeafId());
-            if (kiwiLocationId == null) {
+            if (body.houseLocationLeafId() == null) {
+                throw new IllegalArgumentException("houseLocationLeafId is required");
+            }
+            if (!service.isKiwiLocationLinkedOrPending(body.houseLocationLeafId())) {
                 throw new IllegalArgumentException("houseLocationLeafId is not synchronized with kiwi location");
             }
 
@@ -51,21 +59,28 @@ final class InventoryCreateHandler {
                 tags.add(body.objectCategory().trim());
             }
 
-            final var kiwiObjectId = kiwiApiClient.createObject(body.objectName(), body.objectDescription(),
-                    kiwiLocationId, body.objectType(), tags, body.kiwiMetadata());
-            final var objectId = service.upsertObjectFromKiwi(kiwiObjectId, body.objectName(), body.objectDescription(),
-                    body.objectCategory(), null, true);
+            final var kiwiPayload = new LinkedHashMap<String, Object>();
+            kiwiPayload.put("name", body.objectName());
+            kiwiPayload.put("description", body.objectDescription());
+            kiwiPayload.put("type", body.objectType());
+            kiwiPayload.put("tags", tags);
+            kiwiPayload.put("metadata", body.kiwiMetadata());
             final var housedbMetadataJson = body.housedbMetadata() == null
                     ? "{}"
                     : jsonCodec.toJson(body.housedbMetadata());
 
-            final var result = service.createInventoryItem(userId, objectId, body.nickname(),
-                    body.serialNumber(), body.conditionStatus(), housedbMetadataJson, body.houseLocationLeafId(), body.movedBy(),
-                    body.notes());
+            final var objectId = UUID.randomUUID();
+            final var result = service.createInventoryItemPendingKiwi(userId, objectId, body.objectName(),
+                    body.objectDescription(), body.objectCategory(), body.nickname(), body.serialNumber(),
+                    body.conditionStatus(), housedbMetadataJson, body.houseLocationLeafId(), body.movedBy(),
+                    body.notes(), jsonCodec.toJson(kiwiPayload));
+            kiwiOutbox.wakeUp();
+
             final var payload = new LinkedHashMap<String, Object>();
             payload.put("inventoryItemId", result.inventoryItemId());
             payload.put("itemMovementId", result.itemMovementId());
             payload.put("objectId", objectId);
+            payload.put("kiwiStatus", "pending");
             x.json(200, payload);
         });
     }
@@ -0,0 +1,164 @@
+package com.rafex.housedb.handlers.items;
+
+import com.rafex.housedb.handlers.AuthzSupport;
+import com.rafex.housedb.handlers.ExchangeAdapters;
+import com.rafex.housedb.service.models.InventoryExportRow;
+import com.rafex.housedb.services.ItemFinderService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.io.Content;
+
+import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.json.JsonCodec;
+
+final class InventoryExportHandler {
+
+    private static final Logger LOG = Logger.getLogger(InventoryExportHandler.class.getName());
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER = "inventoryItemId,objectId,objectKiwiId,objectName,objectCategory,"
+            + "nickname,serialNumber,conditionStatus,metadata,houseId,houseName,houseLocationLeafId,"
+            + "houseLocationPath,updatedAt\n";
+
+    private final JsonCodec jsonCodec;
+    private final ItemFinderService service;
+
+    InventoryExportHandler(final JsonCodec jsonCodec, final ItemFinderService service) {
+        this.jsonCodec = jsonCodec;
+        this.service = service;
+    }
+
+    boolean handle(final HttpExchange x) {
+        return EndpointSupport.execute(LOG, x, () -> {
+            final var query = ItemRequestParsers.parseQuery(ExchangeAdapters.rawQuery(x));
+            final var userId = AuthzSupport.requireTokenUser(x);
+            final var houseId = ItemRequestParsers.parseOptionalUuid(query, "houseId");
+            final var format = parseFormat(ItemRequestParsers.getValue(query, "format"));
+            final boolean csv = "csv".equals(format);
+
+            final var jetty = ExchangeAdapters.jetty(x);
+            final var response = jetty.response();
+            response.setStatus(200);
+            response.getHeaders().put(HttpHeader.CONTENT_TYPE,
+                    csv ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8");
+            response.getHeaders().put(HttpHeader.CONTENT_DISPOSITION,
+                    "attachment; filename=\"inventory." + format + "\"");
+
+            // No Content-Length: Jetty sends the body chunked while the database cursor is still open. The writer
+            // is only closed on success so a failure before the first flush can still become a JSON error.
+            final Writer out = new BufferedWriter(
+                    new OutputStreamWriter(Content.Sink.asOutputStream(response), StandardCharsets.UTF_8),
+                    WRITE_BUFFER_SIZE);
+            try {
+                if (csv) {
+                    out.write(CSV_HEADER);
+                }
+                service.exportInventoryItems(userId, houseId, row -> {
+                    try {
+                        if (csv) {
+                            writeCsv(out, row);
+                        } else {
+                            out.write(jsonCodec.toJson(toJsonLine(row)));
+                            out.write('\n');
+                        }
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.close();
+            } catch (final Exception e) {
+                if (!response.isCommitted()) {
+                    response.getHeaders().remove(HttpHeader.CONTENT_DISPOSITION);
+                    throw e;
+                }
+                // Status and part of the body are already on the wire; abort so the client sees a broken
+                // chunked stream instead of a truncated file that looks complete.
+                LOG.log(Level.SEVERE, "inventory export aborted", e);
+                jetty.callback().failed(e);
+                return;
+            }
+            jetty.callback().succeeded();
+        });
+    }
+
+    private Map<String, Object> toJsonLine(final InventoryExportRow row) {
+        final var line = new LinkedHashMap<String, Object>();
+        line.put("inventoryItemId", row.inventoryItemId());
+        line.put("objectId", row.objectId());
+        line.put("objectKiwiId", row.objectKiwiId());
+        line.put("objectName", row.objectName());
+        line.put("objectCategory", row.objectCategory());
+        line.put("nickname", row.nickname());
+        line.put("serialNumber", row.serialNumber());
+        line.put("conditionStatus", row.conditionStatus());
+        line.put("metadata", row.metadataJson() == null || "{}".equals(row.metadataJson())
+                ? Map.of()
+                : jsonCodec.readTree(row.metadataJson()));
+        line.put("houseId", row.houseId());
+        line.put("houseName", row.houseName());
+        line.put("houseLocationLeafId", row.houseLocationLeafId());
+        line.put("houseLocationPath", row.houseLocationPath());
+        line.put("updatedAt", row.updatedAt() == null ? null : row.updatedAt().toString());
+        return line;
+    }
+
+    private static void writeCsv(final Writer out, final InventoryExportRow row) throws IOException {
+        writeCsvField(out, row.inventoryItemId(), false);
+        writeCsvField(out, row.objectId(), true);
+        writeCsvField(out, row.objectKiwiId(), true);
+        writeCsvField(out, row.objectName(), true);
+        writeCsvField(out, row.objectCategory(), true);
+        writeCsvField(out, row.nickname(), true);
+        writeCsvField(out, row.serialNumber(), true);
+        writeCsvField(out, row.conditionStatus(), true);
+        writeCsvField(out, row.metadataJson(), true);
+        writeCsvField(out, row.houseId(), true);
+        writeCsvField(out, row.houseName(), true);
+        writeCsvField(out, row.houseLocationLeafId(), true);
+        writeCsvField(out, row.houseLocationPath(), true);
+        writeCsvField(out, row.updatedAt(), true);
+        out.write('\n');
+    }
+
+    private static void writeCsvField(final Writer out, final Object value, final boolean separator)
+            throws IOException {
+        if (separator) {
+            out.write(',');
+        }
+        if (value == null) {
+            return;
+        }
+        final var text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        out.write(text.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static String parseFormat(final String raw) {
+        if (raw == null || raw.isBlank()) {
+            return "ndjson";
+        }
+        final var format = raw.trim().toLowerCase(Locale.ROOT);
+        if (!"ndjson".equals(format) && !"csv".equals(format)) {
+            throw new IllegalArgumentException("format must be ndjson or csv");
+        }
+        return format;
+    }
+}
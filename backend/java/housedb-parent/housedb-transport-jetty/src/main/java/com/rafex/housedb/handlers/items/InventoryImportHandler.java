@@ -0,0 +1,56 @@
+package com.rafex.housedb.handlers.items;
+
+import com.rafex.housedb.handlers.AuthzSupport;
+import com.rafex.housedb.handlers.ExchangeAdapters;
+import com.rafex.housedb.services.ItemFinderService;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+
+import org.eclipse.jetty.server.Request;
+
+import dev.rafex.ether.http.core.HttpExchange;
+
+final class InventoryImportHandler {
+
+    private static final Logger LOG = Logger.getLogger(InventoryImportHandler.class.getName());
+
+    private final ItemFinderService service;
+
+    InventoryImportHandler(final ItemFinderService service) {
+        this.service = service;
+    }
+
+    boolean handle(final HttpExchange x) {
+        return EndpointSupport.execute(LOG, x, () -> {
+            final Request request = ExchangeAdapters.request(x);
+            final var query = ItemRequestParsers.parseQuery(ExchangeAdapters.rawQuery(x));
+            final var userId = AuthzSupport.requireTokenUser(x);
+            final var format = resolveFormat(ItemRequestParsers.getValue(query, "format"),
+                    request.getHeaders().get("content-type"));
+            final Boolean skipInvalid = ItemRequestParsers.parseOptionalBoolean(query, "skipInvalid");
+            final var movedBy = ItemRequestParsers.getValue(query, "movedBy");
+
+            // The body goes straight from the socket into COPY; it is never held in memory.
+            final var result = service.importInventoryItems(userId, format, Request.asInputStream(request), movedBy,
+                    skipInvalid);
+            final boolean rejectedAll = result.rejectedCount() > 0 && !Boolean.TRUE.equals(skipInvalid);
+            x.json(rejectedAll ? 422 : 200, result);
+        });
+    }
+
+    private static String resolveFormat(final String format, final String contentType) {
+        if (format != null && !format.isBlank()) {
+            return format;
+        }
+        if (contentType == null) {
+            throw new IllegalArgumentException("format or Content-Type is required");
+        }
+        final var mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return switch (mediaType) {
+        case "text/csv" -> "csv";
+        case "application/x-ndjson", "application/ndjson", "application/jsonl" -> "ndjson";
+        default -> throw new IllegalArgumentException("unsupported Content-Type: " + mediaType);
+        };
+    }
+}
@@ -25,7 +25,13 @@ final class InventoryListHandler {
             final var userId = AuthzSupport.requireTokenUser(x);
             final Integer limit = ItemRequestParsers.parseOptionalInt(query, "limit");
             final Integer offset = ItemRequestParsers.parseOptionalInt(query, "offset");
-            final var page = PaginationSupport.request(limit, offset, 50, 200);
+            final String cursor = ItemRequestParsers.getValue(query, "cursor");
+            final var page = PaginationSupport.request(limit, offset, cursor, 50, 200);
+            if (page.keyset()) {
+                final var items = service.listOwnedInventoryItemsPage(userId, page.limit(), page.cursor());
+                x.json(200, PaginationSupport.response("items", items, page));
+                return;
+            }
             final var items = service.listOwnedInventoryItems(userId, page.fetchLimit(), page.offset());
             x.json(200, PaginationSupport.response("items", items, page));
         });
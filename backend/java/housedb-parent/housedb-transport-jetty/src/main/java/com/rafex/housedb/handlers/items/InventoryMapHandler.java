@@ -0,0 +1,54 @@
+package com.rafex.housedb.handlers.items;
+
+import com.rafex.housedb.handlers.AuthzSupport;
+import com.rafex.housedb.handlers.ExchangeAdapters;
+import com.rafex.housedb.services.ItemFinderService;
+
+import java.util.logging.Logger;
+
+import dev.rafex.ether.http.core.HttpExchange;
+
+final class InventoryMapHandler {
+
+    private static final Logger LOG = Logger.getLogger(InventoryMapHandler.class.getName());
+
+    private final ItemFinderService service;
+
+    InventoryMapHandler(final ItemFinderService service) {
+        this.service = service;
+    }
+
+    boolean handle(final HttpExchange x) {
+        return EndpointSupport.execute(LOG, x, () -> {
+            final var query = ItemRequestParsers.parseQuery(ExchangeAdapters.rawQuery(x));
+            final var userId = AuthzSupport.requireTokenUser(x);
+            final var bbox = parseBbox(ItemRequestParsers.getValue(query, "bbox"));
+            final Integer zoom = ItemRequestParsers.parseOptionalInt(query, "zoom");
+            if (zoom == null) {
+                throw new IllegalArgumentException("zoom is required");
+            }
+            final Integer limit = ItemRequestParsers.parseOptionalInt(query, "limit");
+
+            x.json(200, service.inventoryMap(userId, bbox[0], bbox[1], bbox[2], bbox[3], zoom, limit));
+        });
+    }
+
+    private static double[] parseBbox(final String raw) {
+        if (raw == null) {
+            throw new IllegalArgumentException("bbox is required");
+        }
+        final var parts = raw.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLongitude,minLatitude,maxLongitude,maxLatitude");
+        }
+        final var result = new double[4];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                result[i] = Double.parseDouble(parts[i].trim());
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("bbox must contain numbers");
+            }
+        }
+        return result;
+    }
+}
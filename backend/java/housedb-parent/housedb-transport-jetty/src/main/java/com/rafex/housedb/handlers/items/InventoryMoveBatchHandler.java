@@ -0,0 +1,56 @@
+package com.rafex.housedb.handlers.items;
+
+import com.rafex.housedb.dtos.MoveInventoryItemsBatchRequest;
+import com.rafex.housedb.handlers.ExchangeAdapters;
+import com.rafex.housedb.service.models.ItemMove;
+import com.rafex.housedb.services.ItemFinderService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.logging.Logger;
+
+import org.eclipse.jetty.server.Request;
+
+import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.json.JsonCodec;
+
+final class InventoryMoveBatchHandler {
+
+    private static final Logger LOG = Logger.getLogger(InventoryMoveBatchHandler.class.getName());
+
+    private final JsonCodec jsonCodec;
+    private final ItemFinderService service;
+
+    InventoryMoveBatchHandler(final JsonCodec jsonCodec, final ItemFinderService service) {
+        this.jsonCodec = jsonCodec;
+        this.service = service;
+    }
+
+    boolean handle(final HttpExchange x) {
+        return EndpointSupport.execute(LOG, x, () -> {
+            final Request request = ExchangeAdapters.request(x);
+            final var body = jsonCodec.readValue(Request.asInputStream(request), MoveInventoryItemsBatchRequest.class);
+            if (body == null || body.moves() == null || body.moves().isEmpty()) {
+                throw new IllegalArgumentException("moves are required");
+            }
+
+            // Entry-level fields override the batch-level defaults.
+            final var moves = new ArrayList<ItemMove>(body.moves().size());
+            for (final var entry : body.moves()) {
+                if (entry == null) {
+                    throw new IllegalArgumentException("moves must not contain null entries");
+                }
+                moves.add(new ItemMove(entry.inventoryItemId(), entry.toHouseLocationLeafId(),
+                        entry.movedBy() != null ? entry.movedBy() : body.movedBy(),
+                        entry.movementReason() != null ? entry.movementReason() : body.movementReason(),
+                        entry.notes() != null ? entry.notes() : body.notes()));
+            }
+
+            final var movements = service.moveInventoryItems(moves);
+            final var response = new LinkedHashMap<String, Object>();
+            response.put("moved", movements.size());
+            response.put("movements", movements);
+            x.json(200, response);
+        });
+    }
+}
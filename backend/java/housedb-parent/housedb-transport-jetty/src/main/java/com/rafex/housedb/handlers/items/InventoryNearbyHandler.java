@@ -26,12 +26,13 @@ final class InventoryNearbyHandler {
             final double latitude = ItemRequestParsers.parseRequiredDouble(query, "latitude");
             final double longitude = ItemRequestParsers.parseRequiredDouble(query, "longitude");
             final Double radiusMeters = ItemRequestParsers.parseOptionalDouble(query, "radiusMeters");
+            final Boolean nearest = ItemRequestParsers.parseOptionalBoolean(query, "nearest");
             final Integer limit = ItemRequestParsers.parseOptionalInt(query, "limit");
             final Integer offset = ItemRequestParsers.parseOptionalInt(query, "offset");
             final var page = PaginationSupport.request(limit, offset, 50, 200);
 
             final var items = service.searchInventoryItemsNearPoint(userId, latitude, longitude, radiusMeters,
-                    page.fetchLimit(), page.offset());
+                    nearest, page.fetchLimit(), page.offset());
             x.json(200, PaginationSupport.response("items", items, page));
         });
     }
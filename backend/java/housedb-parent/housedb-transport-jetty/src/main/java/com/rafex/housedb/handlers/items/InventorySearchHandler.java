@@ -28,7 +28,15 @@ final class InventorySearchHandler {
             final var houseLocationLeafId = ItemRequestParsers.parseOptionalUuid(query, "houseLocationLeafId");
             final Integer limit = ItemRequestParsers.parseOptionalInt(query, "limit");
             final Integer offset = ItemRequestParsers.parseOptionalInt(query, "offset");
-            final var page = PaginationSupport.request(limit, offset, 50, 200);
+            final String cursor = ItemRequestParsers.getValue(query, "cursor");
+            final var page = PaginationSupport.request(limit, offset, cursor, 50, 200);
+
+            if (page.keyset()) {
+                final var items = service.searchInventoryItemsPage(userId, text, houseId, houseLocationLeafId,
+                        page.limit(), page.cursor());
+                x.json(200, PaginationSupport.response("items", items, page));
+                return;
+            }
 
             final var items = service.searchInventoryItems(userId, text, houseId, houseLocationLeafId,
                     page.fetchLimit(), page.offset());
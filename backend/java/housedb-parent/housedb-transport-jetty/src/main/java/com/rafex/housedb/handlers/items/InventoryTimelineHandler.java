@@ -24,7 +24,14 @@ final class InventoryTimelineHandler {
             final var query = ItemRequestParsers.parseQuery(ExchangeAdapters.rawQuery(x));
             final Integer limit = ItemRequestParsers.parseOptionalInt(query, "limit");
             final Integer offset = ItemRequestParsers.parseOptionalInt(query, "offset");
-            final var page = PaginationSupport.request(limit, offset, 100, 200);
+            final String cursor = ItemRequestParsers.getValue(query, "cursor");
+            final var page = PaginationSupport.request(limit, offset, cursor, 100, 200);
+
+            if (page.keyset()) {
+                final var events = service.inventoryItemTimelinePage(inventoryItemId, page.limit(), page.cursor());
+                x.json(200, PaginationSupport.response("events", events, page));
+                return;
+            }
 
             final var events = service.inventoryItemTimeline(inventoryItemId, page.fetchLimit(), page.offset());
             x.json(200, PaginationSupport.response("events", events, page));
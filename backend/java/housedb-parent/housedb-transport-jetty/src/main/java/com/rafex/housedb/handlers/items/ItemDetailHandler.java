@@ -1,31 +1,54 @@
 package com.rafex.housedb.handlers.items;
 
+import com.rafex.housedb.handlers.ExchangeAdapters;
 import com.rafex.housedb.handlers.support.EtherJettyErrors;
 import com.rafex.housedb.kiwi.KiwiApiClient;
+import com.rafex.housedb.kiwi.KiwiObjectCache;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
 import com.rafex.housedb.services.ItemFinderService;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
 import dev.rafex.ether.http.core.HttpExchange;
+import dev.rafex.ether.json.JsonCodec;
 
 final class ItemDetailHandler {
 
     private static final Logger LOG = Logger.getLogger(ItemDetailHandler.class.getName());
 
+    private static final byte[] KIWI_OBJECT_FIELD = ",\"kiwiObject\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KIWI_STATUS_OK = ",\"kiwiStatus\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonCodec jsonCodec;
     private final KiwiApiClient kiwiApiClient;
+    private final KiwiObjectCache kiwiObjectCache;
+    private final KiwiOutboxDispatcher kiwiOutbox;
     private final ItemFinderService itemService;
 
-    ItemDetailHandler(final KiwiApiClient kiwiApiClient, final ItemFinderService itemService) {
+    ItemDetailHandler(final JsonCodec jsonCodec, final KiwiApiClient kiwiApiClient,
+            final KiwiObjectCache kiwiObjectCache, final KiwiOutboxDispatcher kiwiOutbox,
+            final ItemFinderService itemService) {
+        this.jsonCodec = jsonCodec;
         this.kiwiApiClient = kiwiApiClient;
+        this.kiwiObjectCache = kiwiObjectCache;
+        this.kiwiOutbox = kiwiOutbox;
         this.itemService = itemService;
     }
 
     boolean handle(final HttpExchange x, final UUID itemId) {
         try {
+            // The Kiwi id comes from the detail row, so only the token refresh can overlap the query.
+            kiwiApiClient.prepare();
             final var inventoryItem = itemService.getInventoryItemDetail(itemId);
             if (inventoryItem == null) {
                 EtherJettyErrors.notFound(x);
@@ -39,16 +62,33 @@ final class ItemDetailHandler {
 
             if (inventoryItem.objectKiwiId() != null) {
                 try {
-                    final var kiwiObject = kiwiApiClient.getObjectById(inventoryItem.objectKiwiId());
-                    payload.put("kiwiObject", kiwiObject);
-                    payload.put("kiwiStatus", "ok");
+                    final var kiwiObject = KiwiApiClient.await(kiwiObjectCache.get(inventoryItem.objectKiwiId()));
+                    if (kiwiObject != null) {
+                        try {
+                            writeWithKiwiObject(x, jsonCodec.toJson(inventoryItem), kiwiObject);
+                        } catch (final RuntimeException e) {
+                            kiwiObject.release();
+                            throw e;
+                        }
+                        return true;
+                    }
+                    payload.put("kiwiStatus", "not_found");
+                } catch (final KiwiApiClient.KiwiUnavailableException e) {
+                    // Breaker open or bulkhead full: answer with the local item right away.
+                    payload.put("kiwiStatus", "unavailable");
+                } catch (final IOException e) {
+                    LOG.log(Level.WARNING, "Kiwi object fetch failed, answering without it", e);
+                    payload.put("kiwiStatus", "unavailable");
                 } catch (final KiwiApiClient.KiwiApiException e) {
-                    if (e.statusCode() == 404) {
-                        payload.put("kiwiStatus", "not_found");
-                    } else {
+                    if (e.statusCode() < 500 && e.statusCode() != 429) {
                         throw e;
                     }
+                    LOG.log(Level.WARNING, "Kiwi object fetch failed, answering without it", e);
+                    payload.put("kiwiStatus", "unavailable");
                 }
+            } else if (kiwiOutbox.objectPending(inventoryItem.objectId())) {
+                // Created here; the outbox has not created the Kiwi object yet.
+                payload.put("kiwiStatus", "pending");
             }
 
             x.json(200, payload);
@@ -70,4 +110,46 @@ final class ItemDetailHandler {
             return true;
         }
     }
+
+    /**
+     * Writes {@code {"inventoryItem":...,"kiwiObject":...,"kiwiStatus":"ok"}} with the cached Kiwi bytes spliced in
+     * as they are, so the object is neither parsed nor re-serialized on the way out. The body is released once the
+     * last write completes or fails.
+     */
+    private static void writeWithKiwiObject(final HttpExchange x, final String inventoryItemJson,
+            final KiwiObjectCache.Body kiwiObject) {
+        final var head = new StringBuilder(inventoryItemJson.length() + 20).append("{\"inventoryItem\":")
+                .append(inventoryItemJson).toString().getBytes(StandardCharsets.UTF_8);
+        final var jetty = ExchangeAdapters.jetty(x);
+        final var response = jetty.response();
+        final var done = jetty.callback();
+        final var callback = Callback.from(() -> {
+            kiwiObject.release();
+            done.succeeded();
+        }, failure -> {
+            kiwiObject.release();
+            done.failed(failure);
+        });
+        response.setStatus(200);
+        response.getHeaders().put(HttpHeader.CONTENT_TYPE, "application/json; charset=utf-8");
+        response.getHeaders().put(HttpHeader.CONTENT_LENGTH,
+                head.length + KIWI_OBJECT_FIELD.length + kiwiObject.length() + KIWI_STATUS_OK.length);
+
+        final var prefix = ByteBuffer.allocate(head.length + KIWI_OBJECT_FIELD.length).put(head)
+                .put(KIWI_OBJECT_FIELD).flip();
+        final Runnable suffix = () -> response.write(true, ByteBuffer.wrap(KIWI_STATUS_OK), callback);
+        response.write(false, prefix, Callback.from(
+                () -> writeBuffers(response, kiwiObject.buffers(), 0, Callback.from(suffix, callback::failed)),
+                callback::failed));
+    }
+
+    private static void writeBuffers(final Response response, final ByteBuffer[] buffers, final int index,
+            final Callback callback) {
+        if (index == buffers.length) {
+            callback.succeeded();
+            return;
+        }
+        response.write(false, buffers[index],
+                Callback.from(() -> writeBuffers(response, buffers, index + 1, callback), callback::failed));
+    }
 }
@@ -2,6 +2,8 @@ package com.rafex.housedb.handlers.items;
 
 import com.rafex.housedb.handlers.support.HouseDbErrorMapper;
 import com.rafex.housedb.kiwi.KiwiApiClient;
+import com.rafex.housedb.kiwi.KiwiObjectCache;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
 import com.rafex.housedb.services.ItemFinderService;
 
 import java.util.List;
@@ -18,24 +20,33 @@ public final class ItemsRouterHandler extends NonBlockingResourceHandler {
     private final InventoryListHandler listHandler;
     private final InventorySearchHandler searchHandler;
     private final InventoryNearbyHandler nearbyHandler;
+    private final InventoryMapHandler mapHandler;
     private final InventoryByLocationHandler byLocationHandler;
     private final InventoryCreateHandler createHandler;
     private final InventoryMoveHandler moveHandler;
+    private final InventoryMoveBatchHandler moveBatchHandler;
+    private final InventoryImportHandler importHandler;
+    private final InventoryExportHandler exportHandler;
     private final InventoryTimelineHandler timelineHandler;
     private final InventoryFavoriteHandler favoriteHandler;
     private final ItemDetailHandler itemDetailHandler;
 
-    public ItemsRouterHandler(final JsonCodec jsonCodec, final ItemFinderService service, final KiwiApiClient kiwiApiClient) {
+    public ItemsRouterHandler(final JsonCodec jsonCodec, final ItemFinderService service, final KiwiApiClient kiwiApiClient,
+            final KiwiObjectCache kiwiObjectCache, final KiwiOutboxDispatcher kiwiOutbox) {
         super(jsonCodec, new HouseDbErrorMapper());
         listHandler = new InventoryListHandler(service);
         searchHandler = new InventorySearchHandler(service);
         nearbyHandler = new InventoryNearbyHandler(service);
+        mapHandler = new InventoryMapHandler(service);
         byLocationHandler = new InventoryByLocationHandler(service);
-        createHandler = new InventoryCreateHandler(jsonCodec, service, kiwiApiClient);
+        createHandler = new InventoryCreateHandler(jsonCodec, service, kiwiOutbox);
         moveHandler = new InventoryMoveHandler(jsonCodec, service);
+        moveBatchHandler = new InventoryMoveBatchHandler(jsonCodec, service);
+        importHandler = new InventoryImportHandler(service);
+        exportHandler = new InventoryExportHandler(jsonCodec, service);
         timelineHandler = new InventoryTimelineHandler(service);
         favoriteHandler = new InventoryFavoriteHandler(jsonCodec, service);
-        itemDetailHandler = new ItemDetailHandler(kiwiApiClient, service);
+        itemDetailHandler = new ItemDetailHandler(jsonCodec, kiwiApiClient, kiwiObjectCache, kiwiOutbox, service);
     }
 
     @Override
@@ -49,7 +60,11 @@ public final class ItemsRouterHandler extends NonBlockingResourceHandler {
                 Route.of("/", Set.of("GET", "POST")),
                 Route.of("/search", Set.of("GET")),
                 Route.of("/nearby", Set.of("GET")),
+                Route.of("/map", Set.of("GET")),
                 Route.of("/by-location", Set.of("GET")),
+                Route.of("/export", Set.of("GET")),
+                Route.of("/move-batch", Set.of("POST")),
+                Route.of("/import", Set.of("POST")),
                 Route.of("/{inventoryItemId}/move", Set.of("PATCH")),
                 Route.of("/{inventoryItemId}/timeline", Set.of("GET")),
                 Route.of("/{inventoryItemId}/favorite", Set.of("PUT")),
@@ -68,9 +83,15 @@ public final class ItemsRouterHandler extends NonBlockingResourceHandler {
         if ("/items/nearby".equals(path)) {
             return nearbyHandler.handle(x);
         }
+        if ("/items/map".equals(path)) {
+            return mapHandler.handle(x);
+        }
         if ("/items/by-location".equals(path)) {
             return byLocationHandler.handle(x);
         }
+        if ("/items/export".equals(path)) {
+            return exportHandler.handle(x);
+        }
         final var timelineId = x.pathParam("inventoryItemId");
         if (timelineId != null && path.endsWith("/timeline")) {
             return timelineHandler.handle(x, UUID.fromString(timelineId));
@@ -87,6 +108,12 @@ public final class ItemsRouterHandler extends NonBlockingResourceHandler {
         if ("/items".equals(x.path())) {
             return createHandler.handle(x);
         }
+        if ("/items/move-batch".equals(x.path())) {
+            return moveBatchHandler.handle(x);
+        }
+        if ("/items/import".equals(x.path())) {
+            return importHandler.handle(x);
+        }
         return false;
     }
 
@@ -2,6 +2,8 @@ package com.rafex.housedb.handlers.support;
 
 import com.rafex.housedb.handlers.ExchangeAdapters;
 
+import org.eclipse.jetty.http.HttpHeader;
+
 import dev.rafex.ether.http.core.HttpError;
 import dev.rafex.ether.http.jetty12.JettyApiErrorResponses;
 import dev.rafex.ether.json.JsonCodecBuilder;
@@ -39,6 +41,20 @@ public final class EtherJettyErrors {
         RESPONSES.notFound(jettyExchange.response(), jettyExchange.callback(), exchange.path());
     }
 
+    public static void tooManyRequests(final dev.rafex.ether.http.core.HttpExchange exchange, final String message,
+            final long retryAfterSeconds) {
+        ExchangeAdapters.jetty(exchange).response().getHeaders().put(HttpHeader.RETRY_AFTER,
+                Long.toString(retryAfterSeconds));
+        error(exchange, new HttpError(429, "too_many_requests", message));
+    }
+
+    public static void serviceUnavailable(final dev.rafex.ether.http.core.HttpExchange exchange, final String message,
+            final long retryAfterSeconds) {
+        ExchangeAdapters.jetty(exchange).response().getHeaders().put(HttpHeader.RETRY_AFTER,
+                Long.toString(retryAfterSeconds));
+        error(exchange, new HttpError(503, "service_unavailable", message));
+    }
+
     public static void internalServerError(final dev.rafex.ether.http.core.HttpExchange exchange, final String message) {
         final var jettyExchange = ExchangeAdapters.jetty(exchange);
         RESPONSES.internalServerError(jettyExchange.response(), jettyExchange.callback(), message);
@@ -1,25 +1,21 @@
 package com.rafex.housedb.handlers.support;
 
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.util.Callback;
 import org.glowroot.agent.api.Glowroot;
+import org.glowroot.agent.api.Instrumentation;
 
 import dev.rafex.ether.http.jetty12.JettyMiddleware;
 
 public final class GlowrootMiddleware implements JettyMiddleware {
 
     private static final Logger LOG = Logger.getLogger(GlowrootMiddleware.class.getName());
-    private static final Pattern UUID_PATTERN = Pattern
-            .compile("/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}(?=/|$)");
-    private static final Pattern OBJECT_ID_PATTERN = Pattern.compile("/[0-9a-fA-F]{24}(?=/|$)");
-    private static final Pattern NUMBER_PATTERN = Pattern.compile("/\\d{2,}(?=/|$)");
-    private static final Pattern MULTIPLE_SLASHES_PATTERN = Pattern.compile("/{2,}");
 
     @Override
     public Handler wrap(final Handler next) {
@@ -29,30 +25,118 @@ public final class GlowrootMiddleware implements JettyMiddleware {
                 final var method = request.getMethod();
                 final var path = request.getHttpURI() != null ? request.getHttpURI().getPath() : null;
                 final var normalizedPath = normalizePath(path);
-                setGlowrootAttributes(method, path, normalizedPath);
-                try {
-                    return super.handle(request, response, callback);
-                } catch (final Throwable t) {
+                return inTransaction(method + " " + normalizedPath, () -> {
+                    setGlowrootAttributes(method, path, normalizedPath);
                     try {
-                        Glowroot.addTransactionAttribute("error", t.getClass().getName());
-                        Glowroot.addTransactionAttribute("error.message", safeMessage(t.getMessage()));
-                    } catch (final Throwable ignored) {
-                        LOG.log(Level.WARNING, "Error setting Glowroot error attributes", ignored);
+                        return super.handle(request, response, callback);
+                    } catch (final Throwable t) {
+                        try {
+                            Glowroot.addTransactionAttribute("error", t.getClass().getName());
+                            Glowroot.addTransactionAttribute("error.message", safeMessage(t.getMessage()));
+                        } catch (final Throwable ignored) {
+                            LOG.log(Level.WARNING, "Error setting Glowroot error attributes", ignored);
+                        }
+                        throw t;
                     }
-                    throw t;
-                }
+                });
             }
         };
     }
 
-    static String normalizePath(String path) {
+    /**
+     * Glowroot binds a transaction to the thread that starts it. This middleware runs on whichever thread does the
+     * handler's JDBC and Kiwi work (a virtual thread under {@link VirtualThreadDispatch}), so the transaction is
+     * started here; when the agent already has one open on this thread the call becomes a trace entry in it.
+     */
+    @Instrumentation.Transaction(transactionType = "Web", transactionName = "{{0}}", traceHeadline = "{{0}}",
+            timer = "http request")
+    boolean inTransaction(final String transactionName, final Callable<Boolean> handler) throws Exception {
+        return handler.call();
+    }
+
+    /**
+     * Collapses repeated slashes and replaces UUID and 24-hex segments with {@code :id} and numeric segments of two
+     * or more digits with {@code :n}. Runs on every request (here and in {@link MetricsMiddleware}), so it is a
+     * single scan that returns {@code path} itself when nothing changes and only builds a new string otherwise.
+     */
+    static String normalizePath(final String path) {
         if (path == null || path.isEmpty()) {
             return "unknown";
         }
-        path = MULTIPLE_SLASHES_PATTERN.matcher(path).replaceAll("/");
-        path = UUID_PATTERN.matcher(path).replaceAll("/:id");
-        path = OBJECT_ID_PATTERN.matcher(path).replaceAll("/:id");
-        return NUMBER_PATTERN.matcher(path).replaceAll("/:n");
+        final int length = path.length();
+        StringBuilder out = null;
+        int slash = path.indexOf('/');
+        while (slash >= 0 && slash < length) {
+            int start = slash + 1;
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            final var placeholder = placeholder(path, start, end);
+            if (out == null && (placeholder != null || start > slash + 1)) {
+                out = new StringBuilder(length).append(path, 0, slash);
+            }
+            if (out != null) {
+                out.append('/');
+                if (placeholder != null) {
+                    out.append(placeholder);
+                } else {
+                    out.append(path, start, end);
+                }
+            }
+            slash = end;
+        }
+        return out == null ? path : out.toString();
+    }
+
+    private static String placeholder(final String path, final int start, final int end) {
+        final int length = end - start;
+        if (length == 36 && isUuid(path, start)) {
+            return ":id";
+        }
+        if (length == 24 && isHex(path, start, end)) {
+            return ":id";
+        }
+        if (length >= 2 && isDigits(path, start, end)) {
+            return ":n";
+        }
+        return null;
+    }
+
+    private static boolean isUuid(final String path, final int start) {
+        for (int i = 0; i < 36; i++) {
+            final char c = path.charAt(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23 ? c != '-' : !isHexDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHex(final String path, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (!isHexDigit(path.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexDigit(final char c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    private static boolean isDigits(final String path, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            final char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static String safeMessage(final String message) {
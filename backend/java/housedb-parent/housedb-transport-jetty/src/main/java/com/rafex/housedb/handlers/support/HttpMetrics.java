@@ -0,0 +1,112 @@
+package com.rafex.housedb.handlers.support;
+
+import com.rafex.housedb.metrics.LatencyHistogram;
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters and latency histograms per normalized route and method. Stats for a route are created on its
+ * first request; after that recording is a map lookup plus {@link LongAdder} increments.
+ */
+public final class HttpMetrics {
+
+    // Unmatched paths (scanners, typos) would otherwise grow the map without bound.
+    private static final int MAX_ROUTES = 256;
+    private static final String OVERFLOW_ROUTE = "other";
+
+    private static final String[] METHODS = { "GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "HEAD", "OTHER" };
+
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+
+    public void record(final String method, final String route, final int status, final long elapsedNanos) {
+        var stats = routes.get(route);
+        if (stats == null) {
+            stats = routes.size() < MAX_ROUTES
+                    ? routes.computeIfAbsent(route, key -> new RouteStats())
+                    : routes.computeIfAbsent(OVERFLOW_ROUTE, key -> new RouteStats());
+        }
+        stats.record(methodIndex(method), status, elapsedNanos);
+    }
+
+    public void appendTo(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_http_requests_total", "counter", "HTTP requests by route.");
+        routes.forEach((route, stats) -> stats.forEachMethod((method, m) -> PrometheusText.sample(out,
+                "housedb_http_requests_total", PrometheusText.labels("method", method, "route", route),
+                m.requests.sum())));
+
+        PrometheusText.header(out, "housedb_http_request_errors_total", "counter",
+                "HTTP responses with a 4xx or 5xx status by route.");
+        routes.forEach((route, stats) -> stats.forEachMethod((method, m) -> {
+            PrometheusText.sample(out, "housedb_http_request_errors_total",
+                    PrometheusText.labels("method", method, "route", route, "class", "4xx"), m.clientErrors.sum());
+            PrometheusText.sample(out, "housedb_http_request_errors_total",
+                    PrometheusText.labels("method", method, "route", route, "class", "5xx"), m.serverErrors.sum());
+        }));
+
+        PrometheusText.header(out, "housedb_http_request_duration_seconds", "histogram",
+                "HTTP request latency by route.");
+        routes.forEach((route, stats) -> stats.forEachMethod((method, m) -> m.latency.appendTo(out,
+                "housedb_http_request_duration_seconds", PrometheusText.labels("method", method, "route", route))));
+    }
+
+    private static int methodIndex(final String method) {
+        if (method == null) {
+            return METHODS.length - 1;
+        }
+        return switch (method) {
+        case "GET" -> 0;
+        case "POST" -> 1;
+        case "PUT" -> 2;
+        case "PATCH" -> 3;
+        case "DELETE" -> 4;
+        case "OPTIONS" -> 5;
+        case "HEAD" -> 6;
+        default -> METHODS.length - 1;
+        };
+    }
+
+    private static final class RouteStats {
+
+        private final MethodStats[] methods = new MethodStats[METHODS.length];
+
+        private RouteStats() {
+            for (int i = 0; i < methods.length; i++) {
+                methods[i] = new MethodStats();
+            }
+        }
+
+        private void record(final int method, final int status, final long elapsedNanos) {
+            final var m = methods[method];
+            m.requests.increment();
+            if (status >= 500) {
+                m.serverErrors.increment();
+            } else if (status >= 400) {
+                m.clientErrors.increment();
+            }
+            m.latency.record(elapsedNanos);
+        }
+
+        private void forEachMethod(final MethodVisitor visitor) {
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].requests.sum() > 0) {
+                    visitor.visit(METHODS[i], methods[i]);
+                }
+            }
+        }
+    }
+
+    private static final class MethodStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    @FunctionalInterface
+    private interface MethodVisitor {
+        void visit(String method, MethodStats stats);
+    }
+}
@@ -0,0 +1,92 @@
+package com.rafex.housedb.handlers.support;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
+import dev.rafex.ether.http.jetty12.JettyMiddleware;
+
+/**
+ * Records every request in {@link HttpMetrics}. Per request this allocates one {@link Recording} callback, plus the
+ * normalized route when the path contains ids; static routes reuse the request's own path string.
+ */
+public final class MetricsMiddleware implements JettyMiddleware {
+
+    private final HttpMetrics metrics;
+
+    public MetricsMiddleware(final HttpMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+    }
+
+    @Override
+    public Handler wrap(final Handler next) {
+        return new Handler.Wrapper(next) {
+            @Override
+            public boolean handle(final Request request, final Response response, final Callback callback)
+                    throws Exception {
+                final var recording = new Recording(callback, metrics, request.getMethod(),
+                        GlowrootMiddleware.normalizePath(
+                                request.getHttpURI() != null ? request.getHttpURI().getPath() : null),
+                        response);
+                try {
+                    final boolean handled = super.handle(request, response, recording);
+                    if (!handled) {
+                        recording.record(404);
+                    }
+                    return handled;
+                } catch (final Throwable t) {
+                    recording.record(500);
+                    throw t;
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps the request callback and records the request exactly once. Recorded when the response completes: with
+     * HOUSEDB_EXECUTION_MODE=virtual the handler returns before the response is written.
+     */
+    private static final class Recording extends Callback.Nested {
+
+        private static final AtomicIntegerFieldUpdater<Recording> RECORDED = AtomicIntegerFieldUpdater
+                .newUpdater(Recording.class, "recorded");
+
+        private final HttpMetrics metrics;
+        private final String method;
+        private final String route;
+        private final Response response;
+        private final long started = System.nanoTime();
+        private volatile int recorded;
+
+        private Recording(final Callback callback, final HttpMetrics metrics, final String method, final String route,
+                final Response response) {
+            super(callback);
+            this.metrics = metrics;
+            this.method = method;
+            this.route = route;
+            this.response = response;
+        }
+
+        @Override
+        public void succeeded() {
+            record(response.getStatus());
+            super.succeeded();
+        }
+
+        @Override
+        public void failed(final Throwable x) {
+            record(500);
+            super.failed(x);
+        }
+
+        private void record(final int status) {
+            if (RECORDED.compareAndSet(this, 0, 1)) {
+                metrics.record(method, route, status, System.nanoTime() - started);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.rafex.housedb.handlers.support;
 
+import com.rafex.housedb.service.models.CursorPage;
+
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -12,6 +14,11 @@ public final class PaginationSupport {
 
     public static PaginationRequest request(final Integer limit, final Integer offset, final int defaultLimit,
             final int maxLimit) {
+        return request(limit, offset, null, defaultLimit, maxLimit);
+    }
+
+    public static PaginationRequest request(final Integer limit, final Integer offset, final String cursor,
+            final int defaultLimit, final int maxLimit) {
         final int safeLimit;
         if (limit == null || limit < 1) {
             safeLimit = defaultLimit;
@@ -28,7 +35,11 @@ public final class PaginationSupport {
             safeOffset = offset;
         }
 
-        return new PaginationRequest(safeLimit, safeOffset, safeLimit + 1);
+        if (cursor != null && safeOffset > 0) {
+            throw new IllegalArgumentException("cursor and offset cannot be combined");
+        }
+
+        return new PaginationRequest(safeLimit, safeOffset, safeLimit + 1, cursor);
     }
 
     public static Map<String, Object> response(final String collectionKey, final List<?> source,
@@ -51,6 +62,31 @@ public final class PaginationSupport {
         return payload;
     }
 
-    public record PaginationRequest(int limit, int offset, int fetchLimit) {
+    public static Map<String, Object> response(final String collectionKey, final CursorPage<?> source,
+            final PaginationRequest page) {
+        final boolean firstPage = page.cursor() == null;
+
+        final Map<String, Object> pagination = new LinkedHashMap<>();
+        pagination.put("limit", page.limit());
+        pagination.put("offset", firstPage ? 0 : null);
+        pagination.put("cursor", page.cursor());
+        pagination.put("returned", source.items().size());
+        pagination.put("hasMore", source.hasMore());
+        pagination.put("previousOffset", null);
+        pagination.put("nextOffset", firstPage && source.hasMore() ? page.limit() : null);
+        pagination.put("nextCursor", source.nextCursor());
+
+        final Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put(collectionKey, source.items());
+        payload.put("count", source.items().size());
+        payload.put("pagination", pagination);
+        return payload;
+    }
+
+    public record PaginationRequest(int limit, int offset, int fetchLimit, String cursor) {
+
+        public boolean keyset() {
+            return offset == 0;
+        }
     }
 }
@@ -0,0 +1,141 @@
+package com.rafex.housedb.handlers.support;
+
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+
+import dev.rafex.ether.http.jetty12.JettyMiddleware;
+
+/**
+ * Moves a resource's handling (JDBC, Kiwi calls, password hashing) off the Jetty thread onto a virtual thread per
+ * request, so a request waiting on I/O no longer holds a pooled platform thread. Concurrency is then bounded by the
+ * Hikari pool ({@code connectionTimeout}) and the password-hashing executor, not by the Jetty pool size.
+ *
+ * <p>
+ * Selected with {@code HOUSEDB_EXECUTION_MODE=virtual}; in the default {@code platform} mode {@link #wrap} returns
+ * the handler unchanged. Handlers complete the response through the callback, so the Jetty thread returns as soon
+ * as the virtual thread is started. Middlewares placed after this one, {@link GlowrootMiddleware} included, run on
+ * the virtual thread and see the handler's exceptions before {@link #run} turns them into an error response.
+ */
+public final class VirtualThreadDispatch implements JettyMiddleware, AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadDispatch.class.getName());
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService executor;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder inlineFallbacks = new LongAdder();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private VirtualThreadDispatch(final ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public static VirtualThreadDispatch fromEnv() {
+        final var mode = System.getenv().getOrDefault("HOUSEDB_EXECUTION_MODE", "platform").trim()
+                .toLowerCase(Locale.ROOT);
+        return switch (mode) {
+        case "virtual" -> new VirtualThreadDispatch(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("housedb-vt-", 0).factory()));
+        case "platform" -> new VirtualThreadDispatch(null);
+        default -> throw new IllegalArgumentException("HOUSEDB_EXECUTION_MODE must be platform or virtual: " + mode);
+        };
+    }
+
+    public boolean enabled() {
+        return executor != null;
+    }
+
+    @Override
+    public Handler wrap(final Handler next) {
+        if (!enabled()) {
+            return next;
+        }
+        return new Handler.Wrapper(next) {
+            @Override
+            public boolean handle(final Request request, final Response response, final Callback callback) {
+                try {
+                    executor.execute(() -> run(getHandler(), request, response, callback));
+                    dispatched.increment();
+                } catch (final RejectedExecutionException e) {
+                    // Only after close(); finish on the calling thread rather than dropping the request.
+                    inlineFallbacks.increment();
+                    run(getHandler(), request, response, callback);
+                }
+                return true;
+            }
+
+            @Override
+            public InvocationType getInvocationType() {
+                return InvocationType.NON_BLOCKING;
+            }
+        };
+    }
+
+    private void run(final Handler handler, final Request request, final Response response,
+            final Callback callback) {
+        inFlight.incrementAndGet();
+        try {
+            if (!handler.handle(request, response, callback)) {
+                Response.writeError(request, response, callback, 404);
+            }
+        } catch (final Throwable t) {
+            LOG.log(Level.SEVERE, "Unhandled error on virtual thread", t);
+            Response.writeError(request, response, callback, t);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting requests and waits for those still running on virtual threads to finish.
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warning("Virtual-thread requests still running after " + CLOSE_TIMEOUT_SECONDS
+                        + "s, interrupting " + inFlight.get());
+                executor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_execution_virtual_threads", "gauge",
+                "1 when request handling runs on virtual threads (HOUSEDB_EXECUTION_MODE=virtual).");
+        PrometheusText.sample(out, "housedb_execution_virtual_threads", "", enabled() ? 1 : 0);
+
+        PrometheusText.header(out, "housedb_vthread_requests_total", "counter",
+                "Requests dispatched to a virtual thread.");
+        PrometheusText.sample(out, "housedb_vthread_requests_total", "", dispatched.sum());
+
+        PrometheusText.header(out, "housedb_vthread_requests_in_flight", "gauge",
+                "Requests currently running on virtual threads.");
+        PrometheusText.sample(out, "housedb_vthread_requests_in_flight", "", inFlight.get());
+
+        PrometheusText.header(out, "housedb_vthread_inline_fallbacks_total", "counter",
+                "Requests handled on the Jetty thread because the virtual-thread executor was shut down.");
+        PrometheusText.sample(out, "housedb_vthread_inline_fallbacks_total", "", inlineFallbacks.sum());
+    }
+}
@@ -0,0 +1,78 @@
+package com.rafex.housedb.kiwi;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Request timeout for one Kiwi operation derived from its recent latency: the p99 of the last {@value #SAMPLES}
+ * responses times a multiplier, clamped to {@code [min, max]}. Until enough responses have been seen the timeout is
+ * {@code max}, so a cold start behaves like the old fixed timeout.
+ *
+ * <p>
+ * A timed-out call is recorded as a censored sample at the timeout it had, since its latency was at least that; so
+ * once timeouts are more than 1% of the window the p99 reaches the timeout and it grows by the multiplier. Not
+ * waiting for that, {@value #BACKOFF_AFTER_TIMEOUTS} timeouts in a row double the timeout toward {@code max}. The
+ * percentile is recomputed every {@value #RECOMPUTE_EVERY} samples rather than per call.
+ */
+final class AdaptiveTimeout {
+
+    private static final int SAMPLES = 256;
+    private static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 16;
+    private static final int BACKOFF_AFTER_TIMEOUTS = 3;
+
+    private final long minNanos;
+    private final long maxNanos;
+    private final int multiplier;
+
+    private final long[] samples = new long[SAMPLES];
+    private int next;
+    private int size;
+    private int sinceRecompute;
+    private int consecutiveTimeouts;
+    private volatile long currentNanos;
+
+    AdaptiveTimeout(final Duration min, final Duration max, final int multiplier) {
+        this.maxNanos = Math.max(1L, max.toNanos());
+        this.minNanos = Math.max(1L, Math.min(min.toNanos(), maxNanos));
+        this.multiplier = Math.max(1, multiplier);
+        this.currentNanos = maxNanos;
+    }
+
+    Duration current() {
+        return Duration.ofNanos(currentNanos);
+    }
+
+    Duration max() {
+        return Duration.ofNanos(maxNanos);
+    }
+
+    synchronized void record(final long latencyNanos) {
+        consecutiveTimeouts = 0;
+        add(latencyNanos);
+    }
+
+    synchronized void recordTimeout(final long timeoutNanos) {
+        add(timeoutNanos);
+        if (++consecutiveTimeouts >= BACKOFF_AFTER_TIMEOUTS) {
+            consecutiveTimeouts = 0;
+            currentNanos = currentNanos > maxNanos / 2 ? maxNanos : currentNanos * 2;
+        }
+    }
+
+    private void add(final long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % SAMPLES;
+        if (size < SAMPLES) {
+            size++;
+        }
+        if (++sinceRecompute >= RECOMPUTE_EVERY && size >= MIN_SAMPLES) {
+            sinceRecompute = 0;
+            final var sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            final long p99 = sorted[(int) Math.ceil(size * 0.99) - 1];
+            final long scaled = p99 > maxNanos / multiplier ? maxNanos : p99 * multiplier;
+            currentNanos = Math.max(minNanos, Math.min(maxNanos, scaled));
+        }
+    }
+}
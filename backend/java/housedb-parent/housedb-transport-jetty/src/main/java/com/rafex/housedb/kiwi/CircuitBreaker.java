@@ -0,0 +1,159 @@
+package com.rafex.housedb.kiwi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for one Kiwi operation. It opens when at least {@code failureRatePercent} of the last
+ * {@code windowSize} calls failed (once {@code minCalls} have been seen), rejects calls while open, and after
+ * {@code openDuration} lets a single probe through: success closes it, failure opens it again.
+ *
+ * <p>
+ * State changes are a few field writes under the monitor; nothing blocks while holding it.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    enum Permit {
+        REJECTED, CALL, PROBE
+    }
+
+    private final boolean[] window;
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    CircuitBreaker(final int windowSize, final int minCalls, final int failureRatePercent, final long openSeconds) {
+        this(windowSize, minCalls, failureRatePercent, openSeconds, System::nanoTime);
+    }
+
+    CircuitBreaker(final int windowSize, final int minCalls, final int failureRatePercent, final long openSeconds,
+            final LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minCalls = Math.max(1, Math.min(minCalls, window.length));
+        this.failureRatePercent = Math.max(1, Math.min(100, failureRatePercent));
+        this.openNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, openSeconds));
+    }
+
+    synchronized Permit tryAcquire() {
+        switch (state) {
+        case CLOSED:
+            return Permit.CALL;
+        case OPEN:
+            if (nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return Permit.PROBE;
+            }
+            break;
+        case HALF_OPEN:
+            if (!probeInFlight) {
+                probeInFlight = true;
+                return Permit.PROBE;
+            }
+            break;
+        }
+        rejected.increment();
+        return Permit.REJECTED;
+    }
+
+    /**
+     * Gives back a permit whose call never started (the bulkhead was full), so a probe slot is not lost.
+     */
+    synchronized void release(final Permit permit) {
+        if (permit == Permit.PROBE && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minCalls && failures * 100 >= failureRatePercent * recorded) {
+                open();
+            }
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Seconds until an open breaker lets a probe through, at least 1.
+     */
+    synchronized long retryAfterSeconds() {
+        if (state != State.OPEN) {
+            return 1;
+        }
+        final long remaining = openNanos - (nanoClock.getAsLong() - openedAtNanos);
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long opened() {
+        return opened.sum();
+    }
+
+    private void record(final boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAtNanos = nanoClock.getAsLong();
+        opened.increment();
+    }
+
+    private void reset(final State newState) {
+        state = newState;
+        probeInFlight = false;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -1,10 +1,17 @@
 package com.rafex.housedb.kiwi;
 
+import com.rafex.housedb.jfr.KiwiCallEvent;
+import com.rafex.housedb.metrics.LatencyHistogram;
+import com.rafex.housedb.metrics.PrometheusText;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -14,9 +21,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
 
 import dev.rafex.ether.json.JsonCodec;
 import dev.rafex.ether.json.JsonCodecBuilder;
@@ -25,6 +38,7 @@ public final class KiwiApiClient {
 
     private static final Logger LOG = Logger.getLogger(KiwiApiClient.class.getName());
 
+
     public static final class KiwiApiException extends RuntimeException {
 
         private static final long serialVersionUID = -6318062762215704910L;
@@ -41,21 +55,68 @@ public final class KiwiApiClient {
         }
     }
 
+    /**
+     * Kiwi was not called: its circuit breaker is open or too many Kiwi calls are already in flight. Callers that
+     * can do without Kiwi should degrade; the rest should answer 503 with {@link #retryAfterSeconds()}.
+     */
+    public static final class KiwiUnavailableException extends RuntimeException {
+
+        private static final long serialVersionUID = 4412379061728547011L;
+
+        private final long retryAfterSeconds;
+
+        KiwiUnavailableException(final String message, final long retryAfterSeconds) {
+            super(message, null, false, false);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long retryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * {@code idempotent} is false for creates: a timed-out create may still have happened, so they are given the
+     * maximum timeout rather than the adaptive one.
+     */
+    private enum Call {
+        CREATE_LOCATION("create_location", false),
+        GET_OBJECT("get_object", true),
+        CREATE_OBJECT("create_object", false),
+        ADMIN_LOGIN("admin_login", true),
+        CLIENT_TOKEN("client_token", true),
+        CREATE_APP_CLIENT("create_app_client", false);
+
+        private final String label;
+        private final boolean idempotent;
+
+        Call(final String label, final boolean idempotent) {
+            this.label = label;
+            this.idempotent = idempotent;
+        }
+    }
+
     private final HttpClient httpClient;
     private final String baseUrl;
     private final JsonCodec jsonCodec;
-    private volatile String cachedBearerToken;
-    private volatile Instant cachedBearerTokenExpiresAt;
+    private final LatencyHistogram[] callLatency = new LatencyHistogram[Call.values().length];
+    private final LongAdder[] callErrors = new LongAdder[Call.values().length];
+    private final CircuitBreaker[] breakers = new CircuitBreaker[Call.values().length];
+    private final AdaptiveTimeout[] timeouts = new AdaptiveTimeout[Call.values().length];
+    private final LongAdder[] callTimeouts = new LongAdder[Call.values().length];
+    private final int maxInFlight;
+    private final Semaphore bulkhead;
+    private final LongAdder bulkheadRejected = new LongAdder();
+    private final SingleFlight<UUID, byte[]> objectFetches = new SingleFlight<>();
+    private final SingleFlight<String, String> tokenRefreshes = new SingleFlight<>();
+    private volatile TokenData cachedToken;
 
     public KiwiApiClient() {
-        this(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build(),
-                System.getenv().getOrDefault("KIWI_API_BASE_URL", "https://kiwi.v1.rafex.cloud"),
-                JsonCodecBuilder.create().build());
+        this(JsonCodecBuilder.create().build());
     }
 
     public KiwiApiClient(final JsonCodec jsonCodec) {
-        this(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build(),
-                System.getenv().getOrDefault("KIWI_API_BASE_URL", "https://kiwi.v1.rafex.cloud"),
+        this(defaultHttpClient(), System.getenv().getOrDefault("KIWI_API_BASE_URL", "https://kiwi.v1.rafex.cloud"),
                 jsonCodec);
     }
 
@@ -67,15 +128,49 @@ public final class KiwiApiClient {
         this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
         this.baseUrl = Objects.requireNonNull(baseUrl, "baseUrl");
         this.jsonCodec = Objects.requireNonNull(jsonCodec, "jsonCodec");
+        final var minTimeout = Duration.ofMillis(longEnv("KIWI_TIMEOUT_MIN_MS", 1000));
+        final var maxTimeout = Duration.ofMillis(longEnv("KIWI_TIMEOUT_MAX_MS", 10_000));
+        final var timeoutMultiplier = (int) longEnv("KIWI_TIMEOUT_P99_MULTIPLIER", 3);
+        final var breakerWindow = (int) longEnv("KIWI_BREAKER_WINDOW", 20);
+        final var breakerMinCalls = (int) longEnv("KIWI_BREAKER_MIN_CALLS", 10);
+        final var breakerFailureRate = (int) longEnv("KIWI_BREAKER_FAILURE_RATE_PERCENT", 50);
+        final var breakerOpenSeconds = longEnv("KIWI_BREAKER_OPEN_SECONDS", 15);
+        for (int i = 0; i < callLatency.length; i++) {
+            callLatency[i] = new LatencyHistogram();
+            callErrors[i] = new LongAdder();
+            callTimeouts[i] = new LongAdder();
+            breakers[i] = new CircuitBreaker(breakerWindow, breakerMinCalls, breakerFailureRate, breakerOpenSeconds);
+            timeouts[i] = new AdaptiveTimeout(minTimeout, maxTimeout, timeoutMultiplier);
+        }
+        this.maxInFlight = (int) Math.max(1, longEnv("KIWI_MAX_IN_FLIGHT", 32));
+        this.bulkhead = new Semaphore(maxInFlight);
     }
 
-    public UUID createLocation(final String name, final UUID parentLocationId)
+    /**
+     * HTTP/2 with HTTP/1.1 fallback: over TLS, concurrent Kiwi calls share one multiplexed connection instead of
+     * opening one each. The HTTP/1.1 pool size and keep-alive are JVM-wide ({@code jdk.httpclient.connectionPoolSize},
+     * {@code jdk.httpclient.keepalive.timeout}) and are set by {@code start-housedb.sh}.
+     */
+    private static HttpClient defaultHttpClient() {
+        final var connectTimeoutMs = Long.parseLong(System.getenv().getOrDefault("KIWI_CONNECT_TIMEOUT_MS", "5000"));
+        return HttpClient.newBuilder().version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs)).build();
+    }
+
+    public UUID createLocation(final String name, final UUID parentLocationId, final UUID idempotencyKey)
             throws IOException, InterruptedException {
+        return await(createLocationAsync(name, parentLocationId, idempotencyKey));
+    }
+
+    /**
+     * {@code idempotencyKey}, when given, is sent as {@code Idempotency-Key} so that sending the same create again
+     * (after a timeout or a lost completion) returns the location Kiwi already made instead of a second one.
+     */
+    public CompletableFuture<UUID> createLocationAsync(final String name, final UUID parentLocationId,
+            final UUID idempotencyKey) {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("name is required");
         }
-        final var token = resolveBearerToken();
-
         final var endpoint = baseUrl.endsWith("/") ? baseUrl + "locations" : baseUrl + "/locations";
         final var payload = new LinkedHashMap<String, Object>();
         payload.put("name", name);
@@ -84,53 +179,83 @@ public final class KiwiApiClient {
         }
         final var body = jsonCodec.toJson(payload);
 
-        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint)).timeout(Duration.ofSeconds(10))
-                .header("Authorization", "Bearer " + token).header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
-
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            throw new KiwiApiException(response.statusCode(),
-                    "Kiwi API error creating location: HTTP " + response.statusCode());
-        }
+        return bearerToken().thenCompose(token -> {
+            final var request = createRequest(endpoint, token, body, idempotencyKey);
+            return sendAsync(Call.CREATE_LOCATION, request);
+        }).thenApply(response -> {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new KiwiApiException(response.statusCode(),
+                        "Kiwi API error creating location: HTTP " + response.statusCode());
+            }
+            return requiredId(response.body(), "location_id");
+        });
+    }
 
-        final var responseJson = jsonCodec.readTree(response.body());
-        final var locationId = responseJson.get("location_id");
-        if (locationId == null || locationId.asText().isBlank()) {
-            throw new IllegalStateException("Kiwi API response missing location_id");
+    private static HttpRequest createRequest(final String endpoint, final String token, final String body,
+            final UUID idempotencyKey) {
+        final var builder = HttpRequest.newBuilder().uri(URI.create(endpoint))
+                .header("Authorization", "Bearer " + token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey.toString());
         }
-        return UUID.fromString(locationId.asText());
+        return builder.build();
     }
 
     public JsonNode getObjectById(final UUID objectId) throws IOException, InterruptedException {
+        return await(getObjectByIdAsync(objectId));
+    }
+
+    public CompletableFuture<JsonNode> getObjectByIdAsync(final UUID objectId) {
+        return getObjectJsonAsync(objectId).thenApply(this::readTree);
+    }
+
+    /**
+     * Like {@link #getObjectByIdAsync} but returns the object exactly as Kiwi sent it, as UTF-8 JSON bytes. The body
+     * is checked to be a single well-formed JSON value, so it can be embedded in a response as is.
+     *
+     * <p>
+     * Concurrent calls for the same object share one request (several people opening the same shared house), so
+     * the returned array must be treated as read-only.
+     */
+    public CompletableFuture<byte[]> getObjectJsonAsync(final UUID objectId) {
         if (objectId == null) {
             throw new IllegalArgumentException("objectId is required");
         }
-        final var token = resolveBearerToken();
-
         final var endpointBase = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
         final var endpoint = endpointBase + "/objects/" + objectId;
 
-        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint)).timeout(Duration.ofSeconds(10))
-                .header("Authorization", "Bearer " + token).header("Accept", "application/json").GET().build();
-
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            throw new KiwiApiException(response.statusCode(),
-                    "Kiwi API error fetching object: HTTP " + response.statusCode());
-        }
-        return jsonCodec.readTree(response.body());
+        return objectFetches.execute(objectId, () -> bearerToken().thenCompose(token -> {
+            final var request = HttpRequest.newBuilder().uri(URI.create(endpoint))
+                    .header("Authorization", "Bearer " + token).header("Accept", "application/json").GET().build();
+            return sendAsync(Call.GET_OBJECT, request, this::rawJsonBody);
+        }).thenApply(response -> {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new KiwiApiException(response.statusCode(),
+                        "Kiwi API error fetching object: HTTP " + response.statusCode());
+            }
+            return response.body();
+        }));
     }
 
     public UUID createObject(final String name, final String description, final UUID locationId, final String type,
-            final Collection<String> tags, final Object metadata) throws IOException, InterruptedException {
+            final Collection<String> tags, final Object metadata, final UUID idempotencyKey)
+            throws IOException, InterruptedException {
+        return await(createObjectAsync(name, description, locationId, type, tags, metadata, idempotencyKey));
+    }
+
+    /**
+     * {@code idempotencyKey} works as in {@link #createLocationAsync}.
+     */
+    public CompletableFuture<UUID> createObjectAsync(final String name, final String description,
+            final UUID locationId, final String type, final Collection<String> tags, final Object metadata,
+            final UUID idempotencyKey) {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("name is required");
         }
         if (locationId == null) {
             throw new IllegalArgumentException("locationId is required");
         }
-        final var token = resolveBearerToken();
 
         final var endpoint = baseUrl.endsWith("/") ? baseUrl + "objects" : baseUrl + "/objects";
         final var payload = new LinkedHashMap<String, Object>();
@@ -162,22 +287,24 @@ public final class KiwiApiClient {
         }
 
         final var body = jsonCodec.toJson(payload);
-        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint)).timeout(Duration.ofSeconds(10))
-                .header("Authorization", "Bearer " + token).header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
-
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            throw new KiwiApiException(response.statusCode(),
-                    "Kiwi API error creating object: HTTP " + response.statusCode());
-        }
+        return bearerToken().thenCompose(token -> {
+            final var request = createRequest(endpoint, token, body, idempotencyKey);
+            return sendAsync(Call.CREATE_OBJECT, request);
+        }).thenApply(response -> {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new KiwiApiException(response.statusCode(),
+                        "Kiwi API error creating object: HTTP " + response.statusCode());
+            }
+            return requiredId(response.body(), "object_id");
+        });
+    }
 
-        final var responseJson = jsonCodec.readTree(response.body());
-        final var objectIdNode = responseJson.get("object_id");
-        if (objectIdNode == null || objectIdNode.asText().isBlank()) {
-            throw new IllegalStateException("Kiwi API response missing object_id");
-        }
-        return UUID.fromString(objectIdNode.asText());
+    /**
+     * Starts resolving the bearer token without waiting for it, so a Kiwi call issued after independent work (a DB
+     * lookup) does not pay for a token refresh on top of it. Failures are left for that later call to report.
+     */
+    public void prepare() {
+        bearerToken().exceptionally(e -> null);
     }
 
     public void bootstrapAppClientFromEnv() throws IOException, InterruptedException {
@@ -204,42 +331,41 @@ public final class KiwiApiClient {
         LOG.info("Kiwi app client bootstrap completed for client_id=" + clientId);
     }
 
-    private String resolveBearerToken() throws IOException, InterruptedException {
-        final var cached = cachedBearerToken;
-        final var expiresAt = cachedBearerTokenExpiresAt;
-        if (!isBlank(cached) && expiresAt != null && Instant.now().isBefore(expiresAt.minusSeconds(30))) {
-            return cached;
+    private CompletableFuture<String> bearerToken() {
+        final var cached = cachedToken;
+        if (cached != null && cached.isFresh()) {
+            return CompletableFuture.completedFuture(cached.token());
         }
 
         final var clientId = System.getenv("KIWI_APP_CLIENT_ID");
         final var clientSecret = System.getenv("KIWI_APP_CLIENT_SECRET");
         if (isBlank(clientId) || isBlank(clientSecret)) {
-            throw new IllegalStateException(
-                    "Missing Kiwi credentials: set KIWI_APP_CLIENT_ID + KIWI_APP_CLIENT_SECRET");
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Missing Kiwi credentials: set KIWI_APP_CLIENT_ID + KIWI_APP_CLIENT_SECRET"));
         }
 
-        synchronized (this) {
-            if (!isBlank(cachedBearerToken)
-                    && cachedBearerTokenExpiresAt != null
-                    && Instant.now().isBefore(cachedBearerTokenExpiresAt.minusSeconds(30))) {
-                return cachedBearerToken;
+        // Concurrent callers share one in-flight refresh instead of queueing behind it.
+        return tokenRefreshes.execute(clientId, () -> {
+            final var current = cachedToken;
+            if (current != null && current.isFresh()) {
+                return CompletableFuture.completedFuture(current.token());
             }
-            final var tokenData = requestClientCredentialsToken(clientId, clientSecret);
-            cachedBearerToken = tokenData.token();
-            cachedBearerTokenExpiresAt = tokenData.expiresAt();
-            return tokenData.token();
-        }
+            return requestClientCredentialsToken(clientId, clientSecret).thenApply(data -> {
+                cachedToken = data;
+                return data.token();
+            });
+        });
     }
 
     private String loginAdmin(final String username, final String password) throws IOException, InterruptedException {
         final var endpoint = baseUrl.endsWith("/") ? baseUrl + "auth/login" : baseUrl + "/auth/login";
         final var body = jsonCodec.toJson(Map.of("username", username, "password", password));
 
-        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint)).timeout(Duration.ofSeconds(10))
+        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint))
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(body)).build();
 
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        final var response = await(sendAsync(Call.ADMIN_LOGIN, request));
         if (response.statusCode() < 200 || response.statusCode() >= 300) {
             throw new KiwiApiException(response.statusCode(),
                     "Kiwi API admin login failed: HTTP " + response.statusCode());
@@ -247,27 +373,28 @@ public final class KiwiApiClient {
         return extractAccessToken(response.body(), "Kiwi API admin login");
     }
 
-    private TokenData requestClientCredentialsToken(final String clientId, final String clientSecret)
-            throws IOException, InterruptedException {
+    private CompletableFuture<TokenData> requestClientCredentialsToken(final String clientId,
+            final String clientSecret) {
         final var endpoint = baseUrl.endsWith("/") ? baseUrl + "auth/token" : baseUrl + "/auth/token";
         final var body = jsonCodec.toJson(Map.of(
                 "client_id", clientId,
                 "client_secret", clientSecret,
                 "grant_type", "client_credentials"));
 
-        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint)).timeout(Duration.ofSeconds(10))
+        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint))
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(body)).build();
 
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            throw new KiwiApiException(response.statusCode(),
-                    "Kiwi API client token failed: HTTP " + response.statusCode());
-        }
-        final var json = jsonCodec.readTree(response.body());
-        final var token = extractAccessToken(json, "Kiwi API client token");
-        final var expiresIn = json.path("expires_in").asLong(300);
-        return new TokenData(token, Instant.now().plusSeconds(Math.max(60, expiresIn)));
+        return sendAsync(Call.CLIENT_TOKEN, request).thenApply(response -> {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new KiwiApiException(response.statusCode(),
+                        "Kiwi API client token failed: HTTP " + response.statusCode());
+            }
+            final var json = response.body();
+            final var token = extractAccessToken(json, "Kiwi API client token");
+            final var expiresIn = json.path("expires_in").asLong(300);
+            return new TokenData(token, Instant.now().plusSeconds(Math.max(60, expiresIn)));
+        });
     }
 
     private void createAppClient(final String adminToken, final String clientId, final String clientSecret,
@@ -286,13 +413,13 @@ public final class KiwiApiClient {
         payload.put("name", name);
         payload.put("roles", List.copyOf(roles));
 
-        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint)).timeout(Duration.ofSeconds(10))
+        final var request = HttpRequest.newBuilder().uri(URI.create(endpoint))
                 .header("Authorization", "Bearer " + adminToken)
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(jsonCodec.toJson(payload)))
                 .build();
 
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        final var response = await(sendAsync(Call.CREATE_APP_CLIENT, request));
         if (response.statusCode() >= 200 && response.statusCode() < 300) {
             return;
         }
@@ -305,8 +432,233 @@ public final class KiwiApiClient {
                 "Kiwi API create app client failed: HTTP " + response.statusCode());
     }
 
-    private String extractAccessToken(final String body, final String context) throws IOException {
-        return extractAccessToken(jsonCodec.readTree(body), context);
+    /**
+     * Appends per-call latency histograms, error counters (transport failures and non-2xx responses) and how many
+     * object fetches and token refreshes were coalesced.
+     */
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_kiwi_request_duration_seconds", "histogram",
+                "Kiwi API call latency by operation.");
+        for (final var call : Call.values()) {
+            callLatency[call.ordinal()].appendTo(out, "housedb_kiwi_request_duration_seconds",
+                    PrometheusText.label("operation", call.label));
+        }
+        PrometheusText.header(out, "housedb_kiwi_request_errors_total", "counter",
+                "Kiwi API calls that failed or returned a non-2xx status.");
+        for (final var call : Call.values()) {
+            PrometheusText.sample(out, "housedb_kiwi_request_errors_total",
+                    PrometheusText.label("operation", call.label), callErrors[call.ordinal()].sum());
+        }
+        PrometheusText.header(out, "housedb_kiwi_request_timeouts_total", "counter",
+                "Kiwi calls that hit their adaptive timeout.");
+        for (final var call : Call.values()) {
+            PrometheusText.sample(out, "housedb_kiwi_request_timeouts_total",
+                    PrometheusText.label("operation", call.label), callTimeouts[call.ordinal()].sum());
+        }
+        PrometheusText.header(out, "housedb_kiwi_request_timeout_seconds", "gauge",
+                "Current adaptive timeout per Kiwi operation (p99 latency times the multiplier, clamped).");
+        for (final var call : Call.values()) {
+            PrometheusText.sample(out, "housedb_kiwi_request_timeout_seconds",
+                    PrometheusText.label("operation", call.label), timeouts[call.ordinal()].current().toNanos() / 1e9);
+        }
+        PrometheusText.header(out, "housedb_kiwi_circuit_state", "gauge",
+                "Kiwi circuit breaker state per operation: 0 closed, 1 half-open, 2 open.");
+        for (final var call : Call.values()) {
+            PrometheusText.sample(out, "housedb_kiwi_circuit_state", PrometheusText.label("operation", call.label),
+                    breakers[call.ordinal()].state().ordinal());
+        }
+        PrometheusText.header(out, "housedb_kiwi_circuit_opened_total", "counter",
+                "Times a Kiwi operation's circuit breaker opened.");
+        for (final var call : Call.values()) {
+            PrometheusText.sample(out, "housedb_kiwi_circuit_opened_total",
+                    PrometheusText.label("operation", call.label), breakers[call.ordinal()].opened());
+        }
+        PrometheusText.header(out, "housedb_kiwi_circuit_rejected_total", "counter",
+                "Kiwi calls rejected without being sent because the circuit was open.");
+        for (final var call : Call.values()) {
+            PrometheusText.sample(out, "housedb_kiwi_circuit_rejected_total",
+                    PrometheusText.label("operation", call.label), breakers[call.ordinal()].rejected());
+        }
+
+        PrometheusText.header(out, "housedb_kiwi_bulkhead_in_flight", "gauge", "Kiwi calls currently in flight.");
+        PrometheusText.sample(out, "housedb_kiwi_bulkhead_in_flight", "", maxInFlight - bulkhead.availablePermits());
+        PrometheusText.header(out, "housedb_kiwi_bulkhead_rejected_total", "counter",
+                "Kiwi calls rejected because KIWI_MAX_IN_FLIGHT calls were already in flight.");
+        PrometheusText.sample(out, "housedb_kiwi_bulkhead_rejected_total", "", bulkheadRejected.sum());
+
+        PrometheusText.header(out, "housedb_kiwi_singleflight_requests_total", "counter",
+                "Kiwi calls that started a request, or were coalesced onto one already in flight for the same key.");
+        appendSingleFlight(out, Call.GET_OBJECT, objectFetches);
+        appendSingleFlight(out, Call.CLIENT_TOKEN, tokenRefreshes);
+        PrometheusText.header(out, "housedb_kiwi_singleflight_in_flight", "gauge",
+                "Distinct keys with a shared Kiwi request in flight.");
+        PrometheusText.sample(out, "housedb_kiwi_singleflight_in_flight",
+                PrometheusText.label("operation", Call.GET_OBJECT.label), objectFetches.inFlight());
+        PrometheusText.sample(out, "housedb_kiwi_singleflight_in_flight",
+                PrometheusText.label("operation", Call.CLIENT_TOKEN.label), tokenRefreshes.inFlight());
+    }
+
+    private static void appendSingleFlight(final StringBuilder out, final Call call, final SingleFlight<?, ?> flight) {
+        PrometheusText.sample(out, "housedb_kiwi_singleflight_requests_total",
+                PrometheusText.labels("operation", call.label, "result", "started"), flight.started());
+        PrometheusText.sample(out, "housedb_kiwi_singleflight_requests_total",
+                PrometheusText.labels("operation", call.label, "result", "coalesced"), flight.coalesced());
+    }
+
+    /**
+     * Waits for a future returned by this client and rethrows its failure as the blocking API would: I/O errors as
+     * {@link IOException}, {@link KiwiApiException} and other runtime exceptions as themselves. Interrupting the
+     * waiting thread cancels the wait.
+     */
+    public static <T> T await(final CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (final ExecutionException e) {
+            var cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<JsonNode>> sendAsync(final Call call, final HttpRequest request) {
+        return sendAsync(call, request, this::jsonBody);
+    }
+
+    /**
+     * Sends through the operation's circuit breaker and the shared bulkhead, both of which fail fast with
+     * {@link KiwiUnavailableException} instead of queueing. The timeout is the operation's adaptive one, except for
+     * creates and for a half-open probe, which get the maximum: a create cut short may still have happened, and a
+     * Kiwi that recovered slower than before can still close the breaker. A call that times out is fed back to the
+     * adaptive timeout at the limit it had.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(final Call call, final HttpRequest request,
+            final HttpResponse.BodyHandler<T> handler) {
+        final var breaker = breakers[call.ordinal()];
+        final var permit = breaker.tryAcquire();
+        if (permit == CircuitBreaker.Permit.REJECTED) {
+            return CompletableFuture.failedFuture(new KiwiUnavailableException(
+                    "Kiwi " + call.label + " circuit open", breaker.retryAfterSeconds()));
+        }
+        if (!bulkhead.tryAcquire()) {
+            breaker.release(permit);
+            bulkheadRejected.increment();
+            return CompletableFuture.failedFuture(new KiwiUnavailableException(
+                    "Too many concurrent Kiwi calls (" + maxInFlight + ")", 1));
+        }
+
+        final var timeout = timeouts[call.ordinal()];
+        final var limit = permit == CircuitBreaker.Permit.PROBE || !call.idempotent ? timeout.max()
+                : timeout.current();
+        final var timed = HttpRequest.newBuilder(request, (name, value) -> true).timeout(limit).build();
+        final var event = new KiwiCallEvent();
+        event.begin();
+        final long started = System.nanoTime();
+        final CompletableFuture<HttpResponse<T>> sent;
+        try {
+            sent = httpClient.sendAsync(timed, handler);
+        } catch (final RuntimeException e) {
+            bulkhead.release();
+            breaker.release(permit);
+            throw e;
+        }
+        return sent.whenComplete((response, failure) -> {
+            bulkhead.release();
+            final long elapsed = System.nanoTime() - started;
+            final int status = response == null ? -1 : response.statusCode();
+            if (response != null) {
+                timeout.record(elapsed);
+            }
+            if (response == null || status >= 500 || status == 429) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            if (isTimeout(failure)) {
+                timeout.recordTimeout(limit.toNanos());
+                callTimeouts[call.ordinal()].increment();
+            }
+            callLatency[call.ordinal()].record(elapsed);
+            if (status < 200 || status >= 300) {
+                callErrors[call.ordinal()].increment();
+            }
+            event.finish(call.label, status);
+        });
+    }
+
+    private static boolean isTimeout(final Throwable failure) {
+        var cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof HttpTimeoutException;
+    }
+
+    /**
+     * Parses 2xx bodies straight from the received bytes; error bodies are drained unread since callers only look
+     * at the status.
+     */
+    private HttpResponse.BodySubscriber<JsonNode> jsonBody(final HttpResponse.ResponseInfo info) {
+        if (info.statusCode() < 200 || info.statusCode() >= 300) {
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                bytes -> bytes.length == 0 ? MissingNode.getInstance() : readTree(bytes));
+    }
+
+    /**
+     * Keeps 2xx bodies as bytes for the object cache; they are parsed once here, on a miss, so a truncated or
+     * non-JSON body is rejected before it is cached.
+     */
+    private HttpResponse.BodySubscriber<byte[]> rawJsonBody(final HttpResponse.ResponseInfo info) {
+        if (info.statusCode() < 200 || info.statusCode() >= 300) {
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+            if (bytes.length == 0) {
+                throw new UncheckedIOException(new IOException("Kiwi API returned an empty body"));
+            }
+            readTree(bytes);
+            return bytes;
+        });
+    }
+
+    /**
+     * Parses Kiwi bodies with the injected codec, so they follow the same Jackson configuration as the rest of the
+     * backend; malformed JSON surfaces as an {@link IOException} through {@link #await}.
+     */
+    private JsonNode readTree(final byte[] bytes) {
+        try {
+            return jsonCodec.readTree(new String(bytes, StandardCharsets.UTF_8));
+        } catch (final UncheckedIOException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new UncheckedIOException(new IOException("Kiwi API returned invalid JSON", e));
+        }
+    }
+
+    private static UUID requiredId(final JsonNode json, final String field) {
+        final var node = json.get(field);
+        if (node == null || node.asText().isBlank()) {
+            throw new IllegalStateException("Kiwi API response missing " + field);
+        }
+        return UUID.fromString(node.asText());
     }
 
     private static String extractAccessToken(final JsonNode json, final String context) {
@@ -321,10 +673,26 @@ public final class KiwiApiClient {
         throw new IllegalStateException(context + " response missing access_token");
     }
 
+    private static long longEnv(final String key, final long def) {
+        final var raw = System.getenv(key);
+        if (raw == null || raw.isBlank()) {
+            return def;
+        }
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (final NumberFormatException e) {
+            return def;
+        }
+    }
+
     private static boolean isBlank(final String value) {
         return value == null || value.isBlank();
     }
 
     private record TokenData(String token, Instant expiresAt) {
+
+        boolean isFresh() {
+            return Instant.now().isBefore(expiresAt.minusSeconds(30));
+        }
     }
 }
@@ -0,0 +1,379 @@
+package com.rafex.housedb.kiwi;
+
+import com.rafex.housedb.metrics.PrometheusText;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Kiwi object bodies for item detail, kept as the raw UTF-8 JSON Kiwi returned in direct buffers outside the heap,
+ * so the handler can write them into its response without parsing and re-serializing.
+ *
+ * <p>
+ * The direct memory is one arena of {@code HOUSEDB_KIWI_CACHE_MAX_BYTES} allocated up front and split into fixed
+ * slabs; a body takes as many slabs as it needs and gives them back when it is replaced or swept. Nothing is
+ * allocated per fetch, so refresh churn neither grows direct memory nor waits on the GC to free it. Callers get a
+ * {@link Body} lease and must {@link Body#release} it once the bytes are written: a replaced body's slabs are reused
+ * only after its last lease is released.
+ *
+ * <p>
+ * An entry is fresh for the TTL. For the stale window after that it is still served while one background fetch
+ * replaces it; past the window the caller waits for a fetch. A 404 is cached as "not found" for the negative TTL.
+ * Other failures are never cached, and a failed background fetch leaves the stale entry in place.
+ *
+ * <p>
+ * The cache is bounded by total body bytes: when it is full, expired entries are swept and, if that is not enough,
+ * the new body is returned to the caller without being cached.
+ */
+public final class KiwiObjectCache {
+
+    private static final Logger LOG = Logger.getLogger(KiwiObjectCache.class.getName());
+
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    private static final int DEFAULT_TTL_SECONDS = 60;
+    private static final int DEFAULT_STALE_SECONDS = 300;
+    private static final int DEFAULT_NEGATIVE_TTL_SECONDS = 30;
+    private static final int MAX_OBJECT_BYTES = 256 * 1024;
+    private static final int SLAB_BYTES = 4 * 1024;
+
+    private final KiwiApiClient kiwiApiClient;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final long negativeTtlNanos;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ByteBuffer> freeSlabs = new ConcurrentLinkedQueue<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder refreshFailed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public KiwiObjectCache(final KiwiApiClient kiwiApiClient, final long maxBytes, final long ttlSeconds,
+            final long staleSeconds, final long negativeTtlSeconds) {
+        this.kiwiApiClient = kiwiApiClient;
+        final long slabs = ttlSeconds > 0 ? Math.min(Math.max(0L, maxBytes), Integer.MAX_VALUE) / SLAB_BYTES : 0L;
+        this.maxBytes = slabs * SLAB_BYTES;
+        if (slabs > 0) {
+            final var arena = ByteBuffer.allocateDirect((int) this.maxBytes);
+            for (int i = 0; i < slabs; i++) {
+                freeSlabs.add(arena.slice(i * SLAB_BYTES, SLAB_BYTES));
+            }
+        }
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0L, ttlSeconds));
+        this.staleNanos = TimeUnit.SECONDS.toNanos(Math.max(0L, staleSeconds));
+        this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0L, negativeTtlSeconds));
+    }
+
+    public static KiwiObjectCache fromEnv(final KiwiApiClient kiwiApiClient) {
+        return new KiwiObjectCache(kiwiApiClient, longEnv("HOUSEDB_KIWI_CACHE_MAX_BYTES", DEFAULT_MAX_BYTES),
+                longEnv("HOUSEDB_KIWI_CACHE_TTL_SECONDS", DEFAULT_TTL_SECONDS),
+                longEnv("HOUSEDB_KIWI_CACHE_STALE_SECONDS", DEFAULT_STALE_SECONDS),
+                longEnv("HOUSEDB_KIWI_CACHE_NEGATIVE_TTL_SECONDS", DEFAULT_NEGATIVE_TTL_SECONDS));
+    }
+
+    public boolean enabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * The object's JSON, or {@code null} if Kiwi answered 404. Other Kiwi failures complete the future exceptionally,
+     * as {@link KiwiApiClient#getObjectJsonAsync} does.
+     */
+    public CompletableFuture<Body> get(final UUID objectId) {
+        if (!enabled()) {
+            return load(objectId);
+        }
+        final var entry = entries.get(objectId);
+        if (entry != null) {
+            final long now = System.nanoTime();
+            if (now - entry.freshUntilNanos() < 0) {
+                if (entry.slabs() == null) {
+                    negativeHits.increment();
+                    return CompletableFuture.completedFuture(null);
+                }
+                if (entry.retain()) {
+                    hits.increment();
+                    return CompletableFuture.completedFuture(lease(entry));
+                }
+            } else if (entry.slabs() != null && now - entry.staleUntilNanos() < 0 && entry.retain()) {
+                staleHits.increment();
+                refreshInBackground(objectId, entry);
+                return CompletableFuture.completedFuture(lease(entry));
+            }
+        }
+        misses.increment();
+        return load(objectId);
+    }
+
+    private CompletableFuture<Body> load(final UUID objectId) {
+        return kiwiApiClient.getObjectJsonAsync(objectId).handle((bytes, failure) -> {
+            if (failure == null) {
+                return store(objectId, bytes);
+            }
+            if (isNotFound(failure)) {
+                storeNotFound(objectId);
+                return null;
+            }
+            throw failure instanceof CompletionException ce ? ce : new CompletionException(failure);
+        });
+    }
+
+    private void refreshInBackground(final UUID objectId, final Entry stale) {
+        if (!stale.refreshing().compareAndSet(false, true)) {
+            return;
+        }
+        kiwiApiClient.getObjectJsonAsync(objectId).whenComplete((bytes, failure) -> {
+            if (failure == null) {
+                final var entry = enabled() ? copyIn(bytes) : null;
+                if (entry != null) {
+                    replace(objectId, entry);
+                } else if (entries.remove(objectId, stale)) {
+                    // The new body cannot be cached; drop the outdated one rather than serve it until it expires.
+                    release(stale);
+                }
+                refreshed.increment();
+            } else if (isNotFound(failure)) {
+                storeNotFound(objectId);
+                refreshed.increment();
+            } else {
+                refreshFailed.increment();
+                stale.refreshing().set(false);
+                LOG.log(Level.FINE, "Background refresh of Kiwi object " + objectId + " failed", failure);
+            }
+        });
+    }
+
+    /**
+     * Caches {@code json} and returns a lease on it, or an on-heap body when it cannot be cached.
+     */
+    private Body store(final UUID objectId, final byte[] json) {
+        final var entry = enabled() ? copyIn(json) : null;
+        if (entry == null) {
+            return Body.onHeap(json);
+        }
+        // Retained before it is published, so a concurrent replace cannot hand its slabs out under the caller.
+        entry.retain();
+        final var body = lease(entry);
+        replace(objectId, entry);
+        return body;
+    }
+
+    /**
+     * Copies {@code json} into slabs, or returns null when it is too large or the arena is full.
+     */
+    private Entry copyIn(final byte[] json) {
+        final var slabs = json.length > MAX_OBJECT_BYTES ? null : takeSlabs(json.length);
+        if (slabs == null) {
+            rejected.increment();
+            return null;
+        }
+        for (int i = 0, offset = 0; i < slabs.length; i++, offset += SLAB_BYTES) {
+            slabs[i].clear().put(json, offset, Math.min(SLAB_BYTES, json.length - offset)).flip();
+        }
+        final long now = System.nanoTime();
+        return new Entry(slabs, json.length, now + ttlNanos, now + ttlNanos + staleNanos, new AtomicBoolean(),
+                new AtomicInteger(1));
+    }
+
+    private void storeNotFound(final UUID objectId) {
+        if (!enabled() || negativeTtlNanos == 0) {
+            return;
+        }
+        final long until = System.nanoTime() + negativeTtlNanos;
+        replace(objectId, new Entry(null, 0, until, until, new AtomicBoolean(), new AtomicInteger(1)));
+    }
+
+    private void replace(final UUID objectId, final Entry entry) {
+        final var previous = entries.put(objectId, entry);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    /** Wraps a reference already taken with {@link Entry#retain}. */
+    private Body lease(final Entry entry) {
+        final var views = new ByteBuffer[entry.slabs().length];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = entry.slabs()[i].asReadOnlyBuffer();
+        }
+        return new Body(views, entry.length(), this, entry);
+    }
+
+    private ByteBuffer[] takeSlabs(final int size) {
+        final var slabs = new ByteBuffer[Math.max(1, (size + SLAB_BYTES - 1) / SLAB_BYTES)];
+        if (pollSlabs(slabs)) {
+            return slabs;
+        }
+        sweep();
+        return pollSlabs(slabs) ? slabs : null;
+    }
+
+    private boolean pollSlabs(final ByteBuffer[] slabs) {
+        for (int i = 0; i < slabs.length; i++) {
+            slabs[i] = freeSlabs.poll();
+            if (slabs[i] == null) {
+                for (int j = 0; j < i; j++) {
+                    freeSlabs.add(slabs[j]);
+                }
+                return false;
+            }
+        }
+        usedBytes.addAndGet((long) slabs.length * SLAB_BYTES);
+        return true;
+    }
+
+    private void release(final Entry entry) {
+        if (entry.refs().decrementAndGet() == 0 && entry.slabs() != null) {
+            usedBytes.addAndGet(-(long) entry.slabs().length * SLAB_BYTES);
+            for (final var slab : entry.slabs()) {
+                freeSlabs.add(slab);
+            }
+        }
+    }
+
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long now = System.nanoTime();
+            entries.forEach((id, e) -> {
+                if (now - e.staleUntilNanos() >= 0 && entries.remove(id, e)) {
+                    release(e);
+                }
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static boolean isNotFound(final Throwable failure) {
+        var cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof KiwiApiClient.KiwiApiException e && e.statusCode() == 404;
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_kiwi_object_cache_requests_total", "counter",
+                "Kiwi object lookups in the item-detail cache.");
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_requests_total", PrometheusText.label("result", "hit"),
+                hits.sum());
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_requests_total", PrometheusText.label("result", "stale"),
+                staleHits.sum());
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_requests_total",
+                PrometheusText.label("result", "negative_hit"), negativeHits.sum());
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_requests_total", PrometheusText.label("result", "miss"),
+                misses.sum());
+
+        PrometheusText.header(out, "housedb_kiwi_object_cache_refreshes_total", "counter",
+                "Background refreshes of stale Kiwi objects.");
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_refreshes_total", PrometheusText.label("outcome", "ok"),
+                refreshed.sum());
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_refreshes_total",
+                PrometheusText.label("outcome", "failed"), refreshFailed.sum());
+
+        PrometheusText.header(out, "housedb_kiwi_object_cache_rejected_total", "counter",
+                "Kiwi object bodies not cached because they were too large or the cache was full.");
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_rejected_total", "", rejected.sum());
+
+        PrometheusText.header(out, "housedb_kiwi_object_cache_entries", "gauge",
+                "Entries in the Kiwi object cache, including cached 404s.");
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_entries", "", entries.size());
+
+        PrometheusText.header(out, "housedb_kiwi_object_cache_bytes", "gauge",
+                "Bytes of the off-heap arena in slabs held by cached or still-leased Kiwi object bodies.");
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_bytes", "", usedBytes.get());
+
+        PrometheusText.header(out, "housedb_kiwi_object_cache_arena_bytes", "gauge",
+                "Size of the off-heap arena reserved at startup (HOUSEDB_KIWI_CACHE_MAX_BYTES rounded to slabs).");
+        PrometheusText.sample(out, "housedb_kiwi_object_cache_arena_bytes", "", maxBytes);
+    }
+
+    private static long longEnv(final String key, final long def) {
+        final var raw = System.getenv(key);
+        if (raw == null || raw.isBlank()) {
+            return def;
+        }
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (final NumberFormatException e) {
+            return def;
+        }
+    }
+
+    /**
+     * A leased Kiwi object body: read-only buffers that together hold the JSON, in order. Each lease gets its own
+     * buffers, to be written once. {@link #release} is idempotent.
+     */
+    public static final class Body {
+
+        private final ByteBuffer[] buffers;
+        private final int length;
+        private final KiwiObjectCache cache;
+        private final Entry entry;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Body(final ByteBuffer[] buffers, final int length, final KiwiObjectCache cache, final Entry entry) {
+            this.buffers = buffers;
+            this.length = length;
+            this.cache = cache;
+            this.entry = entry;
+        }
+
+        static Body onHeap(final byte[] json) {
+            return new Body(new ByteBuffer[] { ByteBuffer.wrap(json).asReadOnlyBuffer() }, json.length, null, null);
+        }
+
+        public ByteBuffer[] buffers() {
+            return buffers;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public void release() {
+            if (entry != null && released.compareAndSet(false, true)) {
+                cache.release(entry);
+            }
+        }
+    }
+
+    /**
+     * {@code slabs} is {@code null} for a cached 404. {@code refs} counts the cache's own reference plus one per
+     * outstanding lease; the slabs go back to the free list when it drops to zero. {@code refreshing} makes sure one
+     * stale entry triggers at most one background fetch.
+     */
+    private record Entry(ByteBuffer[] slabs, int length, long freshUntilNanos, long staleUntilNanos,
+            AtomicBoolean refreshing, AtomicInteger refs) {
+
+        boolean retain() {
+            for (int r = refs.get(); r > 0; r = refs.get()) {
+                if (refs.compareAndSet(r, r + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
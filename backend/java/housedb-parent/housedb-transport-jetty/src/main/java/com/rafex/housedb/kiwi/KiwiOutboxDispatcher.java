@@ -0,0 +1,403 @@
+package com.rafex.housedb.kiwi;
+
+import com.rafex.housedb.metrics.PrometheusText;
+import com.rafex.housedb.repository.KiwiOutboxRepository;
+import com.rafex.housedb.repository.KiwiOutboxRepository.OutboxEntry;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import dev.rafex.ether.json.JsonCodec;
+
+/**
+ * Sends the Kiwi writes queued in {@code kiwi_outbox} by item and location creation. A virtual thread claims a batch
+ * of due entries with {@code FOR UPDATE SKIP LOCKED} (so several instances can run side by side), makes the Kiwi
+ * calls of the batch concurrently on virtual threads, and records each Kiwi id locally. It polls every
+ * {@code pollInterval} and is woken early by {@link #wakeUp()} after a local commit.
+ *
+ * <p>
+ * Outcomes: a 5xx, 429 or I/O failure is retried with exponential backoff and jitter until {@code maxAttempts}
+ * claims; any other 4xx (or an unusable payload) fails the entry at once. A failed location also fails the entries
+ * waiting on it as blocked; {@link #requeue} puts such a group back once the cause is fixed. A call Kiwi shed
+ * (breaker open, bulkhead full) is put back after the advertised retry-after without counting as an attempt.
+ * Delivery is at-least-once: a timed-out call is retried, and if the completion cannot be written after Kiwi
+ * answered, the entry is sent again when its lease expires. Every send carries the entry's {@code aggregate_id} as
+ * {@code Idempotency-Key}, so Kiwi answers such a replay with the entity it already created instead of making a
+ * duplicate.
+ */
+public final class KiwiOutboxDispatcher implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(KiwiOutboxDispatcher.class.getName());
+
+    private static final String CREATE_OBJECT = "create_object";
+    private static final String CREATE_LOCATION = "create_location";
+
+    private static final int DEFAULT_BATCH_SIZE = 10;
+    private static final int DEFAULT_POLL_MS = 1000;
+    private static final int DEFAULT_LEASE_SECONDS = 60;
+    private static final int DEFAULT_MAX_ATTEMPTS = 20;
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 300_000;
+    private static final long BACKLOG_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private enum Outcome {
+        SENT("sent"), RETRIED("retried"), RELEASED("released"), FAILED("failed");
+
+        private final String label;
+
+        Outcome(final String label) {
+            this.label = label;
+        }
+    }
+
+    private static final List<String> OPERATIONS = List.of(CREATE_OBJECT, CREATE_LOCATION);
+
+    private final KiwiApiClient kiwiApiClient;
+    private final KiwiOutboxRepository repository;
+    private final JsonCodec jsonCodec;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final LongAdder[][] outcomes = new LongAdder[OPERATIONS.size()][Outcome.values().length];
+    private final LongAdder claimErrors = new LongAdder();
+    private volatile KiwiOutboxRepository.OutboxBacklog backlog;
+    private long backlogRefreshedAtNanos;
+
+    private volatile boolean running;
+    private Thread loop;
+
+    public KiwiOutboxDispatcher(final KiwiApiClient kiwiApiClient, final KiwiOutboxRepository repository,
+            final JsonCodec jsonCodec, final int batchSize, final Duration pollInterval, final Duration lease,
+            final int maxAttempts) {
+        this.kiwiApiClient = Objects.requireNonNull(kiwiApiClient, "kiwiApiClient");
+        this.repository = Objects.requireNonNull(repository, "repository");
+        this.jsonCodec = Objects.requireNonNull(jsonCodec, "jsonCodec");
+        this.batchSize = Math.max(1, batchSize);
+        this.pollInterval = pollInterval.toMillis() < 10 ? Duration.ofMillis(10) : pollInterval;
+        this.lease = lease.toSeconds() < 1 ? Duration.ofSeconds(1) : lease;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        for (final var perOperation : outcomes) {
+            for (int i = 0; i < perOperation.length; i++) {
+                perOperation[i] = new LongAdder();
+            }
+        }
+    }
+
+    public static KiwiOutboxDispatcher fromEnv(final KiwiApiClient kiwiApiClient,
+            final KiwiOutboxRepository repository, final JsonCodec jsonCodec) {
+        return new KiwiOutboxDispatcher(kiwiApiClient, repository, jsonCodec,
+                intEnv("HOUSEDB_KIWI_OUTBOX_BATCH_SIZE", DEFAULT_BATCH_SIZE),
+                Duration.ofMillis(intEnv("HOUSEDB_KIWI_OUTBOX_POLL_MS", DEFAULT_POLL_MS)),
+                Duration.ofSeconds(intEnv("HOUSEDB_KIWI_OUTBOX_LEASE_SECONDS", DEFAULT_LEASE_SECONDS)),
+                intEnv("HOUSEDB_KIWI_OUTBOX_MAX_ATTEMPTS", DEFAULT_MAX_ATTEMPTS));
+    }
+
+    public synchronized void start() {
+        if (loop != null) {
+            return;
+        }
+        running = true;
+        loop = Thread.ofVirtual().name("housedb-kiwi-outbox").start(this::run);
+    }
+
+    /**
+     * Asks the loop to claim now instead of at the next poll. Cheap and safe to call from request threads.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = dispatchBatch();
+            } catch (final SQLException | RuntimeException e) {
+                claimErrors.increment();
+                LOG.log(Level.WARNING, "Could not claim Kiwi outbox entries; retrying on next poll", e);
+            }
+            refreshBacklogIfDue();
+            if (claimed < batchSize) {
+                try {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                } catch (final InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims one batch and waits until every entry in it has been sent or rescheduled.
+     */
+    int dispatchBatch() throws SQLException {
+        final var entries = repository.claim(batchSize, lease);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (final var entry : entries) {
+                executor.execute(() -> dispatch(entry));
+            }
+        }
+        return entries.size();
+    }
+
+    private void dispatch(final OutboxEntry entry) {
+        final UUID kiwiId;
+        try {
+            kiwiId = send(entry);
+        } catch (final KiwiApiClient.KiwiUnavailableException e) {
+            reschedule(entry, Outcome.RELEASED, Duration.ofSeconds(e.retryAfterSeconds()), null);
+            return;
+        } catch (final KiwiApiClient.KiwiApiException e) {
+            if (e.statusCode() >= 500 || e.statusCode() == 429) {
+                retryOrFail(entry, e);
+            } else {
+                reschedule(entry, Outcome.FAILED, Duration.ZERO, e);
+            }
+            return;
+        } catch (final IOException e) {
+            retryOrFail(entry, e);
+            return;
+        } catch (final InterruptedException e) {
+            // Shutting down; the lease expires and another claim picks the entry up.
+            Thread.currentThread().interrupt();
+            return;
+        } catch (final IllegalArgumentException e) {
+            reschedule(entry, Outcome.FAILED, Duration.ZERO, e);
+            return;
+        } catch (final RuntimeException e) {
+            retryOrFail(entry, e);
+            return;
+        }
+
+        try {
+            repository.complete(entry.outboxId(), kiwiId,
+                    CREATE_LOCATION.equals(entry.operation()) ? entry.dependsOnKiwiLocationId() : null);
+            count(entry, Outcome.SENT);
+        } catch (final SQLException | RuntimeException e) {
+            // Kiwi has the entity but we could not record it; the replay after the lease sends the same key.
+            LOG.log(Level.WARNING, "Kiwi " + entry.operation() + " for " + entry.aggregateId() + " succeeded as "
+                    + kiwiId + " but could not be recorded; it will be sent again", e);
+        }
+    }
+
+    private UUID send(final OutboxEntry entry) throws IOException, InterruptedException {
+        final JsonNode payload;
+        try {
+            payload = jsonCodec.readTree(entry.payloadJson());
+        } catch (final RuntimeException e) {
+            throw new IllegalArgumentException("invalid outbox payload", e);
+        }
+        return switch (entry.operation()) {
+        case CREATE_LOCATION -> kiwiApiClient.createLocation(text(payload, "name"), entry.dependsOnKiwiLocationId(),
+                entry.aggregateId());
+        case CREATE_OBJECT -> kiwiApiClient.createObject(text(payload, "name"), text(payload, "description"),
+                entry.dependsOnKiwiLocationId(), text(payload, "type"), tags(payload), metadata(payload),
+                entry.aggregateId());
+        default -> throw new IllegalArgumentException("unknown outbox operation " + entry.operation());
+        };
+    }
+
+    private void retryOrFail(final OutboxEntry entry, final Exception failure) {
+        if (entry.attempts() >= maxAttempts) {
+            reschedule(entry, Outcome.FAILED, Duration.ZERO, failure);
+            return;
+        }
+        reschedule(entry, Outcome.RETRIED, backoff(entry.attempts()), failure);
+    }
+
+    private void reschedule(final OutboxEntry entry, final Outcome outcome, final Duration delay,
+            final Exception failure) {
+        final var error = failure == null ? null : failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        int blocked = 0;
+        try {
+            switch (outcome) {
+            case RELEASED -> repository.release(entry.outboxId(), delay);
+            case FAILED -> blocked = repository.fail(entry.outboxId(), error);
+            default -> repository.retry(entry.outboxId(), delay, error);
+            }
+            count(entry, outcome);
+        } catch (final SQLException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Could not reschedule Kiwi outbox entry " + entry.outboxId()
+                    + "; it is retried when its lease expires", e);
+        }
+        if (outcome == Outcome.FAILED) {
+            LOG.log(Level.WARNING, "Kiwi " + entry.operation() + " for " + entry.aggregateId() + " failed after "
+                    + entry.attempts() + " attempt(s): " + error
+                    + (blocked > 0 ? "; " + blocked + " dependent entries blocked" : ""));
+        } else if (failure != null) {
+            LOG.log(Level.FINE, "Kiwi " + entry.operation() + " for " + entry.aggregateId() + " retried in " + delay,
+                    failure);
+        }
+    }
+
+    /**
+     * Exponential backoff from {@value #BASE_BACKOFF_MILLIS} ms capped at {@value #MAX_BACKOFF_MILLIS} ms, with the
+     * upper half jittered so entries that failed together do not come back together.
+     */
+    static Duration backoff(final int attempts) {
+        final int exponent = Math.max(0, Math.min(attempts - 1, 20));
+        final long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << exponent);
+        final long half = ceiling / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    /**
+     * Whether the Kiwi object for local object {@code objectId} is still queued.
+     */
+    public boolean objectPending(final UUID objectId) throws SQLException {
+        return repository.pending(CREATE_OBJECT, objectId);
+    }
+
+    /**
+     * Failed and blocked entries, newest first, for operators to inspect before requeueing.
+     */
+    public List<KiwiOutboxRepository.FailedEntry> failed(final int limit) throws SQLException {
+        return repository.failed(limit);
+    }
+
+    /**
+     * Puts the failed group of {@code outboxId} back to pending and claims it right away.
+     *
+     * @return how many entries were requeued, 0 if {@code outboxId} is not failed
+     */
+    public int requeue(final long outboxId) throws SQLException {
+        final int requeued = repository.requeue(outboxId);
+        if (requeued > 0) {
+            wakeUp();
+        }
+        return requeued;
+    }
+
+    private void count(final OutboxEntry entry, final Outcome outcome) {
+        final int operation = OPERATIONS.indexOf(entry.operation());
+        if (operation >= 0) {
+            outcomes[operation][outcome.ordinal()].increment();
+        }
+    }
+
+    private void refreshBacklogIfDue() {
+        final long now = System.nanoTime();
+        if (backlog != null && now - backlogRefreshedAtNanos < BACKLOG_REFRESH_NANOS) {
+            return;
+        }
+        backlogRefreshedAtNanos = now;
+        try {
+            backlog = repository.backlog();
+        } catch (final SQLException | RuntimeException e) {
+            LOG.log(Level.FINE, "Could not read Kiwi outbox backlog", e);
+        }
+    }
+
+    private static String text(final JsonNode node, final String field) {
+        final var value = node == null ? null : node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static List<String> tags(final JsonNode node) {
+        final var value = node == null ? null : node.get("tags");
+        if (value == null || !value.isArray()) {
+            return List.of();
+        }
+        final var tags = new ArrayList<String>(value.size());
+        for (final var tag : value) {
+            if (tag.isTextual()) {
+                tags.add(tag.asText());
+            }
+        }
+        return tags;
+    }
+
+    private static JsonNode metadata(final JsonNode node) {
+        final var value = node == null ? null : node.get("metadata");
+        return value == null || value.isNull() ? null : value;
+    }
+
+    public void appendMetrics(final StringBuilder out) {
+        PrometheusText.header(out, "housedb_kiwi_outbox_dispatched_total", "counter",
+                "Kiwi outbox entries handled by this instance, by operation and outcome.");
+        for (int op = 0; op < OPERATIONS.size(); op++) {
+            for (final var outcome : Outcome.values()) {
+                PrometheusText.sample(out, "housedb_kiwi_outbox_dispatched_total",
+                        PrometheusText.labels("operation", OPERATIONS.get(op), "outcome", outcome.label),
+                        outcomes[op][outcome.ordinal()].sum());
+            }
+        }
+
+        PrometheusText.header(out, "housedb_kiwi_outbox_claim_errors_total", "counter",
+                "Failed attempts to claim Kiwi outbox entries.");
+        PrometheusText.sample(out, "housedb_kiwi_outbox_claim_errors_total", "", claimErrors.sum());
+
+        final var snapshot = backlog;
+        if (snapshot == null) {
+            return;
+        }
+        PrometheusText.header(out, "housedb_kiwi_outbox_entries", "gauge",
+                "Kiwi outbox entries not yet done, by status; blocked ones wait on a failed location "
+                        + "(refreshed every 15s).");
+        PrometheusText.sample(out, "housedb_kiwi_outbox_entries", PrometheusText.label("status", "pending"),
+                snapshot.pending());
+        PrometheusText.sample(out, "housedb_kiwi_outbox_entries", PrometheusText.label("status", "failed"),
+                snapshot.failed());
+        PrometheusText.sample(out, "housedb_kiwi_outbox_entries", PrometheusText.label("status", "blocked"),
+                snapshot.blocked());
+
+        PrometheusText.header(out, "housedb_kiwi_outbox_oldest_pending_age_seconds", "gauge",
+                "Age of the oldest pending Kiwi outbox entry (refreshed every 15s).");
+        PrometheusText.sample(out, "housedb_kiwi_outbox_oldest_pending_age_seconds", "",
+                snapshot.oldestPendingAgeSeconds());
+    }
+
+    @Override
+    public void close() {
+        final Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = loop;
+            loop = null;
+        }
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int intEnv(final String key, final int def) {
+        final var raw = System.getenv(key);
+        if (raw == null || raw.isBlank()) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(raw.trim());
+        } catch (final NumberFormatException e) {
+            return def;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.rafex.housedb.kiwi;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller starts the call, callers arriving while it is in
+ * flight get its result instead of starting their own. The key is released before the result is published, so a
+ * caller arriving after completion always starts a fresh call; nothing is cached.
+ *
+ * <p>
+ * Each caller receives its own copy of the shared future, so one caller cancelling (an interrupted wait) does not
+ * cancel the call for the others.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    CompletableFuture<V> execute(final K key, final Supplier<CompletableFuture<V>> call) {
+        final var shared = new CompletableFuture<V>();
+        final var existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+        started.increment();
+        try {
+            call.get().whenComplete((value, failure) -> {
+                inFlight.remove(key, shared);
+                if (failure != null) {
+                    shared.completeExceptionally(failure);
+                } else {
+                    shared.complete(value);
+                }
+            });
+        } catch (final RuntimeException e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    long started() {
+        return started.sum();
+    }
+
+    long coalesced() {
+        return coalesced.sum();
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
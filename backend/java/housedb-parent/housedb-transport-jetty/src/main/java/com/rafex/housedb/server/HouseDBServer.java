@@ -1,20 +1,31 @@
 package com.rafex.housedb.server;
 
 import com.rafex.housedb.bootstrap.HouseDbContainer;
+import com.rafex.housedb.db.PoolMetrics;
 import com.rafex.housedb.handlers.AuthRouterHandler;
 import com.rafex.housedb.handlers.HealthHandler;
 import com.rafex.housedb.handlers.HelloHandler;
+import com.rafex.housedb.handlers.MetricsHandler;
+import com.rafex.housedb.handlers.admin.AdminJfrRouterHandler;
+import com.rafex.housedb.handlers.admin.AdminKiwiOutboxRouterHandler;
 import com.rafex.housedb.handlers.items.ItemAliasRouterHandler;
 import com.rafex.housedb.handlers.items.ItemsRouterHandler;
 import com.rafex.housedb.handlers.metadata.MetadataCatalogsRouterHandler;
 import com.rafex.housedb.handlers.metadata.MetadataTemplatesRouterHandler;
 import com.rafex.housedb.handlers.support.CorsMiddleware;
 import com.rafex.housedb.handlers.support.GlowrootMiddleware;
+import com.rafex.housedb.handlers.support.HttpMetrics;
+import com.rafex.housedb.handlers.support.MetricsMiddleware;
 import com.rafex.housedb.handlers.support.NotFoundResource;
+import com.rafex.housedb.handlers.support.VirtualThreadDispatch;
 import com.rafex.housedb.handlers.houses.HousesRouterHandler;
 import com.rafex.housedb.handlers.users.UsersRouterHandler;
+import com.rafex.housedb.jfr.VirtualThreadPinningMonitor;
 import com.rafex.housedb.kiwi.KiwiApiClient;
+import com.rafex.housedb.kiwi.KiwiObjectCache;
+import com.rafex.housedb.kiwi.KiwiOutboxDispatcher;
 import com.rafex.housedb.security.JwtService;
+import com.rafex.housedb.security.VerifiedTokenCache;
 
 import java.util.List;
 import java.util.logging.Logger;
@@ -42,21 +53,44 @@ public final class HouseDBServer {
 
         final var kiwiApiClient = new KiwiApiClient(jsonCodec);
         kiwiApiClient.bootstrapAppClientFromEnv();
+        final var kiwiObjectCache = KiwiObjectCache.fromEnv(kiwiApiClient);
+        final var kiwiOutbox = KiwiOutboxDispatcher.fromEnv(kiwiApiClient, container.kiwiOutboxRepository(),
+                jsonCodec);
 
+        final var httpMetrics = new HttpMetrics();
+        // Off by default: only enable it when /metrics is not reachable from outside the cluster.
+        final boolean metricsPublic = Boolean
+                .parseBoolean(System.getenv().getOrDefault("HOUSEDB_METRICS_PUBLIC", "false"));
+        final var tokenCache = VerifiedTokenCache.fromEnv();
+        final var dispatch = VirtualThreadDispatch.fromEnv();
+        final var pinningMonitor = VirtualThreadPinningMonitor.fromEnv();
+        if (dispatch.enabled()) {
+            pinningMonitor.start();
+        }
         final var helloHandler = new HelloHandler(jsonCodec);
         final var authRoutes = new AuthRouterHandler(jsonCodec, jwt, container.authService(),
-                container.appClientAuthService(), container.refreshTokenService(), container.userRepository());
-        final var itemRoutes = new ItemsRouterHandler(jsonCodec, container.itemFinderService(), kiwiApiClient);
+                container.appClientAuthService(), container.refreshTokenService(), container.userRepository(),
+                container.userRolesCache());
+        final var itemRoutes = new ItemsRouterHandler(jsonCodec, container.itemFinderService(), kiwiApiClient,
+                kiwiObjectCache, kiwiOutbox);
         final var itemAliasRoutes = new ItemAliasRouterHandler(jsonCodec, kiwiApiClient, container.itemFinderService());
         final var houseRoutes = new HousesRouterHandler(jsonCodec, container.houseService(), container.itemFinderService(),
-                kiwiApiClient);
+                kiwiOutbox);
         final var metadataCatalogRoutes = new MetadataCatalogsRouterHandler(jsonCodec, container.metadataCatalogService());
         final var metadataTemplateRoutes = new MetadataTemplatesRouterHandler(jsonCodec, container.metadataTemplateService());
         final var userRoutes = new UsersRouterHandler(jsonCodec, container.userRepository(),
                 container.passwordHasherPBKDF2());
+        final var adminJfrRoutes = new AdminJfrRouterHandler(jsonCodec);
+        final var adminKiwiOutboxRoutes = new AdminKiwiOutboxRouterHandler(jsonCodec, kiwiOutbox);
 
         final var routeRegistry = new JettyRouteRegistry();
         routeRegistry.add("/health", new HealthHandler(jsonCodec));
+        routeRegistry.add("/metrics", new MetricsHandler(jsonCodec, metricsPublic, List.of(httpMetrics::appendTo,
+                PoolMetrics::appendTo, kiwiApiClient::appendMetrics, kiwiObjectCache::appendMetrics,
+                kiwiOutbox::appendMetrics, tokenCache::appendMetrics,
+                container.verifiedClientSecretCache()::appendMetrics, container.userRolesCache()::appendMetrics,
+                container.passwordHashingExecutor()::appendMetrics, dispatch::appendMetrics,
+                pinningMonitor::appendMetrics)));
         routeRegistry.add("/hello", helloHandler);
         routeRegistry.add("/hello/name", helloHandler);
         routeRegistry.add("/auth/*", authRoutes);
@@ -71,21 +105,34 @@ public final class HouseDBServer {
         routeRegistry.add("/metadata-templates/*", metadataTemplateRoutes);
         routeRegistry.add("/users", userRoutes);
         routeRegistry.add("/users/*", userRoutes);
+        routeRegistry.add("/admin/jfr", adminJfrRoutes);
+        routeRegistry.add("/admin/jfr/*", adminJfrRoutes);
+        routeRegistry.add("/admin/kiwi-outbox", adminKiwiOutboxRoutes);
+        routeRegistry.add("/admin/kiwi-outbox/*", adminKiwiOutboxRoutes);
         routeRegistry.add("/*", new NotFoundResource(jsonCodec));
 
         final var tokenVerifier = (dev.rafex.ether.http.jetty12.TokenVerifier) (token, epochSeconds) -> {
+            final var cached = tokenCache.get(token, epochSeconds);
+            if (cached != null) {
+                return TokenVerificationResult.ok(cached);
+            }
             final var result = jwt.verify(token, epochSeconds);
             if (!result.ok()) {
                 return TokenVerificationResult.failed(result.code());
             }
+            // Only access tokens are cached, so a cache hit never needs the token_use check again.
             return result.claims()
                     .filter(claims -> !"refresh".equals(String.valueOf(claims.extras().get("token_use"))))
-                    .map(TokenVerificationResult::ok)
+                    .map(claims -> {
+                        tokenCache.put(token, claims, epochSeconds);
+                        return TokenVerificationResult.ok(claims);
+                    })
                     .orElseGet(() -> TokenVerificationResult.failed("invalid_token_use"));
         };
 
         final var authPolicies = List.of(
                 AuthPolicy.publicPath("GET", "/health"),
+                metricsPublic ? AuthPolicy.publicPath("GET", "/metrics") : AuthPolicy.protectedPrefix("/metrics"),
                 AuthPolicy.publicPath("GET", "/hello"),
                 AuthPolicy.publicPath("GET", "/hello/name"),
                 AuthPolicy.publicPath("POST", "/hello/name"),
@@ -103,16 +150,31 @@ public final class HouseDBServer {
                 AuthPolicy.protectedPrefix("/metadata-templates"),
                 AuthPolicy.protectedPrefix("/metadata-templates/*"),
                 AuthPolicy.protectedPrefix("/users"),
-                AuthPolicy.protectedPrefix("/users/*"));
+                AuthPolicy.protectedPrefix("/users/*"),
+                AuthPolicy.protectedPrefix("/admin/jfr"),
+                AuthPolicy.protectedPrefix("/admin/jfr/*"),
+                AuthPolicy.protectedPrefix("/admin/kiwi-outbox"),
+                AuthPolicy.protectedPrefix("/admin/kiwi-outbox/*"));
 
-        final List<JettyMiddleware> middlewares = List.of(new CorsMiddleware(), new GlowrootMiddleware());
+        // Metrics and CORS only touch the response and its callback, so they stay on the Jetty thread. Glowroot goes
+        // after the dispatch: its transaction is bound to the thread that runs the handler's JDBC and Kiwi work.
+        final List<JettyMiddleware> middlewares = List.of(new MetricsMiddleware(httpMetrics), new CorsMiddleware(),
+                dispatch, new GlowrootMiddleware());
 
         final var config = JettyServerConfig.fromEnv();
         final var runner = JettyServerFactory.create(config, routeRegistry, jsonCodec, tokenVerifier,
                 authPolicies, middlewares);
 
-        LOG.info("Starting HouseDB backend on port " + config.port());
-        runner.start();
-        runner.await();
+        LOG.info("Starting HouseDB backend on port " + config.port() + " ("
+                + (dispatch.enabled() ? "virtual" : "platform") + " threads)");
+        try {
+            runner.start();
+            kiwiOutbox.start();
+            runner.await();
+        } finally {
+            dispatch.close();
+            kiwiOutbox.close();
+            pinningMonitor.close();
+        }
     }
 }
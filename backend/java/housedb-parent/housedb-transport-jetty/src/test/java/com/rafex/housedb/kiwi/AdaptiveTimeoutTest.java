@@ -0,0 +1,86 @@
+package com.rafex.housedb.kiwi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveTimeoutTest {
+
+    private final AdaptiveTimeout timeout = new AdaptiveTimeout(Duration.ofMillis(10), Duration.ofSeconds(1), 3);
+
+    @Test
+    void startsAtMaxUntilEnoughSamples() {
+        record(31, 100);
+
+        assertEquals(Duration.ofSeconds(1), timeout.current());
+
+        record(1, 100);
+
+        assertEquals(Duration.ofMillis(300), timeout.current());
+    }
+
+    @Test
+    void isClampedToMin() {
+        record(32, 1);
+
+        assertEquals(Duration.ofMillis(10), timeout.current());
+    }
+
+    @Test
+    void isClampedToMax() {
+        record(32, 500);
+
+        assertEquals(Duration.ofSeconds(1), timeout.current());
+    }
+
+    @Test
+    void timeoutsCountAsSamplesAtTheirLimit() {
+        record(32, 100);
+        final long limit = timeout.current().toNanos();
+
+        for (int i = 0; i < 3; i++) {
+            timeout.recordTimeout(limit);
+            record(1, 100);
+        }
+        record(10, 100);
+
+        assertEquals(Duration.ofMillis(900), timeout.current());
+    }
+
+    @Test
+    void consecutiveTimeoutsBackOffTowardMax() {
+        record(32, 100);
+
+        timeout.recordTimeout(timeout.current().toNanos());
+        timeout.recordTimeout(timeout.current().toNanos());
+        assertEquals(Duration.ofMillis(300), timeout.current());
+
+        timeout.recordTimeout(timeout.current().toNanos());
+        assertEquals(Duration.ofMillis(600), timeout.current());
+
+        for (int i = 0; i < 3; i++) {
+            timeout.recordTimeout(timeout.current().toNanos());
+        }
+        assertEquals(Duration.ofSeconds(1), timeout.current());
+    }
+
+    @Test
+    void aResponseResetsTheTimeoutStreak() {
+        record(32, 100);
+
+        timeout.recordTimeout(timeout.current().toNanos());
+        timeout.recordTimeout(timeout.current().toNanos());
+        record(1, 100);
+        timeout.recordTimeout(timeout.current().toNanos());
+
+        assertEquals(Duration.ofMillis(300), timeout.current());
+    }
+
+    private void record(final int count, final long millis) {
+        for (int i = 0; i < count; i++) {
+            timeout.record(Duration.ofMillis(millis).toNanos());
+        }
+    }
+}
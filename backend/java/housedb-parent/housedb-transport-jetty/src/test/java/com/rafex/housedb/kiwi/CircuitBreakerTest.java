@@ -0,0 +1,127 @@
+package com.rafex.housedb.kiwi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private long now;
+    private final CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, 5, () -> now);
+
+    @Test
+    void staysClosedUntilMinCallsAreSeen() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(CircuitBreaker.Permit.CALL, breaker.tryAcquire());
+    }
+
+    @Test
+    void opensWhenFailureRateIsReached() {
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.Permit.REJECTED, breaker.tryAcquire());
+        assertEquals(1, breaker.rejected());
+        assertEquals(1, breaker.opened());
+    }
+
+    @Test
+    void failuresLeaveTheWindow() {
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void letsOneProbeThroughAfterTheOpenDuration() {
+        open();
+        advanceSeconds(4);
+        assertEquals(CircuitBreaker.Permit.REJECTED, breaker.tryAcquire());
+
+        advanceSeconds(1);
+
+        assertEquals(CircuitBreaker.Permit.PROBE, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(CircuitBreaker.Permit.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void successfulProbeClosesWithAFreshWindow() {
+        open();
+        advanceSeconds(5);
+        breaker.tryAcquire();
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void failedProbeOpensAgain() {
+        open();
+        advanceSeconds(5);
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(2, breaker.opened());
+        assertEquals(5, breaker.retryAfterSeconds());
+    }
+
+    @Test
+    void releasedProbeIsHandedOutAgain() {
+        open();
+        advanceSeconds(5);
+        final var probe = breaker.tryAcquire();
+
+        breaker.release(probe);
+
+        assertEquals(CircuitBreaker.Permit.PROBE, breaker.tryAcquire());
+    }
+
+    @Test
+    void retryAfterRoundsUp() {
+        assertEquals(1, breaker.retryAfterSeconds());
+        open();
+
+        now += TimeUnit.MILLISECONDS.toNanos(2500);
+
+        assertEquals(3, breaker.retryAfterSeconds());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void advanceSeconds(final long seconds) {
+        now += TimeUnit.SECONDS.toNanos(seconds);
+    }
+}
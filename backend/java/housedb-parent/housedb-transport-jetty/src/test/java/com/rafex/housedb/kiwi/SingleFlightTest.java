@@ -0,0 +1,99 @@
+package com.rafex.housedb.kiwi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CompletableFuture<String> source = new CompletableFuture<>();
+
+    @Test
+    void coalescesCallsForTheSameKeyWhileInFlight() throws Exception {
+        final var first = flight.execute("a", this::call);
+        final var second = flight.execute("a", this::call);
+
+        assertEquals(1, calls.get());
+        assertEquals(1, flight.started());
+        assertEquals(1, flight.coalesced());
+        assertEquals(1, flight.inFlight());
+
+        source.complete("v");
+
+        assertEquals("v", first.get());
+        assertEquals("v", second.get());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void differentKeysDoNotShareACall() {
+        flight.execute("a", this::call);
+        flight.execute("b", this::call);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, flight.coalesced());
+    }
+
+    @Test
+    void callAfterCompletionStartsAFreshOne() {
+        flight.execute("a", this::call);
+        source.complete("v");
+
+        flight.execute("a", () -> CompletableFuture.completedFuture("w"));
+
+        assertEquals(2, flight.started());
+        assertEquals(0, flight.coalesced());
+    }
+
+    @Test
+    void failureReachesEveryCallerAndReleasesTheKey() {
+        final var first = flight.execute("a", this::call);
+        final var second = flight.execute("a", this::call);
+        final var failure = new IllegalStateException("kiwi down");
+
+        source.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, second::get).getCause());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void supplierThrowingFailsTheCallAndReleasesTheKey() {
+        final var failure = new IllegalArgumentException("bad request");
+
+        final var result = flight.execute("a", () -> {
+            throw failure;
+        });
+
+        assertSame(failure, assertThrows(ExecutionException.class, result::get).getCause());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void cancellingOneCallerDoesNotCancelTheOthers() throws Exception {
+        final var first = flight.execute("a", this::call);
+        final var second = flight.execute("a", this::call);
+
+        assertTrue(first.cancel(true));
+        source.complete("v");
+
+        assertFalse(source.isCancelled());
+        assertEquals("v", second.get());
+    }
+
+    private CompletableFuture<String> call() {
+        calls.incrementAndGet();
+        return source;
+    }
+}
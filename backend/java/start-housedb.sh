@@ -2,6 +2,8 @@
 set -eu
 
 JAVA_OPTS="${JAVA_OPTS:-}"
+KIWI_HTTP_CONNECTION_POOL_SIZE="${KIWI_HTTP_CONNECTION_POOL_SIZE:-32}"
+KIWI_HTTP_KEEPALIVE_SECONDS="${KIWI_HTTP_KEEPALIVE_SECONDS:-60}"
 DB_URL="${DB_URL:-}"
 
 if [ -z "$DB_URL" ]; then
@@ -14,6 +16,8 @@ exec java \
   -XX:+UseContainerSupport \
   -XX:MaxRAMPercentage=70.0 \
   -XX:+ExitOnOutOfMemoryError \
+  -Djdk.httpclient.connectionPoolSize="$KIWI_HTTP_CONNECTION_POOL_SIZE" \
+  -Djdk.httpclient.keepalive.timeout="$KIWI_HTTP_KEEPALIVE_SECONDS" \
   $JAVA_OPTS \
   -javaagent:/app/glowroot/glowroot.jar \
   -jar /app/app.jar \
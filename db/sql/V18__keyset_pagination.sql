@@ -0,0 +1,397 @@
+BEGIN;
+
+-- Keyset (seek) pagination. The *_after functions receive the sort key of the
+-- last row already returned instead of an offset, so every page is served by
+-- an index range scan of the same size. NULL keys mean "first page"; they are
+-- replaced by sentinels so the row comparison stays usable as an index bound.
+
+CREATE INDEX IF NOT EXISTS idx_inventory_items_user_updated_keyset
+ON inventory_items(user_id, updated_at DESC, inventory_item_id DESC)
+WHERE enabled = TRUE;
+
+CREATE INDEX IF NOT EXISTS idx_item_movements_item_moved_at_keyset
+ON item_movements(inventory_item_id, moved_at DESC, item_movement_id DESC)
+WHERE enabled = TRUE;
+
+CREATE INDEX IF NOT EXISTS idx_house_locations_house_path
+ON house_locations(house_id, path)
+WHERE enabled = TRUE;
+
+DROP FUNCTION IF EXISTS api_search_inventory_items(UUID, TEXT, UUID, UUID, INT, INT);
+CREATE OR REPLACE FUNCTION api_search_inventory_items(
+  p_user_id UUID,
+  p_text TEXT DEFAULT NULL,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_leaf_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 50,
+  p_offset INT DEFAULT 0
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_kiwi_id UUID,
+  object_name TEXT,
+  object_description TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  rank REAL,
+  updated_at TIMESTAMPTZ
+) AS $$
+BEGIN
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+  IF p_offset IS NULL OR p_offset < 0 THEN
+    RAISE EXCEPTION 'p_offset must be >= 0';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    ii.inventory_item_id,
+    o.object_id,
+    o.object_kiwi_id,
+    o.name,
+    o.description,
+    o.category,
+    ii.nickname,
+    h.house_id,
+    h.name,
+    hl.house_location_id,
+    hl.path,
+    CASE
+      WHEN p_text IS NULL OR btrim(p_text) = '' THEN 1.0::REAL
+      ELSE GREATEST(
+        similarity(o.name, p_text),
+        similarity(COALESCE(o.category, ''), p_text),
+        similarity(COALESCE(ii.nickname, ''), p_text),
+        similarity(COALESCE(hl.path, ''), p_text)
+      )
+    END::REAL AS item_rank,
+    ii.updated_at
+  FROM inventory_items ii
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  INNER JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.is_current = TRUE
+   AND icl.enabled = TRUE
+  INNER JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+   AND hl.enabled = TRUE
+  INNER JOIN houses h
+    ON h.house_id = hl.house_id
+   AND h.enabled = TRUE
+  WHERE ii.user_id = p_user_id
+    AND ii.enabled = TRUE
+    AND o.enabled = TRUE
+    AND (
+      p_text IS NULL
+      OR btrim(p_text) = ''
+      OR o.name ILIKE '%' || p_text || '%'
+      OR COALESCE(o.category, '') ILIKE '%' || p_text || '%'
+      OR COALESCE(o.description, '') ILIKE '%' || p_text || '%'
+      OR COALESCE(ii.nickname, '') ILIKE '%' || p_text || '%'
+      OR COALESCE(hl.path, '') ILIKE '%' || p_text || '%'
+      OR o.name % p_text
+      OR COALESCE(o.category, '') % p_text
+    )
+    AND (p_house_id IS NULL OR h.house_id = p_house_id)
+    AND (p_house_location_leaf_id IS NULL OR hl.house_location_id = p_house_location_leaf_id)
+  ORDER BY item_rank DESC, ii.updated_at DESC, ii.inventory_item_id DESC
+  LIMIT p_limit OFFSET p_offset;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_search_inventory_items_after(
+  p_user_id UUID,
+  p_text TEXT DEFAULT NULL,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_leaf_id UUID DEFAULT NULL,
+  p_after_rank REAL DEFAULT NULL,
+  p_after_updated_at TIMESTAMPTZ DEFAULT NULL,
+  p_after_inventory_item_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 50
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_kiwi_id UUID,
+  object_name TEXT,
+  object_description TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  rank REAL,
+  updated_at TIMESTAMPTZ
+) AS $$
+DECLARE
+  v_after_rank REAL := COALESCE(p_after_rank, 'Infinity'::REAL);
+  v_after_updated_at TIMESTAMPTZ := COALESCE(p_after_updated_at, 'infinity'::TIMESTAMPTZ);
+  v_after_id UUID := COALESCE(p_after_inventory_item_id, 'ffffffff-ffff-ffff-ffff-ffffffffffff'::UUID);
+BEGIN
+  IF p_user_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id is required';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  IF p_text IS NULL OR btrim(p_text) = '' THEN
+    -- Without text every row ranks 1.0, so the order collapses to
+    -- (updated_at, inventory_item_id) and idx_inventory_items_user_updated_keyset
+    -- can drive the scan directly.
+    RETURN QUERY
+    SELECT
+      ii.inventory_item_id,
+      o.object_id,
+      o.object_kiwi_id,
+      o.name,
+      o.description,
+      o.category,
+      ii.nickname,
+      h.house_id,
+      h.name,
+      hl.house_location_id,
+      hl.path,
+      1.0::REAL,
+      ii.updated_at
+    FROM inventory_items ii
+    INNER JOIN objects o
+      ON o.object_id = ii.object_id
+    INNER JOIN item_current_location icl
+      ON icl.inventory_item_id = ii.inventory_item_id
+     AND icl.is_current = TRUE
+     AND icl.enabled = TRUE
+    INNER JOIN house_locations hl
+      ON hl.house_location_id = icl.house_location_leaf_id
+     AND hl.enabled = TRUE
+    INNER JOIN houses h
+      ON h.house_id = hl.house_id
+     AND h.enabled = TRUE
+    WHERE ii.user_id = p_user_id
+      AND ii.enabled = TRUE
+      AND o.enabled = TRUE
+      AND (p_house_id IS NULL OR h.house_id = p_house_id)
+      AND (p_house_location_leaf_id IS NULL OR hl.house_location_id = p_house_location_leaf_id)
+      AND (ii.updated_at, ii.inventory_item_id) < (v_after_updated_at, v_after_id)
+    ORDER BY ii.updated_at DESC, ii.inventory_item_id DESC
+    LIMIT p_limit;
+    RETURN;
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    ranked.inventory_item_id,
+    ranked.object_id,
+    ranked.object_kiwi_id,
+    ranked.object_name,
+    ranked.object_description,
+    ranked.object_category,
+    ranked.nickname,
+    ranked.house_id,
+    ranked.house_name,
+    ranked.house_location_leaf_id,
+    ranked.house_location_path,
+    ranked.item_rank,
+    ranked.item_updated_at
+  FROM (
+    SELECT
+      ii.inventory_item_id,
+      o.object_id,
+      o.object_kiwi_id,
+      o.name AS object_name,
+      o.description AS object_description,
+      o.category AS object_category,
+      ii.nickname,
+      h.house_id,
+      h.name AS house_name,
+      hl.house_location_id AS house_location_leaf_id,
+      hl.path AS house_location_path,
+      GREATEST(
+        similarity(o.name, p_text),
+        similarity(COALESCE(o.category, ''), p_text),
+        similarity(COALESCE(ii.nickname, ''), p_text),
+        similarity(COALESCE(hl.path, ''), p_text)
+      )::REAL AS item_rank,
+      ii.updated_at AS item_updated_at
+    FROM inventory_items ii
+    INNER JOIN objects o
+      ON o.object_id = ii.object_id
+    INNER JOIN item_current_location icl
+      ON icl.inventory_item_id = ii.inventory_item_id
+     AND icl.is_current = TRUE
+     AND icl.enabled = TRUE
+    INNER JOIN house_locations hl
+      ON hl.house_location_id = icl.house_location_leaf_id
+     AND hl.enabled = TRUE
+    INNER JOIN houses h
+      ON h.house_id = hl.house_id
+     AND h.enabled = TRUE
+    WHERE ii.user_id = p_user_id
+      AND ii.enabled = TRUE
+      AND o.enabled = TRUE
+      AND (
+        o.name ILIKE '%' || p_text || '%'
+        OR COALESCE(o.category, '') ILIKE '%' || p_text || '%'
+        OR COALESCE(o.description, '') ILIKE '%' || p_text || '%'
+        OR COALESCE(ii.nickname, '') ILIKE '%' || p_text || '%'
+        OR COALESCE(hl.path, '') ILIKE '%' || p_text || '%'
+        OR o.name % p_text
+        OR COALESCE(o.category, '') % p_text
+      )
+      AND (p_house_id IS NULL OR h.house_id = p_house_id)
+      AND (p_house_location_leaf_id IS NULL OR hl.house_location_id = p_house_location_leaf_id)
+  ) ranked
+  WHERE (ranked.item_rank, ranked.item_updated_at, ranked.inventory_item_id)
+        < (v_after_rank, v_after_updated_at, v_after_id)
+  ORDER BY ranked.item_rank DESC, ranked.item_updated_at DESC, ranked.inventory_item_id DESC
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_list_inventory_by_location_after(
+  p_user_id UUID,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_id UUID DEFAULT NULL,
+  p_include_descendants BOOLEAN DEFAULT TRUE,
+  p_after_path TEXT DEFAULT NULL,
+  p_after_object_name TEXT DEFAULT NULL,
+  p_after_inventory_item_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 200
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_name TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  assigned_at TIMESTAMPTZ
+) AS $$
+BEGIN
+  IF p_user_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id is required';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  RETURN QUERY
+  WITH RECURSIVE location_scope AS (
+    SELECT hl.house_location_id
+    FROM house_locations hl
+    WHERE p_house_location_id IS NOT NULL
+      AND hl.house_location_id = p_house_location_id
+
+    UNION ALL
+
+    SELECT child.house_location_id
+    FROM house_locations child
+    INNER JOIN location_scope ls
+      ON child.parent_house_location_id = ls.house_location_id
+    WHERE COALESCE(p_include_descendants, TRUE)
+  )
+  SELECT
+    ii.inventory_item_id,
+    o.object_id,
+    o.name,
+    ii.nickname,
+    h.house_id,
+    h.name,
+    hl.house_location_id,
+    hl.path,
+    icl.assigned_at
+  FROM inventory_items ii
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  INNER JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.enabled = TRUE
+   AND icl.is_current = TRUE
+  INNER JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+   AND hl.enabled = TRUE
+  INNER JOIN houses h
+    ON h.house_id = hl.house_id
+   AND h.enabled = TRUE
+  WHERE ii.user_id = p_user_id
+    AND ii.enabled = TRUE
+    AND o.enabled = TRUE
+    AND (p_house_id IS NULL OR h.house_id = p_house_id)
+    AND (
+      p_house_location_id IS NULL
+      OR hl.house_location_id IN (SELECT house_location_id FROM location_scope)
+    )
+    AND (
+      p_after_inventory_item_id IS NULL
+      OR (hl.path, o.name, ii.inventory_item_id) > (p_after_path, p_after_object_name, p_after_inventory_item_id)
+    )
+  ORDER BY hl.path, o.name, ii.inventory_item_id
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_inventory_item_timeline_after(
+  p_inventory_item_id UUID,
+  p_after_moved_at TIMESTAMPTZ DEFAULT NULL,
+  p_after_item_movement_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 100
+)
+RETURNS TABLE (
+  item_movement_id UUID,
+  inventory_item_id UUID,
+  movement_reason TEXT,
+  moved_by TEXT,
+  moved_at TIMESTAMPTZ,
+  from_house_location_leaf_id UUID,
+  from_house_location_path TEXT,
+  to_house_location_leaf_id UUID,
+  to_house_location_path TEXT,
+  notes TEXT
+) AS $$
+DECLARE
+  v_after_moved_at TIMESTAMPTZ := COALESCE(p_after_moved_at, 'infinity'::TIMESTAMPTZ);
+  v_after_id UUID := COALESCE(p_after_item_movement_id, 'ffffffff-ffff-ffff-ffff-ffffffffffff'::UUID);
+BEGIN
+  IF p_inventory_item_id IS NULL THEN
+    RAISE EXCEPTION 'p_inventory_item_id is required';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    im.item_movement_id,
+    im.inventory_item_id,
+    im.movement_reason,
+    im.moved_by,
+    im.moved_at,
+    im.from_house_location_leaf_id,
+    from_hl.path,
+    im.to_house_location_leaf_id,
+    to_hl.path,
+    im.notes
+  FROM item_movements im
+  LEFT JOIN house_locations from_hl
+    ON from_hl.house_location_id = im.from_house_location_leaf_id
+  INNER JOIN house_locations to_hl
+    ON to_hl.house_location_id = im.to_house_location_leaf_id
+  WHERE im.inventory_item_id = p_inventory_item_id
+    AND im.enabled = TRUE
+    AND (im.moved_at, im.item_movement_id) < (v_after_moved_at, v_after_id)
+  ORDER BY im.moved_at DESC, im.item_movement_id DESC
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
@@ -0,0 +1,390 @@
+BEGIN;
+
+-- Weighted full-text document per inventory item. It lives in its own table so
+-- refreshing it (object edits, moves, location renames) does not touch
+-- inventory_items.updated_at, which drives search ordering and cursors.
+--   A: object name, nickname
+--   B: category, serial number
+--   C: current location path
+--   D: description
+-- The 'simple' configuration is used on purpose: names, brands and serials are
+-- not natural language and must not be stemmed.
+
+CREATE TABLE inventory_item_search_documents (
+  inventory_item_id UUID PRIMARY KEY REFERENCES inventory_items(inventory_item_id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  document TSVECTOR NOT NULL,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_inventory_item_search_documents_document
+ON inventory_item_search_documents
+USING gin (document);
+
+CREATE INDEX idx_inventory_item_search_documents_user_id
+ON inventory_item_search_documents(user_id);
+
+CREATE OR REPLACE FUNCTION fn_refresh_inventory_item_search_documents(p_inventory_item_ids UUID[])
+RETURNS VOID AS $$
+BEGIN
+  IF p_inventory_item_ids IS NULL OR cardinality(p_inventory_item_ids) = 0 THEN
+    RETURN;
+  END IF;
+
+  INSERT INTO inventory_item_search_documents (
+    inventory_item_id,
+    user_id,
+    document,
+    updated_at
+  )
+  SELECT
+    ii.inventory_item_id,
+    ii.user_id,
+    setweight(to_tsvector('simple', COALESCE(o.name, '')), 'A')
+      || setweight(to_tsvector('simple', COALESCE(ii.nickname, '')), 'A')
+      || setweight(to_tsvector('simple', COALESCE(o.category, '')), 'B')
+      || setweight(to_tsvector('simple', COALESCE(ii.serial_number, '')), 'B')
+      || setweight(to_tsvector('simple', COALESCE(hl.path, '')), 'C')
+      || setweight(to_tsvector('simple', COALESCE(o.description, '')), 'D'),
+    now()
+  FROM inventory_items ii
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  LEFT JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.is_current = TRUE
+   AND icl.enabled = TRUE
+  LEFT JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+  WHERE ii.inventory_item_id = ANY(p_inventory_item_ids)
+  ON CONFLICT (inventory_item_id)
+  DO UPDATE SET
+    user_id = EXCLUDED.user_id,
+    document = EXCLUDED.document,
+    updated_at = EXCLUDED.updated_at;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Turns free text into an AND of prefix terms: 'tala roj' -> 'tala':* & 'roj':*
+CREATE OR REPLACE FUNCTION fn_inventory_search_tsquery(p_text TEXT)
+RETURNS TSQUERY AS $$
+  SELECT CASE
+    WHEN count(*) = 0 THEN NULL
+    ELSE to_tsquery('simple', string_agg(quote_literal(token) || ':*', ' & '))
+  END
+  FROM regexp_split_to_table(lower(COALESCE(p_text, '')), '[^[:alnum:]]+') AS token
+  WHERE token <> '';
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION trg_inventory_items_refresh_search_document()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_item_search_documents(ARRAY[NEW.inventory_item_id]);
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_objects_refresh_search_documents()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_item_search_documents(ARRAY(
+    SELECT ii.inventory_item_id
+    FROM inventory_items ii
+    WHERE ii.object_id = NEW.object_id
+  ));
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_house_locations_refresh_search_documents()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_item_search_documents(ARRAY(
+    SELECT icl.inventory_item_id
+    FROM item_current_location icl
+    WHERE icl.house_location_leaf_id = NEW.house_location_id
+  ));
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_inventory_items_refresh_search_document
+AFTER INSERT OR UPDATE OF object_id, user_id, nickname, serial_number ON inventory_items
+FOR EACH ROW
+EXECUTE FUNCTION trg_inventory_items_refresh_search_document();
+
+CREATE TRIGGER trg_item_current_location_refresh_search_document
+AFTER INSERT OR UPDATE OF house_location_leaf_id, is_current, enabled ON item_current_location
+FOR EACH ROW
+EXECUTE FUNCTION trg_inventory_items_refresh_search_document();
+
+CREATE TRIGGER trg_objects_refresh_search_documents
+AFTER UPDATE OF name, category, description ON objects
+FOR EACH ROW
+WHEN (
+  OLD.name IS DISTINCT FROM NEW.name
+  OR OLD.category IS DISTINCT FROM NEW.category
+  OR OLD.description IS DISTINCT FROM NEW.description
+)
+EXECUTE FUNCTION trg_objects_refresh_search_documents();
+
+CREATE TRIGGER trg_house_locations_refresh_search_documents
+AFTER UPDATE OF path ON house_locations
+FOR EACH ROW
+WHEN (OLD.path IS DISTINCT FROM NEW.path)
+EXECUTE FUNCTION trg_house_locations_refresh_search_documents();
+
+SELECT fn_refresh_inventory_item_search_documents(ARRAY(SELECT inventory_item_id FROM inventory_items));
+
+DROP FUNCTION IF EXISTS api_search_inventory_items(UUID, TEXT, UUID, UUID, INT, INT);
+CREATE OR REPLACE FUNCTION api_search_inventory_items(
+  p_user_id UUID,
+  p_text TEXT DEFAULT NULL,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_leaf_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 50,
+  p_offset INT DEFAULT 0
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_kiwi_id UUID,
+  object_name TEXT,
+  object_description TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  rank REAL,
+  updated_at TIMESTAMPTZ
+) AS $$
+DECLARE
+  v_query TSQUERY := fn_inventory_search_tsquery(p_text);
+BEGIN
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+  IF p_offset IS NULL OR p_offset < 0 THEN
+    RAISE EXCEPTION 'p_offset must be >= 0';
+  END IF;
+
+  IF v_query IS NULL THEN
+    RETURN QUERY
+    SELECT
+      ii.inventory_item_id,
+      o.object_id,
+      o.object_kiwi_id,
+      o.name,
+      o.description,
+      o.category,
+      ii.nickname,
+      h.house_id,
+      h.name,
+      hl.house_location_id,
+      hl.path,
+      1.0::REAL,
+      ii.updated_at
+    FROM inventory_items ii
+    INNER JOIN objects o
+      ON o.object_id = ii.object_id
+    INNER JOIN item_current_location icl
+      ON icl.inventory_item_id = ii.inventory_item_id
+     AND icl.is_current = TRUE
+     AND icl.enabled = TRUE
+    INNER JOIN house_locations hl
+      ON hl.house_location_id = icl.house_location_leaf_id
+     AND hl.enabled = TRUE
+    INNER JOIN houses h
+      ON h.house_id = hl.house_id
+     AND h.enabled = TRUE
+    WHERE ii.user_id = p_user_id
+      AND ii.enabled = TRUE
+      AND o.enabled = TRUE
+      AND (p_house_id IS NULL OR h.house_id = p_house_id)
+      AND (p_house_location_leaf_id IS NULL OR hl.house_location_id = p_house_location_leaf_id)
+    ORDER BY ii.updated_at DESC, ii.inventory_item_id DESC
+    LIMIT p_limit OFFSET p_offset;
+    RETURN;
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    ii.inventory_item_id,
+    o.object_id,
+    o.object_kiwi_id,
+    o.name,
+    o.description,
+    o.category,
+    ii.nickname,
+    h.house_id,
+    h.name,
+    hl.house_location_id,
+    hl.path,
+    ts_rank_cd(d.document, v_query, 32)::REAL AS item_rank,
+    ii.updated_at
+  FROM inventory_item_search_documents d
+  INNER JOIN inventory_items ii
+    ON ii.inventory_item_id = d.inventory_item_id
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  INNER JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.is_current = TRUE
+   AND icl.enabled = TRUE
+  INNER JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+   AND hl.enabled = TRUE
+  INNER JOIN houses h
+    ON h.house_id = hl.house_id
+   AND h.enabled = TRUE
+  WHERE d.user_id = p_user_id
+    AND d.document @@ v_query
+    AND ii.enabled = TRUE
+    AND o.enabled = TRUE
+    AND (p_house_id IS NULL OR h.house_id = p_house_id)
+    AND (p_house_location_leaf_id IS NULL OR hl.house_location_id = p_house_location_leaf_id)
+  ORDER BY item_rank DESC, ii.updated_at DESC, ii.inventory_item_id DESC
+  LIMIT p_limit OFFSET p_offset;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_search_inventory_items_after(
+  p_user_id UUID,
+  p_text TEXT DEFAULT NULL,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_leaf_id UUID DEFAULT NULL,
+  p_after_rank REAL DEFAULT NULL,
+  p_after_updated_at TIMESTAMPTZ DEFAULT NULL,
+  p_after_inventory_item_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 50
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_kiwi_id UUID,
+  object_name TEXT,
+  object_description TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  rank REAL,
+  updated_at TIMESTAMPTZ
+) AS $$
+DECLARE
+  v_query TSQUERY := fn_inventory_search_tsquery(p_text);
+  v_after_rank REAL := COALESCE(p_after_rank, 'Infinity'::REAL);
+  v_after_updated_at TIMESTAMPTZ := COALESCE(p_after_updated_at, 'infinity'::TIMESTAMPTZ);
+  v_after_id UUID := COALESCE(p_after_inventory_item_id, 'ffffffff-ffff-ffff-ffff-ffffffffffff'::UUID);
+BEGIN
+  IF p_user_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id is required';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  IF v_query IS NULL THEN
+    RETURN QUERY
+    SELECT
+      ii.inventory_item_id,
+      o.object_id,
+      o.object_kiwi_id,
+      o.name,
+      o.description,
+      o.category,
+      ii.nickname,
+      h.house_id,
+      h.name,
+      hl.house_location_id,
+      hl.path,
+      1.0::REAL,
+      ii.updated_at
+    FROM inventory_items ii
+    INNER JOIN objects o
+      ON o.object_id = ii.object_id
+    INNER JOIN item_current_location icl
+      ON icl.inventory_item_id = ii.inventory_item_id
+     AND icl.is_current = TRUE
+     AND icl.enabled = TRUE
+    INNER JOIN house_locations hl
+      ON hl.house_location_id = icl.house_location_leaf_id
+     AND hl.enabled = TRUE
+    INNER JOIN houses h
+      ON h.house_id = hl.house_id
+     AND h.enabled = TRUE
+    WHERE ii.user_id = p_user_id
+      AND ii.enabled = TRUE
+      AND o.enabled = TRUE
+      AND (p_house_id IS NULL OR h.house_id = p_house_id)
+      AND (p_house_location_leaf_id IS NULL OR hl.house_location_id = p_house_location_leaf_id)
+      AND (ii.updated_at, ii.inventory_item_id) < (v_after_updated_at, v_after_id)
+    ORDER BY ii.updated_at DESC, ii.inventory_item_id DESC
+    LIMIT p_limit;
+    RETURN;
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    ranked.inventory_item_id,
+    ranked.object_id,
+    ranked.object_kiwi_id,
+    ranked.object_name,
+    ranked.object_description,
+    ranked.object_category,
+    ranked.nickname,
+    ranked.house_id,
+    ranked.house_name,
+    ranked.house_location_leaf_id,
+    ranked.house_location_path,
+    ranked.item_rank,
+    ranked.item_updated_at
+  FROM (
+    SELECT
+      ii.inventory_item_id,
+      o.object_id,
+      o.object_kiwi_id,
+      o.name AS object_name,
+      o.description AS object_description,
+      o.category AS object_category,
+      ii.nickname,
+      h.house_id,
+      h.name AS house_name,
+      hl.house_location_id AS house_location_leaf_id,
+      hl.path AS house_location_path,
+      ts_rank_cd(d.document, v_query, 32)::REAL AS item_rank,
+      ii.updated_at AS item_updated_at
+    FROM inventory_item_search_documents d
+    INNER JOIN inventory_items ii
+      ON ii.inventory_item_id = d.inventory_item_id
+    INNER JOIN objects o
+      ON o.object_id = ii.object_id
+    INNER JOIN item_current_location icl
+      ON icl.inventory_item_id = ii.inventory_item_id
+     AND icl.is_current = TRUE
+     AND icl.enabled = TRUE
+    INNER JOIN house_locations hl
+      ON hl.house_location_id = icl.house_location_leaf_id
+     AND hl.enabled = TRUE
+    INNER JOIN houses h
+      ON h.house_id = hl.house_id
+     AND h.enabled = TRUE
+    WHERE d.user_id = p_user_id
+      AND d.document @@ v_query
+      AND ii.enabled = TRUE
+      AND o.enabled = TRUE
+      AND (p_house_id IS NULL OR h.house_id = p_house_id)
+      AND (p_house_location_leaf_id IS NULL OR hl.house_location_id = p_house_location_leaf_id)
+  ) ranked
+  WHERE (ranked.item_rank, ranked.item_updated_at, ranked.inventory_item_id)
+        < (v_after_rank, v_after_updated_at, v_after_id)
+  ORDER BY ranked.item_rank DESC, ranked.item_updated_at DESC, ranked.inventory_item_id DESC
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
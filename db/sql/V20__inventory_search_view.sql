@@ -0,0 +1,394 @@
+BEGIN;
+
+-- Flat read model for inventory search: one row per inventory item carrying
+-- every column the search endpoints return, the access-control keys
+-- (user_id, house_id) and the weighted full-text document introduced in V19.
+-- Rows are refreshed by triggers on every table that contributes a column, so
+-- search functions become a single-table index scan.
+-- visible = item, object, current location and house are all enabled.
+
+DROP TRIGGER IF EXISTS trg_inventory_items_refresh_search_document ON inventory_items;
+DROP TRIGGER IF EXISTS trg_item_current_location_refresh_search_document ON item_current_location;
+DROP TRIGGER IF EXISTS trg_objects_refresh_search_documents ON objects;
+DROP TRIGGER IF EXISTS trg_house_locations_refresh_search_documents ON house_locations;
+DROP FUNCTION IF EXISTS trg_inventory_items_refresh_search_document();
+DROP FUNCTION IF EXISTS trg_objects_refresh_search_documents();
+DROP FUNCTION IF EXISTS trg_house_locations_refresh_search_documents();
+DROP FUNCTION IF EXISTS fn_refresh_inventory_item_search_documents(UUID[]);
+DROP TABLE IF EXISTS inventory_item_search_documents;
+
+CREATE TABLE inventory_search_view (
+  inventory_item_id UUID PRIMARY KEY REFERENCES inventory_items(inventory_item_id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  object_id UUID NOT NULL,
+  object_kiwi_id UUID,
+  object_name TEXT NOT NULL,
+  object_description TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  serial_number TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  item_updated_at TIMESTAMPTZ NOT NULL,
+  search_document TSVECTOR NOT NULL,
+  visible BOOLEAN NOT NULL,
+  refreshed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_inventory_search_view_user_updated
+ON inventory_search_view(user_id, item_updated_at DESC, inventory_item_id DESC)
+WHERE visible = TRUE;
+
+CREATE INDEX idx_inventory_search_view_user_house
+ON inventory_search_view(user_id, house_id)
+WHERE visible = TRUE;
+
+CREATE INDEX idx_inventory_search_view_house_location_leaf_id
+ON inventory_search_view(house_location_leaf_id);
+
+CREATE INDEX idx_inventory_search_view_search_document
+ON inventory_search_view
+USING gin (search_document)
+WHERE visible = TRUE;
+
+CREATE OR REPLACE FUNCTION fn_refresh_inventory_search_view(p_inventory_item_ids UUID[])
+RETURNS VOID AS $$
+BEGIN
+  IF p_inventory_item_ids IS NULL OR cardinality(p_inventory_item_ids) = 0 THEN
+    RETURN;
+  END IF;
+
+  INSERT INTO inventory_search_view (
+    inventory_item_id,
+    user_id,
+    object_id,
+    object_kiwi_id,
+    object_name,
+    object_description,
+    object_category,
+    nickname,
+    serial_number,
+    house_id,
+    house_name,
+    house_location_leaf_id,
+    house_location_path,
+    item_updated_at,
+    search_document,
+    visible,
+    refreshed_at
+  )
+  SELECT
+    ii.inventory_item_id,
+    ii.user_id,
+    o.object_id,
+    o.object_kiwi_id,
+    o.name,
+    o.description,
+    o.category,
+    ii.nickname,
+    ii.serial_number,
+    h.house_id,
+    h.name,
+    hl.house_location_id,
+    hl.path,
+    ii.updated_at,
+    setweight(to_tsvector('simple', COALESCE(o.name, '')), 'A')
+      || setweight(to_tsvector('simple', COALESCE(ii.nickname, '')), 'A')
+      || setweight(to_tsvector('simple', COALESCE(o.category, '')), 'B')
+      || setweight(to_tsvector('simple', COALESCE(ii.serial_number, '')), 'B')
+      || setweight(to_tsvector('simple', COALESCE(hl.path, '')), 'C')
+      || setweight(to_tsvector('simple', COALESCE(o.description, '')), 'D'),
+    ii.enabled AND o.enabled AND COALESCE(hl.enabled, FALSE) AND COALESCE(h.enabled, FALSE),
+    now()
+  FROM inventory_items ii
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  LEFT JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.is_current = TRUE
+   AND icl.enabled = TRUE
+  LEFT JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+  LEFT JOIN houses h
+    ON h.house_id = hl.house_id
+  WHERE ii.inventory_item_id = ANY(p_inventory_item_ids)
+  ON CONFLICT (inventory_item_id)
+  DO UPDATE SET
+    user_id = EXCLUDED.user_id,
+    object_id = EXCLUDED.object_id,
+    object_kiwi_id = EXCLUDED.object_kiwi_id,
+    object_name = EXCLUDED.object_name,
+    object_description = EXCLUDED.object_description,
+    object_category = EXCLUDED.object_category,
+    nickname = EXCLUDED.nickname,
+    serial_number = EXCLUDED.serial_number,
+    house_id = EXCLUDED.house_id,
+    house_name = EXCLUDED.house_name,
+    house_location_leaf_id = EXCLUDED.house_location_leaf_id,
+    house_location_path = EXCLUDED.house_location_path,
+    item_updated_at = EXCLUDED.item_updated_at,
+    search_document = EXCLUDED.search_document,
+    visible = EXCLUDED.visible,
+    refreshed_at = EXCLUDED.refreshed_at;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_inventory_search_view_refresh_item()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_search_view(ARRAY[NEW.inventory_item_id]);
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_inventory_search_view_refresh_object()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_search_view(ARRAY(
+    SELECT ii.inventory_item_id
+    FROM inventory_items ii
+    WHERE ii.object_id = NEW.object_id
+  ));
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_inventory_search_view_refresh_location()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_search_view(ARRAY(
+    SELECT icl.inventory_item_id
+    FROM item_current_location icl
+    WHERE icl.house_location_leaf_id = NEW.house_location_id
+  ));
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_inventory_search_view_refresh_house()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_search_view(ARRAY(
+    SELECT icl.inventory_item_id
+    FROM item_current_location icl
+    INNER JOIN house_locations hl
+      ON hl.house_location_id = icl.house_location_leaf_id
+    WHERE hl.house_id = NEW.house_id
+  ));
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Any inventory_items update bumps updated_at, which is part of the sort key.
+CREATE TRIGGER trg_inventory_items_refresh_search_view
+AFTER INSERT OR UPDATE ON inventory_items
+FOR EACH ROW
+EXECUTE FUNCTION trg_inventory_search_view_refresh_item();
+
+CREATE TRIGGER trg_item_current_location_refresh_search_view
+AFTER INSERT OR UPDATE OF house_location_leaf_id, is_current, enabled ON item_current_location
+FOR EACH ROW
+EXECUTE FUNCTION trg_inventory_search_view_refresh_item();
+
+CREATE TRIGGER trg_objects_refresh_search_view
+AFTER UPDATE OF object_kiwi_id, name, category, description, enabled ON objects
+FOR EACH ROW
+WHEN (
+  OLD.object_kiwi_id IS DISTINCT FROM NEW.object_kiwi_id
+  OR OLD.name IS DISTINCT FROM NEW.name
+  OR OLD.category IS DISTINCT FROM NEW.category
+  OR OLD.description IS DISTINCT FROM NEW.description
+  OR OLD.enabled IS DISTINCT FROM NEW.enabled
+)
+EXECUTE FUNCTION trg_inventory_search_view_refresh_object();
+
+CREATE TRIGGER trg_house_locations_refresh_search_view
+AFTER UPDATE OF path, enabled ON house_locations
+FOR EACH ROW
+WHEN (OLD.path IS DISTINCT FROM NEW.path OR OLD.enabled IS DISTINCT FROM NEW.enabled)
+EXECUTE FUNCTION trg_inventory_search_view_refresh_location();
+
+CREATE TRIGGER trg_houses_refresh_search_view
+AFTER UPDATE OF name, enabled ON houses
+FOR EACH ROW
+WHEN (OLD.name IS DISTINCT FROM NEW.name OR OLD.enabled IS DISTINCT FROM NEW.enabled)
+EXECUTE FUNCTION trg_inventory_search_view_refresh_house();
+
+SELECT fn_refresh_inventory_search_view(ARRAY(SELECT inventory_item_id FROM inventory_items));
+
+DROP FUNCTION IF EXISTS api_search_inventory_items(UUID, TEXT, UUID, UUID, INT, INT);
+CREATE OR REPLACE FUNCTION api_search_inventory_items(
+  p_user_id UUID,
+  p_text TEXT DEFAULT NULL,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_leaf_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 50,
+  p_offset INT DEFAULT 0
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_kiwi_id UUID,
+  object_name TEXT,
+  object_description TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  rank REAL,
+  updated_at TIMESTAMPTZ
+) AS $$
+DECLARE
+  v_query TSQUERY := fn_inventory_search_tsquery(p_text);
+BEGIN
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+  IF p_offset IS NULL OR p_offset < 0 THEN
+    RAISE EXCEPTION 'p_offset must be >= 0';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    v.inventory_item_id,
+    v.object_id,
+    v.object_kiwi_id,
+    v.object_name,
+    v.object_description,
+    v.object_category,
+    v.nickname,
+    v.house_id,
+    v.house_name,
+    v.house_location_leaf_id,
+    v.house_location_path,
+    CASE
+      WHEN v_query IS NULL THEN 1.0::REAL
+      ELSE ts_rank_cd(v.search_document, v_query, 32)::REAL
+    END AS item_rank,
+    v.item_updated_at
+  FROM inventory_search_view v
+  WHERE v.user_id = p_user_id
+    AND v.visible = TRUE
+    AND (v_query IS NULL OR v.search_document @@ v_query)
+    AND (p_house_id IS NULL OR v.house_id = p_house_id)
+    AND (p_house_location_leaf_id IS NULL OR v.house_location_leaf_id = p_house_location_leaf_id)
+  ORDER BY item_rank DESC, v.item_updated_at DESC, v.inventory_item_id DESC
+  LIMIT p_limit OFFSET p_offset;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_search_inventory_items_after(
+  p_user_id UUID,
+  p_text TEXT DEFAULT NULL,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_leaf_id UUID DEFAULT NULL,
+  p_after_rank REAL DEFAULT NULL,
+  p_after_updated_at TIMESTAMPTZ DEFAULT NULL,
+  p_after_inventory_item_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 50
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_kiwi_id UUID,
+  object_name TEXT,
+  object_description TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  rank REAL,
+  updated_at TIMESTAMPTZ
+) AS $$
+DECLARE
+  v_query TSQUERY := fn_inventory_search_tsquery(p_text);
+  v_after_rank REAL := COALESCE(p_after_rank, 'Infinity'::REAL);
+  v_after_updated_at TIMESTAMPTZ := COALESCE(p_after_updated_at, 'infinity'::TIMESTAMPTZ);
+  v_after_id UUID := COALESCE(p_after_inventory_item_id, 'ffffffff-ffff-ffff-ffff-ffffffffffff'::UUID);
+BEGIN
+  IF p_user_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id is required';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  IF v_query IS NULL THEN
+    -- Served straight from idx_inventory_search_view_user_updated.
+    RETURN QUERY
+    SELECT
+      v.inventory_item_id,
+      v.object_id,
+      v.object_kiwi_id,
+      v.object_name,
+      v.object_description,
+      v.object_category,
+      v.nickname,
+      v.house_id,
+      v.house_name,
+      v.house_location_leaf_id,
+      v.house_location_path,
+      1.0::REAL,
+      v.item_updated_at
+    FROM inventory_search_view v
+    WHERE v.user_id = p_user_id
+      AND v.visible = TRUE
+      AND (p_house_id IS NULL OR v.house_id = p_house_id)
+      AND (p_house_location_leaf_id IS NULL OR v.house_location_leaf_id = p_house_location_leaf_id)
+      AND (v.item_updated_at, v.inventory_item_id) < (v_after_updated_at, v_after_id)
+    ORDER BY v.item_updated_at DESC, v.inventory_item_id DESC
+    LIMIT p_limit;
+    RETURN;
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    ranked.inventory_item_id,
+    ranked.object_id,
+    ranked.object_kiwi_id,
+    ranked.object_name,
+    ranked.object_description,
+    ranked.object_category,
+    ranked.nickname,
+    ranked.house_id,
+    ranked.house_name,
+    ranked.house_location_leaf_id,
+    ranked.house_location_path,
+    ranked.item_rank,
+    ranked.item_updated_at
+  FROM (
+    SELECT
+      v.inventory_item_id,
+      v.object_id,
+      v.object_kiwi_id,
+      v.object_name,
+      v.object_description,
+      v.object_category,
+      v.nickname,
+      v.house_id,
+      v.house_name,
+      v.house_location_leaf_id,
+      v.house_location_path,
+      ts_rank_cd(v.search_document, v_query, 32)::REAL AS item_rank,
+      v.item_updated_at
+    FROM inventory_search_view v
+    WHERE v.user_id = p_user_id
+      AND v.visible = TRUE
+      AND v.search_document @@ v_query
+      AND (p_house_id IS NULL OR v.house_id = p_house_id)
+      AND (p_house_location_leaf_id IS NULL OR v.house_location_leaf_id = p_house_location_leaf_id)
+  ) ranked
+  WHERE (ranked.item_rank, ranked.item_updated_at, ranked.inventory_item_id)
+        < (v_after_rank, v_after_updated_at, v_after_id)
+  ORDER BY ranked.item_rank DESC, ranked.item_updated_at DESC, ranked.inventory_item_id DESC
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
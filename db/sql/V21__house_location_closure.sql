@@ -0,0 +1,247 @@
+BEGIN;
+
+-- Closure table for the house_locations hierarchy: one row per
+-- (ancestor, descendant) pair, including the (node, node, 0) self row.
+-- Subtree queries become a single lookup on the primary key instead of a
+-- WITH RECURSIVE walk. Enabled/disabled state is not encoded here; callers
+-- keep filtering on house_locations.enabled as before.
+
+CREATE TABLE house_location_closure (
+  ancestor_id UUID NOT NULL REFERENCES house_locations(house_location_id) ON DELETE CASCADE,
+  descendant_id UUID NOT NULL REFERENCES house_locations(house_location_id) ON DELETE CASCADE,
+  depth INT NOT NULL,
+  CONSTRAINT pk_house_location_closure PRIMARY KEY (ancestor_id, descendant_id),
+  CONSTRAINT chk_house_location_closure_depth CHECK (depth >= 0)
+);
+
+CREATE INDEX idx_house_location_closure_descendant
+ON house_location_closure(descendant_id, depth);
+
+CREATE OR REPLACE FUNCTION trg_house_locations_closure_insert()
+RETURNS TRIGGER AS $$
+BEGIN
+  INSERT INTO house_location_closure (ancestor_id, descendant_id, depth)
+  VALUES (NEW.house_location_id, NEW.house_location_id, 0);
+
+  IF NEW.parent_house_location_id IS NOT NULL THEN
+    INSERT INTO house_location_closure (ancestor_id, descendant_id, depth)
+    SELECT c.ancestor_id, NEW.house_location_id, c.depth + 1
+    FROM house_location_closure c
+    WHERE c.descendant_id = NEW.parent_house_location_id;
+  END IF;
+
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_house_locations_closure_reparent()
+RETURNS TRIGGER AS $$
+BEGIN
+  IF NEW.parent_house_location_id IS NOT NULL AND EXISTS (
+    SELECT 1
+    FROM house_location_closure c
+    WHERE c.ancestor_id = NEW.house_location_id
+      AND c.descendant_id = NEW.parent_house_location_id
+  ) THEN
+    RAISE EXCEPTION 'parent_house_location_id % is inside the subtree of %',
+      NEW.parent_house_location_id, NEW.house_location_id;
+  END IF;
+
+  -- Detach the subtree from its old ancestors...
+  DELETE FROM house_location_closure c
+  WHERE c.descendant_id IN (
+      SELECT sub.descendant_id
+      FROM house_location_closure sub
+      WHERE sub.ancestor_id = NEW.house_location_id
+    )
+    AND c.ancestor_id NOT IN (
+      SELECT sub.descendant_id
+      FROM house_location_closure sub
+      WHERE sub.ancestor_id = NEW.house_location_id
+    );
+
+  -- ...and attach it below the new parent.
+  IF NEW.parent_house_location_id IS NOT NULL THEN
+    INSERT INTO house_location_closure (ancestor_id, descendant_id, depth)
+    SELECT super.ancestor_id, sub.descendant_id, super.depth + sub.depth + 1
+    FROM house_location_closure super
+    CROSS JOIN house_location_closure sub
+    WHERE super.descendant_id = NEW.parent_house_location_id
+      AND sub.ancestor_id = NEW.house_location_id;
+  END IF;
+
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_house_locations_closure_insert
+AFTER INSERT ON house_locations
+FOR EACH ROW
+EXECUTE FUNCTION trg_house_locations_closure_insert();
+
+CREATE TRIGGER trg_house_locations_closure_reparent
+AFTER UPDATE OF parent_house_location_id ON house_locations
+FOR EACH ROW
+WHEN (OLD.parent_house_location_id IS DISTINCT FROM NEW.parent_house_location_id)
+EXECUTE FUNCTION trg_house_locations_closure_reparent();
+
+INSERT INTO house_location_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE tree AS (
+  SELECT hl.house_location_id AS ancestor_id, hl.house_location_id AS descendant_id, 0 AS depth
+  FROM house_locations hl
+
+  UNION ALL
+
+  SELECT tree.ancestor_id, child.house_location_id, tree.depth + 1
+  FROM tree
+  INNER JOIN house_locations child
+    ON child.parent_house_location_id = tree.descendant_id
+)
+SELECT ancestor_id, descendant_id, depth
+FROM tree;
+
+CREATE OR REPLACE FUNCTION api_list_inventory_by_location(
+  p_user_id UUID,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_id UUID DEFAULT NULL,
+  p_include_descendants BOOLEAN DEFAULT TRUE,
+  p_limit INT DEFAULT 200,
+  p_offset INT DEFAULT 0
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_name TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  assigned_at TIMESTAMPTZ
+) AS $$
+BEGIN
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+  IF p_offset IS NULL OR p_offset < 0 THEN
+    RAISE EXCEPTION 'p_offset must be >= 0';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    ii.inventory_item_id,
+    o.object_id,
+    o.name,
+    ii.nickname,
+    h.house_id,
+    h.name,
+    hl.house_location_id,
+    hl.path,
+    icl.assigned_at
+  FROM inventory_items ii
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  INNER JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.enabled = TRUE
+   AND icl.is_current = TRUE
+  INNER JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+   AND hl.enabled = TRUE
+  INNER JOIN houses h
+    ON h.house_id = hl.house_id
+   AND h.enabled = TRUE
+  WHERE ii.user_id = p_user_id
+    AND ii.enabled = TRUE
+    AND o.enabled = TRUE
+    AND (p_house_id IS NULL OR h.house_id = p_house_id)
+    AND (
+      p_house_location_id IS NULL
+      OR hl.house_location_id IN (
+        SELECT c.descendant_id
+        FROM house_location_closure c
+        WHERE c.ancestor_id = p_house_location_id
+          AND (COALESCE(p_include_descendants, TRUE) OR c.depth = 0)
+      )
+    )
+  ORDER BY hl.path, o.name, ii.inventory_item_id
+  LIMIT p_limit OFFSET p_offset;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_list_inventory_by_location_after(
+  p_user_id UUID,
+  p_house_id UUID DEFAULT NULL,
+  p_house_location_id UUID DEFAULT NULL,
+  p_include_descendants BOOLEAN DEFAULT TRUE,
+  p_after_path TEXT DEFAULT NULL,
+  p_after_object_name TEXT DEFAULT NULL,
+  p_after_inventory_item_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 200
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_name TEXT,
+  nickname TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  assigned_at TIMESTAMPTZ
+) AS $$
+BEGIN
+  IF p_user_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id is required';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    ii.inventory_item_id,
+    o.object_id,
+    o.name,
+    ii.nickname,
+    h.house_id,
+    h.name,
+    hl.house_location_id,
+    hl.path,
+    icl.assigned_at
+  FROM inventory_items ii
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  INNER JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.enabled = TRUE
+   AND icl.is_current = TRUE
+  INNER JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+   AND hl.enabled = TRUE
+  INNER JOIN houses h
+    ON h.house_id = hl.house_id
+   AND h.enabled = TRUE
+  WHERE ii.user_id = p_user_id
+    AND ii.enabled = TRUE
+    AND o.enabled = TRUE
+    AND (p_house_id IS NULL OR h.house_id = p_house_id)
+    AND (
+      p_house_location_id IS NULL
+      OR hl.house_location_id IN (
+        SELECT c.descendant_id
+        FROM house_location_closure c
+        WHERE c.ancestor_id = p_house_location_id
+          AND (COALESCE(p_include_descendants, TRUE) OR c.depth = 0)
+      )
+    )
+    AND (
+      p_after_inventory_item_id IS NULL
+      OR (hl.path, o.name, ii.inventory_item_id) > (p_after_path, p_after_object_name, p_after_inventory_item_id)
+    )
+  ORDER BY hl.path, o.name, ii.inventory_item_id
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
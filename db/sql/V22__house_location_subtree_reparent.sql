@@ -0,0 +1,211 @@
+BEGIN;
+
+-- Re-parenting a location must rewrite path and level_depth for its whole
+-- subtree. The rewrite runs as one UPDATE joined against
+-- house_location_closure, fired after the closure itself has been re-linked
+-- (trigger names sort trg_house_locations_closure_* first).
+
+-- Derived columns are only recomputed when the row moves; otherwise updates
+-- issued by the subtree rewrite would be overwritten row by row.
+CREATE OR REPLACE FUNCTION trg_house_locations_validate_and_fill()
+RETURNS TRIGGER AS $$
+DECLARE
+  v_parent_house_id UUID;
+  v_parent_depth INT;
+  v_parent_path TEXT;
+BEGIN
+  IF TG_OP = 'UPDATE'
+     AND NEW.parent_house_location_id IS NOT DISTINCT FROM OLD.parent_house_location_id
+     AND NEW.house_id IS NOT DISTINCT FROM OLD.house_id
+     AND NEW.path IS NOT NULL
+     AND btrim(NEW.path) <> '' THEN
+    RETURN NEW;
+  END IF;
+
+  IF NEW.parent_house_location_id IS NULL THEN
+    NEW.level_depth := 0;
+    IF NEW.path IS NULL OR btrim(NEW.path) = '' THEN
+      NEW.path := NEW.name;
+    END IF;
+    RETURN NEW;
+  END IF;
+
+  SELECT house_id, level_depth, path
+    INTO v_parent_house_id, v_parent_depth, v_parent_path
+  FROM house_locations
+  WHERE house_location_id = NEW.parent_house_location_id;
+
+  IF v_parent_house_id IS NULL THEN
+    RAISE EXCEPTION 'parent_house_location_id % does not exist', NEW.parent_house_location_id;
+  END IF;
+
+  IF v_parent_house_id <> NEW.house_id THEN
+    RAISE EXCEPTION 'parent_house_location_id % belongs to a different house', NEW.parent_house_location_id;
+  END IF;
+
+  NEW.level_depth := v_parent_depth + 1;
+
+  IF NEW.path IS NULL OR btrim(NEW.path) = '' THEN
+    NEW.path := v_parent_path || ' > ' || NEW.name;
+  END IF;
+
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_house_locations_rewrite_subtree()
+RETURNS TRIGGER AS $$
+DECLARE
+  v_old_root_path TEXT := OLD.path;
+  v_new_root_path TEXT;
+BEGIN
+  IF NEW.path IS DISTINCT FROM OLD.path THEN
+    -- The caller supplied an explicit path for the moved node; honour it.
+    v_new_root_path := NEW.path;
+  ELSIF NEW.parent_house_location_id IS NULL THEN
+    v_new_root_path := NEW.name;
+  ELSE
+    SELECT p.path || ' > ' || NEW.name
+      INTO v_new_root_path
+    FROM house_locations p
+    WHERE p.house_location_id = NEW.parent_house_location_id;
+  END IF;
+
+  UPDATE house_locations d
+     SET level_depth = NEW.level_depth + c.depth,
+         path = CASE
+           WHEN c.depth = 0 THEN v_new_root_path
+           WHEN v_old_root_path IS NOT NULL
+                AND left(d.path, char_length(v_old_root_path)) = v_old_root_path
+             THEN v_new_root_path || substr(d.path, char_length(v_old_root_path) + 1)
+           ELSE d.path
+         END
+    FROM house_location_closure c
+   WHERE c.ancestor_id = NEW.house_location_id
+     AND d.house_location_id = c.descendant_id;
+
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_house_locations_rewrite_subtree
+AFTER UPDATE OF parent_house_location_id ON house_locations
+FOR EACH ROW
+WHEN (OLD.parent_house_location_id IS DISTINCT FROM NEW.parent_house_location_id)
+EXECUTE FUNCTION trg_house_locations_rewrite_subtree();
+
+-- The subtree rewrite touches many rows in one statement; refresh the search
+-- read model once per statement instead of once per location.
+DROP TRIGGER IF EXISTS trg_house_locations_refresh_search_view ON house_locations;
+DROP FUNCTION IF EXISTS trg_inventory_search_view_refresh_location();
+
+CREATE OR REPLACE FUNCTION trg_inventory_search_view_refresh_locations()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_search_view(ARRAY(
+    SELECT icl.inventory_item_id
+    FROM new_locations n
+    INNER JOIN old_locations o
+      ON o.house_location_id = n.house_location_id
+    INNER JOIN item_current_location icl
+      ON icl.house_location_leaf_id = n.house_location_id
+    WHERE o.path IS DISTINCT FROM n.path
+       OR o.enabled IS DISTINCT FROM n.enabled
+  ));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_house_locations_refresh_search_view
+AFTER UPDATE ON house_locations
+REFERENCING OLD TABLE AS old_locations NEW TABLE AS new_locations
+FOR EACH STATEMENT
+EXECUTE FUNCTION trg_inventory_search_view_refresh_locations();
+
+CREATE OR REPLACE FUNCTION api_move_house_location(
+  p_house_id UUID,
+  p_house_location_id UUID,
+  p_new_parent_house_location_id UUID DEFAULT NULL
+)
+RETURNS TABLE (
+  house_location_id UUID,
+  parent_house_location_id UUID,
+  path TEXT,
+  level_depth INT,
+  subtree_size INT
+) AS $$
+DECLARE
+  v_location_house_id UUID;
+  v_parent_house_id UUID;
+  v_parent_is_leaf BOOLEAN;
+  v_parent_kiwi_location_id UUID;
+BEGIN
+  IF p_house_id IS NULL OR p_house_location_id IS NULL THEN
+    RAISE EXCEPTION 'p_house_id and p_house_location_id are required';
+  END IF;
+
+  -- Serialise structural edits per house so concurrent moves cannot build a cycle.
+  PERFORM pg_advisory_xact_lock(hashtextextended(p_house_id::TEXT, 0));
+
+  SELECT hl.house_id
+    INTO v_location_house_id
+  FROM house_locations hl
+  WHERE hl.house_location_id = p_house_location_id
+  FOR UPDATE;
+
+  IF v_location_house_id IS NULL OR v_location_house_id <> p_house_id THEN
+    RAISE EXCEPTION 'house location % does not belong to house %', p_house_location_id, p_house_id;
+  END IF;
+
+  IF p_new_parent_house_location_id IS NOT NULL THEN
+    IF p_new_parent_house_location_id = p_house_location_id THEN
+      RAISE EXCEPTION 'a house location cannot be its own parent';
+    END IF;
+
+    SELECT hl.house_id, hl.is_leaf, hl.kiwi_location_id
+      INTO v_parent_house_id, v_parent_is_leaf, v_parent_kiwi_location_id
+    FROM house_locations hl
+    WHERE hl.house_location_id = p_new_parent_house_location_id;
+
+    IF v_parent_house_id IS NULL OR v_parent_house_id <> p_house_id THEN
+      RAISE EXCEPTION 'parent house location % does not belong to house %',
+        p_new_parent_house_location_id, p_house_id;
+    END IF;
+
+    IF v_parent_is_leaf THEN
+      RAISE EXCEPTION 'parent house location % is a leaf', p_new_parent_house_location_id;
+    END IF;
+
+    IF EXISTS (
+      SELECT 1
+      FROM house_location_closure c
+      WHERE c.ancestor_id = p_house_location_id
+        AND c.descendant_id = p_new_parent_house_location_id
+    ) THEN
+      RAISE EXCEPTION 'parent house location % is inside the subtree of %',
+        p_new_parent_house_location_id, p_house_location_id;
+    END IF;
+  END IF;
+
+  UPDATE house_locations hl
+     SET parent_house_location_id = p_new_parent_house_location_id,
+         kiwi_parent_location_id = v_parent_kiwi_location_id
+   WHERE hl.house_location_id = p_house_location_id;
+
+  RETURN QUERY
+  SELECT
+    hl.house_location_id,
+    hl.parent_house_location_id,
+    hl.path,
+    hl.level_depth,
+    (
+      SELECT count(*)::INT
+      FROM house_location_closure c
+      WHERE c.ancestor_id = hl.house_location_id
+    )
+  FROM house_locations hl
+  WHERE hl.house_location_id = p_house_location_id;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
@@ -0,0 +1,214 @@
+BEGIN;
+
+-- Nearby search used to filter and sort on COALESCE(hl.geo_location, h.geo_location),
+-- which neither GiST index on house_locations nor houses can serve. The
+-- effective point (leaf location, falling back to the house) is now stored on
+-- inventory_search_view and indexed together with user_id, so the KNN operator
+-- <-> walks the index in distance order and stops after LIMIT rows.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE inventory_search_view
+  ADD COLUMN IF NOT EXISTS geo_location GEOGRAPHY(Point, 4326);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_search_view_user_geo_location
+ON inventory_search_view
+USING gist (user_id, geo_location)
+WHERE visible = TRUE AND geo_location IS NOT NULL;
+
+CREATE OR REPLACE FUNCTION fn_refresh_inventory_search_view(p_inventory_item_ids UUID[])
+RETURNS VOID AS $$
+BEGIN
+  IF p_inventory_item_ids IS NULL OR cardinality(p_inventory_item_ids) = 0 THEN
+    RETURN;
+  END IF;
+
+  INSERT INTO inventory_search_view (
+    inventory_item_id,
+    user_id,
+    object_id,
+    object_kiwi_id,
+    object_name,
+    object_description,
+    object_category,
+    nickname,
+    serial_number,
+    house_id,
+    house_name,
+    house_location_leaf_id,
+    house_location_path,
+    geo_location,
+    item_updated_at,
+    search_document,
+    visible,
+    refreshed_at
+  )
+  SELECT
+    ii.inventory_item_id,
+    ii.user_id,
+    o.object_id,
+    o.object_kiwi_id,
+    o.name,
+    o.description,
+    o.category,
+    ii.nickname,
+    ii.serial_number,
+    h.house_id,
+    h.name,
+    hl.house_location_id,
+    hl.path,
+    COALESCE(hl.geo_location, h.geo_location),
+    ii.updated_at,
+    setweight(to_tsvector('simple', COALESCE(o.name, '')), 'A')
+      || setweight(to_tsvector('simple', COALESCE(ii.nickname, '')), 'A')
+      || setweight(to_tsvector('simple', COALESCE(o.category, '')), 'B')
+      || setweight(to_tsvector('simple', COALESCE(ii.serial_number, '')), 'B')
+      || setweight(to_tsvector('simple', COALESCE(hl.path, '')), 'C')
+      || setweight(to_tsvector('simple', COALESCE(o.description, '')), 'D'),
+    ii.enabled AND o.enabled AND COALESCE(hl.enabled, FALSE) AND COALESCE(h.enabled, FALSE),
+    now()
+  FROM inventory_items ii
+  INNER JOIN objects o
+    ON o.object_id = ii.object_id
+  LEFT JOIN item_current_location icl
+    ON icl.inventory_item_id = ii.inventory_item_id
+   AND icl.is_current = TRUE
+   AND icl.enabled = TRUE
+  LEFT JOIN house_locations hl
+    ON hl.house_location_id = icl.house_location_leaf_id
+  LEFT JOIN houses h
+    ON h.house_id = hl.house_id
+  WHERE ii.inventory_item_id = ANY(p_inventory_item_ids)
+  ON CONFLICT (inventory_item_id)
+  DO UPDATE SET
+    user_id = EXCLUDED.user_id,
+    object_id = EXCLUDED.object_id,
+    object_kiwi_id = EXCLUDED.object_kiwi_id,
+    object_name = EXCLUDED.object_name,
+    object_description = EXCLUDED.object_description,
+    object_category = EXCLUDED.object_category,
+    nickname = EXCLUDED.nickname,
+    serial_number = EXCLUDED.serial_number,
+    house_id = EXCLUDED.house_id,
+    house_name = EXCLUDED.house_name,
+    house_location_leaf_id = EXCLUDED.house_location_leaf_id,
+    house_location_path = EXCLUDED.house_location_path,
+    geo_location = EXCLUDED.geo_location,
+    item_updated_at = EXCLUDED.item_updated_at,
+    search_document = EXCLUDED.search_document,
+    visible = EXCLUDED.visible,
+    refreshed_at = EXCLUDED.refreshed_at;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Coordinates now feed the read model, so location and house triggers must
+-- also fire when latitude/longitude change.
+CREATE OR REPLACE FUNCTION trg_inventory_search_view_refresh_locations()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_search_view(ARRAY(
+    SELECT icl.inventory_item_id
+    FROM new_locations n
+    INNER JOIN old_locations o
+      ON o.house_location_id = n.house_location_id
+    INNER JOIN item_current_location icl
+      ON icl.house_location_leaf_id = n.house_location_id
+    WHERE o.path IS DISTINCT FROM n.path
+       OR o.enabled IS DISTINCT FROM n.enabled
+       OR o.latitude IS DISTINCT FROM n.latitude
+       OR o.longitude IS DISTINCT FROM n.longitude
+  ));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_houses_refresh_search_view ON houses;
+CREATE TRIGGER trg_houses_refresh_search_view
+AFTER UPDATE OF name, enabled, latitude, longitude ON houses
+FOR EACH ROW
+WHEN (
+  OLD.name IS DISTINCT FROM NEW.name
+  OR OLD.enabled IS DISTINCT FROM NEW.enabled
+  OR OLD.latitude IS DISTINCT FROM NEW.latitude
+  OR OLD.longitude IS DISTINCT FROM NEW.longitude
+)
+EXECUTE FUNCTION trg_inventory_search_view_refresh_house();
+
+SELECT fn_refresh_inventory_search_view(ARRAY(SELECT inventory_item_id FROM inventory_items));
+
+-- p_radius_meters NULL returns the nearest p_limit items with no distance cap;
+-- a positive radius keeps the previous radius-bounded behaviour.
+DROP FUNCTION IF EXISTS api_search_inventory_items_near_point(UUID, NUMERIC, NUMERIC, DOUBLE PRECISION, INT, INT);
+CREATE OR REPLACE FUNCTION api_search_inventory_items_near_point(
+  p_user_id UUID,
+  p_latitude NUMERIC,
+  p_longitude NUMERIC,
+  p_radius_meters DOUBLE PRECISION DEFAULT 1000,
+  p_limit INT DEFAULT 50,
+  p_offset INT DEFAULT 0
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_name TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  distance_meters DOUBLE PRECISION
+) AS $$
+DECLARE
+  v_origin GEOGRAPHY(Point, 4326);
+BEGIN
+  IF p_latitude IS NULL OR p_longitude IS NULL THEN
+    RAISE EXCEPTION 'p_latitude and p_longitude are required';
+  END IF;
+  IF p_radius_meters IS NOT NULL AND p_radius_meters <= 0 THEN
+    RAISE EXCEPTION 'p_radius_meters must be > 0';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+  IF p_offset IS NULL OR p_offset < 0 THEN
+    RAISE EXCEPTION 'p_offset must be >= 0';
+  END IF;
+
+  v_origin := ST_SetSRID(ST_MakePoint(p_longitude, p_latitude), 4326)::GEOGRAPHY;
+
+  -- The inner query is ordered by <-> alone so the planner can use the KNN
+  -- index scan; ties are broken on the already-limited candidate set.
+  RETURN QUERY
+  SELECT
+    k.inventory_item_id,
+    k.object_id,
+    k.object_name,
+    k.house_id,
+    k.house_name,
+    k.house_location_leaf_id,
+    k.house_location_path,
+    ST_Distance(k.geo_location, v_origin) AS distance_meters
+  FROM (
+    SELECT
+      v.inventory_item_id,
+      v.object_id,
+      v.object_name,
+      v.house_id,
+      v.house_name,
+      v.house_location_leaf_id,
+      v.house_location_path,
+      v.geo_location,
+      v.item_updated_at
+    FROM inventory_search_view v
+    WHERE v.user_id = p_user_id
+      AND v.visible = TRUE
+      AND v.geo_location IS NOT NULL
+      AND (p_radius_meters IS NULL OR ST_DWithin(v.geo_location, v_origin, p_radius_meters))
+    ORDER BY v.geo_location <-> v_origin
+    LIMIT p_limit + p_offset
+  ) k
+  ORDER BY distance_meters ASC, k.item_updated_at DESC, k.inventory_item_id DESC
+  LIMIT p_limit OFFSET p_offset;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
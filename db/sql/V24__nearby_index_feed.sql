@@ -0,0 +1,94 @@
+BEGIN;
+
+-- Feed for the in-process nearby index: every visible item with an effective
+-- point, read from inventory_search_view. The index loads with the paged
+-- variant and refreshes incrementally by item ids or by house.
+
+CREATE OR REPLACE FUNCTION api_list_nearby_index_entries(
+  p_after_inventory_item_id UUID DEFAULT NULL,
+  p_limit INT DEFAULT 5000
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  user_id UUID,
+  object_id UUID,
+  object_name TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  latitude DOUBLE PRECISION,
+  longitude DOUBLE PRECISION,
+  item_updated_at TIMESTAMPTZ
+) AS $$
+BEGIN
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    v.inventory_item_id,
+    v.user_id,
+    v.object_id,
+    v.object_name,
+    v.house_id,
+    v.house_name,
+    v.house_location_leaf_id,
+    v.house_location_path,
+    ST_Y(v.geo_location::GEOMETRY),
+    ST_X(v.geo_location::GEOMETRY),
+    v.item_updated_at
+  FROM inventory_search_view v
+  WHERE v.visible = TRUE
+    AND v.geo_location IS NOT NULL
+    AND (p_after_inventory_item_id IS NULL OR v.inventory_item_id > p_after_inventory_item_id)
+  ORDER BY v.inventory_item_id ASC
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_find_nearby_index_entries(
+  p_inventory_item_ids UUID[] DEFAULT NULL,
+  p_house_id UUID DEFAULT NULL
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  user_id UUID,
+  object_id UUID,
+  object_name TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  latitude DOUBLE PRECISION,
+  longitude DOUBLE PRECISION,
+  item_updated_at TIMESTAMPTZ
+) AS $$
+BEGIN
+  IF p_inventory_item_ids IS NULL AND p_house_id IS NULL THEN
+    RAISE EXCEPTION 'p_inventory_item_ids or p_house_id is required';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    v.inventory_item_id,
+    v.user_id,
+    v.object_id,
+    v.object_name,
+    v.house_id,
+    v.house_name,
+    v.house_location_leaf_id,
+    v.house_location_path,
+    ST_Y(v.geo_location::GEOMETRY),
+    ST_X(v.geo_location::GEOMETRY),
+    v.item_updated_at
+  FROM inventory_search_view v
+  WHERE v.visible = TRUE
+    AND v.geo_location IS NOT NULL
+    AND (p_inventory_item_ids IS NULL OR v.inventory_item_id = ANY(p_inventory_item_ids))
+    AND (p_house_id IS NULL OR v.house_id = p_house_id);
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
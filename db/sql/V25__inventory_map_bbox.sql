@@ -0,0 +1,155 @@
+BEGIN;
+
+-- Map view: houses and item points inside a lon/lat bounding box. Item points
+-- come from inventory_search_view.geo_location (V23) through the
+-- (user_id, geo_location) GiST index with the && envelope operator. When
+-- p_cell_degrees is given, items are grouped server-side into a regular grid
+-- and one row per non-empty cell (count + centroid) is returned instead.
+
+CREATE INDEX IF NOT EXISTS idx_house_members_user_house_enabled
+ON house_members(user_id, house_id)
+WHERE enabled = TRUE;
+
+CREATE OR REPLACE FUNCTION api_inventory_map(
+  p_user_id UUID,
+  p_min_longitude DOUBLE PRECISION,
+  p_min_latitude DOUBLE PRECISION,
+  p_max_longitude DOUBLE PRECISION,
+  p_max_latitude DOUBLE PRECISION,
+  p_cell_degrees DOUBLE PRECISION DEFAULT NULL,
+  p_limit INT DEFAULT 500
+)
+RETURNS TABLE (
+  feature_kind TEXT,
+  item_count INT,
+  latitude DOUBLE PRECISION,
+  longitude DOUBLE PRECISION,
+  inventory_item_id UUID,
+  object_name TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT
+) AS $$
+DECLARE
+  v_envelope GEOGRAPHY;
+BEGIN
+  IF p_user_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id is required';
+  END IF;
+  IF p_min_longitude IS NULL OR p_min_latitude IS NULL OR p_max_longitude IS NULL OR p_max_latitude IS NULL THEN
+    RAISE EXCEPTION 'bounding box is required';
+  END IF;
+  IF p_min_longitude < -180 OR p_max_longitude > 180 OR p_min_latitude < -90 OR p_max_latitude > 90 THEN
+    RAISE EXCEPTION 'bounding box is out of range';
+  END IF;
+  IF p_min_longitude >= p_max_longitude OR p_min_latitude >= p_max_latitude THEN
+    RAISE EXCEPTION 'bounding box min must be lower than max';
+  END IF;
+  IF p_cell_degrees IS NOT NULL AND p_cell_degrees <= 0 THEN
+    RAISE EXCEPTION 'p_cell_degrees must be > 0';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+
+  -- Geography edges are great circles; segmentizing keeps the envelope close
+  -- to the lon/lat rectangle so && does not drop points near its edges. The
+  -- BETWEEN checks below are the exact recheck.
+  v_envelope := ST_Segmentize(
+    ST_MakeEnvelope(p_min_longitude, p_min_latitude, p_max_longitude, p_max_latitude, 4326),
+    1.0
+  )::GEOGRAPHY;
+
+  RETURN QUERY
+  SELECT
+    'house'::TEXT,
+    NULL::INT,
+    ST_Y(h.geo_location::GEOMETRY),
+    ST_X(h.geo_location::GEOMETRY),
+    NULL::UUID,
+    NULL::TEXT,
+    h.house_id,
+    h.name,
+    NULL::UUID,
+    NULL::TEXT
+  FROM house_members hm
+  INNER JOIN houses h
+    ON h.house_id = hm.house_id
+  WHERE hm.user_id = p_user_id
+    AND hm.enabled = TRUE
+    AND h.enabled = TRUE
+    AND h.geo_location && v_envelope
+    AND h.longitude BETWEEN p_min_longitude AND p_max_longitude
+    AND h.latitude BETWEEN p_min_latitude AND p_max_latitude;
+
+  IF p_cell_degrees IS NULL THEN
+    RETURN QUERY
+    SELECT
+      'item'::TEXT,
+      1,
+      p.lat,
+      p.lon,
+      p.inventory_item_id,
+      p.object_name,
+      p.house_id,
+      p.house_name,
+      p.house_location_leaf_id,
+      p.house_location_path
+    FROM (
+      SELECT
+        v.inventory_item_id,
+        v.object_name,
+        v.house_id,
+        v.house_name,
+        v.house_location_leaf_id,
+        v.house_location_path,
+        v.item_updated_at,
+        ST_Y(v.geo_location::GEOMETRY) AS lat,
+        ST_X(v.geo_location::GEOMETRY) AS lon
+      FROM inventory_search_view v
+      WHERE v.user_id = p_user_id
+        AND v.visible = TRUE
+        AND v.geo_location IS NOT NULL
+        AND v.geo_location && v_envelope
+    ) p
+    WHERE p.lon BETWEEN p_min_longitude AND p_max_longitude
+      AND p.lat BETWEEN p_min_latitude AND p_max_latitude
+    ORDER BY p.item_updated_at DESC, p.inventory_item_id DESC
+    LIMIT p_limit;
+    RETURN;
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    'cluster'::TEXT,
+    count(*)::INT,
+    avg(p.lat)::DOUBLE PRECISION,
+    avg(p.lon)::DOUBLE PRECISION,
+    CASE WHEN count(*) = 1 THEN (array_agg(p.inventory_item_id))[1] END,
+    CASE WHEN count(*) = 1 THEN (array_agg(p.object_name))[1] END,
+    NULL::UUID,
+    NULL::TEXT,
+    NULL::UUID,
+    NULL::TEXT
+  FROM (
+    SELECT
+      v.inventory_item_id,
+      v.object_name,
+      ST_Y(v.geo_location::GEOMETRY) AS lat,
+      ST_X(v.geo_location::GEOMETRY) AS lon
+    FROM inventory_search_view v
+    WHERE v.user_id = p_user_id
+      AND v.visible = TRUE
+      AND v.geo_location IS NOT NULL
+      AND v.geo_location && v_envelope
+  ) p
+  WHERE p.lon BETWEEN p_min_longitude AND p_max_longitude
+    AND p.lat BETWEEN p_min_latitude AND p_max_latitude
+  GROUP BY floor(p.lon / p_cell_degrees), floor(p.lat / p_cell_degrees)
+  ORDER BY count(*) DESC
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
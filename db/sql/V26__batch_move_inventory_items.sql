@@ -0,0 +1,74 @@
+BEGIN;
+
+-- Applies many moves in one call (one transaction, one round trip). Each
+-- element goes through api_move_inventory_item so movement history, leaf
+-- validation and read-model triggers behave exactly as for single moves.
+-- Items are processed in inventory_item_id order so concurrent batches take
+-- the per-item advisory locks in the same order; callers restore request
+-- order with batch_index. Any failure rolls back the whole batch.
+CREATE OR REPLACE FUNCTION api_move_inventory_items(
+  p_inventory_item_ids UUID[],
+  p_to_house_location_leaf_ids UUID[],
+  p_moved_by TEXT[] DEFAULT NULL,
+  p_movement_reasons TEXT[] DEFAULT NULL,
+  p_notes TEXT[] DEFAULT NULL,
+  p_moved_at TIMESTAMPTZ DEFAULT now()
+)
+RETURNS TABLE (
+  batch_index INT,
+  item_movement_id UUID,
+  inventory_item_id UUID,
+  from_house_location_leaf_id UUID,
+  to_house_location_leaf_id UUID,
+  moved_at TIMESTAMPTZ
+) AS $$
+DECLARE
+  v_count INT;
+  v_move RECORD;
+BEGIN
+  v_count := COALESCE(cardinality(p_inventory_item_ids), 0);
+  IF v_count = 0 THEN
+    RAISE EXCEPTION 'p_inventory_item_ids is required';
+  END IF;
+  IF COALESCE(cardinality(p_to_house_location_leaf_ids), 0) <> v_count
+     OR (p_moved_by IS NOT NULL AND cardinality(p_moved_by) <> v_count)
+     OR (p_movement_reasons IS NOT NULL AND cardinality(p_movement_reasons) <> v_count)
+     OR (p_notes IS NOT NULL AND cardinality(p_notes) <> v_count) THEN
+    RAISE EXCEPTION 'batch arrays must have the same length';
+  END IF;
+  IF (SELECT count(DISTINCT u.id) FROM unnest(p_inventory_item_ids) AS u(id)) <> v_count THEN
+    RAISE EXCEPTION 'p_inventory_item_ids must not contain duplicates';
+  END IF;
+
+  FOR v_move IN
+    SELECT
+      m.ord::INT AS idx,
+      m.item_id,
+      p_to_house_location_leaf_ids[m.ord] AS leaf_id,
+      p_moved_by[m.ord] AS moved_by,
+      p_movement_reasons[m.ord] AS movement_reason,
+      p_notes[m.ord] AS notes
+    FROM unnest(p_inventory_item_ids) WITH ORDINALITY AS m(item_id, ord)
+    ORDER BY m.item_id
+  LOOP
+    RETURN QUERY
+    SELECT
+      v_move.idx,
+      r.item_movement_id,
+      r.inventory_item_id,
+      r.from_house_location_leaf_id,
+      r.to_house_location_leaf_id,
+      r.moved_at
+    FROM api_move_inventory_item(
+      v_move.item_id,
+      v_move.leaf_id,
+      v_move.moved_by,
+      v_move.movement_reason,
+      v_move.notes,
+      p_moved_at
+    ) r;
+  END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
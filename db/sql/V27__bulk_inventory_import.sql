@@ -0,0 +1,420 @@
+BEGIN;
+
+-- Bulk inventory import. Inside one transaction the caller runs
+-- api_begin_inventory_import(), streams rows with COPY into the session
+-- staging tables and finishes with api_import_inventory_items():
+--   inventory_import_staging  CSV rows, one TEXT column per field
+--   inventory_import_lines    NDJSON lines (row_no, raw JSON text)
+-- Staging columns are plain TEXT so a malformed value becomes a per-row error
+-- instead of aborting the COPY. Objects and leaves are resolved with joins and
+-- items, current locations and 'initial_assignment' movements are written with
+-- one INSERT each, matching what api_create_inventory_item does per item.
+
+-- Set-based inserts would otherwise refresh the search read model once per
+-- row; insert refreshes now run once per statement. Updates keep the row
+-- triggers (single moves and edits touch one row anyway).
+DROP TRIGGER IF EXISTS trg_inventory_items_refresh_search_view ON inventory_items;
+DROP TRIGGER IF EXISTS trg_item_current_location_refresh_search_view ON item_current_location;
+
+CREATE OR REPLACE FUNCTION trg_inventory_search_view_refresh_inserted_items()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM fn_refresh_inventory_search_view(ARRAY(
+    SELECT DISTINCT n.inventory_item_id
+    FROM new_rows n
+  ));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_inventory_items_refresh_search_view
+AFTER UPDATE ON inventory_items
+FOR EACH ROW
+EXECUTE FUNCTION trg_inventory_search_view_refresh_item();
+
+CREATE TRIGGER trg_inventory_items_insert_refresh_search_view
+AFTER INSERT ON inventory_items
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION trg_inventory_search_view_refresh_inserted_items();
+
+CREATE TRIGGER trg_item_current_location_refresh_search_view
+AFTER UPDATE OF house_location_leaf_id, is_current, enabled ON item_current_location
+FOR EACH ROW
+EXECUTE FUNCTION trg_inventory_search_view_refresh_item();
+
+CREATE TRIGGER trg_item_current_location_insert_refresh_search_view
+AFTER INSERT ON item_current_location
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION trg_inventory_search_view_refresh_inserted_items();
+
+CREATE OR REPLACE FUNCTION fn_import_try_jsonb(p_text TEXT)
+RETURNS JSONB AS $$
+BEGIN
+  RETURN p_text::JSONB;
+EXCEPTION
+  WHEN invalid_text_representation THEN
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- Staging tables are temporary and dropped on commit, so this must run inside
+-- the same transaction as the COPY and api_import_inventory_items().
+CREATE OR REPLACE FUNCTION api_begin_inventory_import()
+RETURNS VOID AS $$
+BEGIN
+  DROP TABLE IF EXISTS pg_temp.inventory_import_rows;
+  DROP TABLE IF EXISTS pg_temp.inventory_import_lines;
+  DROP TABLE IF EXISTS pg_temp.inventory_import_staging;
+
+  CREATE TEMP TABLE inventory_import_lines (
+    row_no BIGINT NOT NULL,
+    doc TEXT
+  ) ON COMMIT DROP;
+
+  CREATE TEMP TABLE inventory_import_staging (
+    row_no BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    parse_error TEXT,
+    object_id TEXT,
+    object_kiwi_id TEXT,
+    object_name TEXT,
+    object_category TEXT,
+    nickname TEXT,
+    serial_number TEXT,
+    condition_status TEXT,
+    metadata TEXT,
+    house_location_leaf_id TEXT,
+    notes TEXT
+  ) ON COMMIT DROP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Validates every staged row, then imports the valid ones. With
+-- p_skip_invalid = FALSE a single rejected row means nothing is written.
+-- Rows may reference an object by objectId or by objectKiwiId; an unknown
+-- objectKiwiId is registered locally when the row carries objectName.
+-- Rejections stay readable through api_list_inventory_import_errors() until
+-- the transaction ends.
+CREATE OR REPLACE FUNCTION api_import_inventory_items(
+  p_user_id UUID,
+  p_moved_by TEXT DEFAULT NULL,
+  p_skip_invalid BOOLEAN DEFAULT FALSE
+)
+RETURNS TABLE (
+  imported_count INT,
+  rejected_count INT,
+  house_ids UUID[]
+) AS $$
+DECLARE
+  v_uuid CONSTANT TEXT := '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$';
+  v_imported INT;
+  v_rejected INT;
+  v_house_ids UUID[];
+BEGIN
+  IF p_user_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id is required';
+  END IF;
+  IF to_regclass('pg_temp.inventory_import_staging') IS NULL THEN
+    RAISE EXCEPTION 'api_begin_inventory_import() must run first in the same transaction';
+  END IF;
+
+  -- NDJSON lines use the REST API field names.
+  INSERT INTO inventory_import_staging (
+    row_no,
+    parse_error,
+    object_id,
+    object_kiwi_id,
+    object_name,
+    object_category,
+    nickname,
+    serial_number,
+    condition_status,
+    metadata,
+    house_location_leaf_id,
+    notes
+  )
+  SELECT
+    l.row_no,
+    CASE
+      WHEN d.doc IS NULL THEN 'line is not valid JSON'
+      WHEN jsonb_typeof(d.doc) <> 'object' THEN 'line must be a JSON object'
+    END,
+    d.doc ->> 'objectId',
+    d.doc ->> 'objectKiwiId',
+    d.doc ->> 'objectName',
+    d.doc ->> 'objectCategory',
+    d.doc ->> 'nickname',
+    d.doc ->> 'serialNumber',
+    d.doc ->> 'conditionStatus',
+    (d.doc -> 'metadata')::TEXT,
+    d.doc ->> 'houseLocationLeafId',
+    d.doc ->> 'notes'
+  FROM inventory_import_lines l
+  CROSS JOIN LATERAL (SELECT fn_import_try_jsonb(l.doc) AS doc) d;
+
+  CREATE TEMP TABLE inventory_import_rows ON COMMIT DROP AS
+  SELECT
+    t.row_no,
+    CASE
+      WHEN t.parse_error IS NOT NULL THEN t.parse_error
+      WHEN t.object_id IS NULL AND t.object_kiwi_id IS NULL THEN 'objectId or objectKiwiId is required'
+      WHEN t.object_id IS NOT NULL AND t.object_id !~ v_uuid THEN 'objectId is not a valid UUID'
+      WHEN t.object_kiwi_id IS NOT NULL AND t.object_kiwi_id !~ v_uuid THEN 'objectKiwiId is not a valid UUID'
+      WHEN t.house_location_leaf_id IS NOT NULL AND t.house_location_leaf_id !~ v_uuid
+        THEN 'houseLocationLeafId is not a valid UUID'
+      WHEN t.condition_status IS NOT NULL
+        AND NOT (t.condition_status = ANY(enum_range(NULL::inventory_item_status)::TEXT[]))
+        THEN 'conditionStatus is not valid: ' || t.condition_status
+      WHEN t.metadata IS NOT NULL AND COALESCE(jsonb_typeof(m.metadata), 'invalid') NOT IN ('object', 'null')
+        THEN 'metadata must be a JSON object'
+    END AS error_message,
+    CASE WHEN t.object_id ~ v_uuid THEN t.object_id::UUID END AS object_id,
+    CASE WHEN t.object_kiwi_id ~ v_uuid THEN t.object_kiwi_id::UUID END AS object_kiwi_id,
+    t.object_name,
+    t.object_category,
+    t.nickname,
+    t.serial_number,
+    CASE
+      WHEN t.condition_status = ANY(enum_range(NULL::inventory_item_status)::TEXT[])
+        THEN t.condition_status::inventory_item_status
+    END AS condition_status,
+    CASE WHEN jsonb_typeof(m.metadata) = 'object' THEN m.metadata END AS metadata,
+    CASE WHEN t.house_location_leaf_id ~ v_uuid THEN t.house_location_leaf_id::UUID END AS house_location_leaf_id,
+    NULL::UUID AS house_id,
+    t.notes,
+    gen_random_uuid() AS inventory_item_id
+  FROM (
+    SELECT
+      s.row_no,
+      s.parse_error,
+      NULLIF(btrim(s.object_id), '') AS object_id,
+      NULLIF(btrim(s.object_kiwi_id), '') AS object_kiwi_id,
+      NULLIF(btrim(s.object_name), '') AS object_name,
+      NULLIF(btrim(s.object_category), '') AS object_category,
+      NULLIF(btrim(s.nickname), '') AS nickname,
+      NULLIF(btrim(s.serial_number), '') AS serial_number,
+      lower(NULLIF(btrim(s.condition_status), '')) AS condition_status,
+      NULLIF(btrim(s.metadata), '') AS metadata,
+      NULLIF(btrim(s.house_location_leaf_id), '') AS house_location_leaf_id,
+      NULLIF(btrim(s.notes), '') AS notes
+    FROM inventory_import_staging s
+  ) t
+  CROSS JOIN LATERAL (SELECT fn_import_try_jsonb(t.metadata) AS metadata) m;
+
+  -- objectId wins over objectKiwiId when both are present.
+  UPDATE inventory_import_rows r
+     SET error_message = 'objectId not found'
+   WHERE r.error_message IS NULL
+     AND r.object_id IS NOT NULL
+     AND NOT EXISTS (
+       SELECT 1
+       FROM objects o
+       WHERE o.object_id = r.object_id
+         AND o.enabled = TRUE
+     );
+
+  UPDATE inventory_import_rows r
+     SET object_id = o.object_id,
+         error_message = CASE WHEN o.enabled THEN NULL ELSE 'objectKiwiId references a disabled object' END
+    FROM objects o
+   WHERE r.error_message IS NULL
+     AND r.object_id IS NULL
+     AND o.object_kiwi_id = r.object_kiwi_id;
+
+  UPDATE inventory_import_rows r
+     SET error_message = 'objectKiwiId is unknown; objectName is required to register it'
+   WHERE r.error_message IS NULL
+     AND r.object_id IS NULL
+     AND r.object_name IS NULL;
+
+  UPDATE inventory_import_rows r
+     SET house_id = hl.house_id
+    FROM house_locations hl
+   WHERE r.error_message IS NULL
+     AND hl.house_location_id = r.house_location_leaf_id
+     AND hl.is_leaf = TRUE
+     AND hl.enabled = TRUE;
+
+  UPDATE inventory_import_rows r
+     SET error_message = 'houseLocationLeafId must reference an enabled leaf location'
+   WHERE r.error_message IS NULL
+     AND r.house_location_leaf_id IS NOT NULL
+     AND r.house_id IS NULL;
+
+  UPDATE inventory_import_rows r
+     SET error_message = 'user is not a member of the location house'
+   WHERE r.error_message IS NULL
+     AND r.house_id IS NOT NULL
+     AND NOT EXISTS (
+       SELECT 1
+       FROM house_members hm
+       WHERE hm.user_id = p_user_id
+         AND hm.house_id = r.house_id
+         AND hm.enabled = TRUE
+     );
+
+  UPDATE inventory_import_rows r
+     SET error_message = 'serialNumber is repeated in the import'
+    FROM (
+      SELECT
+        x.row_no,
+        row_number() OVER (PARTITION BY x.serial_number ORDER BY x.row_no) AS occurrence
+      FROM inventory_import_rows x
+      WHERE x.error_message IS NULL
+        AND x.serial_number IS NOT NULL
+    ) d
+   WHERE r.row_no = d.row_no
+     AND d.occurrence > 1;
+
+  UPDATE inventory_import_rows r
+     SET error_message = 'serialNumber already exists'
+   WHERE r.error_message IS NULL
+     AND r.serial_number IS NOT NULL
+     AND EXISTS (
+       SELECT 1
+       FROM inventory_items ii
+       WHERE ii.user_id = p_user_id
+         AND ii.serial_number = r.serial_number
+     );
+
+  SELECT count(*)::INT
+    INTO v_rejected
+  FROM inventory_import_rows r
+  WHERE r.error_message IS NOT NULL;
+
+  IF v_rejected > 0 AND NOT COALESCE(p_skip_invalid, FALSE) THEN
+    RETURN QUERY
+    SELECT 0, v_rejected, ARRAY[]::UUID[];
+    RETURN;
+  END IF;
+
+  -- Register unknown Kiwi objects once per objectKiwiId (first row wins).
+  INSERT INTO objects (
+    object_kiwi_id,
+    name,
+    category,
+    enabled
+  )
+  SELECT DISTINCT ON (r.object_kiwi_id)
+    r.object_kiwi_id,
+    r.object_name,
+    r.object_category,
+    TRUE
+  FROM inventory_import_rows r
+  WHERE r.error_message IS NULL
+    AND r.object_id IS NULL
+  ORDER BY r.object_kiwi_id, r.row_no
+  ON CONFLICT (object_kiwi_id) DO NOTHING;
+
+  UPDATE inventory_import_rows r
+     SET object_id = o.object_id
+    FROM objects o
+   WHERE r.error_message IS NULL
+     AND r.object_id IS NULL
+     AND o.object_kiwi_id = r.object_kiwi_id;
+
+  INSERT INTO inventory_items (
+    inventory_item_id,
+    user_id,
+    object_id,
+    nickname,
+    serial_number,
+    condition_status,
+    metadata,
+    enabled
+  )
+  SELECT
+    r.inventory_item_id,
+    p_user_id,
+    r.object_id,
+    r.nickname,
+    r.serial_number,
+    COALESCE(r.condition_status, 'active'),
+    COALESCE(r.metadata, '{}'::jsonb),
+    TRUE
+  FROM inventory_import_rows r
+  WHERE r.error_message IS NULL
+  ORDER BY r.row_no;
+
+  GET DIAGNOSTICS v_imported = ROW_COUNT;
+
+  -- New items have no history, so no per-item advisory lock is needed here.
+  INSERT INTO item_current_location (
+    inventory_item_id,
+    house_location_leaf_id,
+    assigned_at,
+    is_current,
+    enabled
+  )
+  SELECT
+    r.inventory_item_id,
+    r.house_location_leaf_id,
+    now(),
+    TRUE,
+    TRUE
+  FROM inventory_import_rows r
+  WHERE r.error_message IS NULL
+    AND r.house_location_leaf_id IS NOT NULL;
+
+  INSERT INTO item_movements (
+    inventory_item_id,
+    from_house_location_leaf_id,
+    to_house_location_leaf_id,
+    movement_reason,
+    moved_by,
+    moved_at,
+    notes,
+    enabled
+  )
+  SELECT
+    r.inventory_item_id,
+    NULL,
+    r.house_location_leaf_id,
+    'initial_assignment',
+    p_moved_by,
+    now(),
+    r.notes,
+    TRUE
+  FROM inventory_import_rows r
+  WHERE r.error_message IS NULL
+    AND r.house_location_leaf_id IS NOT NULL;
+
+  SELECT COALESCE(array_agg(DISTINCT r.house_id), ARRAY[]::UUID[])
+    INTO v_house_ids
+  FROM inventory_import_rows r
+  WHERE r.error_message IS NULL
+    AND r.house_id IS NOT NULL;
+
+  RETURN QUERY
+  SELECT v_imported, v_rejected, v_house_ids;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION api_list_inventory_import_errors(
+  p_limit INT DEFAULT 100
+)
+RETURNS TABLE (
+  row_no BIGINT,
+  error_message TEXT
+) AS $$
+BEGIN
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+  IF to_regclass('pg_temp.inventory_import_rows') IS NULL THEN
+    RETURN;
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    r.row_no,
+    r.error_message
+  FROM inventory_import_rows r
+  WHERE r.error_message IS NOT NULL
+  ORDER BY r.row_no
+  LIMIT p_limit;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
@@ -0,0 +1,53 @@
+BEGIN;
+
+-- Full inventory export for one user, optionally limited to one house. It is
+-- a plain SQL function on purpose: the planner inlines it, so a client cursor
+-- (fetch size + autocommit off) streams rows straight off the
+-- (user_id, item_updated_at, inventory_item_id) index. A plpgsql RETURN QUERY
+-- would materialize the whole result server-side before the first fetch.
+-- Columns mirror the bulk import fields (V27) plus the read-only context.
+CREATE OR REPLACE FUNCTION api_export_inventory_items(
+  p_user_id UUID,
+  p_house_id UUID DEFAULT NULL
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  object_id UUID,
+  object_kiwi_id UUID,
+  object_name TEXT,
+  object_category TEXT,
+  nickname TEXT,
+  serial_number TEXT,
+  condition_status TEXT,
+  metadata TEXT,
+  house_id UUID,
+  house_name TEXT,
+  house_location_leaf_id UUID,
+  house_location_path TEXT,
+  updated_at TIMESTAMPTZ
+) AS $$
+  SELECT
+    v.inventory_item_id,
+    v.object_id,
+    v.object_kiwi_id,
+    v.object_name,
+    v.object_category,
+    v.nickname,
+    v.serial_number,
+    ii.condition_status::TEXT,
+    ii.metadata::TEXT,
+    v.house_id,
+    v.house_name,
+    v.house_location_leaf_id,
+    v.house_location_path,
+    v.item_updated_at
+  FROM inventory_search_view v
+  INNER JOIN inventory_items ii
+    ON ii.inventory_item_id = v.inventory_item_id
+  WHERE v.user_id = p_user_id
+    AND v.visible = TRUE
+    AND (p_house_id IS NULL OR v.house_id = p_house_id)
+  ORDER BY v.item_updated_at DESC, v.inventory_item_id DESC;
+$$ LANGUAGE sql STABLE;
+
+COMMIT;
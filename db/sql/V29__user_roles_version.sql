@@ -0,0 +1,48 @@
+BEGIN;
+
+-- Monotonic counter of a user's effective role set. The backend caches role
+-- names per (user_id, roles_version), so any grant, revoke or role status
+-- change made from SQL, housedb-tools or another instance invalidates the
+-- cached set on the next read of the user row.
+ALTER TABLE users
+  ADD COLUMN IF NOT EXISTS roles_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION trg_user_roles_bump_version()
+RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP IN ('INSERT', 'UPDATE') THEN
+    UPDATE users SET roles_version = roles_version + 1 WHERE id = NEW.user_fk;
+  END IF;
+  IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.user_fk IS DISTINCT FROM NEW.user_fk) THEN
+    UPDATE users SET roles_version = roles_version + 1 WHERE id = OLD.user_fk;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_roles_bump_user_roles_version()
+RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE users u
+  SET roles_version = u.roles_version + 1
+  FROM user_roles ur
+  WHERE ur.role_fk = NEW.id
+    AND ur.user_fk = u.id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_user_roles_bump_version ON user_roles;
+CREATE TRIGGER trg_user_roles_bump_version
+AFTER INSERT OR UPDATE OR DELETE ON user_roles
+FOR EACH ROW
+EXECUTE FUNCTION trg_user_roles_bump_version();
+
+DROP TRIGGER IF EXISTS trg_roles_bump_user_roles_version ON roles;
+CREATE TRIGGER trg_roles_bump_user_roles_version
+AFTER UPDATE OF name, status ON roles
+FOR EACH ROW
+WHEN (OLD.name IS DISTINCT FROM NEW.name OR OLD.status IS DISTINCT FROM NEW.status)
+EXECUTE FUNCTION trg_roles_bump_user_roles_version();
+
+COMMIT;
@@ -0,0 +1,315 @@
+BEGIN;
+
+-- Transactional outbox for Kiwi writes. Creating an inventory item or a house
+-- location commits the local rows with a NULL Kiwi id together with one
+-- kiwi_outbox row; the backend dispatcher later creates the Kiwi entity and
+-- attaches its id with api_complete_kiwi_outbox(). Delivery is at-least-once:
+-- a crash between Kiwi answering and the completion commit replays the call.
+--
+-- depends_on_house_location_id is the house location whose Kiwi location must
+-- exist before the entry can be sent (the item's leaf, the location's parent).
+-- Entries are claimed only once it has a kiwi_location_id, so a location and
+-- the items created under it before it reached Kiwi go out in order.
+CREATE TABLE IF NOT EXISTS kiwi_outbox (
+  id BIGSERIAL PRIMARY KEY,
+  operation TEXT NOT NULL,
+  aggregate_id UUID NOT NULL,
+  depends_on_house_location_id UUID REFERENCES house_locations(house_location_id) ON DELETE CASCADE,
+  payload JSONB NOT NULL DEFAULT '{}'::jsonb,
+  status TEXT NOT NULL DEFAULT 'pending',
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  locked_until TIMESTAMPTZ,
+  last_error TEXT,
+  kiwi_id UUID,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  CONSTRAINT chk_kiwi_outbox_operation CHECK (operation IN ('create_object', 'create_location')),
+  CONSTRAINT chk_kiwi_outbox_status CHECK (status IN ('pending', 'done', 'failed')),
+  CONSTRAINT uq_kiwi_outbox_operation_aggregate UNIQUE (operation, aggregate_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_kiwi_outbox_pending
+ON kiwi_outbox(next_attempt_at, id)
+WHERE status = 'pending';
+
+-- Done entries are kept as a record of what was sent; the backlog gauge only
+-- reads the rest.
+CREATE INDEX IF NOT EXISTS idx_kiwi_outbox_open
+ON kiwi_outbox(status, created_at)
+WHERE status <> 'done';
+
+CREATE INDEX IF NOT EXISTS idx_kiwi_outbox_depends_on
+ON kiwi_outbox(depends_on_house_location_id)
+WHERE depends_on_house_location_id IS NOT NULL;
+
+DROP TRIGGER IF EXISTS trg_kiwi_outbox_set_updated_at ON kiwi_outbox;
+CREATE TRIGGER trg_kiwi_outbox_set_updated_at
+BEFORE UPDATE ON kiwi_outbox
+FOR EACH ROW
+EXECUTE FUNCTION trg_set_updated_at();
+
+-- A location that has no Kiwi id and no outbox entry of its own (rows synced
+-- before the outbox existed and never linked) can never satisfy a dependency.
+CREATE OR REPLACE FUNCTION fn_kiwi_location_linked_or_pending(p_house_location_id UUID)
+RETURNS BOOLEAN AS $$
+  SELECT EXISTS (
+    SELECT 1
+    FROM house_locations hl
+    WHERE hl.house_location_id = p_house_location_id
+      AND hl.kiwi_location_id IS NOT NULL
+  ) OR EXISTS (
+    SELECT 1
+    FROM kiwi_outbox o
+    WHERE o.operation = 'create_location'
+      AND o.aggregate_id = p_house_location_id
+      AND o.status = 'pending'
+  );
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION api_create_inventory_item_pending_kiwi(
+  p_user_id UUID,
+  p_object_id UUID,
+  p_object_name TEXT,
+  p_object_description TEXT DEFAULT NULL,
+  p_object_category TEXT DEFAULT NULL,
+  p_nickname TEXT DEFAULT NULL,
+  p_serial_number TEXT DEFAULT NULL,
+  p_condition_status inventory_item_status DEFAULT 'active',
+  p_metadata JSONB DEFAULT '{}'::jsonb,
+  p_house_location_leaf_id UUID DEFAULT NULL,
+  p_moved_by TEXT DEFAULT NULL,
+  p_notes TEXT DEFAULT NULL,
+  p_kiwi_payload JSONB DEFAULT '{}'::jsonb
+)
+RETURNS TABLE (
+  inventory_item_id UUID,
+  item_movement_id UUID
+) AS $$
+DECLARE
+  v_inventory_item_id UUID;
+  v_item_movement_id UUID;
+BEGIN
+  IF p_user_id IS NULL OR p_object_id IS NULL OR p_house_location_leaf_id IS NULL THEN
+    RAISE EXCEPTION 'p_user_id, p_object_id and p_house_location_leaf_id are required';
+  END IF;
+
+  INSERT INTO objects (
+    object_id,
+    name,
+    description,
+    category,
+    enabled
+  ) VALUES (
+    p_object_id,
+    COALESCE(NULLIF(btrim(p_object_name), ''), 'unnamed-object'),
+    NULLIF(btrim(p_object_description), ''),
+    NULLIF(btrim(p_object_category), ''),
+    TRUE
+  );
+
+  SELECT c.inventory_item_id, c.item_movement_id
+    INTO v_inventory_item_id, v_item_movement_id
+  FROM api_create_inventory_item(
+    p_user_id,
+    p_object_id,
+    p_nickname,
+    p_serial_number,
+    p_condition_status,
+    p_metadata,
+    p_house_location_leaf_id,
+    p_moved_by,
+    p_notes
+  ) c;
+
+  INSERT INTO kiwi_outbox (
+    operation,
+    aggregate_id,
+    depends_on_house_location_id,
+    payload
+  ) VALUES (
+    'create_object',
+    p_object_id,
+    p_house_location_leaf_id,
+    COALESCE(p_kiwi_payload, '{}'::jsonb)
+  );
+
+  RETURN QUERY SELECT v_inventory_item_id, v_item_movement_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Without a parent the Kiwi location goes under the house's first root, as
+-- the synchronous path did; if that root can never reach Kiwi it goes to the
+-- top level instead.
+CREATE OR REPLACE FUNCTION api_create_house_location_pending_kiwi(
+  p_house_id UUID,
+  p_parent_house_location_id UUID DEFAULT NULL,
+  p_location_kind location_kind DEFAULT 'slot',
+  p_name TEXT DEFAULT NULL,
+  p_is_leaf BOOLEAN DEFAULT FALSE,
+  p_path TEXT DEFAULT NULL,
+  p_reference_code TEXT DEFAULT NULL,
+  p_notes TEXT DEFAULT NULL,
+  p_latitude NUMERIC DEFAULT NULL,
+  p_longitude NUMERIC DEFAULT NULL,
+  p_enabled BOOLEAN DEFAULT TRUE
+)
+RETURNS UUID AS $$
+DECLARE
+  v_house_location_id UUID;
+  v_depends_on UUID;
+  v_name TEXT;
+BEGIN
+  IF p_house_id IS NULL THEN
+    RAISE EXCEPTION 'p_house_id is required';
+  END IF;
+
+  IF p_parent_house_location_id IS NOT NULL THEN
+    v_depends_on := p_parent_house_location_id;
+  ELSE
+    SELECT hl.house_location_id
+      INTO v_depends_on
+    FROM house_locations hl
+    WHERE hl.house_id = p_house_id
+      AND hl.parent_house_location_id IS NULL
+      AND hl.enabled = TRUE
+    ORDER BY hl.created_at ASC
+    LIMIT 1;
+
+    IF v_depends_on IS NOT NULL AND NOT fn_kiwi_location_linked_or_pending(v_depends_on) THEN
+      v_depends_on := NULL;
+    END IF;
+  END IF;
+
+  v_name := COALESCE(NULLIF(btrim(p_name), ''), 'unnamed-location');
+
+  INSERT INTO house_locations (
+    house_id,
+    parent_house_location_id,
+    location_kind,
+    name,
+    path,
+    latitude,
+    longitude,
+    reference_code,
+    is_leaf,
+    notes,
+    enabled
+  ) VALUES (
+    p_house_id,
+    p_parent_house_location_id,
+    COALESCE(p_location_kind, 'slot'),
+    v_name,
+    NULLIF(btrim(p_path), ''),
+    p_latitude,
+    p_longitude,
+    NULLIF(btrim(p_reference_code), ''),
+    COALESCE(p_is_leaf, FALSE),
+    NULLIF(btrim(p_notes), ''),
+    COALESCE(p_enabled, TRUE)
+  )
+  RETURNING house_locations.house_location_id INTO v_house_location_id;
+
+  INSERT INTO kiwi_outbox (
+    operation,
+    aggregate_id,
+    depends_on_house_location_id,
+    payload
+  ) VALUES (
+    'create_location',
+    v_house_location_id,
+    v_depends_on,
+    jsonb_build_object('name', v_name)
+  );
+
+  RETURN v_house_location_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Claims up to p_limit due entries whose dependency already has a Kiwi id and
+-- leases them for p_lease_seconds. The claim commits on its own; the lease,
+-- not the row lock, keeps other dispatchers away while the Kiwi call runs,
+-- and an entry whose dispatcher died is claimed again once it expires.
+CREATE OR REPLACE FUNCTION api_claim_kiwi_outbox(
+  p_limit INT,
+  p_lease_seconds INT
+)
+RETURNS TABLE (
+  outbox_id BIGINT,
+  operation TEXT,
+  aggregate_id UUID,
+  payload JSONB,
+  attempts INT,
+  depends_on_kiwi_location_id UUID
+) AS $$
+  WITH claimable AS (
+    SELECT o.id,
+           hl.kiwi_location_id
+    FROM kiwi_outbox o
+    LEFT JOIN house_locations hl
+      ON hl.house_location_id = o.depends_on_house_location_id
+    WHERE o.status = 'pending'
+      AND o.next_attempt_at <= now()
+      AND (o.locked_until IS NULL OR o.locked_until <= now())
+      AND (o.depends_on_house_location_id IS NULL OR hl.kiwi_location_id IS NOT NULL)
+    ORDER BY o.next_attempt_at, o.id
+    LIMIT GREATEST(COALESCE(p_limit, 1), 1)
+    FOR UPDATE OF o SKIP LOCKED
+  )
+  UPDATE kiwi_outbox o
+  SET locked_until = now() + make_interval(secs => GREATEST(COALESCE(p_lease_seconds, 60), 1)),
+      attempts = o.attempts + 1
+  FROM claimable c
+  WHERE o.id = c.id
+  RETURNING o.id, o.operation, o.aggregate_id, o.payload, o.attempts, c.kiwi_location_id;
+$$ LANGUAGE sql;
+
+-- Attaches the Kiwi id to the local row and marks the entry done. A row that
+-- already has a Kiwi id (linked by another path meanwhile) is left as it is.
+CREATE OR REPLACE FUNCTION api_complete_kiwi_outbox(
+  p_outbox_id BIGINT,
+  p_kiwi_id UUID,
+  p_kiwi_parent_location_id UUID DEFAULT NULL
+)
+RETURNS VOID AS $$
+DECLARE
+  v_operation TEXT;
+  v_aggregate_id UUID;
+BEGIN
+  IF p_outbox_id IS NULL OR p_kiwi_id IS NULL THEN
+    RAISE EXCEPTION 'p_outbox_id and p_kiwi_id are required';
+  END IF;
+
+  SELECT o.operation, o.aggregate_id
+    INTO v_operation, v_aggregate_id
+  FROM kiwi_outbox o
+  WHERE o.id = p_outbox_id
+  FOR UPDATE;
+
+  IF v_operation IS NULL THEN
+    RAISE EXCEPTION 'kiwi outbox entry % does not exist', p_outbox_id;
+  END IF;
+
+  IF v_operation = 'create_object' THEN
+    UPDATE objects
+    SET object_kiwi_id = p_kiwi_id
+    WHERE objects.object_id = v_aggregate_id
+      AND objects.object_kiwi_id IS NULL;
+  ELSE
+    UPDATE house_locations
+    SET kiwi_location_id = p_kiwi_id,
+        kiwi_parent_location_id = p_kiwi_parent_location_id
+    WHERE house_locations.house_location_id = v_aggregate_id
+      AND house_locations.kiwi_location_id IS NULL;
+  END IF;
+
+  UPDATE kiwi_outbox
+  SET status = 'done',
+      kiwi_id = p_kiwi_id,
+      locked_until = NULL,
+      last_error = NULL
+  WHERE id = p_outbox_id;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
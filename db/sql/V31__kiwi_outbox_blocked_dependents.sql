@@ -0,0 +1,165 @@
+BEGIN;
+
+-- A failed create_location entry used to leave every entry that depends on
+-- it (items placed in the location, child locations and everything under
+-- them) pending forever: they are only claimed once the location has a Kiwi
+-- id. Failing an entry now fails those dependents with it as "blocked",
+-- pointing at the entry that actually failed through blocked_by_outbox_id,
+-- and api_requeue_kiwi_outbox() puts the whole group back to pending.
+ALTER TABLE kiwi_outbox
+  ADD COLUMN IF NOT EXISTS blocked_by_outbox_id BIGINT REFERENCES kiwi_outbox(id) ON DELETE SET NULL;
+
+CREATE INDEX IF NOT EXISTS idx_kiwi_outbox_blocked_by
+ON kiwi_outbox(blocked_by_outbox_id)
+WHERE blocked_by_outbox_id IS NOT NULL;
+
+-- The root of the failed group that a dependency on p_house_location_id
+-- would join, or NULL if the location is linked or its entry has not failed.
+CREATE OR REPLACE FUNCTION fn_kiwi_outbox_failed_dependency_root(p_house_location_id UUID)
+RETURNS BIGINT AS $$
+  SELECT COALESCE(o.blocked_by_outbox_id, o.id)
+  FROM kiwi_outbox o
+  JOIN house_locations hl
+    ON hl.house_location_id = o.aggregate_id
+  WHERE o.operation = 'create_location'
+    AND o.aggregate_id = p_house_location_id
+    AND o.status = 'failed'
+    AND hl.kiwi_location_id IS NULL;
+$$ LANGUAGE sql STABLE;
+
+-- Entries queued after their location already failed (an item created in it
+-- while it was still not linked) join the failed group right away.
+CREATE OR REPLACE FUNCTION trg_kiwi_outbox_block_on_failed_dependency()
+RETURNS TRIGGER AS $$
+DECLARE
+  v_root BIGINT;
+BEGIN
+  IF NEW.status = 'pending' AND NEW.depends_on_house_location_id IS NOT NULL THEN
+    v_root := fn_kiwi_outbox_failed_dependency_root(NEW.depends_on_house_location_id);
+    IF v_root IS NOT NULL THEN
+      NEW.status := 'failed';
+      NEW.blocked_by_outbox_id := v_root;
+      NEW.last_error := 'blocked by failed kiwi outbox entry ' || v_root;
+    END IF;
+  END IF;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_kiwi_outbox_block_on_failed_dependency ON kiwi_outbox;
+CREATE TRIGGER trg_kiwi_outbox_block_on_failed_dependency
+BEFORE INSERT ON kiwi_outbox
+FOR EACH ROW
+EXECUTE FUNCTION trg_kiwi_outbox_block_on_failed_dependency();
+
+-- Fails a pending entry. For a create_location entry the pending entries that
+-- wait on it, directly or through pending child locations, are failed too as
+-- blocked by it. Returns how many dependents were blocked.
+CREATE OR REPLACE FUNCTION api_fail_kiwi_outbox(
+  p_outbox_id BIGINT,
+  p_error TEXT
+)
+RETURNS INT AS $$
+DECLARE
+  v_operation TEXT;
+  v_aggregate_id UUID;
+  v_blocked INT := 0;
+BEGIN
+  UPDATE kiwi_outbox
+  SET status = 'failed',
+      locked_until = NULL,
+      last_error = p_error
+  WHERE id = p_outbox_id
+    AND status = 'pending'
+  RETURNING operation, aggregate_id INTO v_operation, v_aggregate_id;
+
+  IF v_operation IS DISTINCT FROM 'create_location' THEN
+    RETURN 0;
+  END IF;
+
+  WITH RECURSIVE dependents AS (
+    SELECT o.id, o.operation, o.aggregate_id
+    FROM kiwi_outbox o
+    WHERE o.depends_on_house_location_id = v_aggregate_id
+      AND o.status = 'pending'
+    UNION
+    SELECT o.id, o.operation, o.aggregate_id
+    FROM dependents d
+    JOIN kiwi_outbox o
+      ON o.depends_on_house_location_id = d.aggregate_id
+    WHERE d.operation = 'create_location'
+      AND o.status = 'pending'
+  )
+  UPDATE kiwi_outbox o
+  SET status = 'failed',
+      locked_until = NULL,
+      blocked_by_outbox_id = p_outbox_id,
+      last_error = 'blocked by failed kiwi outbox entry ' || p_outbox_id
+  FROM dependents d
+  WHERE o.id = d.id
+    AND NOT EXISTS (
+      SELECT 1
+      FROM house_locations hl
+      WHERE hl.house_location_id = v_aggregate_id
+        AND hl.kiwi_location_id IS NOT NULL
+    );
+
+  GET DIAGNOSTICS v_blocked = ROW_COUNT;
+  RETURN v_blocked;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Puts a failed entry back to pending with fresh attempts, together with
+-- every entry of its group (p_outbox_id may be the failed entry or any entry
+-- blocked by it). If the group's root itself waits on a location whose entry
+-- failed, the group is folded into that entry's group and the whole chain is
+-- requeued from the top. Returns how many entries were requeued.
+CREATE OR REPLACE FUNCTION api_requeue_kiwi_outbox(p_outbox_id BIGINT)
+RETURNS INT AS $$
+DECLARE
+  v_root BIGINT;
+  v_upstream BIGINT;
+  v_requeued INT := 0;
+BEGIN
+  SELECT COALESCE(o.blocked_by_outbox_id, o.id)
+    INTO v_root
+  FROM kiwi_outbox o
+  WHERE o.id = p_outbox_id
+    AND o.status = 'failed';
+
+  IF v_root IS NULL THEN
+    RETURN 0;
+  END IF;
+
+  LOOP
+    SELECT fn_kiwi_outbox_failed_dependency_root(o.depends_on_house_location_id)
+      INTO v_upstream
+    FROM kiwi_outbox o
+    WHERE o.id = v_root;
+
+    EXIT WHEN v_upstream IS NULL;
+
+    UPDATE kiwi_outbox
+    SET blocked_by_outbox_id = v_upstream
+    WHERE status = 'failed'
+      AND (id = v_root OR blocked_by_outbox_id = v_root);
+
+    v_root := v_upstream;
+  END LOOP;
+
+  UPDATE kiwi_outbox
+  SET status = 'pending',
+      attempts = 0,
+      next_attempt_at = now(),
+      locked_until = NULL,
+      last_error = NULL,
+      blocked_by_outbox_id = NULL
+  WHERE status = 'failed'
+    AND (id = v_root OR blocked_by_outbox_id = v_root);
+
+  GET DIAGNOSTICS v_requeued = ROW_COUNT;
+  RETURN v_requeued;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
@@ -0,0 +1,60 @@
+BEGIN;
+
+-- The offset timeline ordered by moved_at alone, so movements sharing a
+-- timestamp (bulk moves, imports) could come back in a different order on each
+-- page and be skipped or repeated. Use the same (moved_at, item_movement_id)
+-- order as api_inventory_item_timeline_after(), which also lets both functions
+-- walk idx_item_movements_item_moved_at_keyset.
+CREATE OR REPLACE FUNCTION api_inventory_item_timeline(
+  p_inventory_item_id UUID,
+  p_limit INT DEFAULT 100,
+  p_offset INT DEFAULT 0
+)
+RETURNS TABLE (
+  item_movement_id UUID,
+  inventory_item_id UUID,
+  movement_reason TEXT,
+  moved_by TEXT,
+  moved_at TIMESTAMPTZ,
+  from_house_location_leaf_id UUID,
+  from_house_location_path TEXT,
+  to_house_location_leaf_id UUID,
+  to_house_location_path TEXT,
+  notes TEXT
+) AS $$
+BEGIN
+  IF p_inventory_item_id IS NULL THEN
+    RAISE EXCEPTION 'p_inventory_item_id is required';
+  END IF;
+  IF p_limit IS NULL OR p_limit < 1 THEN
+    RAISE EXCEPTION 'p_limit must be >= 1';
+  END IF;
+  IF p_offset IS NULL OR p_offset < 0 THEN
+    RAISE EXCEPTION 'p_offset must be >= 0';
+  END IF;
+
+  RETURN QUERY
+  SELECT
+    im.item_movement_id,
+    im.inventory_item_id,
+    im.movement_reason,
+    im.moved_by,
+    im.moved_at,
+    im.from_house_location_leaf_id,
+    from_hl.path,
+    im.to_house_location_leaf_id,
+    to_hl.path,
+    im.notes
+  FROM item_movements im
+  LEFT JOIN house_locations from_hl
+    ON from_hl.house_location_id = im.from_house_location_leaf_id
+  INNER JOIN house_locations to_hl
+    ON to_hl.house_location_id = im.to_house_location_leaf_id
+  WHERE im.inventory_item_id = p_inventory_item_id
+    AND im.enabled = TRUE
+  ORDER BY im.moved_at DESC, im.item_movement_id DESC
+  LIMIT p_limit OFFSET p_offset;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
@@ -0,0 +1,43 @@
+BEGIN;
+
+-- /items/export writes a few read-only columns next to the importable ones
+-- (inventoryItemId, houseId, houseName, houseLocationPath, updatedAt). The CSV
+-- staging table now has a TEXT column for each of them so an exported file can
+-- be COPYed back as is; api_import_inventory_items() never reads them, so a
+-- re-import always creates new items placed by houseLocationLeafId.
+CREATE OR REPLACE FUNCTION api_begin_inventory_import()
+RETURNS VOID AS $$
+BEGIN
+  DROP TABLE IF EXISTS pg_temp.inventory_import_rows;
+  DROP TABLE IF EXISTS pg_temp.inventory_import_lines;
+  DROP TABLE IF EXISTS pg_temp.inventory_import_staging;
+
+  CREATE TEMP TABLE inventory_import_lines (
+    row_no BIGINT NOT NULL,
+    doc TEXT
+  ) ON COMMIT DROP;
+
+  CREATE TEMP TABLE inventory_import_staging (
+    row_no BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    parse_error TEXT,
+    object_id TEXT,
+    object_kiwi_id TEXT,
+    object_name TEXT,
+    object_category TEXT,
+    nickname TEXT,
+    serial_number TEXT,
+    condition_status TEXT,
+    metadata TEXT,
+    house_location_leaf_id TEXT,
+    notes TEXT,
+    -- Export-only, ignored.
+    inventory_item_id TEXT,
+    house_id TEXT,
+    house_name TEXT,
+    house_location_path TEXT,
+    updated_at TEXT
+  ) ON COMMIT DROP;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
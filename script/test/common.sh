@@ -53,6 +53,20 @@ api_post_json_bearer() {
   run_curl "$CURL_COMMON -X POST -H 'Authorization: Bearer $token' -H 'Content-Type: application/json' --data-binary @- \"${BASE_URL%/}${path}\" --write-out '\\n%{http_code}'"
 }
 
+api_get_bearer() {
+  token="$1"
+  path="$2"
+  run_curl "$CURL_COMMON -H 'Authorization: Bearer $token' \"${BASE_URL%/}${path}\" --write-out '\\n%{http_code}'"
+}
+
+api_post_file_bearer() {
+  token="$1"
+  path="$2"
+  content_type="$3"
+  file="$4"
+  run_curl "$CURL_COMMON -X POST -H 'Authorization: Bearer $token' -H 'Content-Type: $content_type' --data-binary @\"$file\" \"${BASE_URL%/}${path}\" --write-out '\\n%{http_code}'"
+}
+
 api_post_json() {
   path="$1"
   run_curl "$CURL_COMMON -X POST -H 'Content-Type: application/json' --data-binary @- \"${BASE_URL%/}${path}\" --write-out '\\n%{http_code}'"
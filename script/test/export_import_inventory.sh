@@ -0,0 +1,85 @@
+#!/bin/sh
+
+set -eu
+
+SOURCE_DIR="$(cd "$(dirname "$0")" && pwd)"
+. "$SOURCE_DIR/common.sh"
+
+HOUSE_ID=""
+TOKEN="${TOKEN:-}"
+
+usage() {
+  cat <<EOF >&2
+Uso: $0 -H HOUSE_ID [-u BASE_URL] -t TOKEN
+
+Exporta el inventario de la casa en CSV (/items/export), lo vuelve a importar
+sin modificar (/items/import) y verifica que cada fila exportada se importó.
+
+  -H HOUSE_ID       UUID de la casa (requerido)
+  -u BASE_URL       URL base HouseDB (default: $BASE_URL)
+  -t TOKEN          Bearer token de usuario (requerido)
+  -h                Ayuda
+EOF
+  exit 2
+}
+
+while getopts "H:u:t:h" opt; do
+  case "$opt" in
+    H) HOUSE_ID="$OPTARG" ;;
+    u) BASE_URL="$OPTARG" ;;
+    t) TOKEN="$OPTARG" ;;
+    h) usage ;;
+    *) usage ;;
+  esac
+done
+
+[ -n "$HOUSE_ID" ] || usage
+[ -n "$TOKEN" ] || usage
+
+export_file=$(mktemp)
+trap 'rm -f "$export_file"' EXIT INT TERM
+
+export_csv() {
+  response=$(api_get_bearer "$TOKEN" "/items/export?format=csv&houseId=$HOUSE_ID")
+  http_code=$(split_response "$response" | sed -n '1p')
+  body=$(split_response "$response" | sed -n '2,$p')
+  if [ "$http_code" -ge 300 ]; then
+    echo "Error HTTP $http_code al exportar inventario" >&2
+    print_json "$body" >&2
+    exit 1
+  fi
+  printf '%s\n' "$body"
+}
+
+export_csv > "$export_file"
+exported=$(tail -n +2 "$export_file" | grep -c . || true)
+if [ "$exported" -lt 1 ]; then
+  echo "Error: la exportación no trajo filas." >&2
+  exit 1
+fi
+
+response=$(api_post_file_bearer "$TOKEN" "/items/import?format=csv&movedBy=script/test/export_import_inventory.sh" text/csv "$export_file")
+http_code=$(split_response "$response" | sed -n '1p')
+body=$(split_response "$response" | sed -n '2,$p')
+if [ "$http_code" -ge 300 ]; then
+  echo "Error HTTP $http_code al importar la exportación" >&2
+  print_json "$body" >&2
+  exit 1
+fi
+
+imported=$(printf '%s' "$body" | jq -r '.importedCount')
+rejected=$(printf '%s' "$body" | jq -r '.rejectedCount')
+if [ "$imported" != "$exported" ] || [ "$rejected" != "0" ]; then
+  echo "Error: se exportaron $exported filas pero se importaron $imported (rechazadas: $rejected)" >&2
+  print_json "$body" >&2
+  exit 1
+fi
+
+reexported=$(export_csv | tail -n +2 | grep -c . || true)
+if [ "$reexported" -ne $((exported * 2)) ]; then
+  echo "Error: después de importar se esperaban $((exported * 2)) items y la exportación trae $reexported" >&2
+  exit 1
+fi
+
+jq -n --argjson exported "$exported" --argjson import "$body" --argjson itemsAfterImport "$reexported" \
+  '{exportedCount:$exported,importedCount:$import.importedCount,rejectedCount:$import.rejectedCount,itemsAfterImport:$itemsAfterImport}'
@@ -28,6 +28,7 @@ Crea flujo de prueba E2E:
 3) crea casa por API (el owner queda miembro)
 4) crea locación en DB para la casa
 5) guarda objeto en inventario por API (HouseDB crea objeto en Kiwi y lo sincroniza)
+6) exporta el inventario de la casa en CSV y lo vuelve a importar sin cambios
 
 Opciones:
   -u BASE_URL          URL base HouseDB (default: $BASE_URL)
@@ -70,12 +71,12 @@ printf 'BASE_URL: %s\n' "$BASE_URL"
 printf 'DB_URL: %s\n' "$DB_URL"
 printf 'USERNAME: %s\n' "$USERNAME"
 
-printf '\n[1/5] Creando usuario vía API securizada...\n'
+printf '\n[1/6] Creando usuario vía API securizada...\n'
 user_json=$("$SOURCE_DIR/create_user.sh" -u "$BASE_URL" -s "$JWT_SECRET" -U "$USERNAME" -P "$PASSWORD")
 USER_ID=$(printf '%s' "$user_json" | jq -r '.userId')
 printf 'user_id: %s\n' "$USER_ID"
 
-printf '\n[2/5] Autenticando usuario...\n'
+printf '\n[2/6] Autenticando usuario...\n'
 login_json=$("$SOURCE_DIR/login_user.sh" -u "$BASE_URL" -U "$USERNAME" -P "$PASSWORD")
 USER_TOKEN=$(printf '%s' "$login_json" | jq -r '.access_token')
 if [ -z "$USER_TOKEN" ] || [ "$USER_TOKEN" = "null" ]; then
@@ -83,24 +84,28 @@ if [ -z "$USER_TOKEN" ] || [ "$USER_TOKEN" = "null" ]; then
   exit 1
 fi
 
-printf '\n[3/5] Creando casa vía API...\n'
+printf '\n[3/6] Creando casa vía API...\n'
 house_json=$("$SOURCE_DIR/create_house.sh" -u "$BASE_URL" -t "$USER_TOKEN" -n "$HOUSE_NAME")
 HOUSE_ID=$(printf '%s' "$house_json" | jq -r '.houseId')
 HOUSE_MEMBER_ID=$(printf '%s' "$house_json" | jq -r '.houseMemberId')
 printf '%s\n' "$house_json" | jq .
 
-printf '\n[4/5] Creando locación en DB para la casa...\n'
+printf '\n[4/6] Creando locación en DB para la casa...\n'
 location_json=$("$SOURCE_DIR/create_house_location_db.sh" -d "$DB_URL" -H "$HOUSE_ID" -L "$LOCATION_NAME")
 HOUSE_LOCATION_ID=$(printf '%s' "$location_json" | jq -r '.houseLocationId')
 printf 'house_location_id: %s\n' "$HOUSE_LOCATION_ID"
 
-printf '\n[5/5] Guardando objeto en inventario vía API...\n'
+printf '\n[5/6] Guardando objeto en inventario vía API...\n'
 item_json=$("$SOURCE_DIR/create_inventory_item.sh" -u "$BASE_URL" -t "$USER_TOKEN" -L "$HOUSE_LOCATION_ID" -N "$ITEM_NICKNAME" -M "$OBJECT_NAME" -C "$OBJECT_CATEGORY" -D "$OBJECT_DESCRIPTION")
 INVENTORY_ITEM_ID=$(printf '%s' "$item_json" | jq -r '.inventoryItemId // empty')
 ITEM_MOVEMENT_ID=$(printf '%s' "$item_json" | jq -r '.itemMovementId // empty')
 OBJECT_ID=$(printf '%s' "$item_json" | jq -r '.objectId // empty')
 printf '%s\n' "$item_json" | jq .
 
+printf '\n[6/6] Exportando inventario en CSV y reimportándolo...\n'
+round_trip_json=$("$SOURCE_DIR/export_import_inventory.sh" -u "$BASE_URL" -t "$USER_TOKEN" -H "$HOUSE_ID")
+printf '%s\n' "$round_trip_json" | jq .
+
 printf '\n== Resumen ==\n'
 printf 'user_id: %s\n' "$USER_ID"
 printf 'house_id: %s\n' "$HOUSE_ID"